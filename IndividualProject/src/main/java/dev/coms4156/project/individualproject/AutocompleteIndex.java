@@ -0,0 +1,252 @@
+package dev.coms4156.project.individualproject;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * Represents the prefix index behind autocomplete: every department code, course ID and
+ * instructor name of the catalog, kept in sorted order so the terms starting with a prefix are
+ * one contiguous range. Completing a prefix seeks to the start of its range and reads the first
+ * few terms, so it costs a logarithmic seek plus the number of results, however many terms are
+ * indexed. Lookups ignore case, and readers never block.
+ *
+ * <p>Each term counts how many departments or courses use it, so a term is removed once its
+ * last use is. Instructor changes are applied to the index as they are published, through
+ * {@link CatalogListener}; departments and courses only come and go when the catalog is
+ * replaced, after which the index is rebuilt on its next query.
+ */
+public class AutocompleteIndex implements CatalogListener {
+
+  /** The number of completions returned when the caller does not ask for a number. */
+  public static final int DEFAULT_LIMIT = 10;
+
+  /**
+   * The kinds of terms that are indexed.
+   */
+  public enum Kind {
+    DEPARTMENT,
+    COURSE,
+    INSTRUCTOR
+  }
+
+  /**
+   * Moves a use from the old instructor of a published mutation's course to the new one, if
+   * the index was built before the mutation was published.
+   *
+   * @param mutation the mutation published
+   * @param version  the number of the version it was published in
+   * @param before   the course the mutation replaced
+   * @param after    the course it was replaced by
+   */
+  @Override
+  public void published(Mutation mutation, long version, Course before, Course after) {
+    if (mutation.getType() != Mutation.Type.COURSE_INSTRUCTOR || before == after) {
+      return;
+    }
+    long stamp = lock.readLock();
+    try {
+      if (!built || version <= builtFrom) {
+        return;
+      }
+      if (before != null) {
+        remove(Kind.INSTRUCTOR, before.getInstructorName());
+      }
+      if (after != null) {
+        add(Kind.INSTRUCTOR, after.getInstructorName());
+      }
+    } finally {
+      lock.unlockRead(stamp);
+    }
+  }
+
+  /**
+   * Discards the index so it is rebuilt from the catalog on its next query.
+   */
+  @Override
+  public void catalogReplaced() {
+    long stamp = lock.writeLock();
+    try {
+      built = false;
+      terms.clear();
+    } finally {
+      lock.unlockWrite(stamp);
+    }
+  }
+
+  /**
+   * Finds the terms starting with a prefix, building the index from the catalog first if it
+   * has not been built.
+   *
+   * @param prefix the prefix to complete, ignoring case
+   * @param limit  the maximum number of completions
+   * @param store  the engine holding the catalog
+   * @return the completions in alphabetical order, each as its kind and the term
+   */
+  public List<Completion> complete(String prefix, int limit, CatalogStore store) {
+    ensureBuilt(store);
+    return complete(prefix, limit);
+  }
+
+  /**
+   * Finds the terms starting with a prefix.
+   *
+   * @param prefix the prefix to complete, ignoring case
+   * @param limit  the maximum number of completions
+   * @return the completions in alphabetical order, each as its kind and the term
+   */
+  public List<Completion> complete(String prefix, int limit) {
+    String key = normalize(prefix);
+    ConcurrentNavigableMap<String, Term> range =
+        terms.subMap(key, true, key + Character.MAX_VALUE, false);
+    List<Completion> result = new ArrayList<>(Math.max(0, Math.min(limit, DEFAULT_LIMIT)));
+    for (Term term : range.values()) {
+      for (Kind kind : Kind.values()) {
+        if (result.size() >= limit) {
+          return result;
+        }
+        if (term.uses[kind.ordinal()] > 0) {
+          result.add(new Completion(kind, term.display));
+        }
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Adds a use of a term.
+   *
+   * @param kind  the kind of the term
+   * @param value the term, which is ignored if null or blank
+   */
+  public void add(Kind kind, String value) {
+    if (value != null && !value.isBlank()) {
+      terms.compute(normalize(value), (key, term) -> Term.adjust(term, kind, value, 1));
+    }
+  }
+
+  /**
+   * Removes a use of a term, dropping the term once it has none left.
+   *
+   * @param kind  the kind of the term
+   * @param value the term, which is ignored if null or blank
+   */
+  public void remove(Kind kind, String value) {
+    if (value != null && !value.isBlank()) {
+      terms.computeIfPresent(normalize(value), (key, term) -> Term.adjust(term, kind, value, -1));
+    }
+  }
+
+  /**
+   * Gets the number of distinct terms in the index.
+   *
+   * @return the number of indexed terms
+   */
+  public int size() {
+    return terms.size();
+  }
+
+  private void ensureBuilt(CatalogStore store) {
+    if (built) {
+      return;
+    }
+    long stamp = lock.writeLock();
+    try {
+      if (built) {
+        return;
+      }
+      CatalogVersion version = store.getVersion();
+      for (Department department : version.getDepartments().values()) {
+        add(Kind.DEPARTMENT, department.getDeptCode());
+        for (Map.Entry<String, Course> course : department.getCourseSelection().entrySet()) {
+          add(Kind.COURSE, course.getKey());
+          add(Kind.INSTRUCTOR, course.getValue().getInstructorName());
+        }
+      }
+      builtFrom = version.getNumber();
+      built = true;
+    } finally {
+      lock.unlockWrite(stamp);
+    }
+  }
+
+  private static String normalize(String value) {
+    return value.trim().toLowerCase(Locale.ROOT);
+  }
+
+  /**
+   * Represents one completion of a prefix.
+   */
+  public static final class Completion {
+
+    Completion(Kind kind, String term) {
+      this.kind = kind;
+      this.term = term;
+    }
+
+    public Kind getKind() {
+      return kind;
+    }
+
+    public String getTerm() {
+      return term;
+    }
+
+    /**
+     * Returns the completion as its kind and term, such as "instructor: Adam Cannon".
+     *
+     * @return a string representation of the completion
+     */
+    @Override
+    public String toString() {
+      return kind.name().toLowerCase(Locale.ROOT) + ": " + term;
+    }
+
+    private final Kind kind;
+    private final String term;
+  }
+
+  /**
+   * Represents an indexed term and how many times each kind uses it. Terms are never changed,
+   * so readers see a consistent term without locking.
+   */
+  private static final class Term {
+
+    private Term(String display, int[] uses) {
+      this.display = display;
+      this.uses = uses;
+    }
+
+    /**
+     * Creates the term following a change to the uses of one kind.
+     *
+     * @param term  the current term, or null if it is not indexed
+     * @param kind  the kind whose uses change
+     * @param value the term as written, shown if the term is new
+     * @param delta the change to the number of uses
+     * @return the new term, or null if it has no uses left
+     */
+    static Term adjust(Term term, Kind kind, String value, int delta) {
+      int[] uses = term != null ? term.uses.clone() : new int[Kind.values().length];
+      uses[kind.ordinal()] = Math.max(0, uses[kind.ordinal()] + delta);
+      for (int count : uses) {
+        if (count > 0) {
+          return new Term(term != null ? term.display : value.trim(), uses);
+        }
+      }
+      return null;
+    }
+
+    private final String display;
+    private final int[] uses;
+  }
+
+  private final ConcurrentSkipListMap<String, Term> terms = new ConcurrentSkipListMap<>();
+  private final StampedLock lock = new StampedLock();
+  private volatile boolean built;
+  private long builtFrom;
+}
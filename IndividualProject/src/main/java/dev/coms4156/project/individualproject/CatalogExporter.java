@@ -0,0 +1,143 @@
+package dev.coms4156.project.individualproject;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.file.Path;
+import java.util.Map;
+
+/**
+ * Writes a catalog as department and course rows, one row per line, in a format the
+ * {@link CatalogImporter} reads back. Rows are written as each department is visited and the
+ * writer is flushed after every department, so nothing larger than one row is built in memory
+ * and the first rows reach the reader before the rest are written.
+ */
+public class CatalogExporter {
+
+  private static final JsonFactory JSON = new JsonFactory();
+
+  /**
+   * Constructs a new CatalogExporter object with the given parameters.
+   *
+   * @param format the format of the rows
+   * @param output the writer the rows are written to
+   */
+  public CatalogExporter(CatalogFormat format, Writer output) {
+    this.format = format;
+    this.output = output;
+  }
+
+  /**
+   * Writes every department of a mapping. Departments are looked up one at a time, so a lazily
+   * loaded mapping is read department by department.
+   *
+   * @param mapping the mapping of department names to Department objects
+   * @return the number of rows written
+   * @throws IOException if the rows cannot be written
+   */
+  public long write(Map<String, Department> mapping) throws IOException {
+    long rows = 0;
+    for (String key : mapping.keySet()) {
+      Department department = mapping.get(key);
+      if (department != null) {
+        rows += writeDepartment(key, department);
+      }
+    }
+    return rows;
+  }
+
+  /**
+   * Writes every department of a saved database file without loading the whole catalog. When
+   * the file is segmented, one segment is read and written at a time.
+   *
+   * @param dataFile the path to the database file
+   * @return the number of rows written
+   * @throws IOException if the file cannot be read or the rows cannot be written
+   */
+  public long writeFile(Path dataFile) throws IOException {
+    if (CatalogSnapshot.readMagic(dataFile) != CatalogManifest.MAGIC) {
+      return write(CatalogSnapshot.read(dataFile));
+    }
+    Path parent = dataFile.toAbsolutePath().getParent();
+    long rows = 0;
+    for (String segment : CatalogManifest.read(dataFile).getSegments().values()) {
+      rows += write(CatalogSnapshot.read(parent.resolve(segment)));
+    }
+    return rows;
+  }
+
+  /**
+   * Writes the row of a department followed by the rows of its courses.
+   *
+   * @param key        the name of the department
+   * @param department the department to write
+   * @return the number of rows written
+   * @throws IOException if the rows cannot be written
+   */
+  public long writeDepartment(String key, Department department) throws IOException {
+    long rows = 1;
+    if (format == CatalogFormat.JSONL) {
+      try (JsonGenerator json = JSON.createGenerator(output)) {
+        json.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        json.setRootValueSeparator(null);
+        json.writeStartObject();
+        json.writeStringField("type", "department");
+        json.writeStringField("dept", key);
+        json.writeStringField("chair", department.getDepartmentChair());
+        json.writeNumberField("majors", department.getNumberOfMajors());
+        json.writeEndObject();
+        json.writeRaw('\n');
+        for (Map.Entry<String, Course> entry : department.getCourseSelection().entrySet()) {
+          Course course = entry.getValue();
+          json.writeStartObject();
+          json.writeStringField("type", "course");
+          json.writeStringField("dept", key);
+          json.writeStringField("course", entry.getKey());
+          json.writeStringField("instructor", course.getInstructorName());
+          json.writeStringField("location", course.getCourseLocation());
+          json.writeStringField("time", course.getCourseTimeSlot());
+          json.writeNumberField("capacity", course.enrollmentCapacity);
+          json.writeNumberField("enrolled", course.getEnrolledStudentCount());
+          json.writeEndObject();
+          json.writeRaw('\n');
+          rows++;
+        }
+      }
+    } else {
+      output.write("department," + csv(key) + "," + csv(department.getDepartmentChair()) + ","
+          + department.getNumberOfMajors() + "\n");
+      for (Map.Entry<String, Course> entry : department.getCourseSelection().entrySet()) {
+        Course course = entry.getValue();
+        output.write("course," + csv(key) + "," + csv(entry.getKey()) + ","
+            + csv(course.getInstructorName()) + "," + csv(course.getCourseLocation()) + ","
+            + csv(course.getCourseTimeSlot()) + "," + course.enrollmentCapacity + ","
+            + course.getEnrolledStudentCount() + "\n");
+        rows++;
+      }
+    }
+    output.flush();
+    return rows;
+  }
+
+  /**
+   * Formats a CSV field, quoting it if it contains a comma, quote or line break. A null value
+   * is written as an empty field.
+   *
+   * @param value the value of the field
+   * @return the field as written to a CSV row
+   */
+  static String csv(String value) {
+    if (value == null) {
+      return "";
+    }
+    if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0
+        && value.indexOf('\r') < 0) {
+      return value;
+    }
+    return '"' + value.replace("\"", "\"\"") + '"';
+  }
+
+  private final CatalogFormat format;
+  private final Writer output;
+}
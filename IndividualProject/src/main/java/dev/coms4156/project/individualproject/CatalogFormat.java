@@ -0,0 +1,60 @@
+package dev.coms4156.project.individualproject;
+
+/**
+ * Represents the text formats catalogs are imported from and exported to. Both formats hold one
+ * row per line: a department row with the chair and number of majors of a department, or a
+ * course row with the details of one course.
+ *
+ * <p>CSV rows start with the row type:
+ * <pre>
+ * department,COMS,Luca Carloni,2700
+ * course,COMS,1004,Adam Cannon,417 IAB,11:40-12:55,400,249
+ * </pre>
+ * JSON Lines rows name their fields:
+ * <pre>
+ * {"type":"department","dept":"COMS","chair":"Luca Carloni","majors":2700}
+ * {"type":"course","dept":"COMS","course":"1004","instructor":"Adam Cannon",
+ *  "location":"417 IAB","time":"11:40-12:55","capacity":400,"enrolled":249}
+ * </pre>
+ */
+public enum CatalogFormat {
+  CSV("text/csv"),
+  JSONL("application/x-ndjson");
+
+  CatalogFormat(String mediaType) {
+    this.mediaType = mediaType;
+  }
+
+  /**
+   * Finds the format with the given name, ignoring case.
+   *
+   * @param name the name of the format, "csv" or "jsonl"
+   * @return the format
+   * @throws IllegalArgumentException if no format has the given name
+   */
+  public static CatalogFormat fromName(String name) {
+    for (CatalogFormat format : values()) {
+      if (format.name().equalsIgnoreCase(name)) {
+        return format;
+      }
+    }
+    throw new IllegalArgumentException("Unknown catalog format: " + name);
+  }
+
+  /**
+   * Finds the format of a file from its extension, defaulting to CSV.
+   *
+   * @param fileName the name of the file
+   * @return JSONL for files ending in .jsonl or .ndjson, CSV otherwise
+   */
+  public static CatalogFormat fromFileName(String fileName) {
+    String lower = fileName.toLowerCase();
+    return lower.endsWith(".jsonl") || lower.endsWith(".ndjson") ? JSONL : CSV;
+  }
+
+  public String getMediaType() {
+    return mediaType;
+  }
+
+  private final String mediaType;
+}
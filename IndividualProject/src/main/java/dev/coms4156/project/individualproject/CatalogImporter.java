@@ -0,0 +1,366 @@
+package dev.coms4156.project.individualproject;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Imports department and course rows into a department mapping. The input is read one line at a
+ * time, so memory use grows with the catalog being built and not with the size of the input.
+ * Progress is reported every {@value #PROGRESS_INTERVAL} rows. See {@link CatalogFormat} for the
+ * row layout.
+ */
+public class CatalogImporter {
+
+  /** The number of rows between progress reports. */
+  private static final int PROGRESS_INTERVAL = 100_000;
+
+  private static final ObjectMapper JSON = new ObjectMapper();
+
+  /**
+   * Constructs a new CatalogImporter object for rows of the given format.
+   *
+   * @param format the format of the rows
+   */
+  public CatalogImporter(CatalogFormat format) {
+    this.format = format;
+  }
+
+  /**
+   * Reads every row from the input and adds it to the mapping. Course rows may come before the
+   * row of their department; the department is then created with no chair and no majors until
+   * its row is read. Departments already in the mapping may belong to a published catalog
+   * version, so they are copied before courses are added to them.
+   *
+   * @param input   the rows to import
+   * @param mapping the mapping to add departments and courses to
+   * @return the statistics of the import
+   * @throws IOException if the input cannot be read or a row is malformed
+   */
+  public Result importInto(Reader input, Map<String, Department> mapping) throws IOException {
+    return importInto(input, mapping, new HashSet<>());
+  }
+
+  /**
+   * Reads every row from the input into a mapping of its own, without touching the catalog, so
+   * the input can be read before anything is locked. The rows are added to the catalog later
+   * with {@link Staged#mergeInto(Map)}.
+   *
+   * @param input the rows to import
+   * @return the departments and courses read
+   * @throws IOException if the input cannot be read or a row is malformed
+   */
+  public Staged stage(Reader input) throws IOException {
+    HashMap<String, Department> departments = new HashMap<>();
+    Set<String> departmentRows = new HashSet<>();
+    Result result = importInto(input, departments, departmentRows);
+    return new Staged(departments, departmentRows, result);
+  }
+
+  private Result importInto(Reader input, Map<String, Department> mapping,
+      Set<String> departmentRows) throws IOException {
+    long start = System.nanoTime();
+    Runtime runtime = Runtime.getRuntime();
+    long peakHeap = runtime.totalMemory() - runtime.freeMemory();
+    long rows = 0;
+    long courses = 0;
+    int lineNumber = 0;
+    Set<Department> created = Collections.newSetFromMap(new IdentityHashMap<>());
+
+    BufferedReader reader = input instanceof BufferedReader buffered
+        ? buffered : new BufferedReader(input, 1 << 16);
+    String line;
+    while ((line = reader.readLine()) != null) {
+      lineNumber++;
+      if (line.isBlank() || line.startsWith("#")) {
+        continue;
+      }
+      try {
+        if (format == CatalogFormat.JSONL) {
+          courses += applyJson(JSON.readTree(line), mapping, created, departmentRows);
+        } else {
+          courses += applyCsv(splitCsv(line), mapping, created, departmentRows);
+        }
+      } catch (IOException | RuntimeException e) {
+        throw new IOException("Line " + lineNumber + ": " + e.getMessage(), e);
+      }
+      if (++rows % PROGRESS_INTERVAL == 0) {
+        peakHeap = Math.max(peakHeap, runtime.totalMemory() - runtime.freeMemory());
+        System.out.println("Imported " + rows + " rows");
+      }
+    }
+    peakHeap = Math.max(peakHeap, runtime.totalMemory() - runtime.freeMemory());
+    return new Result(rows, courses, mapping.size(), (System.nanoTime() - start) / 1_000_000,
+        peakHeap);
+  }
+
+  private static int applyCsv(List<String> fields, Map<String, Department> mapping,
+      Set<Department> created, Set<String> departmentRows) {
+    String type = fields.get(0);
+    if (type.equals("type")) {
+      // Header row
+      return 0;
+    }
+    if (type.equals("department")) {
+      expectFields(fields, 4);
+      putDepartment(mapping, created, fields.get(1), emptyToNull(fields.get(2)),
+          Integer.parseInt(fields.get(3).trim()));
+      departmentRows.add(fields.get(1));
+      return 0;
+    }
+    if (type.equals("course")) {
+      expectFields(fields, 8);
+      putCourse(mapping, created, fields.get(1), fields.get(2), emptyToNull(fields.get(3)),
+          emptyToNull(fields.get(4)), emptyToNull(fields.get(5)),
+          Integer.parseInt(fields.get(6).trim()), Integer.parseInt(fields.get(7).trim()));
+      return 1;
+    }
+    throw new IllegalArgumentException("Unknown row type: " + type);
+  }
+
+  private static int applyJson(JsonNode row, Map<String, Department> mapping,
+      Set<Department> created, Set<String> departmentRows) {
+    String type = row.path("type").asText();
+    if (type.equals("department")) {
+      String deptCode = required(row, "dept");
+      putDepartment(mapping, created, deptCode, text(row, "chair"), integer(row, "majors"));
+      departmentRows.add(deptCode);
+      return 0;
+    }
+    if (type.equals("course")) {
+      putCourse(mapping, created, required(row, "dept"), required(row, "course"),
+          text(row, "instructor"), text(row, "location"), text(row, "time"),
+          integer(row, "capacity"), integer(row, "enrolled"));
+      return 1;
+    }
+    throw new IllegalArgumentException("Unknown row type: " + type);
+  }
+
+  private static void putDepartment(Map<String, Department> mapping, Set<Department> created,
+      String deptCode, String chair, int majors) {
+    Department existing = mapping.get(deptCode);
+    HashMap<String, Course> courses = new HashMap<>();
+    if (existing != null) {
+      courses = created.contains(existing)
+          ? existing.getCourseSelection() : new HashMap<>(existing.getCourseSelection());
+    }
+    Department department = new Department(deptCode, courses, chair, majors);
+    created.add(department);
+    mapping.put(deptCode, department);
+  }
+
+  private static void putCourse(Map<String, Department> mapping, Set<Department> created,
+      String deptCode, String courseId, String instructor, String location, String time,
+      int capacity, int enrolled) {
+    Department department = mapping.get(deptCode);
+    if (department == null) {
+      department = new Department(deptCode, new HashMap<>(), null, 0);
+    } else if (!created.contains(department)) {
+      department = department.copy();
+    }
+    if (created.add(department)) {
+      mapping.put(deptCode, department);
+    }
+    Course course = new Course(instructor, location, time, capacity);
+    course.setEnrolledStudentCount(enrolled);
+    department.addCourse(courseId, course);
+  }
+
+  private static void expectFields(List<String> fields, int count) {
+    if (fields.size() != count) {
+      throw new IllegalArgumentException("Expected " + count + " fields for a " + fields.get(0)
+          + " row but found " + fields.size());
+    }
+  }
+
+  private static String required(JsonNode row, String field) {
+    String value = text(row, field);
+    if (value == null) {
+      throw new IllegalArgumentException("Missing field: " + field);
+    }
+    return value;
+  }
+
+  /**
+   * Gets a whole number field of a JSON row, which may also be written as a string, the way a
+   * CSV field is parsed.
+   */
+  private static int integer(JsonNode row, String field) {
+    JsonNode value = row.get(field);
+    if (value == null || value.isNull()) {
+      throw new IllegalArgumentException("Missing field: " + field);
+    }
+    if (value.isTextual()) {
+      return Integer.parseInt(value.asText().trim());
+    }
+    if (!value.isIntegralNumber() || !value.canConvertToInt()) {
+      throw new IllegalArgumentException("Field " + field + " is not an integer: " + value);
+    }
+    return value.intValue();
+  }
+
+  private static String text(JsonNode row, String field) {
+    JsonNode value = row.get(field);
+    return value == null || value.isNull() ? null : value.asText();
+  }
+
+  private static String emptyToNull(String value) {
+    return value.isEmpty() ? null : value;
+  }
+
+  /**
+   * Splits a CSV line into fields. Fields may be quoted, in which case they can contain commas
+   * and doubled quotes.
+   *
+   * @param line the line to split
+   * @return the fields of the line
+   */
+  static List<String> splitCsv(String line) {
+    List<String> fields = new ArrayList<>();
+    StringBuilder field = new StringBuilder();
+    boolean quoted = false;
+    for (int i = 0; i < line.length(); i++) {
+      char c = line.charAt(i);
+      if (quoted) {
+        if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+          field.append('"');
+          i++;
+        } else if (c == '"') {
+          quoted = false;
+        } else {
+          field.append(c);
+        }
+      } else if (c == '"') {
+        quoted = true;
+      } else if (c == ',') {
+        fields.add(field.toString());
+        field.setLength(0);
+      } else {
+        field.append(c);
+      }
+    }
+    if (quoted) {
+      throw new IllegalArgumentException("Unterminated quoted field");
+    }
+    fields.add(field.toString());
+    return fields;
+  }
+
+  /**
+   * Represents the departments and courses read by {@link #stage(Reader)}, waiting to be added
+   * to the catalog.
+   */
+  public static class Staged {
+
+    Staged(Map<String, Department> departments, Set<String> departmentRows, Result result) {
+      this.departments = departments;
+      this.departmentRows = departmentRows;
+      this.result = result;
+    }
+
+    /**
+     * Adds the rows read to a mapping, as if they had been imported into it directly. Courses
+     * replace those of the same ID, and a department's chair and majors are only replaced if
+     * its row was read. Departments already in the mapping are copied, never changed.
+     *
+     * @param mapping the mapping to add departments and courses to
+     */
+    public void mergeInto(Map<String, Department> mapping) {
+      for (Map.Entry<String, Department> entry : departments.entrySet()) {
+        String deptCode = entry.getKey();
+        Department staged = entry.getValue();
+        Department existing = mapping.get(deptCode);
+        if (existing == null) {
+          mapping.put(deptCode, staged);
+          continue;
+        }
+        HashMap<String, Course> courses = new HashMap<>(existing.getCourseSelection());
+        courses.putAll(staged.getCourseSelection());
+        Department source = departmentRows.contains(deptCode) ? staged : existing;
+        mapping.put(deptCode, new Department(deptCode, courses, source.getDepartmentChair(),
+            source.getNumberOfMajors()));
+      }
+    }
+
+    /**
+     * Gets the statistics of reading the rows.
+     *
+     * @return the statistics of the import
+     */
+    public Result getResult() {
+      return result;
+    }
+
+    private final Map<String, Department> departments;
+    private final Set<String> departmentRows;
+    private final Result result;
+  }
+
+  /**
+   * Represents the statistics of one import.
+   */
+  public static class Result {
+
+    Result(long rows, long courses, int departments, long elapsedMillis, long peakHeapBytes) {
+      this.rows = rows;
+      this.courses = courses;
+      this.departments = departments;
+      this.elapsedMillis = elapsedMillis;
+      this.peakHeapBytes = peakHeapBytes;
+    }
+
+    public long getRows() {
+      return rows;
+    }
+
+    public long getCourses() {
+      return courses;
+    }
+
+    public int getDepartments() {
+      return departments;
+    }
+
+    public long getElapsedMillis() {
+      return elapsedMillis;
+    }
+
+    public long getPeakHeapBytes() {
+      return peakHeapBytes;
+    }
+
+    /**
+     * Gets the import rate.
+     *
+     * @return the number of rows imported per second
+     */
+    public long getRowsPerSecond() {
+      return rows * 1000 / Math.max(1, elapsedMillis);
+    }
+
+    @Override
+    public String toString() {
+      return "Imported " + rows + " rows (" + courses + " courses, " + departments
+          + " departments) in " + elapsedMillis + " ms; " + getRowsPerSecond()
+          + " rows/sec; peak heap: " + peakHeapBytes / 1024 + " KB";
+    }
+
+    private final long rows;
+    private final long courses;
+    private final int departments;
+    private final long elapsedMillis;
+    private final long peakHeapBytes;
+  }
+
+  private final CatalogFormat format;
+}
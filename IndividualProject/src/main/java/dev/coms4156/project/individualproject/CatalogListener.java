@@ -0,0 +1,40 @@
+package dev.coms4156.project.individualproject;
+
+/**
+ * Represents an index of the catalog that follows the mutations published through
+ * {@link MyFileDatabase#logMutation(Mutation)}. The database calls every listener around a
+ * single {@link CatalogStore#apply(Mutation)}, and no listener holds a lock while the engine
+ * makes the mutation durable.
+ *
+ * <p>An index built from the catalog remembers the number of the version it was built from,
+ * and ignores mutations published in that version or before it, which it has already seen.
+ * Changes to a department are serialized, so the course a mutation replaces is the one the
+ * index last saw for it.
+ */
+public interface CatalogListener {
+
+  /**
+   * Called before a mutation is published.
+   *
+   * @param mutation the mutation about to be published
+   */
+  default void beforePublish(Mutation mutation) {
+  }
+
+  /**
+   * Called once a mutation has been published.
+   *
+   * @param mutation the mutation published
+   * @param version  the number of the version it was published in
+   * @param before   the course the mutation replaced, or null for department mutations
+   * @param after    the course it was replaced by, or null for department mutations
+   */
+  void published(Mutation mutation, long version, Course before, Course after);
+
+  /**
+   * Called once every department of the catalog has been replaced, or once a mutation may
+   * have been published without {@link #published} being called, so the index is rebuilt on
+   * its next use.
+   */
+  void catalogReplaced();
+}
@@ -0,0 +1,176 @@
+package dev.coms4156.project.individualproject;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Represents the manifest of a segmented catalog. The catalog is stored as one snapshot segment
+ * per department, and the manifest names the segment holding each department. A save writes the
+ * segments of changed departments under new names and then swaps in a new manifest with an
+ * atomic rename, so a reader sees either the old catalog or the new one and never a mix.
+ */
+public class CatalogManifest {
+
+  /** The first four bytes of every manifest file, "CATM". */
+  public static final int MAGIC = 0x4341544D;
+
+  /** The version of the layout written by this class. */
+  public static final short VERSION = 1;
+
+  /** The suffix of the temporary file a manifest is written to before being renamed. */
+  private static final String TEMP_SUFFIX = ".tmp";
+
+  /** Whether directories can be opened to force their entries to disk, which Windows refuses. */
+  private static final boolean SYNC_DIRECTORIES =
+      !System.getProperty("os.name", "").toLowerCase().startsWith("windows");
+
+  /**
+   * Constructs a new CatalogManifest object with the given parameters.
+   *
+   * @param generation the number of the save that wrote the manifest
+   * @param segments   the path of each department's segment file relative to the manifest's
+   *                   directory, keyed by department name
+   */
+  public CatalogManifest(long generation, Map<String, String> segments) {
+    this.generation = generation;
+    this.segments = Collections.unmodifiableMap(new LinkedHashMap<>(segments));
+  }
+
+  /**
+   * Reads the manifest at the given path.
+   *
+   * @param path the path to the manifest file
+   * @return the manifest
+   * @throws IOException if the file cannot be read or is not a manifest
+   */
+  public static CatalogManifest read(Path path) throws IOException {
+    try (DataInputStream in = new DataInputStream(
+        new BufferedInputStream(Files.newInputStream(path)))) {
+      if (in.readInt() != MAGIC) {
+        throw new IOException("Not a catalog manifest: " + path);
+      }
+      short version = in.readShort();
+      if (version != VERSION) {
+        throw new IOException("Unsupported catalog manifest version: " + version);
+      }
+      long generation = in.readLong();
+      int count = in.readInt();
+      if (count < 0) {
+        throw new IOException("Corrupted segment count in catalog manifest: " + count);
+      }
+      Map<String, String> segments = new LinkedHashMap<>(count * 2);
+      for (int i = 0; i < count; i++) {
+        segments.put(in.readUTF(), in.readUTF());
+      }
+      return new CatalogManifest(generation, segments);
+    }
+  }
+
+  /**
+   * Reads the manifest at the given path if the file exists and is a manifest.
+   *
+   * @param path the path to the manifest file
+   * @return the manifest, or null if there is no manifest at the path
+   */
+  public static CatalogManifest readIfPresent(Path path) {
+    try {
+      if (Files.exists(path) && CatalogSnapshot.readMagic(path) == MAGIC) {
+        return read(path);
+      }
+    } catch (IOException e) {
+      System.err.println("Error reading catalog manifest " + path);
+      e.printStackTrace();
+    }
+    return null;
+  }
+
+  /**
+   * Writes the manifest to a temporary file, forces it to disk and atomically renames it over
+   * the given path. The directory is forced after the rename, so a crash cannot bring back the
+   * previous manifest once this method has returned.
+   *
+   * @param path the path to replace with the manifest
+   * @return the number of bytes written
+   * @throws IOException if the manifest cannot be written or renamed
+   */
+  public long writeAtomically(Path path) throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (DataOutputStream out = new DataOutputStream(bytes)) {
+      out.writeInt(MAGIC);
+      out.writeShort(VERSION);
+      out.writeLong(generation);
+      out.writeInt(segments.size());
+      for (Map.Entry<String, String> entry : segments.entrySet()) {
+        out.writeUTF(entry.getKey());
+        out.writeUTF(entry.getValue());
+      }
+    }
+
+    Path temp = path.resolveSibling(path.getFileName() + TEMP_SUFFIX);
+    try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+        StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+      ByteBuffer buffer = ByteBuffer.wrap(bytes.toByteArray());
+      while (buffer.hasRemaining()) {
+        channel.write(buffer);
+      }
+      channel.force(true);
+    }
+    Files.move(temp, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    forceDirectory(path);
+    return bytes.size();
+  }
+
+  /**
+   * Forces the entries of the directory containing a file to disk, so a file just created or
+   * renamed into it is still there after a crash. Does nothing on Windows, where directories
+   * cannot be opened.
+   *
+   * @param path the path to a file in the directory
+   * @throws IOException if the directory cannot be forced to disk
+   */
+  static void forceDirectory(Path path) throws IOException {
+    if (!SYNC_DIRECTORIES) {
+      return;
+    }
+    Path directory = path.toAbsolutePath().getParent();
+    try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+      channel.force(true);
+    }
+  }
+
+  /**
+   * Builds the file name of a new segment. Segment names include the generation that wrote
+   * them, so a save never overwrites a segment the current manifest still refers to.
+   *
+   * @param path       the path to the manifest file
+   * @param generation the generation of the manifest being written
+   * @param index      the position of the segment within that generation
+   * @return the file name of the segment
+   */
+  public static String segmentName(Path path, long generation, int index) {
+    return path.getFileName() + "." + generation + "." + index + ".seg";
+  }
+
+  public long getGeneration() {
+    return generation;
+  }
+
+  public Map<String, String> getSegments() {
+    return segments;
+  }
+
+  private final long generation;
+  private final Map<String, String> segments;
+}
@@ -0,0 +1,344 @@
+package dev.coms4156.project.individualproject;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads and writes the binary snapshot format of the catalog.
+ *
+ * <p>A snapshot file is laid out as a fixed header followed by three sections:
+ * <ul>
+ *   <li>a string table holding every distinct string once, as an offset index followed by the
+ *       UTF-8 bytes of the strings,</li>
+ *   <li>fixed-width course records referring to the string table by index,</li>
+ *   <li>a department directory whose entries point at a contiguous run of course records.</li>
+ * </ul>
+ * Because records have a fixed width the file is read straight out of a memory-mapped buffer,
+ * and each distinct string is decoded only once no matter how many courses share it.
+ */
+public final class CatalogSnapshot {
+
+  /** The first four bytes of every snapshot file, "CATS". */
+  public static final int MAGIC = 0x43415453;
+
+  /** The version of the layout written by this class. */
+  public static final short VERSION = 1;
+
+  /** The size of the header in bytes. */
+  static final int HEADER_SIZE = 32;
+
+  /** The size of one course record in bytes. */
+  static final int COURSE_RECORD_SIZE = 24;
+
+  /** The size of one department directory entry in bytes. */
+  static final int DEPARTMENT_RECORD_SIZE = 24;
+
+  /** The string reference stored for a null string. */
+  private static final int NULL_STRING = -1;
+
+  /** Whether snapshot files are memory-mapped rather than read onto the heap. */
+  private static final boolean MAP_FILES =
+      !System.getProperty("os.name", "").toLowerCase().startsWith("windows");
+
+  private CatalogSnapshot() {
+  }
+
+  /**
+   * Checks whether the file at the given path starts with the snapshot magic number.
+   *
+   * @param path the path to the file to check
+   * @return true if the file is a binary snapshot, false otherwise
+   * @throws IOException if the file cannot be read
+   */
+  public static boolean isSnapshot(Path path) throws IOException {
+    return readMagic(path) == MAGIC;
+  }
+
+  /**
+   * Reads the first four bytes of a file, which identify the format of catalog files.
+   *
+   * @param path the path to the file to check
+   * @return the first four bytes as an int, or 0 if the file is shorter than that
+   * @throws IOException if the file cannot be read
+   */
+  static int readMagic(Path path) throws IOException {
+    try (InputStream in = Files.newInputStream(path)) {
+      byte[] head = in.readNBytes(4);
+      return head.length == 4 ? ByteBuffer.wrap(head).getInt() : 0;
+    }
+  }
+
+  /**
+   * Writes the department mapping to a snapshot file, replacing any existing contents. The file
+   * is forced to disk before this method returns.
+   *
+   * @param mapping the mapping of department names to Department objects
+   * @param path    the path to the file to write
+   * @return the number of bytes written
+   * @throws IOException if the file cannot be written
+   */
+  public static long write(Map<String, Department> mapping, Path path) throws IOException {
+    StringTable strings = new StringTable();
+    List<Department> departments = new ArrayList<>(mapping.size());
+    List<String> keys = new ArrayList<>(mapping.size());
+    int courseCount = 0;
+    for (Map.Entry<String, Department> entry : mapping.entrySet()) {
+      Department department = entry.getValue();
+      keys.add(entry.getKey());
+      departments.add(department);
+      strings.add(entry.getKey());
+      strings.add(department.getDeptCode());
+      strings.add(department.getDepartmentChair());
+      for (Map.Entry<String, Course> course : department.getCourseSelection().entrySet()) {
+        strings.add(course.getKey());
+        strings.add(course.getValue().getInstructorName());
+        strings.add(course.getValue().getCourseLocation());
+        strings.add(course.getValue().getCourseTimeSlot());
+        courseCount++;
+      }
+    }
+
+    int stringTableOffset = HEADER_SIZE;
+    int courseTableOffset = stringTableOffset + strings.sizeInBytes();
+    int departmentTableOffset = courseTableOffset + courseCount * COURSE_RECORD_SIZE;
+    long totalSize = (long) departmentTableOffset
+        + (long) departments.size() * DEPARTMENT_RECORD_SIZE;
+
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+        StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+         DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+             Channels.newOutputStream(channel), 1 << 16))) {
+      out.writeInt(MAGIC);
+      out.writeShort(VERSION);
+      out.writeShort(0);
+      out.writeInt(strings.size());
+      out.writeInt(courseCount);
+      out.writeInt(departments.size());
+      out.writeInt(stringTableOffset);
+      out.writeInt(courseTableOffset);
+      out.writeInt(departmentTableOffset);
+
+      strings.writeTo(out);
+
+      for (Department department : departments) {
+        for (Map.Entry<String, Course> entry : department.getCourseSelection().entrySet()) {
+          Course course = entry.getValue();
+          out.writeInt(strings.indexOf(entry.getKey()));
+          out.writeInt(strings.indexOf(course.getInstructorName()));
+          out.writeInt(strings.indexOf(course.getCourseLocation()));
+          out.writeInt(strings.indexOf(course.getCourseTimeSlot()));
+          out.writeInt(course.enrollmentCapacity);
+          out.writeInt(course.getEnrolledStudentCount());
+        }
+      }
+
+      int firstCourse = 0;
+      for (int i = 0; i < departments.size(); i++) {
+        Department department = departments.get(i);
+        int courses = department.getCourseSelection().size();
+        out.writeInt(strings.indexOf(keys.get(i)));
+        out.writeInt(strings.indexOf(department.getDeptCode()));
+        out.writeInt(strings.indexOf(department.getDepartmentChair()));
+        out.writeInt(department.getNumberOfMajors());
+        out.writeInt(firstCourse);
+        out.writeInt(courses);
+        firstCourse += courses;
+      }
+      out.flush();
+      channel.force(true);
+    }
+    return totalSize;
+  }
+
+  /**
+   * Reads a snapshot file into a department mapping.
+   *
+   * @param path the path to the snapshot file
+   * @return the mapping of department names to Department objects
+   * @throws IOException if the file cannot be read or is not a valid snapshot
+   */
+  public static HashMap<String, Department> read(Path path) throws IOException {
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+      return new Reader(load(channel)).readMapping();
+    }
+  }
+
+  /**
+   * Maps the whole file into memory. On Windows a file cannot be replaced while a mapping of it
+   * is alive, and mappings are only released by the garbage collector, so the file is read into
+   * a heap buffer there instead.
+   *
+   * @param channel the channel of the snapshot file
+   * @return a buffer holding the contents of the file
+   * @throws IOException if the file cannot be read
+   */
+  private static ByteBuffer load(FileChannel channel) throws IOException {
+    if (!MAP_FILES) {
+      ByteBuffer buffer = ByteBuffer.allocate((int) channel.size());
+      while (buffer.hasRemaining()) {
+        if (channel.read(buffer) < 0) {
+          throw new EOFException("Catalog snapshot is truncated");
+        }
+      }
+      return buffer.flip();
+    }
+    return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+  }
+
+  /**
+   * Decodes a mapped snapshot. Strings are decoded on first use and cached, so a string shared
+   * by many records becomes a single String object.
+   */
+  private static final class Reader {
+    private final ByteBuffer buffer;
+    private final int stringCount;
+    private final int courseCount;
+    private final int departmentCount;
+    private final int stringIndexOffset;
+    private final int stringDataOffset;
+    private final int courseTableOffset;
+    private final int departmentTableOffset;
+    private final String[] decoded;
+
+    Reader(ByteBuffer buffer) throws IOException {
+      this.buffer = buffer;
+      if (buffer.limit() < HEADER_SIZE || buffer.getInt(0) != MAGIC) {
+        throw new IOException("Not a catalog snapshot");
+      }
+      short version = buffer.getShort(4);
+      if (version != VERSION) {
+        throw new IOException("Unsupported catalog snapshot version: " + version);
+      }
+      this.stringCount = buffer.getInt(8);
+      this.courseCount = buffer.getInt(12);
+      this.departmentCount = buffer.getInt(16);
+      this.stringIndexOffset = buffer.getInt(20);
+      this.courseTableOffset = buffer.getInt(24);
+      this.departmentTableOffset = buffer.getInt(28);
+      if (stringCount < 0 || courseCount < 0 || departmentCount < 0) {
+        throw new IOException("Corrupted record counts in catalog snapshot");
+      }
+
+      // Every section must start after the previous one ends and fit in the file
+      long stringDataStart = (long) stringIndexOffset + ((long) stringCount + 1) * Integer.BYTES;
+      long courseTableEnd = (long) courseTableOffset + (long) courseCount * COURSE_RECORD_SIZE;
+      long expectedSize = (long) departmentTableOffset
+          + (long) departmentCount * DEPARTMENT_RECORD_SIZE;
+      if (stringIndexOffset < HEADER_SIZE || stringDataStart > courseTableOffset
+          || courseTableEnd > departmentTableOffset) {
+        throw new IOException("Corrupted section offsets in catalog snapshot");
+      }
+      if (expectedSize > buffer.limit()) {
+        throw new IOException("Catalog snapshot is truncated");
+      }
+      this.stringDataOffset = (int) stringDataStart;
+      this.decoded = new String[stringCount];
+    }
+
+    HashMap<String, Department> readMapping() throws IOException {
+      HashMap<String, Department> mapping = new HashMap<>(departmentCount * 2);
+      for (int i = 0; i < departmentCount; i++) {
+        int entry = departmentTableOffset + i * DEPARTMENT_RECORD_SIZE;
+        int firstCourse = buffer.getInt(entry + 16);
+        int courses = buffer.getInt(entry + 20);
+        if (firstCourse < 0 || courses < 0 || (long) firstCourse + courses > courseCount) {
+          throw new IOException("Corrupted department entry in catalog snapshot");
+        }
+
+        HashMap<String, Course> courseMapping = new HashMap<>(courses * 2);
+        for (int c = firstCourse; c < firstCourse + courses; c++) {
+          int record = courseTableOffset + c * COURSE_RECORD_SIZE;
+          Course course = new Course(string(buffer.getInt(record + 4)),
+              string(buffer.getInt(record + 8)), string(buffer.getInt(record + 12)),
+              buffer.getInt(record + 16));
+          course.setEnrolledStudentCount(buffer.getInt(record + 20));
+          courseMapping.put(string(buffer.getInt(record)), course);
+        }
+
+        Department department = new Department(string(buffer.getInt(entry + 4)), courseMapping,
+            string(buffer.getInt(entry + 8)), buffer.getInt(entry + 12));
+        mapping.put(string(buffer.getInt(entry)), department);
+      }
+      return mapping;
+    }
+
+    private String string(int index) throws IOException {
+      if (index == NULL_STRING) {
+        return null;
+      }
+      if (index < 0 || index >= stringCount) {
+        throw new IOException("Corrupted string reference in catalog snapshot: " + index);
+      }
+      String value = decoded[index];
+      if (value == null) {
+        int start = buffer.getInt(stringIndexOffset + index * Integer.BYTES);
+        int end = buffer.getInt(stringIndexOffset + (index + 1) * Integer.BYTES);
+        if (start < 0 || end < start || end > courseTableOffset - stringDataOffset) {
+          throw new IOException("Corrupted string offsets in catalog snapshot: " + index);
+        }
+        byte[] bytes = new byte[end - start];
+        buffer.get(stringDataOffset + start, bytes);
+        value = new String(bytes, StandardCharsets.UTF_8);
+        decoded[index] = value;
+      }
+      return value;
+    }
+  }
+
+  /**
+   * Collects the distinct strings of a catalog in first-seen order and assigns them indexes.
+   */
+  private static final class StringTable {
+    private final Map<String, Integer> indexes = new LinkedHashMap<>();
+    private final List<byte[]> encoded = new ArrayList<>();
+    private int dataSize;
+
+    void add(String value) {
+      if (value != null && !indexes.containsKey(value)) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        indexes.put(value, encoded.size());
+        encoded.add(bytes);
+        dataSize += bytes.length;
+      }
+    }
+
+    int indexOf(String value) {
+      return value == null ? NULL_STRING : indexes.get(value);
+    }
+
+    int size() {
+      return encoded.size();
+    }
+
+    int sizeInBytes() {
+      return (encoded.size() + 1) * Integer.BYTES + dataSize;
+    }
+
+    void writeTo(DataOutputStream out) throws IOException {
+      int offset = 0;
+      out.writeInt(offset);
+      for (byte[] bytes : encoded) {
+        offset += bytes.length;
+        out.writeInt(offset);
+      }
+      for (byte[] bytes : encoded) {
+        out.write(bytes);
+      }
+    }
+  }
+}
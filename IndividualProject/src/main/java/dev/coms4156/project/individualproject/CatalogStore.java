@@ -0,0 +1,235 @@
+package dev.coms4156.project.individualproject;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Represents a storage engine holding the catalog. Every engine serves reads from an immutable
+ * {@link CatalogVersion} in memory; engines differ in how changes are made durable. The write
+ * endpoints hand the engine a {@link Mutation} describing a change, which the engine publishes
+ * as a new version and persists.
+ */
+public interface CatalogStore {
+
+  /**
+   * Gets the department with the given code.
+   *
+   * @param deptCode the code of the department
+   * @return the department, or null if there is no such department
+   */
+  default Department getDepartment(String deptCode) {
+    return getVersion().getDepartment(deptCode);
+  }
+
+  /**
+   * Gets a course of a department.
+   *
+   * @param deptCode the code of the department
+   * @param courseId the ID of the course within the department
+   * @return the course, or null if there is no such department or course
+   */
+  default Course getCourse(String deptCode, String courseId) {
+    Department department = getDepartment(deptCode);
+    return department != null ? department.getCourseSelection().get(courseId) : null;
+  }
+
+  /**
+   * Gets a course of a department by its number, without building the String key.
+   *
+   * @param deptCode the code of the department
+   * @param courseId the number of the course within the department
+   * @return the course, or null if there is no such department or course
+   */
+  default Course getCourse(String deptCode, int courseId) {
+    Department department = getDepartment(deptCode);
+    return department != null ? department.getCourse(courseId) : null;
+  }
+
+  /**
+   * Gets every department of the current version, for iteration. The mapping and its
+   * departments must not be changed.
+   *
+   * @return the mapping of department names to Department objects
+   */
+  default HashMap<String, Department> getDepartments() {
+    return getVersion().getDepartments();
+  }
+
+  /**
+   * Gets the current version of the catalog without locking. The version does not change while
+   * it is held, even as later mutations are applied.
+   *
+   * @return the current version
+   */
+  CatalogVersion getVersion();
+
+  /**
+   * Gets the pool holding the instructor, location and time slot values of the catalog. The
+   * engine pools the courses it loads; the caller pools the courses it publishes or replaces.
+   *
+   * @return the catalog string pool
+   */
+  StringPool getStringPool();
+
+  /**
+   * Replaces every department of the catalog with a new version. The new departments are
+   * persisted by the next snapshot.
+   *
+   * @param mapping the mapping of department names to Department objects
+   */
+  void setDepartments(HashMap<String, Department> mapping);
+
+  /**
+   * Replaces every department of the catalog with departments worked out from the current
+   * ones, without a mutation being published between reading the current departments and
+   * replacing them. The new departments are persisted by the next snapshot.
+   *
+   * @param replacement the change working out the new departments
+   * @param <T>         the type of the result of the change
+   * @return the result of the change
+   * @throws IOException if the change fails, in which case the catalog is left as it was
+   */
+  <T> T replaceDepartments(Replacement<T> replacement) throws IOException;
+
+  /**
+   * Publishes a new version of the catalog with a mutation applied, and persists it. Readers
+   * holding an earlier version do not see the change.
+   *
+   * @param mutation the mutation to apply
+   * @return the version published, or the version the mutation was applied to if it changed
+   *         nothing
+   * @throws java.io.UncheckedIOException if the change cannot be persisted
+   */
+  CatalogVersion apply(Mutation mutation);
+
+  /**
+   * Publishes a new version of the catalog with a mutation applied, without waiting for it to
+   * be persisted. The caller must call {@link Publication#await()} before reporting the change
+   * as made, and can give up any lock it holds first. Engines persisting changes as part of
+   * publishing them return a publication that is already persisted.
+   *
+   * @param mutation the mutation to apply
+   * @return the publication of the version
+   * @throws java.io.UncheckedIOException if the change cannot be queued to be persisted
+   */
+  default Publication publish(Mutation mutation) {
+    return new Publication(apply(mutation));
+  }
+
+  /**
+   * Persists the enrollment of a course after its seat counter was changed. Seat counters are
+   * shared by every version of a course, so no version is published; the count is read when it
+   * is persisted, so the last count persisted is never older than the last change made.
+   *
+   * @param deptCode the code of the department
+   * @param courseId the ID of the course within the department
+   * @throws java.io.UncheckedIOException if the count cannot be persisted
+   */
+  void recordSeats(String deptCode, String courseId);
+
+  /**
+   * Persists the enrollment of a course named by its number, as described by
+   * {@link #recordSeats(String, String)}. Engines that can find the course by number override
+   * this so the course ID is only written out when a record needs it.
+   *
+   * @param deptCode   the code of the department
+   * @param courseCode the number of the course within the department
+   * @throws java.io.UncheckedIOException if the count cannot be persisted
+   */
+  default void recordSeats(String deptCode, int courseCode) {
+    recordSeats(deptCode, Integer.toString(courseCode));
+  }
+
+  /**
+   * Persists the whole catalog.
+   *
+   * @return true if the snapshot was written, false if it failed
+   */
+  boolean snapshot();
+
+  /**
+   * Releases the resources held by the engine. The catalog is not snapshotted.
+   */
+  void close();
+
+  /**
+   * Represents a version published by {@link #publish(Mutation)} and the work of persisting it.
+   */
+  final class Publication {
+
+    /**
+     * Constructs a Publication object for a version that is already persisted.
+     *
+     * @param version the version published
+     */
+    public Publication(CatalogVersion version) {
+      this(version, CompletableFuture.completedFuture(null), () -> { });
+    }
+
+    /**
+     * Constructs a Publication object for a version still being persisted.
+     *
+     * @param version   the version published
+     * @param persisted a future completed once the change is persisted
+     * @param await     waits for the change to be persisted, throwing if it was not
+     */
+    public Publication(CatalogVersion version, CompletableFuture<Void> persisted,
+                       Runnable await) {
+      this.version = version;
+      this.persisted = persisted;
+      this.await = await;
+    }
+
+    /**
+     * Gets the version published.
+     *
+     * @return the version, or the version the mutation was applied to if it changed nothing
+     */
+    public CatalogVersion getVersion() {
+      return version;
+    }
+
+    /**
+     * Gets a future completed once the change is persisted, or completed exceptionally if it
+     * cannot be. {@link #await()} must still be called once it completes.
+     *
+     * @return the future
+     */
+    public CompletableFuture<Void> getPersisted() {
+      return persisted;
+    }
+
+    /**
+     * Waits for the change to be persisted.
+     *
+     * @throws java.io.UncheckedIOException if the change cannot be persisted
+     */
+    public void await() {
+      await.run();
+    }
+
+    private final CatalogVersion version;
+    private final CompletableFuture<Void> persisted;
+    private final Runnable await;
+  }
+
+  /**
+   * Represents a change working out new departments from the current ones.
+   *
+   * @param <T> the type of the result of the change
+   */
+  @FunctionalInterface
+  interface Replacement<T> {
+
+    /**
+     * Changes a copy of the current mapping into the new one. The departments in it belong to
+     * the current version, so they must be copied before they are changed.
+     *
+     * @param mapping a copy of the mapping of department names to Department objects
+     * @return the result of the change
+     * @throws IOException if the change fails
+     */
+    T replace(HashMap<String, Department> mapping) throws IOException;
+  }
+}
@@ -0,0 +1,192 @@
+package dev.coms4156.project.individualproject;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Represents one immutable version of the catalog. Readers take the current version without
+ * locking and see a consistent catalog however long they hold it. A writer never changes a
+ * published version: applying a mutation copies the changed department and course into a new
+ * version that shares every other Department and Course object with this one. A version is
+ * reclaimed by the garbage collector once no reader refers to it.
+ *
+ * <p>The departments of a version are a base mapping shared with earlier versions plus a small
+ * immutable overlay of the departments changed since that base was built, so a write copies the
+ * overlay rather than rehashing every department. Once the overlay grows past about the square
+ * root of the number of departments, it is folded into a new base. The full mapping is only
+ * built, once per version, when something asks for every department.
+ *
+ * <p>A version also answers which departments offer a course ID. Courses are only added or
+ * removed, by {@link Department#addCourse} or {@link Department#createCourse}, on departments
+ * that are not published yet and then replace the catalog, so this inverted index is built once
+ * per replaced catalog, on first use, and shared by every version that follows it.
+ */
+public final class CatalogVersion {
+
+  /**
+   * Constructs a new CatalogVersion object holding the given departments. The mapping must not
+   * be changed once the version is published.
+   *
+   * @param number      the number of the version, increasing with every change
+   * @param departments the mapping of department names to Department objects
+   */
+  public CatalogVersion(long number, HashMap<String, Department> departments) {
+    this(number, departments != null ? departments : new HashMap<>(), Map.of(),
+        new CourseCodes());
+  }
+
+  private CatalogVersion(long number, HashMap<String, Department> base,
+                         Map<String, Department> overlay, CourseCodes courseCodes) {
+    this.number = number;
+    this.base = base;
+    this.overlay = overlay;
+    this.courseCodes = courseCodes;
+    this.departments = overlay.isEmpty() ? base : null;
+  }
+
+  /**
+   * Gets the number of the version.
+   *
+   * @return the version number
+   */
+  public long getNumber() {
+    return number;
+  }
+
+  /**
+   * Gets the department with the given code.
+   *
+   * @param deptCode the code of the department
+   * @return the department, or null if there is no such department
+   */
+  public Department getDepartment(String deptCode) {
+    Department changed = overlay.get(deptCode);
+    return changed != null ? changed : base.get(deptCode);
+  }
+
+  /**
+   * Gets every department of the version. The mapping and its departments must not be changed.
+   *
+   * @return the mapping of department names to Department objects
+   */
+  public HashMap<String, Department> getDepartments() {
+    HashMap<String, Department> built = departments;
+    if (built == null) {
+      // Two readers may build it at once; either copy is the same mapping
+      built = merge(base, overlay);
+      departments = built;
+    }
+    return built;
+  }
+
+  /**
+   * Gets the departments offering a course ID, without looking in every department.
+   *
+   * @param courseId the ID of the course
+   * @return the names of the departments offering the course, in the order of the mapping
+   */
+  public List<String> getDepartmentsOffering(String courseId) {
+    return courseCodes.get(this).getOrDefault(courseId, List.of());
+  }
+
+  /**
+   * Creates the version following this one with a mutation applied. The changed department,
+   * and the changed course for course mutations, are copied; everything else is shared.
+   *
+   * @param mutation the mutation to apply
+   * @return the next version, or this version if the mutation names no existing department
+   *         or course
+   */
+  public CatalogVersion apply(Mutation mutation) {
+    String deptCode = mutation.getDeptCode();
+    Department department = getDepartment(deptCode);
+    if (department == null) {
+      return this;
+    }
+    Department changed = department.copy();
+    if (mutation.getType() != Mutation.Type.MAJOR_COUNT) {
+      Course course = changed.getCourseSelection().get(mutation.getCourseId());
+      if (course == null) {
+        return this;
+      }
+      changed.addCourse(mutation.getCourseId(), course.copy());
+    }
+    if (!mutation.applyTo(Map.of(deptCode, changed))) {
+      return this;
+    }
+
+    HashMap<String, Department> nextOverlay = new HashMap<>(overlay);
+    nextOverlay.put(deptCode, changed);
+    if (nextOverlay.size() > Math.max(MIN_OVERLAY, (int) Math.sqrt(base.size()))) {
+      return new CatalogVersion(number + 1, merge(base, nextOverlay), Map.of(), courseCodes);
+    }
+    return new CatalogVersion(number + 1, base, Collections.unmodifiableMap(nextOverlay),
+        courseCodes);
+  }
+
+  /**
+   * Builds a mapping holding the departments of a base mapping with the changed ones replaced.
+   * A lazily loaded base is copied without reading its unread departments.
+   *
+   * @param base    the mapping shared with earlier versions
+   * @param changed the departments replacing those of the base
+   * @return a new mapping
+   */
+  private static HashMap<String, Department> merge(HashMap<String, Department> base,
+                                                   Map<String, Department> changed) {
+    HashMap<String, Department> merged = base instanceof LazyDepartmentMap lazy
+        ? lazy.copy() : new HashMap<>(base);
+    merged.putAll(changed);
+    return merged;
+  }
+
+  /**
+   * Creates the version following this one with every department replaced.
+   *
+   * @param replacement the mapping of department names to Department objects
+   * @return the next version
+   */
+  public CatalogVersion replace(HashMap<String, Department> replacement) {
+    return new CatalogVersion(number + 1, replacement);
+  }
+
+  /**
+   * Represents the inverted index from course ID to the departments offering it, built on
+   * first use.
+   */
+  private static final class CourseCodes {
+
+    Map<String, List<String>> get(CatalogVersion version) {
+      Map<String, List<String>> built = index;
+      if (built != null) {
+        return built;
+      }
+      synchronized (this) {
+        if (index == null) {
+          HashMap<String, List<String>> offering = new HashMap<>();
+          for (Map.Entry<String, Department> entry : version.getDepartments().entrySet()) {
+            for (String courseId : entry.getValue().getCourseSelection().keySet()) {
+              offering.computeIfAbsent(courseId, k -> new ArrayList<>(1)).add(entry.getKey());
+            }
+          }
+          index = Collections.unmodifiableMap(offering);
+        }
+        return index;
+      }
+    }
+
+    private volatile Map<String, List<String>> index;
+  }
+
+  /** The fewest changed departments kept in an overlay before it is folded into the base. */
+  private static final int MIN_OVERLAY = 8;
+
+  private final long number;
+  private final HashMap<String, Department> base;
+  private final Map<String, Department> overlay;
+  private final CourseCodes courseCodes;
+  private volatile HashMap<String, Department> departments;
+}
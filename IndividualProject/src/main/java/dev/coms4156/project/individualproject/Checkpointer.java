@@ -0,0 +1,121 @@
+package dev.coms4156.project.individualproject;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Saves a file store in the background, either on a fixed schedule or when the store asks
+ * for a save because enough mutations have been logged. Saves run on a single daemon thread,
+ * so request threads only ever enqueue work and never wait for the file to be written.
+ */
+public class Checkpointer {
+
+  /** The store saved by this checkpointer. */
+  private final FileCatalogStore store;
+
+  /** The thread running the saves. */
+  private final ScheduledExecutorService executor;
+
+  /** Whether a requested checkpoint is already waiting to run. */
+  private final AtomicBoolean requested = new AtomicBoolean();
+
+  private volatile long checkpointCount;
+  private volatile long lastDurationMillis;
+  private volatile long lastBytesWritten;
+  private volatile long totalBytesWritten;
+
+  /**
+   * Constructs a Checkpointer object and starts its schedule.
+   *
+   * @param store           the store to save
+   * @param intervalSeconds the time between scheduled checkpoints, or 0 to only checkpoint
+   *                        when requested
+   */
+  public Checkpointer(FileCatalogStore store, long intervalSeconds) {
+    this.store = store;
+    this.executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+      Thread thread = new Thread(runnable, "catalog-checkpointer");
+      thread.setDaemon(true);
+      return thread;
+    });
+    if (intervalSeconds > 0) {
+      executor.scheduleWithFixedDelay(this::runCheckpoint, intervalSeconds, intervalSeconds,
+          TimeUnit.SECONDS);
+    }
+  }
+
+  /**
+   * Asks for a checkpoint to run as soon as possible. Returns immediately; requests made while
+   * one is already waiting are merged into it.
+   */
+  public void requestCheckpoint() {
+    if (requested.compareAndSet(false, true)) {
+      try {
+        executor.execute(this::runCheckpoint);
+      } catch (RuntimeException e) {
+        requested.set(false);
+      }
+    }
+  }
+
+  /**
+   * Saves the store if mutations were logged or the catalog was replaced since the last save,
+   * and records how long the save took and how much it wrote.
+   */
+  private void runCheckpoint() {
+    requested.set(false);
+    if (!store.hasChangesSinceSnapshot()) {
+      return;
+    }
+
+    long start = System.nanoTime();
+    if (store.snapshot()) {
+      lastDurationMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+      lastBytesWritten = store.getLastSnapshotBytes();
+      totalBytesWritten += lastBytesWritten;
+      checkpointCount++;
+    }
+  }
+
+  /**
+   * Stops the schedule and waits for a running checkpoint to finish.
+   */
+  public void stop() {
+    executor.shutdown();
+    try {
+      executor.awaitTermination(1, TimeUnit.MINUTES);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  public long getCheckpointCount() {
+    return checkpointCount;
+  }
+
+  public long getLastDurationMillis() {
+    return lastDurationMillis;
+  }
+
+  public long getLastBytesWritten() {
+    return lastBytesWritten;
+  }
+
+  public long getTotalBytesWritten() {
+    return totalBytesWritten;
+  }
+
+  /**
+   * Returns a summary of the checkpoint metrics.
+   *
+   * @return a string describing the checkpoints taken so far
+   */
+  @Override
+  public String toString() {
+    return "Checkpoints: " + checkpointCount + "; Last duration: " + lastDurationMillis
+        + " ms; Last size: " + lastBytesWritten + " bytes; Total written: " + totalBytesWritten
+        + " bytes";
+  }
+}
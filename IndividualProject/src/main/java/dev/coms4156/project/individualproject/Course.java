@@ -1,16 +1,26 @@
 package dev.coms4156.project.individualproject;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
 import java.io.Serial;
 import java.io.Serializable;
 
 /**
  * Represents a course with instructor, location, time slot, and capacity.
  * Provides methods to enroll and drop students, and reassign course details.
+ * Enrollments and drops go through a {@link SeatCounter}, so concurrent requests can never
+ * enroll more students than the course has seats. Students who find the course full can join
+ * its {@link Waitlist}, and are promoted into the seats of students who drop. A seat can also
+ * be held for a while before the enrollment is confirmed; held seats count against the
+ * capacity but not as enrolled students.
  */
 public class Course implements Serializable {
 
   /**
-   * Constructs a new Course object with the given parameters. Initial count starts at 0.
+   * Constructs a new Course object with the given parameters. Initial count starts at 0. The
+   * instructor, location and time slot are kept as given until the catalog holding the course
+   * pools them with {@link #pool(StringPool)}. The time slot is parsed if it is a valid {@link TimeSlot}; other values are kept as given.
    *
    * @param instructorName     The name of the instructor teaching the course.
    * @param courseLocation     The location where the course is held.
@@ -21,8 +31,11 @@ public class Course implements Serializable {
     this.courseLocation = courseLocation;
     this.instructorName = instructorName;
     this.courseTimeSlot = timeSlot;
+    this.parsedTimeSlot = TimeSlot.tryParse(timeSlot);
     this.enrollmentCapacity = capacity;
-    this.enrolledStudentCount = 0;
+    this.seats = new SeatCounter(0);
+    this.waitlist = new Waitlist(Waitlist.DEFAULT_CAPACITY);
+    this.dirty = true;
   }
 
   /**
@@ -31,8 +44,8 @@ public class Course implements Serializable {
    * @return true if the student is successfully enrolled, false otherwise.
    */
   public boolean enrollStudent() {
-    if (enrolledStudentCount < enrollmentCapacity) {
-      enrolledStudentCount++;
+    if (seats.tryAcquire(enrollmentCapacity)) {
+      dirty = true;
       return true;
     } else {
       return false;
@@ -40,17 +53,111 @@ public class Course implements Serializable {
   }
 
   /**
-   * Drops a student from the course if a student is enrolled.
+   * Drops a student from the course if a student is enrolled. If students are waiting, the
+   * seat passes to the first of them.
    *
    * @return true if the student is successfully dropped, false otherwise.
    */
   public boolean dropStudent() {
-    if (enrolledStudentCount > 0) {
-      enrolledStudentCount--;
-      return true;
-    } else {
+    return dropStudent(null);
+  }
+
+  /**
+   * Drops the given student from the course as described by {@link #dropStudent()}. A student
+   * who was promoted from the waitlist is no longer reported as enrolled from it.
+   *
+   * @param studentId The ID of the student, or null if it is not known.
+   * @return true if the student is successfully dropped, false otherwise.
+   */
+  public boolean dropStudent(String studentId) {
+    return dropStudentAndPromote(studentId) != null;
+  }
+
+  /**
+   * Drops a student from the course if a student is enrolled, passing the seat to the first
+   * student on the waitlist if any is waiting.
+   *
+   * @return the ID of the promoted student, the empty string if the seat was freed, or null if
+   *         no student is enrolled.
+   */
+  public String dropStudentAndPromote() {
+    return dropStudentAndPromote(null);
+  }
+
+  /**
+   * Drops the given student from the course as described by {@link #dropStudentAndPromote()}.
+   *
+   * @param studentId The ID of the student, or null if it is not known.
+   * @return the ID of the promoted student, the empty string if the seat was freed, or null if
+   *         no student is enrolled.
+   */
+  public String dropStudentAndPromote(String studentId) {
+    String promoted = waitlist.release(studentId, seats);
+    if (promoted != null) {
+      dirty = true;
+    }
+    return promoted;
+  }
+
+  /**
+   * Adds a student to the waitlist of the course, or enrolls them if a seat is open.
+   *
+   * @param studentId The ID of the student.
+   * @return the student's position from 1, {@link Waitlist#ENROLLED} if they hold a seat, or
+   *         {@link Waitlist#FULL} if the waitlist has no room.
+   */
+  public int joinWaitlist(String studentId) {
+    int position = waitlist.join(studentId, seats, enrollmentCapacity);
+    if (position == Waitlist.ENROLLED) {
+      dirty = true;
+    }
+    return position;
+  }
+
+  public Waitlist getWaitlist() {
+    return this.waitlist;
+  }
+
+  /**
+   * Takes a seat for a student who has not confirmed their enrollment yet. The seat counts
+   * against the capacity until the hold is confirmed or released.
+   *
+   * @return true if a seat was held, false if the course is full.
+   */
+  public boolean holdSeat() {
+    return seats.tryHold(enrollmentCapacity);
+  }
+
+  /**
+   * Turns a held seat into an enrollment.
+   *
+   * @return true if a held seat was confirmed, false if no seat is held.
+   */
+  public boolean confirmHeldSeat() {
+    if (!seats.confirmHeld()) {
       return false;
     }
+    dirty = true;
+    return true;
+  }
+
+  /**
+   * Gives back a held seat, passing it to the first student on the waitlist if any is
+   * waiting.
+   *
+   * @return the ID of the promoted student, the empty string if the seat was freed, or null if
+   *         no seat is held.
+   */
+  public String releaseHeldSeat() {
+    String promoted = waitlist.releaseHeld(seats);
+    if (promoted != null) {
+      dirty = true;
+    }
+    return promoted;
+  }
+
+  public int getHeldSeatCount() {
+    return seats.getHeld();
   }
 
 
@@ -68,8 +175,17 @@ public class Course implements Serializable {
     return this.courseTimeSlot;
   }
 
+  /**
+   * Gets the parsed time slot of the course.
+   *
+   * @return the time slot, or null if the course's time is not a valid time slot
+   */
+  public TimeSlot getTimeSlot() {
+    return this.parsedTimeSlot;
+  }
+
   public int getEnrolledStudentCount() {
-    return this.enrolledStudentCount;
+    return seats.getEnrolled();
   }
 
   public String toString() {
@@ -80,33 +196,120 @@ public class Course implements Serializable {
 
   public void reassignInstructor(String newInstructorName) {
     this.instructorName = newInstructorName;
+    this.dirty = true;
   }
 
 
   public void reassignLocation(String newLocation) {
     this.courseLocation = newLocation;
+    this.dirty = true;
   }
 
 
+  /**
+   * Reassigns the time of the course.
+   *
+   * @param newTime The new time slot, such as "11:40-12:55" or "MW 4:10-5:25".
+   * @throws IllegalArgumentException if the new time is not a valid time slot
+   */
   public void reassignTime(String newTime) {
+    this.parsedTimeSlot = TimeSlot.parse(newTime);
     this.courseTimeSlot = newTime;
+    this.dirty = true;
   }
 
 
   public void setEnrolledStudentCount(int count) {
-    this.enrolledStudentCount = count;
+    seats.set(count);
+    this.dirty = true;
   }
 
 
+  /**
+   * Checks whether every seat of the course is taken, counting held seats as taken.
+   *
+   * @return true if no seat is left, false otherwise.
+   */
   public boolean isCourseFull() {
-    return enrollmentCapacity <= enrolledStudentCount;
+    return enrollmentCapacity <= seats.get();
+  }
+
+  /**
+   * Checks whether the course has changed since it was last written to disk. A newly
+   * constructed course is dirty until it is first saved.
+   *
+   * @return true if the course has unsaved changes, false otherwise.
+   */
+  public boolean isDirty() {
+    return dirty;
+  }
+
+  /**
+   * Marks the course as matching its saved copy on disk.
+   */
+  public void markClean() {
+    this.dirty = false;
+  }
+
+  /**
+   * Marks the course as changed so it is written by the next save.
+   */
+  public void markDirty() {
+    this.dirty = true;
+  }
+
+  /**
+   * Creates a copy of the course whose instructor, location and time can be changed without
+   * affecting this one. The copy shares the seat counter, which also counts the held seats,
+   * and the waitlist, so every version of a course sees the same enrollment and no version can
+   * oversell it. The copy is dirty until it is first saved.
+   *
+   * @return a new course with the same fields
+   */
+  public Course copy() {
+    Course copy = new Course(instructorName, courseLocation, courseTimeSlot, enrollmentCapacity);
+    copy.seats = seats;
+    copy.waitlist = waitlist;
+    return copy;
+  }
+
+  /**
+   * Replaces the instructor, location and time slot with the pooled instances of equal values.
+   * The values do not change, so a course already published can be pooled while it is read.
+   *
+   * @param pool the pool of the catalog holding the course
+   */
+  void pool(StringPool pool) {
+    instructorName = pool.collapse(instructorName);
+    courseLocation = pool.collapse(courseLocation);
+    courseTimeSlot = pool.collapse(courseTimeSlot);
+  }
+
+  @Serial
+  private void writeObject(ObjectOutputStream out) throws IOException {
+    enrolledStudentCount = getEnrolledStudentCount();
+    out.defaultWriteObject();
+  }
+
+  @Serial
+  private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+    in.defaultReadObject();
+    seats = new SeatCounter(enrolledStudentCount);
+    waitlist = new Waitlist(Waitlist.DEFAULT_CAPACITY);
+    parsedTimeSlot = TimeSlot.tryParse(courseTimeSlot);
   }
 
   @Serial
   private static final long serialVersionUID = 123456L;
   public final int enrollmentCapacity;
-  public int enrolledStudentCount;
+  /** The enrollment as written by Java serialization; the live count is kept by seats. */
+  private int enrolledStudentCount;
+  private transient SeatCounter seats;
+  /** The students waiting for a seat, kept in memory only. */
+  private transient Waitlist waitlist;
   private String courseLocation;
   private String instructorName;
   private String courseTimeSlot;
+  private transient TimeSlot parsedTimeSlot;
+  private transient volatile boolean dirty;
 }
@@ -0,0 +1,280 @@
+package dev.coms4156.project.individualproject;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.Function;
+
+/**
+ * Represents the secondary indexes of the catalog: for each instructor, location and time slot,
+ * the courses that have it. Queries look up the courses of a value without scanning every
+ * department. Matching ignores case and surrounding spaces, and time slots match by the time
+ * they stand for, so "4:10-5:25" finds courses at "16:10-17:25".
+ *
+ * <p>Courses are only changed by publishing a mutation, so the index is kept up to date as a
+ * {@link CatalogListener}: a course is added under its new value before the mutation is
+ * published and removed from its old value after, so a course is always found under its current
+ * value. Entries left behind by a race are filtered out when queried. The index is built from
+ * the current version on its first query, and rebuilt after the catalog is replaced.
+ */
+public class CourseIndex implements CatalogListener {
+
+  /**
+   * The course attributes that are indexed.
+   */
+  public enum Field {
+    INSTRUCTOR(Course::getInstructorName),
+    LOCATION(Course::getCourseLocation),
+    TIME(Course::getCourseTimeSlot);
+
+    Field(Function<Course, String> getter) {
+      this.getter = getter;
+    }
+
+    /**
+     * Gets the value of the field for a course.
+     *
+     * @param course the course
+     * @return the value of the field
+     */
+    public String valueOf(Course course) {
+      return getter.apply(course);
+    }
+
+    /**
+     * Gets the field a mutation changes.
+     *
+     * @param mutation the mutation
+     * @return the field, or null if the mutation changes no indexed field
+     */
+    public static Field of(Mutation mutation) {
+      switch (mutation.getType()) {
+        case COURSE_INSTRUCTOR:
+          return INSTRUCTOR;
+        case COURSE_LOCATION:
+          return LOCATION;
+        case COURSE_TIME:
+          return TIME;
+        default:
+          return null;
+      }
+    }
+
+    private final Function<Course, String> getter;
+  }
+
+  /**
+   * Adds the course of a mutation under the value it is about to get, if the index has been
+   * built, so the course is found while the mutation is published.
+   *
+   * @param mutation the mutation about to be published
+   */
+  @Override
+  public void beforePublish(Mutation mutation) {
+    Field field = Field.of(mutation);
+    if (field == null) {
+      return;
+    }
+    long stamp = lock.readLock();
+    try {
+      if (built) {
+        add(field, mutation.getStringValue(),
+            new CourseRef(mutation.getDeptCode(), mutation.getCourseId()));
+      }
+    } finally {
+      lock.unlockRead(stamp);
+    }
+  }
+
+  /**
+   * Moves the course of a published mutation to its current value, if the index was built
+   * before the mutation was published.
+   *
+   * @param mutation the mutation published
+   * @param version  the number of the version it was published in
+   * @param before   the course the mutation replaced
+   * @param after    the course it was replaced by
+   */
+  @Override
+  public void published(Mutation mutation, long version, Course before, Course after) {
+    Field field = Field.of(mutation);
+    if (field == null) {
+      return;
+    }
+    long stamp = lock.readLock();
+    try {
+      if (!built || version <= builtFrom) {
+        return;
+      }
+      CourseRef ref = new CourseRef(mutation.getDeptCode(), mutation.getCourseId());
+      String current = after != null ? field.valueOf(after) : null;
+      add(field, current, ref);
+      if (before != null && !sameKey(field, field.valueOf(before), current)) {
+        remove(field, field.valueOf(before), ref);
+      }
+      String added = mutation.getStringValue();
+      if (!sameKey(field, added, current)) {
+        remove(field, added, ref);
+      }
+    } finally {
+      lock.unlockRead(stamp);
+    }
+  }
+
+  /**
+   * Discards the index so it is rebuilt from the new catalog on its next query.
+   */
+  @Override
+  public void catalogReplaced() {
+    long stamp = lock.writeLock();
+    try {
+      built = false;
+      for (Map<String, Set<CourseRef>> entries : indexes.values()) {
+        entries.clear();
+      }
+    } finally {
+      lock.unlockWrite(stamp);
+    }
+  }
+
+  /**
+   * Finds the courses whose field has the given value.
+   *
+   * @param field the field to match
+   * @param value the value to match
+   * @param store the engine holding the catalog
+   * @return the matching courses of the current version, keyed by department code and course
+   *         ID, in order
+   */
+  public TreeMap<String, Course> find(Field field, String value, CatalogStore store) {
+    ensureBuilt(store);
+    CatalogVersion version = store.getVersion();
+    TreeMap<String, Course> result = new TreeMap<>();
+    String key = key(field, value);
+    Set<CourseRef> refs = indexes.get(field).get(key);
+    if (refs == null) {
+      return result;
+    }
+    for (CourseRef ref : refs) {
+      Department department = version.getDepartment(ref.deptCode);
+      Course course = department != null
+          ? department.getCourseSelection().get(ref.courseId) : null;
+      if (course != null && key.equals(key(field, field.valueOf(course)))) {
+        result.put(ref.deptCode + " " + ref.courseId, course);
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Checks whether the index has been built.
+   *
+   * @return true if the index is built, false if it is built on the next query
+   */
+  public boolean isBuilt() {
+    return built;
+  }
+
+  private void ensureBuilt(CatalogStore store) {
+    if (built) {
+      return;
+    }
+    long stamp = lock.writeLock();
+    try {
+      if (built) {
+        return;
+      }
+      CatalogVersion version = store.getVersion();
+      for (Map.Entry<String, Department> department : version.getDepartments().entrySet()) {
+        for (Map.Entry<String, Course> course
+            : department.getValue().getCourseSelection().entrySet()) {
+          CourseRef ref = new CourseRef(department.getKey(), course.getKey());
+          for (Field field : Field.values()) {
+            add(field, field.valueOf(course.getValue()), ref);
+          }
+        }
+      }
+      builtFrom = version.getNumber();
+      built = true;
+    } finally {
+      lock.unlockWrite(stamp);
+    }
+  }
+
+  private void add(Field field, String value, CourseRef ref) {
+    if (value != null) {
+      indexes.get(field).compute(key(field, value), (k, refs) -> {
+        Set<CourseRef> result = refs != null ? refs : ConcurrentHashMap.newKeySet();
+        result.add(ref);
+        return result;
+      });
+    }
+  }
+
+  private void remove(Field field, String value, CourseRef ref) {
+    if (value != null) {
+      indexes.get(field).computeIfPresent(key(field, value), (k, refs) -> {
+        refs.remove(ref);
+        return refs.isEmpty() ? null : refs;
+      });
+    }
+  }
+
+  private static boolean sameKey(Field field, String value, String other) {
+    return value != null && other != null && key(field, value).equals(key(field, other));
+  }
+
+  /**
+   * Gets the key a value is indexed under: time slots by the time they stand for, everything
+   * else ignoring case and surrounding spaces.
+   *
+   * @param field the field of the value
+   * @param value the value
+   * @return the key of the value
+   */
+  private static String key(Field field, String value) {
+    if (field == Field.TIME) {
+      TimeSlot slot = TimeSlot.tryParse(value);
+      if (slot != null) {
+        return slot.toString();
+      }
+    }
+    return value.trim().toLowerCase(Locale.ROOT);
+  }
+
+  /**
+   * Represents a reference to a course by its department code and course ID.
+   */
+  private static final class CourseRef {
+
+    CourseRef(String deptCode, String courseId) {
+      this.deptCode = deptCode;
+      this.courseId = courseId;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+      return other instanceof CourseRef ref && ref.deptCode.equals(deptCode)
+          && ref.courseId.equals(courseId);
+    }
+
+    @Override
+    public int hashCode() {
+      return deptCode.hashCode() * 31 + courseId.hashCode();
+    }
+
+    private final String deptCode;
+    private final String courseId;
+  }
+
+  private final Map<Field, Map<String, Set<CourseRef>>> indexes = Map.of(
+      Field.INSTRUCTOR, new ConcurrentHashMap<>(),
+      Field.LOCATION, new ConcurrentHashMap<>(),
+      Field.TIME, new ConcurrentHashMap<>());
+  private final StampedLock lock = new StampedLock();
+  private volatile boolean built;
+  private long builtFrom;
+}
@@ -0,0 +1,324 @@
+package dev.coms4156.project.individualproject;
+
+import java.io.Serial;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * Represents the courses of a department, keyed by course ID. Besides the usual String keys,
+ * courses whose ID is a plain number are indexed in an open-addressing table of primitive ints,
+ * so looking a course up by its number allocates nothing. Every change made through the map
+ * updates both. The key, value and entry views are read-only, since changes made through them
+ * would bypass the index.
+ */
+public class CourseMap extends HashMap<String, Course> {
+
+  /** The key marking an empty slot; a course numbered with it is only found by String. */
+  private static final int EMPTY = Integer.MIN_VALUE;
+
+  private static final int INITIAL_SLOTS = 16;
+
+  /**
+   * Constructs an empty CourseMap object.
+   */
+  public CourseMap() {
+    clearIndex(INITIAL_SLOTS);
+  }
+
+  /**
+   * Constructs a new CourseMap object holding the given courses.
+   *
+   * @param courses the courses keyed by course ID
+   */
+  public CourseMap(Map<String, ? extends Course> courses) {
+    super(Math.max(INITIAL_SLOTS, courses.size() * 2));
+    clearIndex(Math.max(INITIAL_SLOTS, Integer.highestOneBit(courses.size() * 4 + 1)));
+    putAll(courses);
+  }
+
+  private CourseMap(HashMap<String, Course> courses, int[] keys, Course[] values, int indexed) {
+    // HashMap's copy constructor adds the entries without calling put
+    super(courses);
+    this.keys = keys;
+    this.values = values;
+    this.indexed = indexed;
+  }
+
+  /**
+   * Gets the course with the given number without allocating.
+   *
+   * @param courseId the number of the course
+   * @return the course, or null if there is no such course
+   */
+  public Course get(int courseId) {
+    if (courseId == EMPTY) {
+      return super.get(Integer.toString(courseId));
+    }
+    int slot = slot(courseId);
+    while (keys[slot] != EMPTY) {
+      if (keys[slot] == courseId) {
+        return values[slot];
+      }
+      slot = (slot + 1) & (keys.length - 1);
+    }
+    return null;
+  }
+
+  @Override
+  public Course put(String key, Course value) {
+    Course previous = super.put(key, value);
+    indexPut(parseKey(key), value);
+    return previous;
+  }
+
+  @Override
+  public void putAll(Map<? extends String, ? extends Course> m) {
+    for (Map.Entry<? extends String, ? extends Course> entry : m.entrySet()) {
+      put(entry.getKey(), entry.getValue());
+    }
+  }
+
+  @Override
+  public Course remove(Object key) {
+    Course removed = super.remove(key);
+    if (key instanceof String courseId) {
+      indexRemove(parseKey(courseId));
+    }
+    return removed;
+  }
+
+  @Override
+  public boolean remove(Object key, Object value) {
+    boolean removed = super.remove(key, value);
+    if (removed && key instanceof String courseId) {
+      indexRemove(parseKey(courseId));
+    }
+    return removed;
+  }
+
+  @Override
+  public void clear() {
+    super.clear();
+    clearIndex(INITIAL_SLOTS);
+  }
+
+  @Override
+  public Course putIfAbsent(String key, Course value) {
+    return sync(key, super.putIfAbsent(key, value));
+  }
+
+  @Override
+  public Course replace(String key, Course value) {
+    return sync(key, super.replace(key, value));
+  }
+
+  @Override
+  public boolean replace(String key, Course oldValue, Course newValue) {
+    boolean replaced = super.replace(key, oldValue, newValue);
+    sync(key, null);
+    return replaced;
+  }
+
+  @Override
+  public Course computeIfAbsent(String key,
+      Function<? super String, ? extends Course> mappingFunction) {
+    return sync(key, super.computeIfAbsent(key, mappingFunction));
+  }
+
+  @Override
+  public Course computeIfPresent(String key,
+      BiFunction<? super String, ? super Course, ? extends Course> remappingFunction) {
+    return sync(key, super.computeIfPresent(key, remappingFunction));
+  }
+
+  @Override
+  public Course compute(String key,
+      BiFunction<? super String, ? super Course, ? extends Course> remappingFunction) {
+    return sync(key, super.compute(key, remappingFunction));
+  }
+
+  @Override
+  public Course merge(String key, Course value,
+      BiFunction<? super Course, ? super Course, ? extends Course> remappingFunction) {
+    return sync(key, super.merge(key, value, remappingFunction));
+  }
+
+  @Override
+  public void replaceAll(
+      BiFunction<? super String, ? super Course, ? extends Course> function) {
+    super.replaceAll(function);
+    clearIndex(keys.length);
+    for (Map.Entry<String, Course> entry : super.entrySet()) {
+      indexPut(parseKey(entry.getKey()), entry.getValue());
+    }
+  }
+
+  @Override
+  public Set<String> keySet() {
+    return Collections.unmodifiableSet(super.keySet());
+  }
+
+  @Override
+  public Collection<Course> values() {
+    return Collections.unmodifiableCollection(super.values());
+  }
+
+  @Override
+  public Set<Map.Entry<String, Course>> entrySet() {
+    return Collections.unmodifiableSet(super.entrySet());
+  }
+
+  @Override
+  public Object clone() {
+    return new CourseMap(this);
+  }
+
+  /**
+   * Creates a copy of the map holding the same courses. The index is copied as it is rather than
+   * rebuilt, so no course ID is parsed again.
+   *
+   * @return a new map with the same courses
+   */
+  public CourseMap copy() {
+    return new CourseMap(this, keys.clone(), values.clone(), indexed);
+  }
+
+  /**
+   * Brings the index entry of a key in line with the map after a change made by HashMap.
+   *
+   * @param key    the key that may have changed
+   * @param result the value to return to the caller
+   * @return the given result
+   */
+  private Course sync(String key, Course result) {
+    int courseId = parseKey(key);
+    Course current = super.get(key);
+    if (current != null) {
+      indexPut(courseId, current);
+    } else {
+      indexRemove(courseId);
+    }
+    return result;
+  }
+
+  /**
+   * Gets the number a course ID stands for, if it is written the way Integer.toString writes it.
+   *
+   * @param key the course ID
+   * @return the number, or EMPTY if the ID is not a plain number
+   */
+  private static int parseKey(String key) {
+    if (key == null || key.isEmpty() || key.length() > 11) {
+      return EMPTY;
+    }
+    int start = key.charAt(0) == '-' ? 1 : 0;
+    if (start == key.length() || (key.charAt(start) == '0' && key.length() > start + 1)) {
+      return EMPTY;
+    }
+    long value = 0;
+    for (int i = start; i < key.length(); i++) {
+      char digit = key.charAt(i);
+      if (digit < '0' || digit > '9') {
+        return EMPTY;
+      }
+      value = value * 10 + (digit - '0');
+    }
+    value = start == 1 ? -value : value;
+    if (value <= EMPTY || value > Integer.MAX_VALUE || (value == 0 && start == 1)) {
+      return EMPTY;
+    }
+    return (int) value;
+  }
+
+  private int slot(int courseId) {
+    return (courseId * 0x9E3779B9 >>> 16) & (keys.length - 1);
+  }
+
+  private void clearIndex(int slots) {
+    keys = new int[slots];
+    Arrays.fill(keys, EMPTY);
+    values = new Course[slots];
+    indexed = 0;
+  }
+
+  private void indexPut(int courseId, Course value) {
+    if (courseId == EMPTY) {
+      return;
+    }
+    if ((indexed + 1) * 2 > keys.length) {
+      int[] oldKeys = keys;
+      Course[] oldValues = values;
+      clearIndex(oldKeys.length * 2);
+      for (int i = 0; i < oldKeys.length; i++) {
+        if (oldKeys[i] != EMPTY) {
+          indexPut(oldKeys[i], oldValues[i]);
+        }
+      }
+    }
+    int slot = slot(courseId);
+    while (keys[slot] != EMPTY) {
+      if (keys[slot] == courseId) {
+        values[slot] = value;
+        return;
+      }
+      slot = (slot + 1) & (keys.length - 1);
+    }
+    keys[slot] = courseId;
+    values[slot] = value;
+    indexed++;
+  }
+
+  /**
+   * Removes a number from the index, shifting later entries of its probe run back so lookups
+   * never stop at the hole.
+   *
+   * @param courseId the number of the course
+   */
+  private void indexRemove(int courseId) {
+    if (courseId == EMPTY) {
+      return;
+    }
+    int mask = keys.length - 1;
+    int hole = slot(courseId);
+    while (keys[hole] != courseId) {
+      if (keys[hole] == EMPTY) {
+        return;
+      }
+      hole = (hole + 1) & mask;
+    }
+    int next = (hole + 1) & mask;
+    while (keys[next] != EMPTY) {
+      int home = slot(keys[next]);
+      if (((next - home) & mask) >= ((next - hole) & mask)) {
+        keys[hole] = keys[next];
+        values[hole] = values[next];
+        hole = next;
+      }
+      next = (next + 1) & mask;
+    }
+    keys[hole] = EMPTY;
+    values[hole] = null;
+    indexed--;
+  }
+
+  /**
+   * Serializes the map as a plain HashMap holding every course.
+   *
+   * @return a HashMap with the same entries
+   */
+  private Object writeReplace() {
+    return new HashMap<>(this);
+  }
+
+  @Serial
+  private static final long serialVersionUID = 456789L;
+  private transient int[] keys;
+  private transient Course[] values;
+  private transient int indexed;
+}
@@ -1,5 +1,7 @@
 package dev.coms4156.project.individualproject;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
 import java.io.Serial;
 import java.io.Serializable;
 import java.util.HashMap;
@@ -17,16 +19,18 @@ public class Department implements Serializable {
    * Constructs a new Department object with the given parameters.
    *
    * @param deptCode         The code of the department.
-   * @param courses          A HashMap containing courses offered by the department.
+   * @param courses          A HashMap containing courses offered by the department. Unless it
+   *                         is already a CourseMap, its courses are copied into one.
    * @param departmentChair  The name of the department chair.
    * @param numberOfMajors   The number of majors in the department.
    */
   public Department(String deptCode, HashMap<String, Course> courses, String departmentChair,
                     int numberOfMajors) {
-    this.courses = courses;
+    this.courses = toCourseMap(courses);
     this.departmentChair = departmentChair;
     this.numberOfMajors = numberOfMajors;
     this.deptCode = deptCode;
+    this.dirty = true;
   }
 
   /**
@@ -56,11 +60,32 @@ public class Department implements Serializable {
     return courses;
   }
 
+  /**
+   * Gets a course by its number, without building the String key.
+   *
+   * @param courseId The number of the course.
+   * @return The course, or null if the department offers no such course.
+   */
+  public Course getCourse(int courseId) {
+    return ((CourseMap) courses).get(courseId);
+  }
+
   /**
    * Increases the number of majors in the department by one.
    */
   public void addPersonToMajor() {
     numberOfMajors++;
+    dirty = true;
+  }
+
+  /**
+   * Sets the number of majors in the department.
+   *
+   * @param numberOfMajors The new number of majors.
+   */
+  public void setNumberOfMajors(int numberOfMajors) {
+    this.numberOfMajors = numberOfMajors;
+    this.dirty = true;
   }
 
   /**
@@ -69,6 +94,7 @@ public class Department implements Serializable {
   public void dropPersonFromMajor() {
     if (numberOfMajors > 0) {
       numberOfMajors--;
+      dirty = true;
     }
   }
 
@@ -80,6 +106,7 @@ public class Department implements Serializable {
    */
   public void addCourse(String courseId, Course course) {
     courses.put(courseId, course);
+    dirty = true;
   }
 
   /**
@@ -97,6 +124,53 @@ public class Department implements Serializable {
     addCourse(courseId, newCourse);
   }
 
+  /**
+   * Checks whether the department or any of its courses has changed since the department was
+   * last written to disk. A newly constructed department is dirty until it is first saved.
+   *
+   * @return true if the department has unsaved changes, false otherwise.
+   */
+  public boolean isDirty() {
+    if (dirty) {
+      return true;
+    }
+    for (Course course : courses.values()) {
+      if (course.isDirty()) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Marks the department and all of its courses as matching their saved copy on disk.
+   */
+  public void markClean() {
+    dirty = false;
+    for (Course course : courses.values()) {
+      course.markClean();
+    }
+  }
+
+  /**
+   * Marks the department as changed so it is written by the next save.
+   */
+  public void markDirty() {
+    dirty = true;
+  }
+
+  /**
+   * Creates a copy of the department that can be changed without affecting this one. The copy
+   * has its own course mapping but shares the Course objects, so a course must itself be copied
+   * before it is changed. The copy is dirty until it is first saved.
+   *
+   * @return a new department with the same fields and courses
+   */
+  public Department copy() {
+    return new Department(deptCode, ((CourseMap) courses).copy(), departmentChair,
+        numberOfMajors);
+  }
+
   /**
    * Returns a string representation of the department, including its code and the courses offered.
    *
@@ -119,12 +193,33 @@ public class Department implements Serializable {
     return result.toString();
   }
 
+  private static CourseMap toCourseMap(HashMap<String, Course> courses) {
+    if (courses instanceof CourseMap courseMap) {
+      return courseMap;
+    }
+    return courses != null ? new CourseMap(courses) : new CourseMap();
+  }
+
+  /**
+   * Restores the course index, which is not part of the serialized form.
+   *
+   * @param in the stream the department is read from
+   * @throws IOException            if the stream cannot be read
+   * @throws ClassNotFoundException if a class of the stream cannot be found
+   */
+  @Serial
+  private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+    in.defaultReadObject();
+    courses = toCourseMap(courses);
+  }
+
   @Serial
   private static final long serialVersionUID = 234567L;
   private HashMap<String, Course> courses;
   private String departmentChair;
   private String deptCode;
   private int numberOfMajors;
+  private transient volatile boolean dirty;
 
   /*Add new feature to get department code*/
   public String getDeptCode() {
@@ -0,0 +1,131 @@
+package dev.coms4156.project.individualproject;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Runs the changes to each department on a single thread that owns it. Departments are shared
+ * out among a fixed number of shards by the hash of their code; every change to a department is
+ * queued in its shard's mailbox and applied in order, so changes never need a lock. Reads do not
+ * go through the shards; they are served from the current catalog version.
+ */
+public class DepartmentActors {
+
+  /**
+   * Constructs a DepartmentActors object and starts its shard threads.
+   *
+   * @param shards the number of threads owning departments
+   */
+  public DepartmentActors(int shards) {
+    this.shards = new ExecutorService[Math.max(1, shards)];
+    for (int i = 0; i < this.shards.length; i++) {
+      String name = "department-actor-" + i;
+      this.shards[i] = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, name);
+        thread.setDaemon(true);
+        return thread;
+      });
+    }
+  }
+
+  /**
+   * Queues a change in the mailbox of the shard owning a department.
+   *
+   * @param deptCode the code of the department
+   * @param change   the change to apply
+   * @return a future completed once the change has been applied
+   */
+  public CompletableFuture<Void> submit(String deptCode, Runnable change) {
+    return CompletableFuture.runAsync(change, shardFor(deptCode));
+  }
+
+  /**
+   * Queues a change that starts work finishing off the shard, such as waiting for the change to
+   * be persisted. The shard moves on to its next change as soon as this one returns its future,
+   * and the future returned here completes when that one does.
+   *
+   * @param deptCode the code of the department
+   * @param change   the change to apply, returning a future of the work it started
+   * @param <T>      the type of the result of the work
+   * @return a future completed once the work started by the change has finished
+   */
+  public <T> CompletableFuture<T> submitAsync(String deptCode,
+                                             Supplier<CompletableFuture<T>> change) {
+    return CompletableFuture.supplyAsync(change, shardFor(deptCode))
+        .thenCompose(Function.identity());
+  }
+
+  /**
+   * Queues a change to a department and waits for it to be applied. An exception thrown by the
+   * change is rethrown to the caller.
+   *
+   * @param deptCode the code of the department
+   * @param change   the change to apply
+   */
+  public void run(String deptCode, Runnable change) {
+    join(submit(deptCode, change));
+  }
+
+  /**
+   * Queues a change that starts work finishing off the shard, and waits for that work to
+   * finish without holding up the shard. An exception thrown by the change or the work is
+   * rethrown to the caller.
+   *
+   * @param deptCode the code of the department
+   * @param change   the change to apply, returning a future of the work it started
+   * @param <T>      the type of the result of the work
+   * @return the result of the work
+   */
+  public <T> T call(String deptCode, Supplier<CompletableFuture<T>> change) {
+    return join(submitAsync(deptCode, change));
+  }
+
+  private static <T> T join(CompletableFuture<T> future) {
+    try {
+      return future.join();
+    } catch (CompletionException e) {
+      if (e.getCause() instanceof RuntimeException cause) {
+        throw cause;
+      }
+      throw e;
+    }
+  }
+
+  private ExecutorService shardFor(String deptCode) {
+    int hash = deptCode.hashCode();
+    return shards[Math.floorMod(hash ^ (hash >>> 16), shards.length)];
+  }
+
+  /**
+   * Gets the number of shard threads.
+   *
+   * @return the number of shards
+   */
+  public int getShards() {
+    return shards.length;
+  }
+
+  /**
+   * Stops the shard threads once the changes already queued have been applied.
+   */
+  public void stop() {
+    for (ExecutorService shard : shards) {
+      shard.shutdown();
+    }
+    for (ExecutorService shard : shards) {
+      try {
+        shard.awaitTermination(1, TimeUnit.MINUTES);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return;
+      }
+    }
+  }
+
+  private final ExecutorService[] shards;
+}
@@ -0,0 +1,69 @@
+package dev.coms4156.project.individualproject;
+
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Represents a fixed set of locks shared out among departments by the hash of their code. A
+ * change that reads a department and writes it back holds its department's lock, so two
+ * changes to COMS cannot interleave, while changes to departments on other stripes proceed in
+ * parallel. Reads never take these locks; they are served from the current catalog version.
+ */
+public class DepartmentLocks {
+
+  /** The default number of locks. */
+  public static final int DEFAULT_STRIPES = 64;
+
+  /**
+   * Constructs a new DepartmentLocks object. The number of locks is rounded up to a power of
+   * two.
+   *
+   * @param stripes the number of locks to share out among departments
+   */
+  public DepartmentLocks(int stripes) {
+    int size = stripes <= 1 ? 1 : Integer.highestOneBit(Math.min(stripes, 1 << 16) - 1) << 1;
+    this.locks = new ReentrantLock[size];
+    for (int i = 0; i < locks.length; i++) {
+      locks[i] = new ReentrantLock();
+    }
+  }
+
+  /**
+   * Gets the lock guarding a department.
+   *
+   * @param deptCode the code of the department
+   * @return the lock of the department's stripe
+   */
+  public ReentrantLock lockFor(String deptCode) {
+    int hash = deptCode.hashCode();
+    return locks[(hash ^ (hash >>> 16)) & (locks.length - 1)];
+  }
+
+  /**
+   * Waits for exclusive access to a department.
+   *
+   * @param deptCode the code of the department
+   */
+  public void lock(String deptCode) {
+    lockFor(deptCode).lock();
+  }
+
+  /**
+   * Gives up exclusive access to a department.
+   *
+   * @param deptCode the code of the department
+   */
+  public void unlock(String deptCode) {
+    lockFor(deptCode).unlock();
+  }
+
+  /**
+   * Gets the number of locks.
+   *
+   * @return the number of stripes
+   */
+  public int getStripes() {
+    return locks.length;
+  }
+
+  private final ReentrantLock[] locks;
+}
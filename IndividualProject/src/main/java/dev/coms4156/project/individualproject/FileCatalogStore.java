@@ -0,0 +1,690 @@
+package dev.coms4156.project.individualproject;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+
+
+/**
+ * Represents the storage engine keeping the catalog in a file. The file is a manifest naming one
+ * binary snapshot segment per department, and changes made since the last snapshot are kept in a
+ * checksummed mutation log that is replayed on startup.
+ */
+public class FileCatalogStore implements CatalogStore {
+
+  /** The suffix appended to the database file path to name its mutation log. */
+  public static final String LOG_SUFFIX = ".wal";
+
+  /** The suffix appended to the database file path to name its default segment directory. */
+  public static final String SEGMENT_DIRECTORY_SUFFIX = ".segments";
+
+  /** The default number of logged mutations between snapshots. */
+  public static final int DEFAULT_SNAPSHOT_INTERVAL = 1000;
+
+  /** The path to the file containing the database entries. */
+  private String filePath;
+
+  /** The directory new segment files are written to. */
+  private final Path segmentDirectory;
+
+  /** The current version of the catalog, read without locking. */
+  private volatile CatalogVersion version;
+
+  /** The lock writers hold to publish a version and queue its mutation in the same order. */
+  private final Object publishLock = new Object();
+
+  /** The log of mutations made since the file was last saved. */
+  private final MutationLog mutationLog;
+
+  /** The number of logged mutations after which the file is saved and the log truncated. */
+  private volatile int snapshotInterval = DEFAULT_SNAPSHOT_INTERVAL;
+
+  /** The number of mutations logged since the file was last saved. */
+  private final AtomicInteger mutationsSinceSnapshot = new AtomicInteger();
+
+  /** Whether the catalog was replaced, which is not logged, since the file was last saved. */
+  private volatile boolean replacedSinceSnapshot;
+
+  /** The background checkpointer saving the file, if one has been started. */
+  private volatile Checkpointer checkpointer;
+
+  /** The manifest most recently read from or written to the file, if it is segmented. */
+  private CatalogManifest manifest;
+
+  /** The number of bytes written by the most recent save. */
+  private long lastSnapshotBytes;
+
+  /** Whether departments are read from their segments on first access rather than at startup. */
+  private final boolean lazyLoad;
+
+  /** The number of threads decoding segments when every department is read at startup. */
+  private final int loadParallelism;
+
+  /** The pool holding the instructor, location and time slot values of the catalog. */
+  private final StringPool stringPool = new StringPool(StringPool.DEFAULT_MAX_SIZE);
+
+  /**
+   * Constructs a FileCatalogStore object and loads up the data structure with the contents of
+   * the file. Mutations logged after the file was last saved are replayed on top of its
+   * contents. A fresh store discards any existing log. When loading lazily, startup only reads
+   * the manifest, and each department is read from its segment the first time it is looked up;
+   * otherwise the segments are decoded in parallel by the given number of threads.
+   *
+   * @param flag            0 to load the file, otherwise start with an empty catalog
+   * @param filePath        the path to the file containing the entries of the database
+   * @param lazyLoad        whether to read departments on first access rather than at startup
+   * @param loadParallelism the number of threads decoding segments at startup, or 0 to use
+   *                        one thread per available processor
+   */
+  public FileCatalogStore(int flag, String filePath, boolean lazyLoad, int loadParallelism) {
+    this(flag, filePath, null, lazyLoad, loadParallelism);
+  }
+
+  /**
+   * Constructs a FileCatalogStore object as described by
+   * {@link #FileCatalogStore(int, String, boolean, int)}, writing new segment files to the given
+   * directory. The manifest records where each segment was written, so segments written to
+   * another directory before the setting changed are still read.
+   *
+   * @param flag             0 to load the file, otherwise start with an empty catalog
+   * @param filePath         the path to the file containing the entries of the database
+   * @param segmentDirectory the directory new segment files are written to, or null to use the
+   *                         file path followed by {@link #SEGMENT_DIRECTORY_SUFFIX}
+   * @param lazyLoad         whether to read departments on first access rather than at startup
+   * @param loadParallelism  the number of threads decoding segments at startup, or 0 to use
+   *                         one thread per available processor
+   */
+  public FileCatalogStore(int flag, String filePath, Path segmentDirectory, boolean lazyLoad,
+                          int loadParallelism) {
+    this.filePath = filePath;
+    this.segmentDirectory = (segmentDirectory != null
+        ? segmentDirectory : Paths.get(filePath + SEGMENT_DIRECTORY_SUFFIX))
+        .toAbsolutePath().normalize();
+    this.lazyLoad = lazyLoad;
+    this.loadParallelism = loadParallelism > 0
+        ? loadParallelism : Runtime.getRuntime().availableProcessors();
+    this.mutationLog = new MutationLog(Paths.get(filePath + LOG_SUFFIX));
+    HashMap<String, Department> mapping = new HashMap<>();
+
+    if (flag == 0) {
+      long start = System.nanoTime();
+      HashMap<String, Department> loadedMapping = deSerializeObjectFromFile();
+      if (loadedMapping != null) {
+        mapping = loadedMapping;
+      }
+      replayMutationLog(mapping);
+      stringPool.retainOnly(mapping);
+      reportLoad(start, mapping);
+    } else {
+      try {
+        mutationLog.reset();
+      } catch (IOException e) {
+        e.printStackTrace();
+      }
+    }
+    this.version = new CatalogVersion(0, mapping);
+  }
+
+  /**
+   * Prints how long loading took, how many departments were read, the heap in use and the
+   * footprint of the catalog string pool.
+   *
+   * @param start   the value of {@link System#nanoTime()} when loading started
+   * @param mapping the loaded department mapping
+   */
+  private void reportLoad(long start, HashMap<String, Department> mapping) {
+    long millis = (System.nanoTime() - start) / 1_000_000;
+    int loaded = mapping instanceof LazyDepartmentMap lazy ? lazy.loadedCount() : mapping.size();
+    Runtime runtime = Runtime.getRuntime();
+    long heapKb = (runtime.totalMemory() - runtime.freeMemory()) / 1024;
+    System.out.println("Loaded " + loaded + " of " + mapping.size()
+        + " departments in " + millis + " ms; heap in use: " + heapKb + " KB; "
+        + stringPool);
+  }
+
+  /**
+   * Applies every mutation in the log to the loaded department mapping before it is published.
+   * Only the departments named by the logged mutations are read when loading lazily.
+   *
+   * @param mapping the loaded department mapping
+   */
+  private void replayMutationLog(HashMap<String, Department> mapping) {
+    try {
+      int replayed = mutationLog.replay(mutation -> mutation.applyTo(mapping));
+      if (replayed > 0) {
+        System.out.println("Replayed " + replayed + " logged mutations.");
+      }
+      mutationsSinceSnapshot.set(replayed);
+    } catch (IOException e) {
+      System.err.println("Error reading mutation log. Continuing with the saved contents.");
+      e.printStackTrace();
+    }
+  }
+
+  /**
+   * Publishes a new version with a mutation applied and records it in the log. Versions are
+   * published and their mutations queued under one lock, so the log replays them in the order
+   * readers saw them. The mutation is on disk when this method returns, so it survives a crash.
+   * Concurrent callers share a single forced write of the log. Once enough mutations have been
+   * logged a checkpoint is requested from the background checkpointer, or taken on the calling
+   * thread if none has been started.
+   *
+   * <p>The version is only published once its mutation has been queued, so a mutation that
+   * cannot be encoded is never seen by readers. A mutation that is queued but cannot be forced
+   * to disk has already been published, and is reported to the caller all the same.
+   *
+   * @param mutation the mutation to apply
+   * @return the version published
+   * @throws UncheckedIOException if the mutation cannot be written to the log
+   */
+  @Override
+  public CatalogVersion apply(Mutation mutation) {
+    Publication publication = publish(mutation);
+    publication.await();
+    return publication.getVersion();
+  }
+
+  /**
+   * Publishes a new version with a mutation applied and queues it to be logged, returning
+   * before it is forced to disk. Awaiting the publication waits for the forced write and counts
+   * the mutation towards the next checkpoint.
+   *
+   * @param mutation the mutation to apply
+   * @return the publication of the version
+   * @throws UncheckedIOException if the mutation cannot be queued to the log
+   */
+  @Override
+  public Publication publish(Mutation mutation) {
+    CatalogVersion next;
+    CompletableFuture<Void> committed;
+    synchronized (publishLock) {
+      next = version.apply(mutation);
+      committed = enqueue(mutation);
+      version = next;
+    }
+    return new Publication(next, committed, () -> commit(mutation, committed));
+  }
+
+  /**
+   * Logs the current enrollment of a course after its seat counter was changed. The count is
+   * read under the same lock that orders the log, so the last record of a course always holds
+   * its latest count. The course of the current version is marked as changed, so the next
+   * snapshot writes the count even if the seats were taken through an older version of the
+   * course.
+   *
+   * @param deptCode the code of the department
+   * @param courseId the ID of the course within the department
+   * @throws UncheckedIOException if the count cannot be written to the log
+   */
+  @Override
+  public void recordSeats(String deptCode, String courseId) {
+    Mutation mutation;
+    CompletableFuture<Void> committed;
+    synchronized (publishLock) {
+      Course course = getCourse(deptCode, courseId);
+      if (course == null) {
+        return;
+      }
+      course.markDirty();
+      mutation = Mutation.enrollmentCount(deptCode, courseId, course.getEnrolledStudentCount());
+      committed = enqueue(mutation);
+    }
+    commit(mutation, committed);
+  }
+
+  /**
+   * Logs the current enrollment of a course named by its number, as described by
+   * {@link #recordSeats(String, String)}. The course is found through the department's index
+   * of numbered courses, and the course ID is only written out for the log record.
+   *
+   * @param deptCode   the code of the department
+   * @param courseCode the number of the course within the department
+   * @throws UncheckedIOException if the count cannot be written to the log
+   */
+  @Override
+  public void recordSeats(String deptCode, int courseCode) {
+    Mutation mutation;
+    CompletableFuture<Void> committed;
+    synchronized (publishLock) {
+      Course course = getCourse(deptCode, courseCode);
+      if (course == null) {
+        return;
+      }
+      course.markDirty();
+      mutation = Mutation.enrollmentCount(deptCode, Integer.toString(courseCode),
+          course.getEnrolledStudentCount());
+      committed = enqueue(mutation);
+    }
+    commit(mutation, committed);
+  }
+
+  private CompletableFuture<Void> enqueue(Mutation mutation) {
+    try {
+      return mutationLog.enqueue(mutation);
+    } catch (IOException e) {
+      throw new UncheckedIOException("Error appending to mutation log: " + mutation, e);
+    }
+  }
+
+  /**
+   * Waits for a queued mutation to be on disk, then checkpoints if enough have been logged.
+   *
+   * @param mutation  the mutation queued
+   * @param committed the future returned when it was queued
+   * @throws UncheckedIOException if the mutation cannot be written to the log
+   */
+  private void commit(Mutation mutation, CompletableFuture<Void> committed) {
+    try {
+      MutationLog.await(committed);
+    } catch (IOException e) {
+      throw new UncheckedIOException("Error appending to mutation log: " + mutation, e);
+    }
+    if (mutationsSinceSnapshot.incrementAndGet() >= snapshotInterval) {
+      Checkpointer background = checkpointer;
+      if (background != null) {
+        background.requestCheckpoint();
+      } else {
+        snapshot();
+      }
+    }
+  }
+
+  /**
+   * Starts saving the file in the background every given number of seconds, and whenever the
+   * snapshot interval's worth of mutations has been logged.
+   *
+   * @param intervalSeconds the time between scheduled checkpoints, or 0 to only checkpoint
+   *                        after the snapshot interval's worth of mutations
+   */
+  public synchronized void startCheckpointer(long intervalSeconds) {
+    if (checkpointer == null) {
+      checkpointer = new Checkpointer(this, intervalSeconds);
+    }
+  }
+
+  /**
+   * Gets the background checkpointer of the store.
+   *
+   * @return the checkpointer, or null if none has been started
+   */
+  public Checkpointer getCheckpointer() {
+    return checkpointer;
+  }
+
+  /**
+   * Gets the number of mutations logged since the file was last saved.
+   *
+   * @return the number of mutations not yet covered by a save
+   */
+  public int getMutationsSinceSnapshot() {
+    return mutationsSinceSnapshot.get();
+  }
+
+  /**
+   * Gets whether anything has changed since the file was last saved: either mutations were
+   * logged or the catalog was replaced.
+   *
+   * @return true if a save would write changes
+   */
+  public boolean hasChangesSinceSnapshot() {
+    return replacedSinceSnapshot || mutationsSinceSnapshot.get() > 0;
+  }
+
+  /**
+   * Sets how concurrently logged mutations are grouped before being forced to disk.
+   *
+   * @param maxBatchSize  the maximum number of mutations forced to disk together
+   * @param maxWaitMicros the time to wait for a batch to fill before forcing it
+   */
+  public void configureGroupCommit(int maxBatchSize, long maxWaitMicros) {
+    mutationLog.setGroupCommit(maxBatchSize, maxWaitMicros);
+  }
+
+  /**
+   * Sets the number of logged mutations after which the file is saved and the log truncated.
+   *
+   * @param snapshotInterval the number of mutations between snapshots
+   */
+  public void setSnapshotInterval(int snapshotInterval) {
+    this.snapshotInterval = Math.max(1, snapshotInterval);
+  }
+
+  @Override
+  public CatalogVersion getVersion() {
+    return version;
+  }
+
+  @Override
+  public StringPool getStringPool() {
+    return stringPool;
+  }
+
+  @Override
+  public void setDepartments(HashMap<String, Department> mapping) {
+    synchronized (publishLock) {
+      version = version.replace(mapping);
+      replacedSinceSnapshot = true;
+    }
+    requestCheckpoint();
+  }
+
+  @Override
+  public <T> T replaceDepartments(Replacement<T> replacement) throws IOException {
+    T result;
+    synchronized (publishLock) {
+      HashMap<String, Department> mapping = new HashMap<>(version.getDepartments());
+      result = replacement.replace(mapping);
+      version = version.replace(mapping);
+      replacedSinceSnapshot = true;
+    }
+    requestCheckpoint();
+    return result;
+  }
+
+  /**
+   * Asks the background checkpointer, if one has been started, to save a replaced catalog.
+   * A replacement is not logged, so it is lost on a crash until the file is saved.
+   */
+  private void requestCheckpoint() {
+    Checkpointer background = checkpointer;
+    if (background != null) {
+      background.requestCheckpoint();
+    }
+  }
+
+  /**
+   * Deserializes the object from the file and returns the department mapping. The file is
+   * normally a manifest naming one binary snapshot segment per department. Single-file binary
+   * snapshots and files written by Java serialization in earlier versions are still read so
+   * existing data can be migrated.
+   *
+   * @return the deserialized department mapping
+   */
+  public HashMap<String, Department> deSerializeObjectFromFile() {
+    Path path = Paths.get(filePath);
+    try {
+      int magic = CatalogSnapshot.readMagic(path);
+      if (magic == CatalogManifest.MAGIC) {
+        return readSegments(CatalogManifest.read(path));
+      }
+      if (magic == CatalogSnapshot.MAGIC) {
+        return CatalogSnapshot.read(path);
+      }
+    } catch (IOException e) {
+      System.err.println("Error reading from file. Creating an empty database.");
+      e.printStackTrace();
+      return new HashMap<>();
+    }
+
+    try (ObjectInputStream in = new ObjectInputStream(new FileInputStream(filePath))) {
+      Object obj = in.readObject();
+      if (obj instanceof HashMap) {
+        return (HashMap<String, Department>) obj;
+      } else {
+        System.err.println("Invalid object type in file. Expected HashMap<String, Department>.");
+        return new HashMap<>();
+      }
+    } catch (IOException | ClassNotFoundException e) {
+      System.err.println("Error reading from file. Creating an empty database.");
+      e.printStackTrace();
+      return new HashMap<>();
+    }
+  }
+
+  /**
+   * Reads every segment named by a manifest, or only indexes them when loading lazily. Segments
+   * are independent, so they are decoded in parallel on a pool of the configured size and then
+   * merged into one mapping. The departments read are marked clean, so the next save only
+   * rewrites the segments of departments changed after loading.
+   *
+   * @param loadedManifest the manifest of the file
+   * @return the mapping of department names to Department objects
+   * @throws IOException if a segment cannot be read
+   */
+  private HashMap<String, Department> readSegments(CatalogManifest loadedManifest)
+      throws IOException {
+    Path directory = manifestDirectory();
+    this.manifest = loadedManifest;
+    if (lazyLoad) {
+      return new LazyDepartmentMap(directory, loadedManifest.getSegments(), stringPool);
+    }
+
+    Collection<String> segments = loadedManifest.getSegments().values();
+    List<HashMap<String, Department>> parts;
+    if (loadParallelism == 1 || segments.size() < 2) {
+      parts = new ArrayList<>(segments.size());
+      for (String segment : segments) {
+        parts.add(CatalogSnapshot.read(directory.resolve(segment)));
+      }
+    } else {
+      parts = readInParallel(directory, segments);
+    }
+
+    HashMap<String, Department> mapping = new HashMap<>(segments.size() * 2);
+    for (HashMap<String, Department> part : parts) {
+      for (Map.Entry<String, Department> entry : part.entrySet()) {
+        entry.getValue().markClean();
+        mapping.put(entry.getKey(), entry.getValue());
+      }
+    }
+    return mapping;
+  }
+
+  /**
+   * Decodes segments on a fork/join pool sized to the load parallelism.
+   *
+   * @param directory the directory containing the segment files
+   * @param segments  the names of the segment files
+   * @return the decoded segments, in the order they were given
+   * @throws IOException if a segment cannot be read
+   */
+  private List<HashMap<String, Department>> readInParallel(Path directory,
+      Collection<String> segments) throws IOException {
+    ForkJoinPool pool = new ForkJoinPool(loadParallelism);
+    try {
+      return pool.submit(() -> segments.parallelStream().map(segment -> {
+        try {
+          return CatalogSnapshot.read(directory.resolve(segment));
+        } catch (IOException e) {
+          throw new UncheckedIOException(e);
+        }
+      }).toList()).get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IOException("Interrupted while reading segments", e);
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof UncheckedIOException unchecked) {
+        throw unchecked.getCause();
+      }
+      throw new IOException("Error reading segments", e.getCause());
+    } finally {
+      pool.shutdown();
+    }
+  }
+
+  /**
+   * Saves the contents of the internal data structure to the file. Only departments changed
+   * since the last save are written, each to a new segment file; unchanged departments keep
+   * their existing segment. A new manifest naming every segment is then atomically renamed over
+   * the file, segments no longer named by it are deleted, and the mutation log is truncated.
+   *
+   * <p>Request threads keep publishing versions and logging while a checkpoint runs. The log
+   * position and the current version are taken together under the publish lock. A record is
+   * only queued while its version is published under that lock, so every mutation logged before
+   * that position is part of the version being written and only the log records before it are
+   * removed. Records logged afterwards are kept and replayed over the checkpoint on startup.
+   * Departments that have not been read yet are unchanged, so they keep their segment without
+   * being read. Once the catalog string pool is full, it is rebuilt from the version written.
+   *
+   * @return true if the checkpoint was written, false if it failed
+   */
+  @Override
+  public synchronized boolean snapshot() {
+    int coveredMutations;
+    long logMark;
+    CatalogVersion covered;
+    boolean coveredReplacement;
+    synchronized (publishLock) {
+      coveredMutations = mutationsSinceSnapshot.get();
+      coveredReplacement = replacedSinceSnapshot;
+      replacedSinceSnapshot = false;
+      logMark = mutationLog.size();
+      covered = version;
+    }
+
+    HashMap<String, Department> departmentMapping = covered.getDepartments();
+    Path path = Paths.get(filePath);
+    Path directory = manifestDirectory();
+    Path segmentPrefix = directory.relativize(segmentDirectory);
+    CatalogManifest previous = manifest != null ? manifest : CatalogManifest.readIfPresent(path);
+    long generation = previous != null ? previous.getGeneration() + 1 : 1;
+    Map<String, String> segments = new LinkedHashMap<>();
+    List<Department> written = new ArrayList<>();
+    String lastSegment = null;
+    long bytesWritten = 0;
+
+    try {
+      LazyDepartmentMap lazy = departmentMapping instanceof LazyDepartmentMap lazyMapping
+          ? lazyMapping : null;
+      for (String key : departmentMapping.keySet()) {
+        String existing = previous != null ? previous.getSegments().get(key) : null;
+        if (existing != null && lazy != null && !lazy.isLoaded(key)) {
+          segments.put(key, existing);
+          continue;
+        }
+        Department department = departmentMapping.get(key);
+        if (existing != null && !department.isDirty()) {
+          segments.put(key, existing);
+          continue;
+        }
+
+        // Clear the flags before writing so a change made during the write is saved next time
+        department.markClean();
+        written.add(department);
+        if (lastSegment == null && !Files.isDirectory(segmentDirectory)) {
+          Files.createDirectories(segmentDirectory);
+          CatalogManifest.forceDirectory(segmentDirectory);
+        }
+        String segment = segmentPrefix.resolve(
+            CatalogManifest.segmentName(path, generation, segments.size())).toString();
+        bytesWritten += CatalogSnapshot.write(Map.of(key, department),
+            directory.resolve(segment));
+        segments.put(key, segment);
+        lastSegment = segment;
+      }
+      if (lastSegment != null) {
+        // The manifest only forces its own directory, which does not hold the segments
+        CatalogManifest.forceDirectory(directory.resolve(lastSegment));
+      }
+
+      CatalogManifest next = new CatalogManifest(generation, segments);
+      bytesWritten += next.writeAtomically(path);
+      manifest = next;
+      lastSnapshotBytes = bytesWritten;
+      System.out.println("Object serialized successfully.");
+    } catch (IOException e) {
+      e.printStackTrace();
+      for (Department department : written) {
+        department.markDirty();
+      }
+      if (coveredReplacement) {
+        replacedSinceSnapshot = true;
+      }
+      return false;
+    }
+
+    if (previous != null) {
+      deleteUnusedSegments(previous, manifest);
+    }
+    if (stringPool.isFull()) {
+      stringPool.retainOnly(departmentMapping);
+    }
+    try {
+      mutationLog.truncatePrefix(logMark);
+      mutationsSinceSnapshot.addAndGet(-coveredMutations);
+    } catch (IOException e) {
+      e.printStackTrace();
+    }
+    return true;
+  }
+
+  /**
+   * Deletes the segments named by an old manifest that the current manifest no longer uses.
+   *
+   * @param previous the manifest that was replaced
+   * @param current  the manifest now in place
+   */
+  private void deleteUnusedSegments(CatalogManifest previous, CatalogManifest current) {
+    Path directory = manifestDirectory();
+    for (String segment : previous.getSegments().values()) {
+      if (!current.getSegments().containsValue(segment)) {
+        try {
+          Files.deleteIfExists(directory.resolve(segment));
+        } catch (IOException e) {
+          System.err.println("Could not delete unused segment " + segment);
+        }
+      }
+    }
+  }
+
+  /**
+   * Gets the directory containing the file, which the segment paths in a manifest are relative
+   * to.
+   *
+   * @return the directory containing the file
+   */
+  private Path manifestDirectory() {
+    return Paths.get(filePath).toAbsolutePath().normalize().getParent();
+  }
+
+  /**
+   * Gets the directory new segment files are written to.
+   *
+   * @return the segment directory
+   */
+  public Path getSegmentDirectory() {
+    return segmentDirectory;
+  }
+
+  /**
+   * Gets the number of bytes written by the most recent save, covering the rewritten segments
+   * and the manifest.
+   *
+   * @return the number of bytes written
+   */
+  public long getLastSnapshotBytes() {
+    return lastSnapshotBytes;
+  }
+
+  /**
+   * Stops the background checkpointer and releases the file handles held by the store.
+   * The contents are not saved.
+   */
+  @Override
+  public void close() {
+    Checkpointer background = checkpointer;
+    if (background != null) {
+      background.stop();
+      checkpointer = null;
+    }
+    try {
+      mutationLog.close();
+    } catch (IOException e) {
+      e.printStackTrace();
+    }
+  }
+}
@@ -0,0 +1,391 @@
+package dev.coms4156.project.individualproject;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Paths;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Represents a storage engine keeping the catalog in an embedded H2 database file. Every
+ * mutation is written to the database as it is applied, so no log or background checkpoint is
+ * needed; a snapshot writes the departments that changed outside of mutations, such as
+ * departments added by an import.
+ *
+ * <p>Each row update borrows a connection from a pool of idle ones and commits on its own, so
+ * enrollments in different courses are written in parallel and H2 only locks the rows they
+ * change. Updates to the same row hold that row's stripe lock from publishing the new value to
+ * writing it, so the row ends up with the latest value. A snapshot takes every stripe, so no
+ * update lands between reading the catalog and writing it.
+ */
+public class H2CatalogStore extends InMemoryCatalogStore {
+
+  /** The suffix appended to the database file path to name the H2 database. */
+  public static final String DATABASE_SUFFIX = ".h2";
+
+  /** The number of locks shared out among the rows by the hash of their keys. */
+  private static final int ROW_STRIPES = 64;
+
+  /** How long a statement waits for a row locked by another connection, in milliseconds. */
+  private static final int LOCK_TIMEOUT_MILLIS = 10_000;
+
+  /**
+   * Constructs an H2CatalogStore object, creating the database if it does not exist.
+   *
+   * @param flag     0 to load the catalog from the database, otherwise start with an empty one
+   * @param filePath the path to the database file, which the H2 database is named after
+   * @throws SQLException if the database cannot be opened
+   */
+  public H2CatalogStore(int flag, String filePath) throws SQLException {
+    this.url = "jdbc:h2:file:" + Paths.get(filePath + DATABASE_SUFFIX).toAbsolutePath()
+        + ";LOCK_TIMEOUT=" + LOCK_TIMEOUT_MILLIS;
+    this.rowLocks = new ReentrantLock[ROW_STRIPES];
+    for (int i = 0; i < rowLocks.length; i++) {
+      rowLocks[i] = new ReentrantLock();
+    }
+    Connection connection = borrow();
+    try {
+      try (Statement statement = connection.createStatement()) {
+        statement.execute("CREATE TABLE IF NOT EXISTS department (dept_key VARCHAR PRIMARY KEY, "
+            + "dept_code VARCHAR, chair VARCHAR, majors INT)");
+        statement.execute("CREATE TABLE IF NOT EXISTS course (dept_key VARCHAR, "
+            + "course_id VARCHAR, instructor VARCHAR, location VARCHAR, time_slot VARCHAR, "
+            + "capacity INT, enrolled INT, PRIMARY KEY (dept_key, course_id))");
+      }
+
+      if (flag == 0) {
+        HashMap<String, Department> mapping = load(connection);
+        getStringPool().retainOnly(mapping);
+        this.version = new CatalogVersion(0, mapping);
+      } else {
+        replaced = true;
+      }
+    } finally {
+      giveBack(connection);
+    }
+  }
+
+  private HashMap<String, Department> load(Connection connection) throws SQLException {
+    HashMap<String, Department> mapping = new HashMap<>();
+    try (Statement statement = connection.createStatement()) {
+      try (ResultSet rows = statement.executeQuery(
+          "SELECT dept_key, dept_code, chair, majors FROM department")) {
+        while (rows.next()) {
+          mapping.put(rows.getString(1), new Department(rows.getString(2), new HashMap<>(),
+              rows.getString(3), rows.getInt(4)));
+        }
+      }
+      try (ResultSet rows = statement.executeQuery("SELECT dept_key, course_id, instructor, "
+          + "location, time_slot, capacity, enrolled FROM course")) {
+        while (rows.next()) {
+          Department department = mapping.get(rows.getString(1));
+          if (department != null) {
+            Course course = new Course(rows.getString(3), rows.getString(4), rows.getString(5),
+                rows.getInt(6));
+            course.setEnrolledStudentCount(rows.getInt(7));
+            department.getCourseSelection().put(rows.getString(2), course);
+          }
+        }
+      }
+    }
+    for (Department department : mapping.values()) {
+      department.markClean();
+    }
+    return mapping;
+  }
+
+  @Override
+  public synchronized void setDepartments(HashMap<String, Department> mapping) {
+    super.setDepartments(mapping);
+    replaced = true;
+  }
+
+  @Override
+  public synchronized <T> T replaceDepartments(Replacement<T> replacement) throws IOException {
+    T result = super.replaceDepartments(replacement);
+    replaced = true;
+    return result;
+  }
+
+  /**
+   * Publishes a new version with a mutation applied and updates the changed row in the same
+   * call. Only publishing the version is done one mutation at a time; the row is written while
+   * holding just its stripe.
+   *
+   * @param mutation the mutation to apply
+   * @return the version published
+   * @throws UncheckedIOException if the row cannot be updated
+   */
+  @Override
+  public CatalogVersion apply(Mutation mutation) {
+    ReentrantLock rowLock = rowLock(mutation.getDeptCode(), mutation.getCourseId());
+    rowLock.lock();
+    try {
+      CatalogVersion next;
+      synchronized (this) {
+        next = version.apply(mutation);
+        if (next == version) {
+          return next;
+        }
+        version = next;
+      }
+      update(mutation);
+      return next;
+    } finally {
+      rowLock.unlock();
+    }
+  }
+
+  /**
+   * Updates the enrolled column of a course to the current count of its seat counter. The
+   * count is read under the row's stripe, so a slower call cannot overwrite a newer count.
+   *
+   * @param deptCode the code of the department
+   * @param courseId the ID of the course within the department
+   * @throws UncheckedIOException if the row cannot be updated
+   */
+  @Override
+  public void recordSeats(String deptCode, String courseId) {
+    ReentrantLock rowLock = rowLock(deptCode, courseId);
+    rowLock.lock();
+    try {
+      Course course = getCourse(deptCode, courseId);
+      if (course != null) {
+        update(Mutation.enrollmentCount(deptCode, courseId, course.getEnrolledStudentCount()));
+      }
+    } finally {
+      rowLock.unlock();
+    }
+  }
+
+  /**
+   * Updates the enrolled column of a course named by its number, as described by
+   * {@link #recordSeats(String, String)}.
+   *
+   * @param deptCode   the code of the department
+   * @param courseCode the number of the course within the department
+   * @throws UncheckedIOException if the row cannot be updated
+   */
+  @Override
+  public void recordSeats(String deptCode, int courseCode) {
+    recordSeats(deptCode, Integer.toString(courseCode));
+  }
+
+  private void update(Mutation mutation) {
+    String column;
+    switch (mutation.getType()) {
+      case MAJOR_COUNT:
+        column = "majors";
+        break;
+      case ENROLLMENT_COUNT:
+        column = "enrolled";
+        break;
+      case COURSE_TIME:
+        column = "time_slot";
+        break;
+      case COURSE_INSTRUCTOR:
+        column = "instructor";
+        break;
+      case COURSE_LOCATION:
+        column = "location";
+        break;
+      default:
+        return;
+    }
+    boolean departmentLevel = mutation.getType() == Mutation.Type.MAJOR_COUNT;
+    String sql = departmentLevel
+        ? "UPDATE department SET " + column + " = ? WHERE dept_key = ?"
+        : "UPDATE course SET " + column + " = ? WHERE dept_key = ? AND course_id = ?";
+
+    Connection connection = null;
+    try {
+      connection = borrow();
+      try (PreparedStatement update = connection.prepareStatement(sql)) {
+        if (departmentLevel || mutation.getType() == Mutation.Type.ENROLLMENT_COUNT) {
+          update.setInt(1, mutation.getIntValue());
+        } else {
+          update.setString(1, mutation.getStringValue());
+        }
+        update.setString(2, mutation.getDeptCode());
+        if (!departmentLevel) {
+          update.setString(3, mutation.getCourseId());
+        }
+        update.executeUpdate();
+      }
+    } catch (SQLException e) {
+      throw new UncheckedIOException(
+          new IOException("Error applying mutation to the database: " + mutation, e));
+    } finally {
+      if (connection != null) {
+        giveBack(connection);
+      }
+    }
+  }
+
+  /**
+   * Writes every department of the current version changed since it was last written in one
+   * transaction. After the catalog has been replaced, the tables are cleared first so removed
+   * departments go too. Every row stripe is held meanwhile, so no row update is overwritten
+   * by the older value read here.
+   *
+   * @return true if the departments were written, false if the transaction failed
+   */
+  @Override
+  public boolean snapshot() {
+    for (ReentrantLock rowLock : rowLocks) {
+      rowLock.lock();
+    }
+    try {
+      synchronized (this) {
+        return writeChangedDepartments();
+      }
+    } finally {
+      for (ReentrantLock rowLock : rowLocks) {
+        rowLock.unlock();
+      }
+    }
+  }
+
+  private boolean writeChangedDepartments() {
+    List<Department> written = new ArrayList<>();
+    Connection connection;
+    try {
+      connection = borrow();
+    } catch (SQLException e) {
+      e.printStackTrace();
+      return false;
+    }
+    try {
+      connection.setAutoCommit(false);
+      if (replaced) {
+        try (Statement statement = connection.createStatement()) {
+          statement.execute("DELETE FROM course");
+          statement.execute("DELETE FROM department");
+        }
+      }
+      try (PreparedStatement department = connection.prepareStatement(
+          "MERGE INTO department KEY (dept_key) VALUES (?, ?, ?, ?)");
+           PreparedStatement course = connection.prepareStatement(
+               "MERGE INTO course KEY (dept_key, course_id) VALUES (?, ?, ?, ?, ?, ?, ?)")) {
+        for (Map.Entry<String, Department> entry : version.getDepartments().entrySet()) {
+          Department value = entry.getValue();
+          if (!replaced && !value.isDirty()) {
+            continue;
+          }
+          department.setString(1, entry.getKey());
+          department.setString(2, value.getDeptCode());
+          department.setString(3, value.getDepartmentChair());
+          department.setInt(4, value.getNumberOfMajors());
+          department.addBatch();
+          for (Map.Entry<String, Course> courseEntry : value.getCourseSelection().entrySet()) {
+            Course row = courseEntry.getValue();
+            course.setString(1, entry.getKey());
+            course.setString(2, courseEntry.getKey());
+            course.setString(3, row.getInstructorName());
+            course.setString(4, row.getCourseLocation());
+            course.setString(5, row.getCourseTimeSlot());
+            course.setInt(6, row.enrollmentCapacity);
+            course.setInt(7, row.getEnrolledStudentCount());
+            course.addBatch();
+          }
+          value.markClean();
+          written.add(value);
+        }
+        department.executeBatch();
+        course.executeBatch();
+      }
+      connection.commit();
+      replaced = false;
+      return true;
+    } catch (SQLException e) {
+      e.printStackTrace();
+      for (Department department : written) {
+        department.markDirty();
+      }
+      try {
+        connection.rollback();
+      } catch (SQLException rollbackError) {
+        rollbackError.printStackTrace();
+      }
+      return false;
+    } finally {
+      try {
+        connection.setAutoCommit(true);
+      } catch (SQLException e) {
+        e.printStackTrace();
+      }
+      giveBack(connection);
+    }
+  }
+
+  @Override
+  public void close() {
+    closed = true;
+    closeIdle();
+  }
+
+  /**
+   * Takes an idle connection from the pool, or opens a new one if none is idle.
+   *
+   * @return a connection in auto-commit mode
+   * @throws SQLException if the store is closed or a connection cannot be opened
+   */
+  private Connection borrow() throws SQLException {
+    if (closed) {
+      throw new SQLException("The catalog database is closed");
+    }
+    Connection connection = idle.pollFirst();
+    return connection != null ? connection : DriverManager.getConnection(url);
+  }
+
+  /**
+   * Returns a connection to the pool, closing it instead if the store has been closed.
+   *
+   * @param connection the connection taken by {@link #borrow()}
+   */
+  private void giveBack(Connection connection) {
+    idle.offerFirst(connection);
+    if (closed) {
+      closeIdle();
+    }
+  }
+
+  private void closeIdle() {
+    Connection connection;
+    while ((connection = idle.pollFirst()) != null) {
+      try {
+        connection.close();
+      } catch (SQLException e) {
+        e.printStackTrace();
+      }
+    }
+  }
+
+  /**
+   * Gets the lock guarding a row.
+   *
+   * @param deptCode the department key of the row
+   * @param courseId the course ID of the row, or null for a department row
+   * @return the lock of the row's stripe
+   */
+  private ReentrantLock rowLock(String deptCode, String courseId) {
+    int hash = 31 * deptCode.hashCode() + (courseId != null ? courseId.hashCode() : 0);
+    return rowLocks[(hash ^ (hash >>> 16)) & (rowLocks.length - 1)];
+  }
+
+  private final String url;
+  private final ConcurrentLinkedDeque<Connection> idle = new ConcurrentLinkedDeque<>();
+  private final ReentrantLock[] rowLocks;
+  private volatile boolean closed;
+  private boolean replaced;
+}
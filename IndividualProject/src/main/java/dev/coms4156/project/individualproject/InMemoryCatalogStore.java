@@ -0,0 +1,69 @@
+package dev.coms4156.project.individualproject;
+
+import java.io.IOException;
+import java.util.HashMap;
+
+/**
+ * Represents a storage engine that only keeps the catalog in memory. Nothing is written to disk,
+ * which makes it suitable for load tests that should not measure the disk. Reads take the
+ * current {@link CatalogVersion} without locking, while mutations publish a new version one at a
+ * time.
+ */
+public class InMemoryCatalogStore implements CatalogStore {
+
+  /**
+   * Constructs an empty InMemoryCatalogStore object.
+   */
+  public InMemoryCatalogStore() {
+    this.version = new CatalogVersion(0, new HashMap<>());
+  }
+
+  @Override
+  public CatalogVersion getVersion() {
+    return version;
+  }
+
+  @Override
+  public StringPool getStringPool() {
+    return stringPool;
+  }
+
+  @Override
+  public synchronized void setDepartments(HashMap<String, Department> mapping) {
+    version = version.replace(mapping);
+  }
+
+  @Override
+  public synchronized <T> T replaceDepartments(Replacement<T> replacement) throws IOException {
+    HashMap<String, Department> mapping = new HashMap<>(version.getDepartments());
+    T result = replacement.replace(mapping);
+    version = version.replace(mapping);
+    return result;
+  }
+
+  @Override
+  public synchronized CatalogVersion apply(Mutation mutation) {
+    version = version.apply(mutation);
+    return version;
+  }
+
+  @Override
+  public void recordSeats(String deptCode, String courseId) {
+  }
+
+  @Override
+  public void recordSeats(String deptCode, int courseCode) {
+  }
+
+  @Override
+  public boolean snapshot() {
+    return true;
+  }
+
+  @Override
+  public void close() {
+  }
+
+  protected volatile CatalogVersion version;
+  private final StringPool stringPool = new StringPool(StringPool.DEFAULT_MAX_SIZE);
+}
@@ -1,7 +1,13 @@
 package dev.coms4156.project.individualproject;
 
 import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Paths;
 import java.util.HashMap;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
@@ -30,25 +36,58 @@ public class IndividualProjectApplication implements CommandLineRunner {
    * This contains all the setup logic, it will mainly be focused
    * on loading up and creating an instance of the database based
    * off a saved file or will create a fresh database if the file
-   * is not present.
+   * is not present. The "import" argument followed by a file name
+   * creates a fresh database from the rows of a CSV or JSON Lines file,
+   * and the "export" argument writes the saved database to such a file.
    *
    * @param args A {@code String[]} of any potential runtime args
    */
   public void run(String[] args) {
-    for (String arg : args) {
-      if (arg.equals("setup")) {
-        myFileDatabase = new MyFileDatabase(1, "./data.txt");
+    for (int i = 0; i < args.length; i++) {
+      if (args[i].equals("setup")) {
+        myFileDatabase = new MyFileDatabase(1, "./data.txt", storeEngine, segmentDirectory,
+            lazyLoad, loadParallelism);
+        configureDatabase();
         resetDataFile();
         System.out.println("System Setup");
         return;
       }
+      if (args[i].equals("import") && i + 1 < args.length) {
+        myFileDatabase = new MyFileDatabase(1, "./data.txt", storeEngine, segmentDirectory,
+            lazyLoad, loadParallelism);
+        configureDatabase();
+        importDataFile(args[i + 1]);
+        System.out.println("System Import");
+        return;
+      }
+      if (args[i].equals("export") && i + 1 < args.length) {
+        exportDataFile(args[i + 1]);
+        System.out.println("System Export");
+        return;
+      }
     }
     if (myFileDatabase == null) {
-      myFileDatabase = new MyFileDatabase(0, "./data.txt");
+      myFileDatabase = new MyFileDatabase(0, "./data.txt", storeEngine, segmentDirectory,
+          lazyLoad, loadParallelism);
+      configureDatabase();
     }
     System.out.println("Start up");
   }
 
+  /**
+   * Applies the durability settings from the application properties to a newly
+   * created database, starts its background checkpointer, the expiry of seat holds and, if
+   * configured, the threads owning the departments.
+   */
+  private void configureDatabase() {
+    myFileDatabase.configureGroupCommit(walMaxBatchSize, walMaxWaitMicros);
+    myFileDatabase.setSnapshotInterval(checkpointMutations);
+    myFileDatabase.startCheckpointer(checkpointIntervalSeconds);
+    myFileDatabase.startDepartmentActors(departmentActorShards);
+    myFileDatabase.setRejectRoomConflicts(rejectRoomConflicts);
+    myFileDatabase.startSeatHoldExpiry();
+  }
+
   /**
    * Overrides the database reference, used when testing.
    *
@@ -59,6 +98,43 @@ public class IndividualProjectApplication implements CommandLineRunner {
     saveData = false;
   }
 
+  /**
+   * Replaces the data with the rows of a CSV or JSON Lines file and saves it. The format is
+   * chosen by the file extension.
+   *
+   * @param fileName the path to the file to import
+   */
+  public void importDataFile(String fileName) {
+    HashMap<String, Department> mapping = new HashMap<>();
+    try (Reader reader = Files.newBufferedReader(Paths.get(fileName))) {
+      CatalogImporter.Result result = new CatalogImporter(CatalogFormat.fromFileName(fileName))
+          .importInto(reader, mapping);
+      myFileDatabase.setMapping(mapping);
+      myFileDatabase.saveContentsToFile();
+      System.out.println(result);
+    } catch (IOException e) {
+      System.err.println("Error importing " + fileName + ". No data was changed.");
+      e.printStackTrace();
+    }
+  }
+
+  /**
+   * Writes the saved data to a CSV or JSON Lines file, one department at a time. The format is
+   * chosen by the file extension.
+   *
+   * @param fileName the path to the file to write
+   */
+  public void exportDataFile(String fileName) {
+    try (Writer writer = Files.newBufferedWriter(Paths.get(fileName))) {
+      long rows = new CatalogExporter(CatalogFormat.fromFileName(fileName), writer)
+          .writeFile(Paths.get("./data.txt"));
+      System.out.println("Exported " + rows + " rows to " + fileName);
+    } catch (IOException e) {
+      System.err.println("Error exporting to " + fileName);
+      e.printStackTrace();
+    }
+  }
+
   /**
    * Allows for data to be reset in event of errors.
    */
@@ -295,6 +371,7 @@ public class IndividualProjectApplication implements CommandLineRunner {
     System.out.println("Termination");
     if (myFileDatabase != null && saveData) {
       myFileDatabase.saveContentsToFile();
+      myFileDatabase.close();
     } else {
       System.err.println("myFileDatabase is null. Skipping save.");
     }
@@ -304,4 +381,40 @@ public class IndividualProjectApplication implements CommandLineRunner {
   //Database Instance
   public static MyFileDatabase myFileDatabase;
   private static boolean saveData = true;
+
+  //Mutation log group commit settings
+  @Value("${catalog.wal.max-batch-size:128}")
+  private int walMaxBatchSize = MutationLog.DEFAULT_MAX_BATCH_SIZE;
+  @Value("${catalog.wal.max-wait-micros:100}")
+  private long walMaxWaitMicros = MutationLog.DEFAULT_MAX_WAIT_MICROS;
+
+  //Storage engine holding the catalog: file, memory or h2
+  @Value("${catalog.store:file}")
+  private String storeEngine = MyFileDatabase.FILE_ENGINE;
+
+  //Directory the file engine writes segment files to; empty uses data.txt.segments
+  @Value("${catalog.segments.directory:}")
+  private String segmentDirectory = "";
+
+  //Whether departments are read on first access rather than at startup
+  @Value("${catalog.load.lazy:true}")
+  private boolean lazyLoad = true;
+
+  //Number of threads decoding segments when every department is read at startup
+  @Value("${catalog.load.parallelism:0}")
+  private int loadParallelism;
+
+  //Background checkpoint settings
+  @Value("${catalog.checkpoint.interval-seconds:60}")
+  private long checkpointIntervalSeconds = 60;
+  @Value("${catalog.checkpoint.mutations:1000}")
+  private int checkpointMutations = FileCatalogStore.DEFAULT_SNAPSHOT_INTERVAL;
+
+  //Number of threads owning departments and running their changes; 0 uses locks
+  @Value("${catalog.write.actor-shards:0}")
+  private int departmentActorShards;
+
+  //Whether moving a course into a room already booked at that time is refused
+  @Value("${catalog.rooms.reject-conflicts:false}")
+  private boolean rejectRoomConflicts;
 }
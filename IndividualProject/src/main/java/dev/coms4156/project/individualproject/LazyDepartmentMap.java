@@ -0,0 +1,324 @@
+package dev.coms4156.project.individualproject;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * Represents a department mapping whose departments are read from their segment files on first
+ * access. Every key of the manifest is present from the start, so lookups, key iteration and the
+ * size of the map never touch a segment. Looking up a department reads only its own segment,
+ * while operations over all values, such as iterating the entries, read every segment not yet
+ * loaded.
+ *
+ * <p>Every copy made from a map shares the departments read through it, so a department is
+ * read at most once no matter how many catalog versions look it up, and every version that has
+ * not replaced it sees the same Department object.
+ */
+public class LazyDepartmentMap extends HashMap<String, Department> {
+
+  /**
+   * Constructs a new LazyDepartmentMap object holding every department named by a manifest.
+   *
+   * @param directory the directory the segment paths are relative to
+   * @param segments  the path of each department's segment file, keyed by department name
+   * @param pool      the pool the values of each department's courses are pooled into as it
+   *                  is read
+   */
+  public LazyDepartmentMap(Path directory, Map<String, String> segments, StringPool pool) {
+    this(new Segments(directory, segments, pool), segments.keySet());
+  }
+
+  private LazyDepartmentMap(Segments segments, Set<String> unloadedKeys) {
+    super(unloadedKeys.size() * 2);
+    this.segments = segments;
+    this.unloaded = ConcurrentHashMap.newKeySet(unloadedKeys.size());
+    this.unloaded.addAll(unloadedKeys);
+    for (String key : unloadedKeys) {
+      super.put(key, null);
+    }
+  }
+
+  /**
+   * Creates a copy of the map without reading any segment. Departments already in this map are
+   * shared with the copy, and the others are read through the cache the copy shares with this
+   * map, so both see the same department whichever is asked for it first.
+   *
+   * @return a new map with the same departments
+   */
+  public synchronized LazyDepartmentMap copy() {
+    LazyDepartmentMap copy = new LazyDepartmentMap(segments, unloaded);
+    for (String key : keySet()) {
+      if (!unloaded.contains(key)) {
+        copy.put(key, super.get(key));
+      }
+    }
+    return copy;
+  }
+
+  /**
+   * Checks whether the department with the given name has been read from its segment.
+   *
+   * @param key the name of the department
+   * @return true if the department is in memory, false if it has not been read yet
+   */
+  public boolean isLoaded(Object key) {
+    return !unloaded.contains(key) || segments.isRead(key);
+  }
+
+  /**
+   * Gets the number of departments that have been read from their segments.
+   *
+   * @return the number of departments in memory
+   */
+  public int loadedCount() {
+    int notRead = 0;
+    for (String key : unloaded) {
+      if (!segments.isRead(key)) {
+        notRead++;
+      }
+    }
+    return size() - notRead;
+  }
+
+  /**
+   * Reads every department that has not been read yet.
+   */
+  public void loadAll() {
+    for (String key : unloaded) {
+      load(key);
+    }
+  }
+
+  /**
+   * Takes a department from the shared cache, reading it from its segment if no map has read it
+   * yet.
+   *
+   * @param key the name of the department
+   */
+  private void load(Object key) {
+    if (!unloaded.contains(key)) {
+      return;
+    }
+    Department department = segments.read((String) key);
+    synchronized (this) {
+      // A department put while it was being read replaces the one read
+      if (unloaded.remove(key)) {
+        super.put((String) key, department);
+      }
+    }
+  }
+
+  @Override
+  public Department get(Object key) {
+    load(key);
+    return super.get(key);
+  }
+
+  @Override
+  public Department getOrDefault(Object key, Department defaultValue) {
+    load(key);
+    return super.getOrDefault(key, defaultValue);
+  }
+
+  @Override
+  public Department put(String key, Department value) {
+    synchronized (this) {
+      unloaded.remove(key);
+      return super.put(key, value);
+    }
+  }
+
+  @Override
+  public Department putIfAbsent(String key, Department value) {
+    load(key);
+    return super.putIfAbsent(key, value);
+  }
+
+  @Override
+  public void putAll(Map<? extends String, ? extends Department> m) {
+    for (Map.Entry<? extends String, ? extends Department> entry : m.entrySet()) {
+      put(entry.getKey(), entry.getValue());
+    }
+  }
+
+  @Override
+  public Department remove(Object key) {
+    load(key);
+    return super.remove(key);
+  }
+
+  @Override
+  public boolean remove(Object key, Object value) {
+    load(key);
+    return super.remove(key, value);
+  }
+
+  @Override
+  public Department replace(String key, Department value) {
+    load(key);
+    return super.replace(key, value);
+  }
+
+  @Override
+  public boolean replace(String key, Department oldValue, Department newValue) {
+    load(key);
+    return super.replace(key, oldValue, newValue);
+  }
+
+  @Override
+  public Department computeIfAbsent(String key,
+      Function<? super String, ? extends Department> mappingFunction) {
+    load(key);
+    return super.computeIfAbsent(key, mappingFunction);
+  }
+
+  @Override
+  public Department computeIfPresent(String key,
+      BiFunction<? super String, ? super Department, ? extends Department> remappingFunction) {
+    load(key);
+    return super.computeIfPresent(key, remappingFunction);
+  }
+
+  @Override
+  public Department compute(String key,
+      BiFunction<? super String, ? super Department, ? extends Department> remappingFunction) {
+    load(key);
+    return super.compute(key, remappingFunction);
+  }
+
+  @Override
+  public Department merge(String key, Department value,
+      BiFunction<? super Department, ? super Department, ? extends Department> remappingFunction) {
+    load(key);
+    return super.merge(key, value, remappingFunction);
+  }
+
+  @Override
+  public void clear() {
+    synchronized (this) {
+      unloaded.clear();
+      super.clear();
+    }
+  }
+
+  @Override
+  public boolean containsValue(Object value) {
+    loadAll();
+    return super.containsValue(value);
+  }
+
+  @Override
+  public Collection<Department> values() {
+    loadAll();
+    return super.values();
+  }
+
+  @Override
+  public Set<Map.Entry<String, Department>> entrySet() {
+    loadAll();
+    return super.entrySet();
+  }
+
+  @Override
+  public void forEach(BiConsumer<? super String, ? super Department> action) {
+    loadAll();
+    super.forEach(action);
+  }
+
+  @Override
+  public void replaceAll(
+      BiFunction<? super String, ? super Department, ? extends Department> function) {
+    loadAll();
+    super.replaceAll(function);
+  }
+
+  @Override
+  public Object clone() {
+    loadAll();
+    return new HashMap<>(this);
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    loadAll();
+    return super.equals(o);
+  }
+
+  @Override
+  public int hashCode() {
+    loadAll();
+    return super.hashCode();
+  }
+
+  /**
+   * Serializes the map as a plain HashMap holding every department.
+   *
+   * @return a HashMap with the same entries
+   */
+  private Object writeReplace() {
+    return new HashMap<>(this);
+  }
+
+  /**
+   * Holds the segments named by one manifest and the departments read from them, shared by
+   * every map copied from the map created for the manifest.
+   */
+  private static final class Segments {
+
+    Segments(Path directory, Map<String, String> names, StringPool pool) {
+      this.directory = directory;
+      this.names = Map.copyOf(names);
+      this.pool = pool;
+    }
+
+    /**
+     * Gets a department, reading it from its segment the first time any map asks for it. The
+     * department is marked clean, so the next save keeps its existing segment unless it is
+     * changed, and the values of its courses are pooled.
+     *
+     * @param key the name of the department
+     * @return the department, or null if its segment does not hold it
+     */
+    Department read(String key) {
+      Department department = departments.get(key);
+      if (department != null) {
+        return department;
+      }
+      return departments.computeIfAbsent(key, name -> {
+        String segment = names.get(name);
+        try {
+          Department loaded = CatalogSnapshot.read(directory.resolve(segment)).get(name);
+          if (loaded != null) {
+            loaded.markClean();
+            pool.pool(loaded);
+          }
+          return loaded;
+        } catch (IOException e) {
+          throw new UncheckedIOException("Error reading segment " + segment, e);
+        }
+      });
+    }
+
+    boolean isRead(Object key) {
+      return departments.containsKey(key);
+    }
+
+    private final Path directory;
+    private final Map<String, String> names;
+    private final StringPool pool;
+    private final ConcurrentHashMap<String, Department> departments = new ConcurrentHashMap<>();
+  }
+
+  private static final long serialVersionUID = 345678L;
+  private final transient Segments segments;
+  private final transient Set<String> unloaded;
+}
@@ -0,0 +1,184 @@
+package dev.coms4156.project.individualproject;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * Represents a single change made to the catalog by one of the write endpoints.
+ * A mutation records the value the changed field holds after the change rather than the
+ * operation that produced it, so applying the same mutation twice leaves the catalog unchanged.
+ */
+public class Mutation {
+
+  /**
+   * The field of a course or department that a mutation overwrites.
+   */
+  public enum Type {
+    ENROLLMENT_COUNT,
+    COURSE_TIME,
+    COURSE_INSTRUCTOR,
+    COURSE_LOCATION,
+    MAJOR_COUNT
+  }
+
+  /**
+   * Constructs a new Mutation object with the given parameters.
+   *
+   * @param type         The field the mutation overwrites.
+   * @param deptCode     The code of the department the mutation applies to.
+   * @param courseId     The ID of the course the mutation applies to, or null for department
+   *                     level mutations.
+   * @param intValue     The new value of an integer field.
+   * @param stringValue  The new value of a text field, or null for integer fields.
+   */
+  public Mutation(Type type, String deptCode, String courseId, int intValue,
+                  String stringValue) {
+    this.type = type;
+    this.deptCode = deptCode;
+    this.courseId = courseId;
+    this.intValue = intValue;
+    this.stringValue = stringValue;
+  }
+
+  public static Mutation enrollmentCount(String deptCode, String courseId, int count) {
+    return new Mutation(Type.ENROLLMENT_COUNT, deptCode, courseId, count, null);
+  }
+
+  public static Mutation courseTime(String deptCode, String courseId, String time) {
+    return new Mutation(Type.COURSE_TIME, deptCode, courseId, 0, time);
+  }
+
+  public static Mutation courseInstructor(String deptCode, String courseId, String instructor) {
+    return new Mutation(Type.COURSE_INSTRUCTOR, deptCode, courseId, 0, instructor);
+  }
+
+  public static Mutation courseLocation(String deptCode, String courseId, String location) {
+    return new Mutation(Type.COURSE_LOCATION, deptCode, courseId, 0, location);
+  }
+
+  public static Mutation majorCount(String deptCode, int count) {
+    return new Mutation(Type.MAJOR_COUNT, deptCode, null, count, null);
+  }
+
+  /**
+   * Applies the mutation to the given department mapping.
+   *
+   * @param mapping the mapping of department names to Department objects
+   * @return true if the targeted department or course exists and was updated, false otherwise
+   */
+  public boolean applyTo(Map<String, Department> mapping) {
+    Department department = mapping.get(deptCode);
+    if (department == null) {
+      return false;
+    }
+    if (type == Type.MAJOR_COUNT) {
+      department.setNumberOfMajors(intValue);
+      return true;
+    }
+
+    Course course = department.getCourseSelection().get(courseId);
+    if (course == null) {
+      return false;
+    }
+    switch (type) {
+      case ENROLLMENT_COUNT:
+        course.setEnrolledStudentCount(intValue);
+        break;
+      case COURSE_TIME:
+        if (TimeSlot.tryParse(stringValue) == null) {
+          System.err.println("Skipping mutation with an invalid time slot: " + this);
+          return false;
+        }
+        course.reassignTime(stringValue);
+        break;
+      case COURSE_INSTRUCTOR:
+        course.reassignInstructor(stringValue);
+        break;
+      case COURSE_LOCATION:
+        course.reassignLocation(stringValue);
+        break;
+      default:
+        return false;
+    }
+    return true;
+  }
+
+  /**
+   * Writes the mutation in its binary log form.
+   *
+   * @param out the output to write the mutation to
+   * @throws IOException if the output cannot be written
+   */
+  public void writeTo(DataOutput out) throws IOException {
+    out.writeByte(type.ordinal());
+    out.writeUTF(deptCode);
+    writeNullableUtf(out, courseId);
+    out.writeInt(intValue);
+    writeNullableUtf(out, stringValue);
+  }
+
+  /**
+   * Reads a mutation previously written by {@link #writeTo(DataOutput)}.
+   *
+   * @param in the input to read the mutation from
+   * @return the decoded mutation
+   * @throws IOException if the input cannot be read or holds an unknown mutation type
+   */
+  public static Mutation readFrom(DataInput in) throws IOException {
+    int ordinal = in.readUnsignedByte();
+    if (ordinal >= Type.values().length) {
+      throw new IOException("Unknown mutation type: " + ordinal);
+    }
+    Type type = Type.values()[ordinal];
+    String deptCode = in.readUTF();
+    String courseId = readNullableUtf(in);
+    int intValue = in.readInt();
+    String stringValue = readNullableUtf(in);
+    return new Mutation(type, deptCode, courseId, intValue, stringValue);
+  }
+
+  private static void writeNullableUtf(DataOutput out, String value) throws IOException {
+    out.writeBoolean(value != null);
+    if (value != null) {
+      out.writeUTF(value);
+    }
+  }
+
+  private static String readNullableUtf(DataInput in) throws IOException {
+    return in.readBoolean() ? in.readUTF() : null;
+  }
+
+  public Type getType() {
+    return type;
+  }
+
+  public String getDeptCode() {
+    return deptCode;
+  }
+
+  public String getCourseId() {
+    return courseId;
+  }
+
+  public int getIntValue() {
+    return intValue;
+  }
+
+  public String getStringValue() {
+    return stringValue;
+  }
+
+  @Override
+  public String toString() {
+    return type + " " + deptCode + (courseId != null ? " " + courseId : "") + " = "
+        + (stringValue != null ? stringValue : Integer.toString(intValue));
+  }
+
+  private final Type type;
+  private final String deptCode;
+  private final String courseId;
+  private final int intValue;
+  private final String stringValue;
+}
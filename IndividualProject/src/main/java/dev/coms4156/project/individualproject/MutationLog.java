@@ -0,0 +1,488 @@
+package dev.coms4156.project.individualproject;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+
+/**
+ * This class represents an append-only log of the mutations made to the catalog since the last
+ * snapshot was saved. Each record is framed by its length and a CRC32 checksum of its contents,
+ * so a record torn by a crash is detected and discarded on replay.
+ *
+ * <p>Appends from concurrent threads are group committed: a single committer thread collects
+ * the waiting records into a batch, writes them together and forces them to disk with one
+ * {@link FileChannel#force(boolean)} call before releasing every caller in the batch. Queuing a
+ * record never takes the lock held while a batch is written and forced, or while the log is
+ * rewritten, so appending threads are never held up by the disk until they wait for their own
+ * record.
+ */
+public class MutationLog implements Closeable {
+
+  /** The number of bytes written in front of every record: its length and its checksum. */
+  private static final int RECORD_HEADER_SIZE = 8;
+
+  /** Upper bound on the size of one record, used to reject a corrupted length field. */
+  private static final int MAX_RECORD_SIZE = 1 << 20;
+
+  /** The default maximum number of records forced to disk together. */
+  public static final int DEFAULT_MAX_BATCH_SIZE = 128;
+
+  /** The default time the committer waits for a batch to fill before forcing it. */
+  public static final long DEFAULT_MAX_WAIT_MICROS = 100;
+
+  /** The path to the log file. */
+  private final Path path;
+
+  /** The channel used to append to the log, opened on the first append. */
+  private FileChannel channel;
+
+  /** The records waiting for the committer thread. */
+  private final BlockingQueue<PendingRecord> pending = new LinkedBlockingQueue<>();
+
+  /** The thread forcing batches of records to disk, started on the first append. */
+  private volatile Thread committer;
+
+  /** The lock starting and stopping the committer thread. */
+  private final Object committerLock = new Object();
+
+  /** The lock keeping two rewrites of the log from running at once. */
+  private final Object truncationLock = new Object();
+
+  /** The size of the log file, covering every record written so far. */
+  private volatile long length;
+
+  /** The maximum number of records forced to disk together. */
+  private volatile int maxBatchSize = DEFAULT_MAX_BATCH_SIZE;
+
+  /** The time the committer waits for more records once a batch has been started. */
+  private volatile long maxWaitMicros = DEFAULT_MAX_WAIT_MICROS;
+
+  /** The number of batches forced to disk. */
+  private volatile long batchesCommitted;
+
+  /** The number of records forced to disk. */
+  private volatile long recordsCommitted;
+
+  /**
+   * Constructs a MutationLog object for the given file. The file is not created until the
+   * first mutation is appended.
+   *
+   * @param path the path to the log file
+   */
+  public MutationLog(Path path) {
+    this.path = path;
+    long existing = 0;
+    try {
+      existing = Files.exists(path) ? Files.size(path) : 0;
+    } catch (IOException e) {
+      System.err.println("Could not read the size of mutation log " + path);
+    }
+    this.length = existing;
+  }
+
+  /**
+   * Sets how records are grouped before being forced to disk.
+   *
+   * @param maxBatchSize  the maximum number of records forced to disk together
+   * @param maxWaitMicros the time the committer waits for more records once a batch has been
+   *                      started, or 0 to force whatever is waiting immediately
+   */
+  public void setGroupCommit(int maxBatchSize, long maxWaitMicros) {
+    this.maxBatchSize = Math.max(1, maxBatchSize);
+    this.maxWaitMicros = Math.max(0, maxWaitMicros);
+  }
+
+  /**
+   * Appends a mutation to the log. The call blocks until the batch holding the record has been
+   * forced to disk.
+   *
+   * @param mutation the mutation to append
+   * @throws IOException if the record cannot be written
+   */
+  public void append(Mutation mutation) throws IOException {
+    await(enqueue(mutation));
+  }
+
+  /**
+   * Queues a mutation to be appended to the log without waiting for it to be written. Records
+   * are written in the order they are queued.
+   *
+   * @param mutation the mutation to append
+   * @return a future completed once the batch holding the record has been forced to disk
+   * @throws IOException if the mutation cannot be encoded
+   */
+  public CompletableFuture<Void> enqueue(Mutation mutation) throws IOException {
+    PendingRecord record = new PendingRecord(encode(mutation));
+    if (committer == null) {
+      startCommitter();
+    }
+    pending.add(record);
+    return record.done;
+  }
+
+  /**
+   * Waits for a queued record to be forced to disk.
+   *
+   * @param committed the future returned when the record was queued
+   * @throws IOException if the record cannot be written
+   */
+  public static void await(CompletableFuture<Void> committed) throws IOException {
+    try {
+      committed.get();
+    } catch (ExecutionException e) {
+      throw e.getCause() instanceof IOException
+          ? (IOException) e.getCause() : new IOException(e.getCause());
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("Interrupted waiting for mutation log commit");
+    }
+  }
+
+  private void startCommitter() {
+    synchronized (committerLock) {
+      if (committer == null) {
+        Thread started = new Thread(this::runCommitter, "mutation-log-committer");
+        started.setDaemon(true);
+        started.start();
+        committer = started;
+      }
+    }
+  }
+
+  /**
+   * Takes batches of records from the queue and commits them until the log is closed.
+   */
+  private void runCommitter() {
+    List<PendingRecord> batch = new ArrayList<>();
+    try {
+      while (true) {
+        batch.add(pending.take());
+        long deadline = System.nanoTime() + TimeUnit.MICROSECONDS.toNanos(maxWaitMicros);
+        while (batch.size() < maxBatchSize) {
+          if (pending.drainTo(batch, maxBatchSize - batch.size()) > 0) {
+            continue;
+          }
+          long remaining = deadline - System.nanoTime();
+          PendingRecord next = remaining > 0
+              ? pending.poll(remaining, TimeUnit.NANOSECONDS) : null;
+          if (next == null) {
+            break;
+          }
+          batch.add(next);
+        }
+        commit(batch);
+        batch.clear();
+      }
+    } catch (InterruptedException e) {
+      batch.addAll(pending);
+      pending.clear();
+      IOException closed = new IOException("Mutation log closed");
+      for (PendingRecord record : batch) {
+        record.done.completeExceptionally(closed);
+      }
+    }
+  }
+
+  /**
+   * Writes a batch of records and forces them to disk with a single call, then releases the
+   * threads waiting on them. The threads are released once the log's lock has been given up,
+   * so whatever they go on to do cannot hold up the next batch.
+   *
+   * @param batch the records to commit
+   */
+  private void commit(List<PendingRecord> batch) {
+    ByteBuffer[] buffers = new ByteBuffer[batch.size()];
+    long total = 0;
+    for (int i = 0; i < buffers.length; i++) {
+      buffers[i] = batch.get(i).bytes;
+      total += buffers[i].remaining();
+    }
+
+    try {
+      synchronized (this) {
+        FileChannel out = openChannel();
+        long remaining = total;
+        while (remaining > 0) {
+          remaining -= out.write(buffers);
+        }
+        out.force(false);
+        length += total;
+        batchesCommitted++;
+        recordsCommitted += batch.size();
+      }
+    } catch (IOException e) {
+      for (PendingRecord record : batch) {
+        record.done.completeExceptionally(e);
+      }
+      return;
+    }
+
+    for (PendingRecord record : batch) {
+      record.done.complete(null);
+    }
+  }
+
+  /**
+   * Gets the number of batches forced to disk so far.
+   *
+   * @return the number of committed batches
+   */
+  public long getBatchesCommitted() {
+    return batchesCommitted;
+  }
+
+  /**
+   * Gets the number of records forced to disk so far.
+   *
+   * @return the number of committed records
+   */
+  public long getRecordsCommitted() {
+    return recordsCommitted;
+  }
+
+  /**
+   * Reads every intact record in the log in the order they were appended and passes them to the
+   * consumer. Reading stops at the first torn or corrupted record, and the log is truncated to
+   * the last intact record so later appends are not hidden behind the damaged one.
+   *
+   * @param consumer the consumer that receives each mutation
+   * @return the number of mutations replayed
+   * @throws IOException if the log cannot be read
+   */
+  public synchronized int replay(Consumer<Mutation> consumer) throws IOException {
+    if (!Files.exists(path)) {
+      return 0;
+    }
+
+    int replayed = 0;
+    long validLength = 0;
+    try (DataInputStream in = new DataInputStream(
+        new BufferedInputStream(Files.newInputStream(path)))) {
+      while (true) {
+        byte[] payload = readPayload(in);
+        Mutation mutation = payload != null ? decode(payload) : null;
+        if (mutation == null) {
+          break;
+        }
+        consumer.accept(mutation);
+        validLength += RECORD_HEADER_SIZE + payload.length;
+        replayed++;
+      }
+    }
+
+    if (validLength < Files.size(path)) {
+      System.err.println("Discarding damaged tail of mutation log " + path + " after "
+          + replayed + " records.");
+      try (FileChannel out = FileChannel.open(path, StandardOpenOption.WRITE)) {
+        out.truncate(validLength);
+        out.force(true);
+      }
+    }
+    length = validLength;
+    return replayed;
+  }
+
+  /**
+   * Removes every record from the log. Called once the records are covered by a snapshot.
+   *
+   * @throws IOException if the log cannot be truncated
+   */
+  public synchronized void reset() throws IOException {
+    if (channel != null) {
+      channel.truncate(0);
+      channel.force(true);
+    } else {
+      Files.deleteIfExists(path);
+    }
+    length = 0;
+  }
+
+  /**
+   * Removes the records before the given position, keeping any appended after it. The
+   * remaining records are copied to a temporary file which is then renamed over the log, and
+   * the directory is forced so the rewritten log, and every record appended to it, survives
+   * a crash.
+   *
+   * <p>The records already written are copied while batches keep being committed. Batches are
+   * only held up while the records they wrote meanwhile are copied and the file is renamed.
+   *
+   * @param position the log size recorded when the covering snapshot was started
+   * @throws IOException if the log cannot be rewritten
+   */
+  public void truncatePrefix(long position) throws IOException {
+    synchronized (truncationLock) {
+      long copyFrom;
+      synchronized (this) {
+        if (position >= length) {
+          reset();
+          return;
+        }
+        copyFrom = length;
+      }
+      if (position <= 0) {
+        return;
+      }
+
+      Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+      try (FileChannel in = FileChannel.open(path, StandardOpenOption.READ);
+           FileChannel out = FileChannel.open(temp, StandardOpenOption.CREATE,
+               StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+        copy(in, position, copyFrom, out);
+        synchronized (this) {
+          long end = length;
+          copy(in, copyFrom, end, out);
+          out.force(true);
+          closeChannel();
+          Files.move(temp, path, StandardCopyOption.ATOMIC_MOVE,
+              StandardCopyOption.REPLACE_EXISTING);
+          CatalogManifest.forceDirectory(path);
+          length = end - position;
+        }
+      }
+    }
+  }
+
+  private static void copy(FileChannel in, long from, long to, FileChannel out)
+      throws IOException {
+    long copied = 0;
+    while (copied < to - from) {
+      copied += in.transferTo(from + copied, to - from - copied, out);
+    }
+  }
+
+  /**
+   * Gets the current size of the log, without waiting for a batch being written.
+   *
+   * @return the size of the log file in bytes, or 0 if it does not exist
+   */
+  public long size() {
+    return length;
+  }
+
+  public Path getPath() {
+    return path;
+  }
+
+  @Override
+  public void close() throws IOException {
+    Thread stopping;
+    synchronized (committerLock) {
+      stopping = committer;
+      committer = null;
+    }
+    if (stopping != null) {
+      stopping.interrupt();
+      try {
+        stopping.join();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    }
+    closeChannel();
+  }
+
+  private synchronized void closeChannel() throws IOException {
+    if (channel != null) {
+      channel.close();
+      channel = null;
+    }
+  }
+
+  private FileChannel openChannel() throws IOException {
+    if (channel == null) {
+      channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+          StandardOpenOption.APPEND);
+    }
+    return channel;
+  }
+
+  /**
+   * Encodes a mutation into a framed record ready to be appended.
+   *
+   * @param mutation the mutation to encode
+   * @return a buffer holding the length, checksum and contents of the record
+   * @throws IOException if the mutation cannot be encoded
+   */
+  static ByteBuffer encode(Mutation mutation) throws IOException {
+    ByteArrayOutputStream payload = new ByteArrayOutputStream(64);
+    mutation.writeTo(new DataOutputStream(payload));
+    byte[] bytes = payload.toByteArray();
+
+    CRC32 crc = new CRC32();
+    crc.update(bytes);
+    ByteBuffer record = ByteBuffer.allocate(RECORD_HEADER_SIZE + bytes.length);
+    record.putInt(bytes.length).putInt((int) crc.getValue()).put(bytes);
+    record.flip();
+    return record;
+  }
+
+  /**
+   * Reads the contents of the next record and verifies its checksum.
+   *
+   * @param in the input positioned at the start of a record
+   * @return the contents of the record, or null if the log ends or the record is damaged
+   * @throws IOException if the log cannot be read
+   */
+  private static byte[] readPayload(DataInputStream in) throws IOException {
+    int length;
+    int checksum;
+    try {
+      length = in.readInt();
+      checksum = in.readInt();
+    } catch (EOFException e) {
+      return null;
+    }
+    if (length < 0 || length > MAX_RECORD_SIZE) {
+      return null;
+    }
+    byte[] bytes = in.readNBytes(length);
+    if (bytes.length != length) {
+      return null;
+    }
+
+    CRC32 crc = new CRC32();
+    crc.update(bytes);
+    return (int) crc.getValue() == checksum ? bytes : null;
+  }
+
+  private static Mutation decode(byte[] payload) {
+    try {
+      return Mutation.readFrom(new DataInputStream(new ByteArrayInputStream(payload)));
+    } catch (IOException e) {
+      return null;
+    }
+  }
+
+  /**
+   * An encoded record waiting to be committed, with the future its appending thread waits on.
+   */
+  private static class PendingRecord {
+    private final ByteBuffer bytes;
+    private final CompletableFuture<Void> done = new CompletableFuture<>();
+
+    PendingRecord(ByteBuffer bytes) {
+      this.bytes = bytes;
+    }
+  }
+}
@@ -1,41 +1,618 @@
 package dev.coms4156.project.individualproject;
 
-import java.io.FileInputStream;
-import java.io.FileOutputStream;
 import java.io.IOException;
-import java.io.ObjectInputStream;
-import java.io.ObjectOutputStream;
+import java.io.Reader;
+import java.nio.file.Paths;
+import java.sql.SQLException;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
 
 
 /**
- * This class represents a file-based database containing department mappings.
+ * This class represents the database containing department mappings. The catalog is held by a
+ * {@link CatalogStore} engine, as immutable {@link CatalogVersion}s that readers take without
+ * locking. The engine is selected when the database is created:
+ * <ul>
+ *   <li>"file" keeps it in segment files with a mutation log ({@link FileCatalogStore}),</li>
+ *   <li>"memory" keeps it in memory only ({@link InMemoryCatalogStore}),</li>
+ *   <li>"h2" keeps it in an embedded H2 database file ({@link H2CatalogStore}).</li>
+ * </ul>
  */
 public class MyFileDatabase {
 
-  /** The path to the file containing the database entries. */
-  private String filePath;
+  /** The name of the engine storing the catalog in segment files. */
+  public static final String FILE_ENGINE = "file";
 
-  /** The mapping of department names to Department objects. */
-  private HashMap<String, Department> departmentMapping;
+  /** The name of the engine keeping the catalog in memory only. */
+  public static final String MEMORY_ENGINE = "memory";
+
+  /** The name of the engine storing the catalog in an embedded H2 database. */
+  public static final String H2_ENGINE = "h2";
+
+  /** The engine holding the catalog. */
+  private final CatalogStore store;
+
+  /** The locks serializing changes to the same department. */
+  private final DepartmentLocks departmentLocks =
+      new DepartmentLocks(DepartmentLocks.DEFAULT_STRIPES);
+
+  /** The indexes of courses by instructor, location and time slot. */
+  private final CourseIndex courseIndex = new CourseIndex();
+
+  /** The prefix index of department codes, course IDs and instructor names. */
+  private final AutocompleteIndex autocompleteIndex = new AutocompleteIndex();
+
+  /** The bookings of each room, by the time slots of the courses held there. */
+  private final RoomSchedule roomSchedule = new RoomSchedule();
+
+  /** The bitmaps of when each room is in use. */
+  private final RoomOccupancy roomOccupancy = new RoomOccupancy();
+
+  /** The indexes following the mutations published. */
+  private final List<CatalogListener> listeners =
+      List.of(courseIndex, autocompleteIndex, roomSchedule, roomOccupancy);
+
+  /** The seats held for students who have not confirmed their enrollment yet. */
+  private final SeatHolds seatHolds = new SeatHolds(this::recordSeats);
+
+  /** The lock held while a course is checked against and booked into its room. */
+  private final ReentrantLock roomBookingLock = new ReentrantLock();
+
+  /** Whether location and time changes booking a course into an occupied room are refused. */
+  private volatile boolean rejectRoomConflicts;
+
+  /** The publications a change run by updateDepartment has yet to wait for, per thread. */
+  private final ThreadLocal<List<CatalogStore.Publication>> pendingPublications =
+      new ThreadLocal<>();
+
+  /** The threads owning the departments, if changes are run by them instead of under locks. */
+  private volatile DepartmentActors departmentActors;
 
   /**
    * Constructs a MyFileDatabase object and loads up the data structure with
-   * the contents of the file.
+   * the contents of the file. Mutations logged after the file was last saved are
+   * replayed on top of its contents. A fresh database discards any existing log.
    *
    * @param flag     used to distinguish mode of database
    * @param filePath the path to the file containing the entries of the database
    */
   public MyFileDatabase(int flag, String filePath) {
-    this.filePath = filePath;
-    this.departmentMapping = new HashMap<>();
+    this(flag, filePath, false);
+  }
+
+  /**
+   * Constructs a MyFileDatabase object as described by {@link #MyFileDatabase(int, String)}.
+   * When loading lazily, startup only reads the manifest, and each department is read from its
+   * segment the first time it is looked up.
+   *
+   * @param flag     used to distinguish mode of database
+   * @param filePath the path to the file containing the entries of the database
+   * @param lazyLoad whether to read departments on first access rather than at startup
+   */
+  public MyFileDatabase(int flag, String filePath, boolean lazyLoad) {
+    this(flag, filePath, lazyLoad, 0);
+  }
+
+  /**
+   * Constructs a MyFileDatabase object as described by
+   * {@link #MyFileDatabase(int, String, boolean)}. When every department is read at startup,
+   * the segments are decoded in parallel by the given number of threads.
+   *
+   * @param flag            used to distinguish mode of database
+   * @param filePath        the path to the file containing the entries of the database
+   * @param lazyLoad        whether to read departments on first access rather than at startup
+   * @param loadParallelism the number of threads decoding segments at startup, or 0 to use
+   *                        one thread per available processor
+   */
+  public MyFileDatabase(int flag, String filePath, boolean lazyLoad, int loadParallelism) {
+    this(flag, filePath, FILE_ENGINE, lazyLoad, loadParallelism);
+  }
+
+  /**
+   * Constructs a MyFileDatabase object backed by the named engine. The lazy loading and
+   * parallelism settings only apply to the file engine.
+   *
+   * @param flag            used to distinguish mode of database
+   * @param filePath        the path the engine names its files after
+   * @param engine          the name of the engine: "file", "memory" or "h2"
+   * @param lazyLoad        whether to read departments on first access rather than at startup
+   * @param loadParallelism the number of threads decoding segments at startup, or 0 to use
+   *                        one thread per available processor
+   * @throws IllegalArgumentException if the engine name is unknown
+   * @throws IllegalStateException    if the engine cannot be opened
+   */
+  public MyFileDatabase(int flag, String filePath, String engine, boolean lazyLoad,
+                        int loadParallelism) {
+    this(flag, filePath, engine, null, lazyLoad, loadParallelism);
+  }
+
+  /**
+   * Constructs a MyFileDatabase object as described by
+   * {@link #MyFileDatabase(int, String, String, boolean, int)}, with the file engine writing its
+   * segment files to the given directory.
+   *
+   * @param flag             used to distinguish mode of database
+   * @param filePath         the path the engine names its files after
+   * @param engine           the name of the engine: "file", "memory" or "h2"
+   * @param segmentDirectory the directory the file engine writes segment files to, or null or
+   *                         empty to use the file path followed by ".segments"
+   * @param lazyLoad         whether to read departments on first access rather than at startup
+   * @param loadParallelism  the number of threads decoding segments at startup, or 0 to use
+   *                         one thread per available processor
+   * @throws IllegalArgumentException if the engine name is unknown
+   * @throws IllegalStateException    if the engine cannot be opened
+   */
+  public MyFileDatabase(int flag, String filePath, String engine, String segmentDirectory,
+                        boolean lazyLoad, int loadParallelism) {
+    this(openStore(flag, filePath, engine, segmentDirectory, lazyLoad, loadParallelism));
+  }
+
+  /**
+   * Constructs a MyFileDatabase object backed by the given engine.
+   *
+   * @param store the engine holding the catalog
+   */
+  public MyFileDatabase(CatalogStore store) {
+    this.store = store;
+  }
+
+  private static CatalogStore openStore(int flag, String filePath, String engine,
+                                        String segmentDirectory, boolean lazyLoad,
+                                        int loadParallelism) {
+    switch (engine.toLowerCase()) {
+      case FILE_ENGINE:
+        return new FileCatalogStore(flag, filePath,
+            segmentDirectory == null || segmentDirectory.isEmpty()
+                ? null : Paths.get(segmentDirectory),
+            lazyLoad, loadParallelism);
+      case MEMORY_ENGINE:
+        return new InMemoryCatalogStore();
+      case H2_ENGINE:
+        try {
+          return new H2CatalogStore(flag, filePath);
+        } catch (SQLException e) {
+          throw new IllegalStateException("Error opening H2 catalog for " + filePath, e);
+        }
+      default:
+        throw new IllegalArgumentException("Unknown catalog engine: " + engine);
+    }
+  }
+
+  /**
+   * Gets the engine holding the catalog.
+   *
+   * @return the catalog store
+   */
+  public CatalogStore getStore() {
+    return store;
+  }
+
+  private FileCatalogStore fileStore() {
+    return store instanceof FileCatalogStore fileCatalogStore ? fileCatalogStore : null;
+  }
+
+  /**
+   * Gets the department with the given code.
+   *
+   * @param deptCode the code of the department
+   * @return the department, or null if there is no such department
+   */
+  public Department getDepartment(String deptCode) {
+    return store.getDepartment(deptCode);
+  }
+
+  /**
+   * Gets a course of a department.
+   *
+   * @param deptCode the code of the department
+   * @param courseId the ID of the course within the department
+   * @return the course, or null if there is no such department or course
+   */
+  public Course getCourse(String deptCode, String courseId) {
+    return store.getCourse(deptCode, courseId);
+  }
+
+  /**
+   * Gets a course of a department by its number, without building the String key.
+   *
+   * @param deptCode the code of the department
+   * @param courseId the number of the course within the department
+   * @return the course, or null if there is no such department or course
+   */
+  public Course getCourse(String deptCode, int courseId) {
+    return store.getCourse(deptCode, courseId);
+  }
+
+  /**
+   * Runs a change that reads a department and publishes a new version of it, without another
+   * change to the department slipping in between. The change holds the department's lock, or
+   * is run by the thread owning the department once {@link #startDepartmentActors(int)} has
+   * been called. Changes to other departments and all reads carry on.
+   *
+   * <p>Mutations logged by the change are published while the lock is held, but the lock is
+   * given up before waiting for them to be persisted, so the next change to the department
+   * does not wait for the disk. A department's thread likewise moves on once the change has
+   * published them, and the caller is woken when they are persisted. They are persisted when
+   * this method returns.
+   *
+   * @param deptCode the code of the department
+   * @param change   the change to run
+   */
+  public void updateDepartment(String deptCode, Runnable change) {
+    DepartmentActors actors = departmentActors;
+    List<CatalogStore.Publication> published = new ArrayList<>();
+    try {
+      if (actors != null) {
+        actors.call(deptCode, () -> {
+          runPublishing(change, published);
+          return whenPersisted(published);
+        });
+        return;
+      }
+      departmentLocks.lock(deptCode);
+      try {
+        runPublishing(change, published);
+      } finally {
+        departmentLocks.unlock(deptCode);
+      }
+    } finally {
+      for (CatalogStore.Publication publication : published) {
+        publication.await();
+      }
+    }
+  }
+
+  /**
+   * Gets a future completed once every publication has been persisted or has failed to be.
+   * Failures are reported when the publications are awaited.
+   *
+   * @param published the publications to wait for
+   * @return the future
+   */
+  private static CompletableFuture<Void> whenPersisted(
+      List<CatalogStore.Publication> published) {
+    CompletableFuture<?>[] persisted = new CompletableFuture<?>[published.size()];
+    for (int i = 0; i < persisted.length; i++) {
+      persisted[i] = published.get(i).getPersisted();
+    }
+    return CompletableFuture.allOf(persisted).handle((ignored, failure) -> null);
+  }
+
+  /**
+   * Runs a change, collecting the publications of the mutations it logs instead of waiting for
+   * each to be persisted.
+   *
+   * @param change    the change to run
+   * @param published the list the publications are added to
+   */
+  private void runPublishing(Runnable change, List<CatalogStore.Publication> published) {
+    List<CatalogStore.Publication> outer = pendingPublications.get();
+    pendingPublications.set(published);
+    try {
+      change.run();
+    } finally {
+      pendingPublications.set(outer);
+    }
+  }
+
+  /**
+   * Starts running department changes on threads that each own a share of the departments,
+   * instead of under locks.
+   *
+   * @param shards the number of threads owning departments, or 0 to keep using locks
+   */
+  public synchronized void startDepartmentActors(int shards) {
+    if (shards > 0 && departmentActors == null) {
+      departmentActors = new DepartmentActors(shards);
+    }
+  }
+
+  /**
+   * Gets a copy of a department to work out a change on. The catalog is not affected by changes
+   * to the copy until they are published with {@link #logMutation(Mutation)}.
+   *
+   * @param deptCode the code of the department
+   * @return a copy of the department, or null if there is no such department
+   */
+  public Department draftDepartment(String deptCode) {
+    Department department = getDepartment(deptCode);
+    return department != null ? department.copy() : null;
+  }
+
+  /**
+   * Gets a copy of a course to work out a change on. The catalog is not affected by changes to
+   * the copy until they are published with {@link #logMutation(Mutation)}, except for
+   * enrollments, which go straight to the seat counter the copy shares with the catalog.
+   *
+   * @param deptCode the code of the department
+   * @param courseId the ID of the course within the department
+   * @return a copy of the course, or null if there is no such department or course
+   */
+  public Course draftCourse(String deptCode, String courseId) {
+    Course course = getCourse(deptCode, courseId);
+    return course != null ? course.copy() : null;
+  }
+
+  /**
+   * Gets the current version of the catalog without locking. Readers holding it see the same
+   * departments and courses however many mutations are published meanwhile.
+   *
+   * @return the current catalog version
+   */
+  public CatalogVersion getVersion() {
+    return store.getVersion();
+  }
+
+  /**
+   * Publishes a new version of the catalog with a mutation applied. With the file engine the
+   * mutation is on disk when this method returns, so it survives a crash; when it is logged by
+   * a change run through {@link #updateDepartment(String, Runnable)}, it is on disk once that
+   * method returns instead. The course and autocomplete indexes, the room schedule and the room
+   * bitmaps follow the change, without holding a lock while the engine writes it. If the
+   * mutation cannot be published, the indexes are rebuilt on their next use.
+   *
+   * @param mutation the mutation to record
+   */
+  public void logMutation(Mutation mutation) {
+    CatalogStore.Publication publication = publish(mutation);
+    List<CatalogStore.Publication> pending = pendingPublications.get();
+    if (pending != null) {
+      pending.add(publication);
+    } else {
+      publication.await();
+    }
+  }
 
-    if (flag == 0) {
-      HashMap<String, Department> loadedMapping = deSerializeObjectFromFile();
-      if (loadedMapping != null) {
-        this.departmentMapping = loadedMapping;
+  private CatalogStore.Publication publish(Mutation mutation) {
+    for (CatalogListener listener : listeners) {
+      listener.beforePublish(mutation);
+    }
+    String deptCode = mutation.getDeptCode();
+    String courseId = mutation.getCourseId();
+    Course before = courseId != null ? store.getCourse(deptCode, courseId) : null;
+    CatalogStore.Publication publication;
+    try {
+      publication = store.publish(mutation);
+    } catch (RuntimeException e) {
+      for (CatalogListener listener : listeners) {
+        listener.catalogReplaced();
       }
+      throw e;
+    }
+    CatalogVersion published = publication.getVersion();
+    Department department = courseId != null ? published.getDepartment(deptCode) : null;
+    Course after = department != null ? department.getCourseSelection().get(courseId) : null;
+    if (after != null && mutation.getStringValue() != null) {
+      after.pool(store.getStringPool());
+    }
+    for (CatalogListener listener : listeners) {
+      listener.published(mutation, published.getNumber(), before, after);
+    }
+    return publication;
+  }
+
+  /**
+   * Finds the courses with the given value of an indexed field, without scanning the catalog.
+   *
+   * @param field the field to match: the instructor, location or time slot
+   * @param value the value to match, ignoring case; time slots match by the time they stand for
+   * @return the matching courses keyed by department code and course ID, in order
+   */
+  public TreeMap<String, Course> findCourses(CourseIndex.Field field, String value) {
+    return courseIndex.find(field, value, store);
+  }
+
+  /**
+   * Completes a prefix to the department codes, course IDs and instructor names starting with
+   * it.
+   *
+   * @param prefix the prefix to complete, ignoring case
+   * @param limit  the maximum number of completions
+   * @return the completions in alphabetical order
+   */
+  public List<AutocompleteIndex.Completion> autocomplete(String prefix, int limit) {
+    return autocompleteIndex.complete(prefix, limit, store);
+  }
+
+  /**
+   * Finds the courses a course would overlap in its room if it were moved to a location or
+   * time.
+   *
+   * @param deptCode the code of the department
+   * @param courseId the ID of the course within the department
+   * @param location the new location, or null to keep the course's location
+   * @param time     the new time, or null to keep the course's time
+   * @return the department codes and course IDs of the overlapped courses, in order; empty if
+   *         the course does not exist or its time is not a valid time slot
+   */
+  public List<String> findRoomConflicts(String deptCode, String courseId, String location,
+                                        String time) {
+    Course course = getCourse(deptCode, courseId);
+    if (course == null) {
+      return new ArrayList<>();
+    }
+    TimeSlot slot = time != null ? TimeSlot.tryParse(time) : course.getTimeSlot();
+    return roomSchedule.findConflicts(deptCode + " " + courseId,
+        location != null ? location : course.getCourseLocation(), slot, store);
+  }
+
+  /**
+   * Moves a course to a new location or time, unless conflicts are refused and another course
+   * is already booked into the room at that time. The check and the change are made under one
+   * lock covering every room, inside the department's change, so two moves into the same room
+   * cannot both pass the check, even from different departments.
+   *
+   * @param deptCode        the code of the department
+   * @param courseId        the ID of the course within the department
+   * @param location        the new location, or null to keep the course's location
+   * @param time            the new time, or null to keep the course's time
+   * @param rejectConflicts true to leave the course where it is if the room is booked
+   * @return the department codes and course IDs of the overlapped courses, in order; if any
+   *         were found and conflicts are refused, the course was not moved
+   */
+  public List<String> moveCourse(String deptCode, String courseId, String location,
+                                 String time, boolean rejectConflicts) {
+    AtomicReference<List<String>> found = new AtomicReference<>(new ArrayList<>());
+    updateDepartment(deptCode, () -> {
+      roomBookingLock.lock();
+      try {
+        List<String> conflicts = findRoomConflicts(deptCode, courseId, location, time);
+        found.set(conflicts);
+        Course draft = draftCourse(deptCode, courseId);
+        if (draft == null || (!conflicts.isEmpty() && rejectConflicts)) {
+          return;
+        }
+        if (location != null) {
+          draft.reassignLocation(location);
+          logMutation(Mutation.courseLocation(deptCode, courseId, location));
+        }
+        if (time != null) {
+          draft.reassignTime(time);
+          logMutation(Mutation.courseTime(deptCode, courseId, time));
+        }
+      } finally {
+        roomBookingLock.unlock();
+      }
+    });
+    return found.get();
+  }
+
+  /**
+   * Lists every pair of courses of the current version booked into the same room at
+   * overlapping times.
+   *
+   * @return the conflicts ordered by location and start time
+   */
+  public List<RoomSchedule.Conflict> findAllRoomConflicts() {
+    return RoomSchedule.findAllConflicts(store.getVersion());
+  }
+
+  /**
+   * Finds the rooms not used by any course at any point of a time slot.
+   *
+   * @param slot the time slot the rooms must be free for
+   * @return the names of the free rooms, in alphabetical order
+   */
+  public List<String> findFreeRooms(TimeSlot slot) {
+    return roomOccupancy.findFree(slot, store);
+  }
+
+  /**
+   * Sets whether location and time changes that would book a course into an occupied room are
+   * refused, rather than made with a warning.
+   *
+   * @param rejectRoomConflicts true to refuse conflicting changes
+   */
+  public void setRejectRoomConflicts(boolean rejectRoomConflicts) {
+    this.rejectRoomConflicts = rejectRoomConflicts;
+  }
+
+  /**
+   * Checks whether location and time changes that would book a course into an occupied room
+   * are refused.
+   *
+   * @return true if conflicting changes are refused, false if they are made with a warning
+   */
+  public boolean isRejectingRoomConflicts() {
+    return rejectRoomConflicts;
+  }
+
+  /**
+   * Gets the seats held for students who have not confirmed their enrollment yet. Confirming
+   * a hold, or a held seat passing to a waitlisted student, persists the course's enrollment.
+   *
+   * @return the seat holds
+   */
+  public SeatHolds getSeatHolds() {
+    return seatHolds;
+  }
+
+  /**
+   * Starts giving back the seats of expired holds on a background thread.
+   */
+  public void startSeatHoldExpiry() {
+    seatHolds.start();
+  }
+
+  /**
+   * Persists the enrollment of a course after a student was enrolled or dropped through its
+   * seat counter.
+   *
+   * @param deptCode the code of the department
+   * @param courseId the ID of the course within the department
+   */
+  public void recordSeats(String deptCode, String courseId) {
+    store.recordSeats(deptCode, courseId);
+  }
+
+  /**
+   * Persists the enrollment of a course named by its number after a student was enrolled or
+   * dropped through its seat counter.
+   *
+   * @param deptCode   the code of the department
+   * @param courseCode the number of the course within the department
+   */
+  public void recordSeats(String deptCode, int courseCode) {
+    store.recordSeats(deptCode, courseCode);
+  }
+
+  /**
+   * Starts saving the file in the background every given number of seconds, and whenever the
+   * snapshot interval's worth of mutations has been logged. Other engines need no checkpoints.
+   *
+   * @param intervalSeconds the time between scheduled checkpoints, or 0 to only checkpoint
+   *                        after the snapshot interval's worth of mutations
+   */
+  public void startCheckpointer(long intervalSeconds) {
+    if (fileStore() != null) {
+      fileStore().startCheckpointer(intervalSeconds);
+    }
+  }
+
+  /**
+   * Gets the background checkpointer of the database.
+   *
+   * @return the checkpointer, or null if none has been started
+   */
+  public Checkpointer getCheckpointer() {
+    return fileStore() != null ? fileStore().getCheckpointer() : null;
+  }
+
+  /**
+   * Gets the number of mutations logged since the file was last saved.
+   *
+   * @return the number of mutations not yet covered by a save
+   */
+  public int getMutationsSinceSnapshot() {
+    return fileStore() != null ? fileStore().getMutationsSinceSnapshot() : 0;
+  }
+
+  /**
+   * Sets how concurrently logged mutations are grouped before being forced to disk.
+   *
+   * @param maxBatchSize  the maximum number of mutations forced to disk together
+   * @param maxWaitMicros the time to wait for a batch to fill before forcing it
+   */
+  public void configureGroupCommit(int maxBatchSize, long maxWaitMicros) {
+    if (fileStore() != null) {
+      fileStore().configureGroupCommit(maxBatchSize, maxWaitMicros);
+    }
+  }
+
+  /**
+   * Sets the number of logged mutations after which the file is saved and the log truncated.
+   *
+   * @param snapshotInterval the number of mutations between snapshots
+   */
+  public void setSnapshotInterval(int snapshotInterval) {
+    if (fileStore() != null) {
+      fileStore().setSnapshotInterval(snapshotInterval);
     }
   }
 
@@ -45,55 +622,92 @@ public class MyFileDatabase {
    * @param mapping the mapping of department names to Department objects
    */
   public void setMapping(HashMap<String, Department> mapping) {
-    this.departmentMapping = mapping != null ? mapping : new HashMap<>();
+    store.setDepartments(mapping);
+    catalogReplaced();
   }
 
   /**
-   * Deserializes the object from the file and returns the department mapping.
+   * Imports rows into the catalog. Every row is read into a staging mapping first, while
+   * mutations carry on being published. The staged rows are then added to a copy of the
+   * current departments, which replaces them; no mutation is published between taking the copy
+   * and replacing the catalog, so none is lost.
    *
-   * @return the deserialized department mapping
+   * @param importer the importer reading the rows
+   * @param input    the rows to import
+   * @return the statistics of the import
+   * @throws IOException if the input cannot be read or a row is malformed, in which case the
+   *                     catalog is left as it was
    */
-  public HashMap<String, Department> deSerializeObjectFromFile() {
-    try (ObjectInputStream in = new ObjectInputStream(new FileInputStream(filePath))) {
-      Object obj = in.readObject();
-      if (obj instanceof HashMap) {
-        return (HashMap<String, Department>) obj;
-      } else {
-        System.err.println("Invalid object type in file. Expected HashMap<String, Department>.");
-        return new HashMap<>();
-      }
-    } catch (IOException | ClassNotFoundException e) {
-      System.err.println("Error reading from file. Creating an empty database.");
-      e.printStackTrace();
-      return new HashMap<>();
+  public CatalogImporter.Result importCatalog(CatalogImporter importer, Reader input)
+      throws IOException {
+    CatalogImporter.Staged staged = importer.stage(input);
+    store.replaceDepartments(mapping -> {
+      staged.mergeInto(mapping);
+      return null;
+    });
+    catalogReplaced();
+    return staged.getResult();
+  }
+
+  /**
+   * Rebuilds the indexes and the string pool from the catalog once every department has been
+   * replaced.
+   */
+  private void catalogReplaced() {
+    for (CatalogListener listener : listeners) {
+      listener.catalogReplaced();
     }
+    store.getStringPool().retainOnly(store.getDepartments());
   }
 
   /**
-   * Saves the contents of the internal data structure to the file. Contents of the file are
-   * overwritten with this operation.
+   * Saves the contents of the internal data structure through the engine.
    */
   public void saveContentsToFile() {
+    store.snapshot();
+  }
 
-    if (departmentMapping == null) {
-      System.err.println("Error: departmentMapping is null. Cannot save contents to file.");
-      return;
-    }
-    try (ObjectOutputStream out = new ObjectOutputStream(new FileOutputStream(filePath))) {
-      out.writeObject(departmentMapping);
-      System.out.println("Object serialized successfully.");
-    } catch (IOException e) {
-      e.printStackTrace();
+  /**
+   * Gets the pool holding the instructor, location and time slot values of the catalog, whose
+   * footprint is reported when the file is loaded.
+   *
+   * @return the catalog string pool
+   */
+  public StringPool getStringPool() {
+    return store.getStringPool();
+  }
+
+  /**
+   * Gets the number of bytes written by the most recent save of the file engine.
+   *
+   * @return the number of bytes written
+   */
+  public long getLastSnapshotBytes() {
+    return fileStore() != null ? fileStore().getLastSnapshotBytes() : 0;
+  }
+
+  /**
+   * Stops the department threads and releases the resources held by the engine. The contents
+   * are not saved.
+   */
+  public void close() {
+    seatHolds.stop();
+    DepartmentActors actors = departmentActors;
+    if (actors != null) {
+      actors.stop();
+      departmentActors = null;
     }
+    store.close();
   }
 
   /**
-   * Gets the department mapping of the database.
+   * Gets the department mapping of the current version. The mapping must not be changed; copy
+   * it to build a replacement for {@link #setMapping(HashMap)}.
    *
    * @return the department mapping
    */
   public HashMap<String, Department> getDepartmentMapping() {
-    return this.departmentMapping;
+    return store.getDepartments();
   }
 
   /**
@@ -104,13 +718,11 @@ public class MyFileDatabase {
   @Override
   public String toString() {
     StringBuilder result = new StringBuilder();
-    for (Map.Entry<String, Department> entry : departmentMapping.entrySet()) {
+    for (Map.Entry<String, Department> entry : getDepartmentMapping().entrySet()) {
       String key = entry.getKey();
       Department value = entry.getValue();
       result.append("For the ").append(key).append(" department: \n").append(value.toString());
     }
     return result.toString();
   }
-
-
 }
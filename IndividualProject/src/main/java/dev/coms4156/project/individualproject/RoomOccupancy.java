@@ -0,0 +1,266 @@
+package dev.coms4156.project.individualproject;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * Represents when each room of the catalog is in use, as a bitmap per location with one bit for
+ * every five minutes of the week. Finding the rooms free at a time ANDs the bitmap of the time
+ * with each room's bitmap, so checking a room costs a few word operations however many courses
+ * it holds, and rooms are kept in order of name so the result needs no sorting. Times not on a
+ * five-minute boundary occupy the whole five minutes they touch, and a slot naming no days
+ * occupies every day.
+ *
+ * <p>A room is known once a course is held in it, and forgotten when its last course leaves.
+ * Like {@link RoomSchedule}, the bitmaps follow location and time mutations as they are
+ * published, through {@link CatalogListener}, are built from the catalog on first use and are
+ * rebuilt after the catalog is replaced.
+ */
+public class RoomOccupancy implements CatalogListener {
+
+  /** The number of minutes each bit of a bitmap stands for. */
+  public static final int MINUTES_PER_BIT = 5;
+
+  private static final int BITS_PER_DAY = 24 * 60 / MINUTES_PER_BIT;
+
+  private static final int DAYS_PER_WEEK = 7;
+
+  private static final int WORDS = (BITS_PER_DAY * DAYS_PER_WEEK + Long.SIZE - 1) / Long.SIZE;
+
+  /**
+   * Moves the course of a published mutation between the rooms' bitmaps if the mutation
+   * changed the course's location or time and the bitmaps were built before it was published.
+   *
+   * @param mutation the mutation published
+   * @param version  the number of the version it was published in
+   * @param before   the course the mutation replaced
+   * @param after    the course it was replaced by
+   */
+  @Override
+  public void published(Mutation mutation, long version, Course before, Course after) {
+    if (before == after || mutation.getType() != Mutation.Type.COURSE_LOCATION
+        && mutation.getType() != Mutation.Type.COURSE_TIME) {
+      return;
+    }
+    long stamp = lock.readLock();
+    try {
+      if (!built || version <= builtFrom) {
+        return;
+      }
+      String ref = mutation.getDeptCode() + " " + mutation.getCourseId();
+      if (before != null) {
+        vacate(ref, before.getCourseLocation());
+      }
+      if (after != null) {
+        occupy(ref, after.getCourseLocation(), after.getTimeSlot());
+      }
+    } finally {
+      lock.unlockRead(stamp);
+    }
+  }
+
+  /**
+   * Discards the bitmaps so they are rebuilt from the catalog on their next use.
+   */
+  @Override
+  public void catalogReplaced() {
+    long stamp = lock.writeLock();
+    try {
+      built = false;
+      rooms.clear();
+    } finally {
+      lock.unlockWrite(stamp);
+    }
+  }
+
+  /**
+   * Finds the rooms free for the whole of a time slot, building the bitmaps from the catalog
+   * first if they have not been built.
+   *
+   * @param slot  the time slot the rooms must be free for
+   * @param store the engine holding the catalog
+   * @return the names of the free rooms, in alphabetical order
+   */
+  public List<String> findFree(TimeSlot slot, CatalogStore store) {
+    ensureBuilt(store);
+    return findFree(slot);
+  }
+
+  /**
+   * Finds the rooms free for the whole of a time slot.
+   *
+   * @param slot the time slot the rooms must be free for
+   * @return the names of the free rooms, in alphabetical order ignoring case
+   */
+  public List<String> findFree(TimeSlot slot) {
+    long[] wanted = bitmapOf(slot);
+    int first = 0;
+    while (first < WORDS && wanted[first] == 0) {
+      first++;
+    }
+    int last = WORDS - 1;
+    while (last > first && wanted[last] == 0) {
+      last--;
+    }
+    List<String> free = new ArrayList<>();
+    for (Room room : rooms.values()) {
+      long[] used = room.used;
+      boolean isFree = true;
+      for (int i = first; i <= last && isFree; i++) {
+        isFree = (used[i] & wanted[i]) == 0;
+      }
+      if (isFree) {
+        free.add(room.name);
+      }
+    }
+    return free;
+  }
+
+  /**
+   * Books a course into a room.
+   *
+   * @param ref      the department code and course ID of the course
+   * @param location the location of the course, which is ignored if null or blank
+   * @param slot     the time of the course, or null if it is not a valid time slot, in which
+   *                 case the room is known but no time is occupied
+   */
+  public void occupy(String ref, String location, TimeSlot slot) {
+    if (location != null && !location.isBlank()) {
+      rooms.compute(key(location), (key, room) ->
+          (room != null ? room : new Room(location.trim(), new HashMap<>())).with(ref, slot));
+    }
+  }
+
+  /**
+   * Removes a course from a room, forgetting the room if no course is left in it.
+   *
+   * @param ref      the department code and course ID of the course
+   * @param location the location the course was held in
+   */
+  public void vacate(String ref, String location) {
+    if (location != null && !location.isBlank()) {
+      rooms.computeIfPresent(key(location), (key, room) -> room.without(ref));
+    }
+  }
+
+  /**
+   * Gets the number of rooms known.
+   *
+   * @return the number of rooms holding at least one course
+   */
+  public int size() {
+    return rooms.size();
+  }
+
+  private void ensureBuilt(CatalogStore store) {
+    if (built) {
+      return;
+    }
+    long stamp = lock.writeLock();
+    try {
+      if (built) {
+        return;
+      }
+      CatalogVersion version = store.getVersion();
+      for (Map.Entry<String, Department> department : version.getDepartments().entrySet()) {
+        for (Map.Entry<String, Course> course
+            : department.getValue().getCourseSelection().entrySet()) {
+          occupy(department.getKey() + " " + course.getKey(),
+              course.getValue().getCourseLocation(), course.getValue().getTimeSlot());
+        }
+      }
+      builtFrom = version.getNumber();
+      built = true;
+    } finally {
+      lock.unlockWrite(stamp);
+    }
+  }
+
+  /**
+   * Gets the bitmap of the five-minute periods of the week a time slot touches.
+   *
+   * @param slot the time slot
+   * @return the bitmap, with Monday midnight as the lowest bit
+   */
+  static long[] bitmapOf(TimeSlot slot) {
+    long[] bits = new long[WORDS];
+    int from = slot.getStartMinute() / MINUTES_PER_BIT;
+    int to = (slot.getEndMinute() + MINUTES_PER_BIT - 1) / MINUTES_PER_BIT;
+    for (int day = 0; day < DAYS_PER_WEEK; day++) {
+      if (slot.getDays() == 0 || (slot.getDays() & (TimeSlot.MONDAY << day)) != 0) {
+        for (int bit = day * BITS_PER_DAY + from; bit < day * BITS_PER_DAY + to; bit++) {
+          bits[bit / Long.SIZE] |= 1L << bit;
+        }
+      }
+    }
+    return bits;
+  }
+
+  private static String key(String location) {
+    return location.trim().toLowerCase(Locale.ROOT);
+  }
+
+  /**
+   * Represents a room, the courses held in it and the bitmap of when they meet. Rooms are never
+   * changed, so readers see a consistent bitmap without locking, and a change the map retries
+   * under contention builds the same room again.
+   */
+  private static final class Room {
+
+    Room(String name, HashMap<String, TimeSlot> bookings) {
+      this.name = name;
+      this.bookings = bookings;
+      this.used = new long[WORDS];
+      for (TimeSlot slot : bookings.values()) {
+        if (slot != null) {
+          long[] bits = bitmapOf(slot);
+          for (int i = 0; i < WORDS; i++) {
+            used[i] |= bits[i];
+          }
+        }
+      }
+    }
+
+    /**
+     * Creates the room with a course booked into it.
+     *
+     * @param ref  the department code and course ID of the course
+     * @param slot the time of the course, or null if it occupies no time
+     * @return the new room
+     */
+    Room with(String ref, TimeSlot slot) {
+      HashMap<String, TimeSlot> result = new HashMap<>(bookings);
+      result.put(ref, slot);
+      return new Room(name, result);
+    }
+
+    /**
+     * Creates the room with a course removed from it.
+     *
+     * @param ref the department code and course ID of the course
+     * @return the new room, or null if no course is left in it
+     */
+    Room without(String ref) {
+      if (!bookings.containsKey(ref)) {
+        return this;
+      }
+      HashMap<String, TimeSlot> result = new HashMap<>(bookings);
+      result.remove(ref);
+      return result.isEmpty() ? null : new Room(name, result);
+    }
+
+    private final String name;
+    private final HashMap<String, TimeSlot> bookings;
+    private final long[] used;
+  }
+
+  private final ConcurrentSkipListMap<String, Room> rooms = new ConcurrentSkipListMap<>();
+  private final StampedLock lock = new StampedLock();
+  private volatile boolean built;
+  private long builtFrom;
+}
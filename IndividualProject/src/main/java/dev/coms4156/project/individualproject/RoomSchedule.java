@@ -0,0 +1,392 @@
+package dev.coms4156.project.individualproject;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * Represents the bookings of every room in the catalog: for each location, an interval tree of
+ * the parsed time slots of the courses held there. Checking whether a booking would overlap
+ * another in its room walks one tree in logarithmic time. Courses whose time is not a valid
+ * {@link TimeSlot} are not booked.
+ *
+ * <p>Like {@link CourseIndex}, the bookings follow location and time mutations as they are
+ * published, through {@link CatalogListener}, are built from the catalog on first use and are
+ * rebuilt after the catalog is replaced. Listing every conflict of
+ * the catalog does not use the trees: {@link #findAllConflicts(CatalogVersion)} sweeps each room
+ * of a version in order of start time.
+ */
+public class RoomSchedule implements CatalogListener {
+
+  /**
+   * Moves the booking of a published mutation's course if the mutation changed the course's
+   * location or time and the schedule was built before it was published.
+   *
+   * @param mutation the mutation published
+   * @param version  the number of the version it was published in
+   * @param before   the course the mutation replaced
+   * @param after    the course it was replaced by
+   */
+  @Override
+  public void published(Mutation mutation, long version, Course before, Course after) {
+    if (before == after || mutation.getType() != Mutation.Type.COURSE_LOCATION
+        && mutation.getType() != Mutation.Type.COURSE_TIME) {
+      return;
+    }
+    long stamp = lock.readLock();
+    try {
+      if (!built || version <= builtFrom) {
+        return;
+      }
+      unbook(mutation.getDeptCode(), mutation.getCourseId(), before);
+      book(mutation.getDeptCode(), mutation.getCourseId(), after);
+    } finally {
+      lock.unlockRead(stamp);
+    }
+  }
+
+  /**
+   * Discards the bookings so they are rebuilt from the catalog on their next use.
+   */
+  @Override
+  public void catalogReplaced() {
+    long stamp = lock.writeLock();
+    try {
+      built = false;
+      rooms.clear();
+    } finally {
+      lock.unlockWrite(stamp);
+    }
+  }
+
+  /**
+   * Finds the courses a booking would overlap in its room.
+   *
+   * @param ref      the department code and course ID of the course being booked, which is
+   *                 not reported as overlapping itself
+   * @param location the location of the booking
+   * @param slot     the time of the booking
+   * @param store    the engine holding the catalog
+   * @return the department codes and course IDs of the overlapped courses, in order
+   */
+  public List<String> findConflicts(String ref, String location, TimeSlot slot,
+                                    CatalogStore store) {
+    ensureBuilt(store);
+    List<String> conflicts = new ArrayList<>();
+    if (location == null || slot == null) {
+      return conflicts;
+    }
+    IntervalTree tree = rooms.get(key(location));
+    if (tree == null) {
+      return conflicts;
+    }
+    for (Booking booking : tree.overlapping(slot)) {
+      if (!booking.ref.equals(ref) && booking.slot.overlaps(slot) && isCurrent(booking, store)) {
+        conflicts.add(booking.ref);
+      }
+    }
+    conflicts.sort(null);
+    return conflicts;
+  }
+
+  /**
+   * Lists every pair of courses booked into the same room at overlapping times, by sweeping
+   * each room's bookings in order of start time while keeping the bookings still running.
+   *
+   * @param version the version of the catalog to check
+   * @return the conflicts ordered by location and start time
+   */
+  public static List<Conflict> findAllConflicts(CatalogVersion version) {
+    Map<String, List<Booking>> bookings = new HashMap<>();
+    for (Map.Entry<String, Department> department : version.getDepartments().entrySet()) {
+      for (Map.Entry<String, Course> course
+          : department.getValue().getCourseSelection().entrySet()) {
+        Booking booking = Booking.of(department.getKey(), course.getKey(), course.getValue());
+        if (booking != null) {
+          bookings.computeIfAbsent(key(course.getValue().getCourseLocation()),
+              k -> new ArrayList<>()).add(booking);
+        }
+      }
+    }
+
+    List<Conflict> conflicts = new ArrayList<>();
+    List<String> locations = new ArrayList<>(bookings.keySet());
+    locations.sort(null);
+    for (String location : locations) {
+      List<Booking> room = bookings.get(location);
+      room.sort(Booking.ORDER);
+      List<Booking> running = new ArrayList<>();
+      for (Booking booking : room) {
+        Iterator<Booking> active = running.iterator();
+        while (active.hasNext()) {
+          Booking other = active.next();
+          if (other.slot.getEndMinute() <= booking.slot.getStartMinute()) {
+            active.remove();
+          } else if (other.slot.overlaps(booking.slot)) {
+            conflicts.add(new Conflict(other.location, other.ref, booking.ref));
+          }
+        }
+        running.add(booking);
+      }
+    }
+    return conflicts;
+  }
+
+  private void ensureBuilt(CatalogStore store) {
+    if (built) {
+      return;
+    }
+    long stamp = lock.writeLock();
+    try {
+      if (built) {
+        return;
+      }
+      CatalogVersion version = store.getVersion();
+      for (Map.Entry<String, Department> department : version.getDepartments().entrySet()) {
+        for (Map.Entry<String, Course> course
+            : department.getValue().getCourseSelection().entrySet()) {
+          book(department.getKey(), course.getKey(), course.getValue());
+        }
+      }
+      builtFrom = version.getNumber();
+      built = true;
+    } finally {
+      lock.unlockWrite(stamp);
+    }
+  }
+
+  private void book(String deptCode, String courseId, Course course) {
+    Booking booking = course != null ? Booking.of(deptCode, courseId, course) : null;
+    if (booking != null) {
+      IntervalTree tree = rooms.computeIfAbsent(key(booking.location), k -> new IntervalTree());
+      tree.insert(booking);
+    }
+  }
+
+  private void unbook(String deptCode, String courseId, Course course) {
+    Booking booking = course != null ? Booking.of(deptCode, courseId, course) : null;
+    if (booking != null) {
+      IntervalTree tree = rooms.get(key(booking.location));
+      if (tree != null) {
+        tree.remove(booking);
+      }
+    }
+  }
+
+  /**
+   * Checks that a booking is still held by the current version of its course, since a booking
+   * moved by two racing mutations can be left behind in its old room.
+   */
+  private static boolean isCurrent(Booking booking, CatalogStore store) {
+    Course course = store.getCourse(booking.deptCode, booking.courseId);
+    Booking current = course != null ? Booking.of(booking.deptCode, booking.courseId, course)
+        : null;
+    return current != null && key(current.location).equals(key(booking.location))
+        && current.slot.equals(booking.slot);
+  }
+
+  private static String key(String location) {
+    return location.trim().toLowerCase(Locale.ROOT);
+  }
+
+  /**
+   * Represents two courses booked into the same room at overlapping times.
+   */
+  public static final class Conflict {
+
+    Conflict(String location, String first, String second) {
+      this.location = location;
+      this.first = first;
+      this.second = second;
+    }
+
+    public String getLocation() {
+      return location;
+    }
+
+    public String getFirst() {
+      return first;
+    }
+
+    public String getSecond() {
+      return second;
+    }
+
+    /**
+     * Returns the conflict as its room and courses, such as "417 IAB: COMS 1004, COMS 3157".
+     *
+     * @return a string representation of the conflict
+     */
+    @Override
+    public String toString() {
+      return location + ": " + first + ", " + second;
+    }
+
+    private final String location;
+    private final String first;
+    private final String second;
+  }
+
+  /**
+   * Represents one course booked into a room.
+   */
+  private static final class Booking {
+
+    static final Comparator<Booking> ORDER = Comparator
+        .comparingInt((Booking booking) -> booking.slot.getStartMinute())
+        .thenComparingInt(booking -> booking.slot.getEndMinute())
+        .thenComparing(booking -> booking.ref);
+
+    private Booking(String deptCode, String courseId, String location, TimeSlot slot) {
+      this.deptCode = deptCode;
+      this.courseId = courseId;
+      this.ref = deptCode + " " + courseId;
+      this.location = location;
+      this.slot = slot;
+    }
+
+    static Booking of(String deptCode, String courseId, Course course) {
+      String location = course.getCourseLocation();
+      TimeSlot slot = course.getTimeSlot();
+      return location != null && slot != null
+          ? new Booking(deptCode, courseId, location, slot) : null;
+    }
+
+    private final String deptCode;
+    private final String courseId;
+    private final String ref;
+    private final String location;
+    private final TimeSlot slot;
+  }
+
+  /**
+   * Represents the bookings of one room as a treap ordered by start time, where each node also
+   * holds the latest end in its subtree. A search skips every subtree that ends before the
+   * searched slot starts and every right subtree starting after it ends.
+   */
+  private static final class IntervalTree {
+
+    synchronized void insert(Booking booking) {
+      root = insertNode(root, new Node(booking));
+    }
+
+    synchronized void remove(Booking booking) {
+      root = removeNode(root, booking);
+    }
+
+    synchronized List<Booking> overlapping(TimeSlot slot) {
+      List<Booking> result = new ArrayList<>();
+      collect(root, slot.getStartMinute(), slot.getEndMinute(), result);
+      return result;
+    }
+
+    private static Node insertNode(Node node, Node added) {
+      if (node == null) {
+        return added;
+      }
+      if (Booking.ORDER.compare(added.booking, node.booking) < 0) {
+        node.left = insertNode(node.left, added);
+        if (node.left.priority > node.priority) {
+          node = rotateRight(node);
+        }
+      } else {
+        node.right = insertNode(node.right, added);
+        if (node.right.priority > node.priority) {
+          node = rotateLeft(node);
+        }
+      }
+      return update(node);
+    }
+
+    private static Node removeNode(Node node, Booking booking) {
+      if (node == null) {
+        return null;
+      }
+      int order = Booking.ORDER.compare(booking, node.booking);
+      if (order < 0) {
+        node.left = removeNode(node.left, booking);
+      } else if (order > 0) {
+        node.right = removeNode(node.right, booking);
+      } else if (node.left == null) {
+        return node.right;
+      } else if (node.right == null) {
+        return node.left;
+      } else if (node.left.priority > node.right.priority) {
+        node = rotateRight(node);
+        node.right = removeNode(node.right, booking);
+      } else {
+        node = rotateLeft(node);
+        node.left = removeNode(node.left, booking);
+      }
+      return update(node);
+    }
+
+    private static void collect(Node node, int start, int end, List<Booking> result) {
+      if (node == null || node.maxEnd <= start) {
+        return;
+      }
+      collect(node.left, start, end, result);
+      if (node.booking.slot.getStartMinute() < end) {
+        if (node.booking.slot.getEndMinute() > start) {
+          result.add(node.booking);
+        }
+        collect(node.right, start, end, result);
+      }
+    }
+
+    private static Node rotateRight(Node node) {
+      Node left = node.left;
+      node.left = left.right;
+      left.right = update(node);
+      return update(left);
+    }
+
+    private static Node rotateLeft(Node node) {
+      Node right = node.right;
+      node.right = right.left;
+      right.left = update(node);
+      return update(right);
+    }
+
+    private static Node update(Node node) {
+      int maxEnd = node.booking.slot.getEndMinute();
+      if (node.left != null) {
+        maxEnd = Math.max(maxEnd, node.left.maxEnd);
+      }
+      if (node.right != null) {
+        maxEnd = Math.max(maxEnd, node.right.maxEnd);
+      }
+      node.maxEnd = maxEnd;
+      return node;
+    }
+
+    private static final class Node {
+
+      Node(Booking booking) {
+        this.booking = booking;
+        this.priority = ThreadLocalRandom.current().nextInt();
+        this.maxEnd = booking.slot.getEndMinute();
+      }
+
+      private final Booking booking;
+      private final int priority;
+      private int maxEnd;
+      private Node left;
+      private Node right;
+    }
+
+    private Node root;
+  }
+
+  private final ConcurrentHashMap<String, IntervalTree> rooms = new ConcurrentHashMap<>();
+  private final StampedLock lock = new StampedLock();
+  private volatile boolean built;
+  private long builtFrom;
+}
@@ -1,13 +1,25 @@
 package dev.coms4156.project.individualproject;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PatchMapping;
+import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 /**
  * This class contains all the API routes for the system.
@@ -45,18 +57,16 @@ public class RouteController {
                 HttpStatus.BAD_REQUEST);
       }
 
-      HashMap<String, Department> departmentMapping =
-              IndividualProjectApplication.myFileDatabase.getDepartmentMapping();
-
       // Normalize deptCode to uppercase for consistent lookup
       String normalizedDeptCode = deptCode.toUpperCase();
 
-      // Check if the department exists in the mapping
-      if (!departmentMapping.containsKey(normalizedDeptCode)) {
+      // Check if the department exists in the catalog
+      Department department =
+              IndividualProjectApplication.myFileDatabase.getDepartment(normalizedDeptCode);
+      if (department == null) {
         return new ResponseEntity<>("Department Not Found", HttpStatus.NOT_FOUND);
       } else {
         // Assuming the Department class has a meaningful toString() method
-        Department department = departmentMapping.get(normalizedDeptCode);
         return new ResponseEntity<>(department.toString(), HttpStatus.OK);
       }
 
@@ -95,15 +105,12 @@ public class RouteController {
       // Check if dept exist
       boolean doesDepartmentExists = retrieveDepartment(deptCode).getStatusCode() == HttpStatus.OK;
       if (doesDepartmentExists) {
-        HashMap<String, Department> departmentMapping;
-        departmentMapping = IndividualProjectApplication.myFileDatabase.getDepartmentMapping();
-        HashMap<String, Course> coursesMapping;
-        coursesMapping = departmentMapping.get(deptCode).getCourseSelection();
+        Course course = IndividualProjectApplication.myFileDatabase.getCourse(deptCode,
+                courseCode);
 
         // Check if course exist in dept
-        if (coursesMapping.containsKey(Integer.toString(courseCode))) {
-          return new ResponseEntity<>(coursesMapping.get(Integer.toString(courseCode)).toString(),
-                  HttpStatus.OK);
+        if (course != null) {
+          return new ResponseEntity<>(course.toString(), HttpStatus.OK);
         } else {
           return new ResponseEntity<>("Course Not Found", HttpStatus.NOT_FOUND);
         }
@@ -143,12 +150,8 @@ public class RouteController {
       doesCourseExists = retrieveCourse(deptCode, courseCode).getStatusCode() == HttpStatus.OK;
 
       if (doesCourseExists) {
-        HashMap<String, Department> departmentMapping;
-        departmentMapping = IndividualProjectApplication.myFileDatabase.getDepartmentMapping();
-        HashMap<String, Course> coursesMapping;
-        coursesMapping = departmentMapping.get(deptCode.toUpperCase()).getCourseSelection();
-
-        Course requestedCourse = coursesMapping.get(Integer.toString(courseCode));
+        Course requestedCourse = IndividualProjectApplication.myFileDatabase.getCourse(
+            deptCode.toUpperCase(), courseCode);
         return new ResponseEntity<>(requestedCourse.isCourseFull(), HttpStatus.OK);
       } else {
         return new ResponseEntity<>("Course Not Found", HttpStatus.NOT_FOUND);
@@ -182,10 +185,10 @@ public class RouteController {
       // Check if dept exist
       boolean doesDepartmentExists = retrieveDepartment(deptCode).getStatusCode() == HttpStatus.OK;
       if (doesDepartmentExists) {
-        HashMap<String, Department> departmentMapping =
-                IndividualProjectApplication.myFileDatabase.getDepartmentMapping();
+        Department department = IndividualProjectApplication.myFileDatabase
+                .getDepartment(deptCode);
         return new ResponseEntity<>("There are: "
-                + departmentMapping.get(deptCode).getNumberOfMajors()
+                + department.getNumberOfMajors()
                 + " majors in the department", HttpStatus.OK);
       }
       return new ResponseEntity<>("Department Not Found",
@@ -218,9 +221,9 @@ public class RouteController {
       // Check if dept exist
       boolean doesDepartmentExists = retrieveDepartment(deptCode).getStatusCode() == HttpStatus.OK;
       if (doesDepartmentExists) {
-        HashMap<String, Department> departmentMapping =
-                IndividualProjectApplication.myFileDatabase.getDepartmentMapping();
-        return new ResponseEntity<>(departmentMapping.get(deptCode).getDepartmentChair()
+        Department department = IndividualProjectApplication.myFileDatabase
+                .getDepartment(deptCode);
+        return new ResponseEntity<>(department.getDepartmentChair()
                 + " is the department chair.", HttpStatus.OK);
       }
       return new ResponseEntity<>("Department Not Found", HttpStatus.NOT_FOUND);
@@ -258,12 +261,8 @@ public class RouteController {
       doesCourseExists = retrieveCourse(deptCode, courseCode).getStatusCode() == HttpStatus.OK;
 
       if (doesCourseExists) {
-        HashMap<String, Department> departmentMapping;
-        departmentMapping = IndividualProjectApplication.myFileDatabase.getDepartmentMapping();
-        HashMap<String, Course> coursesMapping;
-        coursesMapping = departmentMapping.get(deptCode).getCourseSelection();
-
-        Course requestedCourse = coursesMapping.get(Integer.toString(courseCode));
+        Course requestedCourse = IndividualProjectApplication.myFileDatabase.getCourse(
+            deptCode, courseCode);
         return new ResponseEntity<>(requestedCourse.getCourseLocation() + " is where the course "
             + "is located.", HttpStatus.OK);
       } else {
@@ -305,12 +304,8 @@ public class RouteController {
       doesCourseExists = retrieveCourse(deptCode, courseCode).getStatusCode() == HttpStatus.OK;
 
       if (doesCourseExists) {
-        HashMap<String, Department> departmentMapping;
-        departmentMapping = IndividualProjectApplication.myFileDatabase.getDepartmentMapping();
-        HashMap<String, Course> coursesMapping;
-        coursesMapping = departmentMapping.get(deptCode).getCourseSelection();
-
-        Course requestedCourse = coursesMapping.get(Integer.toString(courseCode));
+        Course requestedCourse = IndividualProjectApplication.myFileDatabase.getCourse(
+            deptCode, courseCode);
         return new ResponseEntity<>(requestedCourse.getInstructorName() + " is the instructor for"
             + " the course.", HttpStatus.OK);
       } else {
@@ -352,12 +347,8 @@ public class RouteController {
       doesCourseExists = retrieveCourse(deptCode, courseCode).getStatusCode() == HttpStatus.OK;
 
       if (doesCourseExists) {
-        HashMap<String, Department> departmentMapping;
-        departmentMapping = IndividualProjectApplication.myFileDatabase.getDepartmentMapping();
-        HashMap<String, Course> coursesMapping;
-        coursesMapping = departmentMapping.get(deptCode).getCourseSelection();
-
-        Course requestedCourse = coursesMapping.get(Integer.toString(courseCode));
+        Course requestedCourse = IndividualProjectApplication.myFileDatabase.getCourse(
+            deptCode, courseCode);
         return new ResponseEntity<>("The course meets at: " + requestedCourse.getCourseTimeSlot(),
                 HttpStatus.OK);
 
@@ -390,10 +381,13 @@ public class RouteController {
       // Check if dept exist
       boolean doesDepartmentExists = retrieveDepartment(deptCode).getStatusCode() == HttpStatus.OK;
       if (doesDepartmentExists) {
-        HashMap<String, Department> departmentMapping =
-                IndividualProjectApplication.myFileDatabase.getDepartmentMapping();
-        Department specifiedDept = departmentMapping.get(deptCode);
-        specifiedDept.addPersonToMajor();
+        IndividualProjectApplication.myFileDatabase.updateDepartment(deptCode, () -> {
+          Department specifiedDept = IndividualProjectApplication.myFileDatabase
+                  .draftDepartment(deptCode);
+          specifiedDept.addPersonToMajor();
+          IndividualProjectApplication.myFileDatabase.logMutation(
+              Mutation.majorCount(deptCode, specifiedDept.getNumberOfMajors()));
+        });
         return new ResponseEntity<>("Attribute was updated successfully", HttpStatus.OK);
       }
 
@@ -425,10 +419,13 @@ public class RouteController {
       // Check if dept exist
       boolean doesDepartmentExists = retrieveDepartment(deptCode).getStatusCode() == HttpStatus.OK;
       if (doesDepartmentExists) {
-        HashMap<String, Department> departmentMapping;
-        departmentMapping = IndividualProjectApplication.myFileDatabase.getDepartmentMapping();
-        Department specifiedDept = departmentMapping.get(deptCode);
-        specifiedDept.dropPersonFromMajor();
+        IndividualProjectApplication.myFileDatabase.updateDepartment(deptCode, () -> {
+          Department specifiedDept = IndividualProjectApplication.myFileDatabase
+                  .draftDepartment(deptCode);
+          specifiedDept.dropPersonFromMajor();
+          IndividualProjectApplication.myFileDatabase.logMutation(
+              Mutation.majorCount(deptCode, specifiedDept.getNumberOfMajors()));
+        });
         return new ResponseEntity<>("Attribute was updated or is at minimum", HttpStatus.OK);
       }
       return new ResponseEntity<>("Department Not Found", HttpStatus.NOT_FOUND);
@@ -438,19 +435,25 @@ public class RouteController {
   }
 
   /**
-   * Attempts to drop a student from the specified course.
+   * Attempts to drop a student from the specified course. If students are waiting for the
+   * course, the seat passes to the first of them. A student named by ID who was promoted from
+   * the waitlist is no longer reported as enrolled from it.
    *
    * @param deptCode       A {@code String} representing the department.
    *
    * @param courseCode     A {@code int} representing the course within the department.
    *
+   * @param studentId      The ID of the dropping student, if known.
+   *
    * @return               A {@code ResponseEntity} object containing an HTTP 200
    *                       response with an appropriate message or the proper status
    *                       code in tune with what has happened.
    */
   @PatchMapping(value = "/dropStudentFromCourse", produces = MediaType.APPLICATION_JSON_VALUE)
   public ResponseEntity<?> dropStudent(@RequestParam(value = "deptCode") String deptCode,
-                                       @RequestParam(value = "courseCode") int courseCode) {
+                                       @RequestParam(value = "courseCode") int courseCode,
+                                       @RequestParam(value = "studentId", required = false)
+                                       String studentId) {
 
     // Check if deptCode is null or empty
     if (deptCode == null || deptCode.trim().isEmpty()) {
@@ -464,16 +467,14 @@ public class RouteController {
       doesCourseExists = retrieveCourse(deptCode, courseCode).getStatusCode() == HttpStatus.OK;
 
       if (doesCourseExists) {
-        HashMap<String, Department> departmentMapping;
-        departmentMapping = IndividualProjectApplication.myFileDatabase.getDepartmentMapping();
-        HashMap<String, Course> coursesMapping;
-        coursesMapping = departmentMapping.get(deptCode).getCourseSelection();
-
-        Course requestedCourse = coursesMapping.get(Integer.toString(courseCode));
-        boolean isStudentDropped = requestedCourse.dropStudent();
+        Course requestedCourse = IndividualProjectApplication.myFileDatabase.getCourse(
+            deptCode, courseCode);
+        boolean isStudentDropped = requestedCourse.dropStudent(
+            studentId == null || studentId.isBlank() ? null : studentId.trim());
 
         if (isStudentDropped) {
           // Check if drop succeed
+          IndividualProjectApplication.myFileDatabase.recordSeats(deptCode, courseCode);
           return new ResponseEntity<>("Student has been dropped.", HttpStatus.OK);
         } else {
           return new ResponseEntity<>("Student has not been dropped.", HttpStatus.BAD_REQUEST);
@@ -515,13 +516,8 @@ public class RouteController {
       doesCourseExists = retrieveCourse(deptCode, courseCode).getStatusCode() == HttpStatus.OK;
 
       if (doesCourseExists) {
-        HashMap<String, Department> departmentMapping;
-        departmentMapping = IndividualProjectApplication.myFileDatabase.getDepartmentMapping();
-        HashMap<String, Course> coursesMapping;
-        coursesMapping = departmentMapping.get(deptCode).getCourseSelection();
-
-        Course requestedCourse = coursesMapping.get(Integer.toString(courseCode));
-        requestedCourse.setEnrolledStudentCount(count);
+        IndividualProjectApplication.myFileDatabase.logMutation(
+            Mutation.enrollmentCount(deptCode, Integer.toString(courseCode), count));
         return new ResponseEntity<>("Attributed was updated successfully.", HttpStatus.OK);
       } else {
         return new ResponseEntity<>("Course Not Found", HttpStatus.NOT_FOUND);
@@ -541,7 +537,10 @@ public class RouteController {
    * @param time                        the new time for the course
    *
    * @return                            a ResponseEntity with a success message if the operation is
-   *                                    successful, or an error message if the course is not found
+   *                                    successful, warning of any course already in the room at
+   *                                    that time, or an error message if the course is not found,
+   *                                    the time is not a valid time slot or, when room conflicts
+   *                                    are refused, the room is already booked at that time
    */
   @PatchMapping(value = "/changeCourseTime", produces = MediaType.APPLICATION_JSON_VALUE)
   public ResponseEntity<?> changeCourseTime(@RequestParam(value = "deptCode") String deptCode,
@@ -553,20 +552,24 @@ public class RouteController {
       return new ResponseEntity<>("Department code cannot be null or empty",
               HttpStatus.BAD_REQUEST);
     }
+    // Check if time is a valid time slot
+    if (TimeSlot.tryParse(time) == null) {
+      return new ResponseEntity<>("Invalid time slot: " + time, HttpStatus.BAD_REQUEST);
+    }
     try {
       // Check if course exist
       boolean doesCourseExists;
       doesCourseExists = retrieveCourse(deptCode, courseCode).getStatusCode() == HttpStatus.OK;
 
       if (doesCourseExists) {
-        HashMap<String, Department> departmentMapping;
-        departmentMapping = IndividualProjectApplication.myFileDatabase.getDepartmentMapping();
-        HashMap<String, Course> coursesMapping;
-        coursesMapping = departmentMapping.get(deptCode).getCourseSelection();
-
-        Course requestedCourse = coursesMapping.get(Integer.toString(courseCode));
-        requestedCourse.reassignTime(time);
-        return new ResponseEntity<>("Attributed was updated successfully.", HttpStatus.OK);
+        // Check whether another course is booked into the room at the same time
+        boolean rejecting = IndividualProjectApplication.myFileDatabase.isRejectingRoomConflicts();
+        List<String> conflicts = IndividualProjectApplication.myFileDatabase.moveCourse(
+            deptCode, Integer.toString(courseCode), null, time, rejecting);
+        if (!conflicts.isEmpty() && rejecting) {
+          return new ResponseEntity<>(roomConflictMessage(conflicts), HttpStatus.CONFLICT);
+        }
+        return new ResponseEntity<>(updatedWithRoomConflicts(conflicts), HttpStatus.OK);
       } else {
         return new ResponseEntity<>("Course Not Found", HttpStatus.NOT_FOUND);
       }
@@ -605,13 +608,13 @@ public class RouteController {
       doesCourseExists = retrieveCourse(deptCode, courseCode).getStatusCode() == HttpStatus.OK;
 
       if (doesCourseExists) {
-        HashMap<String, Department> departmentMapping;
-        departmentMapping = IndividualProjectApplication.myFileDatabase.getDepartmentMapping();
-        HashMap<String, Course> coursesMapping;
-        coursesMapping = departmentMapping.get(deptCode).getCourseSelection();
-
-        Course requestedCourse = coursesMapping.get(Integer.toString(courseCode));
-        requestedCourse.reassignInstructor(teacher);
+        IndividualProjectApplication.myFileDatabase.updateDepartment(deptCode, () -> {
+          Course requestedCourse = IndividualProjectApplication.myFileDatabase.draftCourse(
+              deptCode, Integer.toString(courseCode));
+          requestedCourse.reassignInstructor(teacher);
+          IndividualProjectApplication.myFileDatabase.logMutation(
+              Mutation.courseInstructor(deptCode, Integer.toString(courseCode), teacher));
+        });
         return new ResponseEntity<>("Attributed was updated successfully.", HttpStatus.OK);
       } else {
         return new ResponseEntity<>("Course Not Found", HttpStatus.NOT_FOUND);
@@ -631,7 +634,9 @@ public class RouteController {
    * @param location      The new location for the course.
    *
    * @return              A {@code ResponseEntity} with a success message if the operation is
-   *                      successful, or an error message if the course is not found.
+   *                      successful, warning of any course already in the room at that time, or
+   *                      an error message if the course is not found or, when room conflicts are
+   *                      refused, the room is already booked at that time.
    */
   @PatchMapping(value = "/changeCourseLocation", produces = MediaType.APPLICATION_JSON_VALUE)
   public ResponseEntity<?> changeCourseLocation(@RequestParam(value = "deptCode") String deptCode,
@@ -650,14 +655,14 @@ public class RouteController {
       doesCourseExists = retrieveCourse(deptCode, courseCode).getStatusCode() == HttpStatus.OK;
 
       if (doesCourseExists) {
-        HashMap<String, Department> departmentMapping;
-        departmentMapping = IndividualProjectApplication.myFileDatabase.getDepartmentMapping();
-        HashMap<String, Course> coursesMapping;
-        coursesMapping = departmentMapping.get(deptCode).getCourseSelection();
-
-        Course requestedCourse = coursesMapping.get(Integer.toString(courseCode));
-        requestedCourse.reassignLocation(location);
-        return new ResponseEntity<>("Attributed was updated successfully.", HttpStatus.OK);
+        // Check whether another course is booked into the room at the same time
+        boolean rejecting = IndividualProjectApplication.myFileDatabase.isRejectingRoomConflicts();
+        List<String> conflicts = IndividualProjectApplication.myFileDatabase.moveCourse(
+            deptCode, Integer.toString(courseCode), location, null, rejecting);
+        if (!conflicts.isEmpty() && rejecting) {
+          return new ResponseEntity<>(roomConflictMessage(conflicts), HttpStatus.CONFLICT);
+        }
+        return new ResponseEntity<>(updatedWithRoomConflicts(conflicts), HttpStatus.OK);
       } else {
         return new ResponseEntity<>("Course Not Found", HttpStatus.NOT_FOUND);
       }
@@ -666,16 +671,37 @@ public class RouteController {
     }
   }
 
+  private static String roomConflictMessage(List<String> conflicts) {
+    return "The room is already booked at that time by: " + String.join(", ", conflicts);
+  }
+
+  private static String updatedWithRoomConflicts(List<String> conflicts) {
+    String message = "Attributed was updated successfully.";
+    return conflicts.isEmpty() ? message : message + " Warning: " + roomConflictMessage(conflicts);
+  }
+
+  /**
+   * Turns an exception thrown by an endpoint into a response. A change that could not be
+   * persisted is reported as a server error, so the client does not take it as made.
+   *
+   * @param e the exception thrown
+   * @return an HTTP 500 response if the change could not be persisted, otherwise a generic
+   *         error message
+   */
   public ResponseEntity<?> handleException(Exception e) {
     System.out.println(e.toString());
+    if (e instanceof UncheckedIOException) {
+      return new ResponseEntity<>("The change could not be saved",
+          HttpStatus.INTERNAL_SERVER_ERROR);
+    }
     return new ResponseEntity<>("An Error has occurred", HttpStatus.OK);
   }
 
   /*New stuff for I2*/
   /**
    * Attempt to get courses information
-   * This method search all the course in each department to track all the course
-   * that has same course code as given.
+   * This method looks the course code up in the catalog's inverted index to find every
+   * department offering a course with the given code.
    *
    * @param courseCode    The code of the course we want to find.
    *
@@ -689,20 +715,18 @@ public class RouteController {
     StringBuilder result = new StringBuilder();
 
     try {
-      // Get the department mapping from the database
-      HashMap<String, Department> departmentMapping =
-              IndividualProjectApplication.myFileDatabase.getDepartmentMapping();
+      // Get the current version of the catalog from the database
+      CatalogVersion version = IndividualProjectApplication.myFileDatabase.getVersion();
       // If no department found we do not need courseFound
       boolean courseFound = false;
 
-      // Loop through all the department
-      for (Department dept : departmentMapping.values()) {
-        if (dept.getCourseSelection().containsKey(courseCode)) {
-          Course course = dept.getCourseSelection().get(courseCode);
-          result.append(dept.getDeptCode()).append(" ").append(courseCode).append(": ")
-                  .append(course.toString()).append("\n");
-          courseFound = true;
-        }
+      // Loop through the departments offering the course only
+      for (String deptKey : version.getDepartmentsOffering(courseCode)) {
+        Department dept = version.getDepartment(deptKey);
+        Course course = dept.getCourseSelection().get(courseCode);
+        result.append(dept.getDeptCode()).append(" ").append(courseCode).append(": ")
+                .append(course.toString()).append("\n");
+        courseFound = true;
       }
 
       if (!courseFound) {
@@ -716,6 +740,164 @@ public class RouteController {
     }
   }
 
+  /**
+   * Displays every course taught by an instructor, found through the instructor index rather
+   * than by scanning every department.
+   *
+   * @param instructor A {@code String} naming the instructor, matched ignoring case.
+   *
+   * @return A {@code ResponseEntity} object containing the matching courses and an HTTP 200
+   *         response, or an HTTP 404 response if the instructor teaches no course.
+   */
+  @GetMapping(value = "/retrieveCoursesByInstructor",
+      produces = MediaType.APPLICATION_JSON_VALUE)
+  public ResponseEntity<?> retrieveCoursesByInstructor(
+      @RequestParam(value = "instructor") String instructor) {
+    return findCourses(CourseIndex.Field.INSTRUCTOR, instructor, "instructor");
+  }
+
+  /**
+   * Displays every course held in a location, found through the location index rather than by
+   * scanning every department.
+   *
+   * @param location A {@code String} naming the location, matched ignoring case.
+   *
+   * @return A {@code ResponseEntity} object containing the matching courses and an HTTP 200
+   *         response, or an HTTP 404 response if no course is held there.
+   */
+  @GetMapping(value = "/retrieveCoursesByLocation", produces = MediaType.APPLICATION_JSON_VALUE)
+  public ResponseEntity<?> retrieveCoursesByLocation(
+      @RequestParam(value = "location") String location) {
+    return findCourses(CourseIndex.Field.LOCATION, location, "location");
+  }
+
+  /**
+   * Displays every course meeting in a time slot, found through the time slot index rather
+   * than by scanning every department.
+   *
+   * @param time A {@code String} holding the time slot, such as "11:40-12:55"; slots match by
+   *             the time they stand for.
+   *
+   * @return A {@code ResponseEntity} object containing the matching courses and an HTTP 200
+   *         response, or an HTTP 404 response if no course meets then.
+   */
+  @GetMapping(value = "/retrieveCoursesByTime", produces = MediaType.APPLICATION_JSON_VALUE)
+  public ResponseEntity<?> retrieveCoursesByTime(@RequestParam(value = "time") String time) {
+    return findCourses(CourseIndex.Field.TIME, time, "time");
+  }
+
+  /**
+   * Completes a prefix typed into a search box to the department codes, course IDs and
+   * instructor names starting with it, ignoring case. Each completion is on its own line as
+   * its kind and term, such as "instructor: Adam Cannon", in alphabetical order.
+   *
+   * @param prefix A {@code String} holding the prefix to complete.
+   *
+   * @param limit  The maximum number of completions, from 1 to 100.
+   *
+   * @return A {@code ResponseEntity} object containing the completions and an HTTP 200
+   *         response, which is empty if nothing starts with the prefix, or an HTTP 400
+   *         response if the prefix is empty or the limit is out of range.
+   */
+  @GetMapping(value = "/autocomplete", produces = MediaType.APPLICATION_JSON_VALUE)
+  public ResponseEntity<?> autocomplete(@RequestParam(value = "prefix") String prefix,
+                                        @RequestParam(value = "limit", defaultValue = "10")
+                                        int limit) {
+    if (prefix == null || prefix.trim().isEmpty()) {
+      return new ResponseEntity<>("Prefix cannot be null or empty", HttpStatus.BAD_REQUEST);
+    }
+    if (limit < 1 || limit > 100) {
+      return new ResponseEntity<>("Limit must be between 1 and 100", HttpStatus.BAD_REQUEST);
+    }
+    try {
+      StringBuilder result = new StringBuilder();
+      for (AutocompleteIndex.Completion completion
+          : IndividualProjectApplication.myFileDatabase.autocomplete(prefix, limit)) {
+        result.append(completion).append("\n");
+      }
+      return new ResponseEntity<>(result.toString(), HttpStatus.OK);
+    } catch (Exception e) {
+      return handleException(e);
+    }
+  }
+
+  /**
+   * Lists every pair of courses booked into the same room at overlapping times across the
+   * catalog, each on its own line as the room and the two courses, such as
+   * "417 IAB: COMS 1004, COMS 3157". Courses whose time is not a valid time slot are skipped.
+   *
+   * @return A {@code ResponseEntity} object containing the conflicts and an HTTP 200 response,
+   *         with a message saying there are none if no room is double-booked.
+   */
+  @GetMapping(value = "/roomConflicts", produces = MediaType.APPLICATION_JSON_VALUE)
+  public ResponseEntity<?> roomConflicts() {
+    try {
+      List<RoomSchedule.Conflict> conflicts =
+          IndividualProjectApplication.myFileDatabase.findAllRoomConflicts();
+      if (conflicts.isEmpty()) {
+        return new ResponseEntity<>("No room conflicts found", HttpStatus.OK);
+      }
+      StringBuilder result = new StringBuilder();
+      for (RoomSchedule.Conflict conflict : conflicts) {
+        result.append(conflict).append("\n");
+      }
+      return new ResponseEntity<>(result.toString(), HttpStatus.OK);
+    } catch (Exception e) {
+      return handleException(e);
+    }
+  }
+
+  /**
+   * Finds the rooms no course uses at any point of a time slot, such as the rooms free on
+   * Tuesdays and Thursdays from 2:40 to 3:55 when relocating a course. A slot naming no days
+   * must be free on every day. Each room is on its own line, in alphabetical order.
+   *
+   * @param time A {@code String} holding the time slot, such as "TR 2:40-3:55".
+   *
+   * @return A {@code ResponseEntity} object containing the free rooms and an HTTP 200
+   *         response, an HTTP 400 response if the time is not a valid time slot, or an HTTP 404
+   *         response if every room is in use.
+   */
+  @GetMapping(value = "/freeRooms", produces = MediaType.APPLICATION_JSON_VALUE)
+  public ResponseEntity<?> freeRooms(@RequestParam(value = "time") String time) {
+    TimeSlot slot = TimeSlot.tryParse(time);
+    if (slot == null) {
+      return new ResponseEntity<>("Invalid time slot: " + time, HttpStatus.BAD_REQUEST);
+    }
+    try {
+      List<String> rooms = IndividualProjectApplication.myFileDatabase.findFreeRooms(slot);
+      if (rooms.isEmpty()) {
+        return new ResponseEntity<>("No free room found at: " + time, HttpStatus.NOT_FOUND);
+      }
+      return new ResponseEntity<>(String.join("\n", rooms) + "\n", HttpStatus.OK);
+    } catch (Exception e) {
+      return handleException(e);
+    }
+  }
+
+  private ResponseEntity<?> findCourses(CourseIndex.Field field, String value, String name) {
+    if (value == null || value.trim().isEmpty()) {
+      return new ResponseEntity<>("The " + name + " cannot be null or empty",
+          HttpStatus.BAD_REQUEST);
+    }
+    try {
+      TreeMap<String, Course> courses =
+          IndividualProjectApplication.myFileDatabase.findCourses(field, value);
+      if (courses.isEmpty()) {
+        return new ResponseEntity<>("No course found with " + name + ": " + value,
+            HttpStatus.NOT_FOUND);
+      }
+      StringBuilder result = new StringBuilder();
+      for (Map.Entry<String, Course> entry : courses.entrySet()) {
+        result.append(entry.getKey()).append(": ").append(entry.getValue().toString())
+            .append("\n");
+      }
+      return new ResponseEntity<>(result.toString(), HttpStatus.OK);
+    } catch (Exception e) {
+      return handleException(e);
+    }
+  }
+
 
   /**
    * Attempt to add a student to specific course.
@@ -734,22 +916,315 @@ public class RouteController {
 
     try {
       // Use existing retrieveCourse method to get the course
-      ResponseEntity<?> courseResponse = retrieveCourse(deptCode, Integer.parseInt(courseCode));
+      int parsedCourseCode = Integer.parseInt(courseCode);
+      ResponseEntity<?> courseResponse = retrieveCourse(deptCode, parsedCourseCode);
       // Check if course exist in the department
       if (courseResponse.getStatusCode() != HttpStatus.OK) {
         return courseResponse;
       }
-      Course course = (Course) courseResponse.getBody();
+      Course course = IndividualProjectApplication.myFileDatabase.getCourse(deptCode,
+          parsedCourseCode);
 
-      // Use existing isCourseFull method to check if course is full
-      if (course.isCourseFull()) {
+      // Take a seat atomically, so concurrent requests cannot oversell the course
+      if (!course.enrollStudent()) {
         return new ResponseEntity<>("Course is full", HttpStatus.FORBIDDEN);
       }
+      IndividualProjectApplication.myFileDatabase.recordSeats(deptCode, parsedCourseCode);
+      return new ResponseEntity<>("Student enrolled successfully", HttpStatus.OK);
+
+    } catch (Exception e) {
+      return handleException(e);
+    }
+  }
 
-      // Everything good, we enroll the student
-      course.setEnrolledStudentCount(course.getEnrolledStudentCount() + 1);
+  /**
+   * Holds a seat of a course for a student for a number of seconds, the first step of a
+   * two-step enrollment. The seat counts against the capacity while it is held; the student
+   * confirms the enrollment with the returned hold ID, and the seat is given back if they do
+   * not confirm in time.
+   *
+   * @param deptCode   The code of the department containing the course.
+   * @param courseCode The code of the course.
+   * @param seconds    The number of seconds to hold the seat for, from 1 to 3600.
+   *
+   * @return A {@code ResponseEntity} with the hold ID and an HTTP 200 response, an HTTP 403
+   *         response if the course is full, an HTTP 400 response if the department code is
+   *         empty or the number of seconds is out of range, or an HTTP 404 response if the
+   *         course is not found.
+   */
+  @PatchMapping(value = "/holdSeat", produces = MediaType.APPLICATION_JSON_VALUE)
+  public ResponseEntity<?> holdSeat(@RequestParam(value = "deptCode") String deptCode,
+                                    @RequestParam(value = "courseCode") int courseCode,
+                                    @RequestParam(value = "seconds", defaultValue = "300")
+                                    int seconds) {
+    if (deptCode == null || deptCode.trim().isEmpty()) {
+      return new ResponseEntity<>("Department code cannot be null or empty",
+              HttpStatus.BAD_REQUEST);
+    }
+    if (seconds < 1 || seconds > 3600) {
+      return new ResponseEntity<>("Seconds must be between 1 and 3600", HttpStatus.BAD_REQUEST);
+    }
+    try {
+      Course course = IndividualProjectApplication.myFileDatabase.getCourse(deptCode, courseCode);
+      if (course == null) {
+        return new ResponseEntity<>("Course Not Found", HttpStatus.NOT_FOUND);
+      }
+      String holdId = IndividualProjectApplication.myFileDatabase.getSeatHolds().hold(deptCode,
+          Integer.toString(courseCode), course, System.currentTimeMillis() + seconds * 1000L);
+      if (holdId == null) {
+        return new ResponseEntity<>("Course is full", HttpStatus.FORBIDDEN);
+      }
+      return new ResponseEntity<>(holdId, HttpStatus.OK);
+    } catch (Exception e) {
+      return handleException(e);
+    }
+  }
+
+  /**
+   * Confirms a seat hold, enrolling the student in the held seat.
+   *
+   * @param holdId The ID returned when the seat was held.
+   *
+   * @return A {@code ResponseEntity} with a success message, an HTTP 400 response if the hold
+   *         ID is empty, or an HTTP 404 response if the hold is unknown, has expired or was
+   *         already confirmed or released.
+   */
+  @PatchMapping(value = "/confirmHold", produces = MediaType.APPLICATION_JSON_VALUE)
+  public ResponseEntity<?> confirmHold(@RequestParam(value = "holdId") String holdId) {
+    if (holdId == null || holdId.trim().isEmpty()) {
+      return new ResponseEntity<>("Hold ID cannot be null or empty", HttpStatus.BAD_REQUEST);
+    }
+    try {
+      if (!IndividualProjectApplication.myFileDatabase.getSeatHolds().confirm(holdId.trim())) {
+        return new ResponseEntity<>("Hold not found or expired", HttpStatus.NOT_FOUND);
+      }
       return new ResponseEntity<>("Student enrolled successfully", HttpStatus.OK);
+    } catch (Exception e) {
+      return handleException(e);
+    }
+  }
+
+  /**
+   * Gives back a held seat before its hold expires.
+   *
+   * @param holdId The ID returned when the seat was held.
+   *
+   * @return A {@code ResponseEntity} with a success message, an HTTP 400 response if the hold
+   *         ID is empty, or an HTTP 404 response if the hold is unknown, has expired or was
+   *         already confirmed or released.
+   */
+  @PatchMapping(value = "/releaseHold", produces = MediaType.APPLICATION_JSON_VALUE)
+  public ResponseEntity<?> releaseHold(@RequestParam(value = "holdId") String holdId) {
+    if (holdId == null || holdId.trim().isEmpty()) {
+      return new ResponseEntity<>("Hold ID cannot be null or empty", HttpStatus.BAD_REQUEST);
+    }
+    try {
+      if (!IndividualProjectApplication.myFileDatabase.getSeatHolds().release(holdId.trim())) {
+        return new ResponseEntity<>("Hold not found or expired", HttpStatus.NOT_FOUND);
+      }
+      return new ResponseEntity<>("Hold has been released", HttpStatus.OK);
+    } catch (Exception e) {
+      return handleException(e);
+    }
+  }
 
+  /**
+   * Adds a student to the waitlist of a full course, so they are enrolled as soon as a seat is
+   * dropped instead of retrying the enrollment. A student joining a course with an open seat
+   * is enrolled straight away, and a student already on the waitlist keeps their place.
+   *
+   * @param deptCode   The code of the department containing the course.
+   * @param courseCode The code of the course.
+   * @param studentId  The ID of the student.
+   *
+   * @return A {@code ResponseEntity} with the student's position or a message that they were
+   *         enrolled, an HTTP 400 response if the department code or student ID is empty, an
+   *         HTTP 403 response if the waitlist is full, or an HTTP 404 response if the course is
+   *         not found.
+   */
+  @PatchMapping(value = "/joinWaitlist", produces = MediaType.APPLICATION_JSON_VALUE)
+  public ResponseEntity<?> joinWaitlist(@RequestParam(value = "deptCode") String deptCode,
+                                        @RequestParam(value = "courseCode") int courseCode,
+                                        @RequestParam(value = "studentId") String studentId) {
+    if (deptCode == null || deptCode.trim().isEmpty()) {
+      return new ResponseEntity<>("Department code cannot be null or empty",
+              HttpStatus.BAD_REQUEST);
+    }
+    if (studentId == null || studentId.trim().isEmpty()) {
+      return new ResponseEntity<>("Student ID cannot be null or empty", HttpStatus.BAD_REQUEST);
+    }
+    try {
+      Course course = IndividualProjectApplication.myFileDatabase.getCourse(deptCode, courseCode);
+      if (course == null) {
+        return new ResponseEntity<>("Course Not Found", HttpStatus.NOT_FOUND);
+      }
+      int position = course.joinWaitlist(studentId.trim());
+      if (position == Waitlist.FULL) {
+        return new ResponseEntity<>("Waitlist is full", HttpStatus.FORBIDDEN);
+      }
+      if (position == Waitlist.ENROLLED) {
+        IndividualProjectApplication.myFileDatabase.recordSeats(deptCode, courseCode);
+        return new ResponseEntity<>("Student enrolled successfully", HttpStatus.OK);
+      }
+      return new ResponseEntity<>("Position on waitlist: " + position, HttpStatus.OK);
+    } catch (Exception e) {
+      return handleException(e);
+    }
+  }
+
+  /**
+   * Removes a student from the waitlist of a course.
+   *
+   * @param deptCode   The code of the department containing the course.
+   * @param courseCode The code of the course.
+   * @param studentId  The ID of the student.
+   *
+   * @return A {@code ResponseEntity} with a success message, an HTTP 400 response if the
+   *         department code or student ID is empty, or an HTTP 404 response if the course is not
+   *         found or the student is not on its waitlist.
+   */
+  @PatchMapping(value = "/leaveWaitlist", produces = MediaType.APPLICATION_JSON_VALUE)
+  public ResponseEntity<?> leaveWaitlist(@RequestParam(value = "deptCode") String deptCode,
+                                         @RequestParam(value = "courseCode") int courseCode,
+                                         @RequestParam(value = "studentId") String studentId) {
+    if (deptCode == null || deptCode.trim().isEmpty()) {
+      return new ResponseEntity<>("Department code cannot be null or empty",
+              HttpStatus.BAD_REQUEST);
+    }
+    if (studentId == null || studentId.trim().isEmpty()) {
+      return new ResponseEntity<>("Student ID cannot be null or empty", HttpStatus.BAD_REQUEST);
+    }
+    try {
+      Course course = IndividualProjectApplication.myFileDatabase.getCourse(deptCode, courseCode);
+      if (course == null) {
+        return new ResponseEntity<>("Course Not Found", HttpStatus.NOT_FOUND);
+      }
+      if (!course.getWaitlist().leave(studentId.trim())) {
+        return new ResponseEntity<>("Student is not on the waitlist", HttpStatus.NOT_FOUND);
+      }
+      return new ResponseEntity<>("Student has left the waitlist", HttpStatus.OK);
+    } catch (Exception e) {
+      return handleException(e);
+    }
+  }
+
+  /**
+   * Displays where a student is on the waitlist of a course, or that they have been enrolled
+   * from it.
+   *
+   * @param deptCode   The code of the department containing the course.
+   * @param courseCode The code of the course.
+   * @param studentId  The ID of the student.
+   *
+   * @return A {@code ResponseEntity} with the student's position and the length of the
+   *         waitlist, or a message that they were enrolled, and an HTTP 200 response, an HTTP
+   *         400 response if the department code or student ID is empty, or an HTTP 404 response
+   *         if the course is not found or the student is not on its waitlist.
+   */
+  @GetMapping(value = "/waitlistPosition", produces = MediaType.APPLICATION_JSON_VALUE)
+  public ResponseEntity<?> waitlistPosition(@RequestParam(value = "deptCode") String deptCode,
+                                            @RequestParam(value = "courseCode") int courseCode,
+                                            @RequestParam(value = "studentId") String studentId) {
+    if (deptCode == null || deptCode.trim().isEmpty()) {
+      return new ResponseEntity<>("Department code cannot be null or empty",
+              HttpStatus.BAD_REQUEST);
+    }
+    if (studentId == null || studentId.trim().isEmpty()) {
+      return new ResponseEntity<>("Student ID cannot be null or empty", HttpStatus.BAD_REQUEST);
+    }
+    try {
+      Course course = IndividualProjectApplication.myFileDatabase.getCourse(deptCode, courseCode);
+      if (course == null) {
+        return new ResponseEntity<>("Course Not Found", HttpStatus.NOT_FOUND);
+      }
+      int position = course.getWaitlist().position(studentId.trim());
+      if (position == Waitlist.NOT_WAITING) {
+        return new ResponseEntity<>("Student is not on the waitlist", HttpStatus.NOT_FOUND);
+      }
+      if (position == Waitlist.ENROLLED) {
+        return new ResponseEntity<>("Student has been enrolled from the waitlist",
+            HttpStatus.OK);
+      }
+      return new ResponseEntity<>("Position on waitlist: " + position + " of "
+          + course.getWaitlist().size(), HttpStatus.OK);
+    } catch (Exception e) {
+      return handleException(e);
+    }
+  }
+
+  /**
+   * Displays the metrics of the background checkpointer: how many checkpoints have been
+   * taken, how long the last one took and how many bytes they wrote.
+   *
+   * @return A {@code ResponseEntity} object containing the checkpoint metrics and an HTTP 200
+   *         response, or an HTTP 404 response if no checkpointer is running.
+   */
+  @GetMapping(value = "/checkpointStats", produces = MediaType.APPLICATION_JSON_VALUE)
+  public ResponseEntity<?> checkpointStats() {
+    try {
+      Checkpointer checkpointer = IndividualProjectApplication.myFileDatabase.getCheckpointer();
+      if (checkpointer == null) {
+        return new ResponseEntity<>("Checkpointer Not Running", HttpStatus.NOT_FOUND);
+      }
+      return new ResponseEntity<>(checkpointer.toString(), HttpStatus.OK);
+    } catch (Exception e) {
+      return handleException(e);
+    }
+  }
+
+  /**
+   * Imports department and course rows from the request body into the catalog and saves it.
+   * The body is read one line at a time. Rows for existing departments and courses replace
+   * them; everything else in the catalog is kept.
+   *
+   * @param format A {@code String} naming the format of the body, "csv" or "jsonl".
+   *
+   * @param body   An {@code InputStream} of the request body holding the rows.
+   *
+   * @return A {@code ResponseEntity} object containing the import statistics and an HTTP 200
+   *         response, or an HTTP 400 response naming the first malformed row.
+   */
+  @PostMapping(value = "/importCatalog", produces = MediaType.APPLICATION_JSON_VALUE)
+  public ResponseEntity<?> importCatalog(
+      @RequestParam(value = "format", defaultValue = "csv") String format, InputStream body) {
+    try {
+      CatalogImporter importer = new CatalogImporter(CatalogFormat.fromName(format));
+      CatalogImporter.Result result = IndividualProjectApplication.myFileDatabase.importCatalog(
+          importer, new InputStreamReader(body, StandardCharsets.UTF_8));
+      IndividualProjectApplication.myFileDatabase.saveContentsToFile();
+      return new ResponseEntity<>(result.toString(), HttpStatus.OK);
+    } catch (IllegalArgumentException | IOException e) {
+      return new ResponseEntity<>("Invalid catalog: " + e.getMessage(), HttpStatus.BAD_REQUEST);
+    } catch (Exception e) {
+      return handleException(e);
+    }
+  }
+
+  /**
+   * Streams the whole catalog to the response as department and course rows. Rows are written
+   * to the response as each department is visited rather than built up in memory first.
+   *
+   * @param format A {@code String} naming the format of the rows, "csv" or "jsonl".
+   *
+   * @return A {@code ResponseEntity} object streaming the rows with an HTTP 200 response, or an
+   *         HTTP 400 response if the format is unknown.
+   */
+  @GetMapping(value = "/exportCatalog")
+  public ResponseEntity<?> exportCatalog(
+      @RequestParam(value = "format", defaultValue = "csv") String format) {
+    try {
+      CatalogFormat catalogFormat = CatalogFormat.fromName(format);
+      HashMap<String, Department> departmentMapping =
+          IndividualProjectApplication.myFileDatabase.getDepartmentMapping();
+      StreamingResponseBody body = out -> {
+        Writer writer = new OutputStreamWriter(out, StandardCharsets.UTF_8);
+        new CatalogExporter(catalogFormat, writer).write(departmentMapping);
+      };
+      return ResponseEntity.ok()
+          .contentType(MediaType.parseMediaType(catalogFormat.getMediaType()))
+          .body(body);
+    } catch (IllegalArgumentException e) {
+      return new ResponseEntity<>(e.getMessage(), HttpStatus.BAD_REQUEST);
     } catch (Exception e) {
       return handleException(e);
     }
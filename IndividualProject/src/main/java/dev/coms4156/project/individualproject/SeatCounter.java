@@ -0,0 +1,326 @@
+package dev.coms4156.project.individualproject;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Represents the seats taken in a course, changed with compare-and-set so that concurrent
+ * enrollments can never take more seats than the course has. Seats held for students who have
+ * not confirmed yet are counted in the same word as the seats taken, so a hold and its
+ * confirmation or release change both at once. The word sits in the middle of an array padded
+ * with a cache line on each side, so a heavily contended course does not slow down threads
+ * working on neighbouring objects through false sharing.
+ *
+ * <p>An enroll or drop first makes a single compare-and-set attempt. If another thread changed
+ * the count in between, the request is queued instead of retried: whichever waiting thread
+ * becomes the combiner takes a batch of queued requests, decides each one against the capacity
+ * in a single pass and publishes the batch with one compare-and-set. Under heavy contention the
+ * count is then changed once per batch rather than retried once per request.
+ *
+ * <p>The word also carries a flag set while students are on the course's waitlist. Giving back
+ * an enrolled seat is refused while it is set, so every drop from a course with a waitlist goes
+ * through the waitlist, which hands the seat on instead.
+ */
+public final class SeatCounter {
+
+  /** The number of longs on each side of the count, covering one 64-byte cache line. */
+  private static final int PADDING = 8;
+
+  /** The largest number of requests decided by one compare-and-set. */
+  private static final int MAX_BATCH = 256;
+
+  /** The number of batches a combiner takes before handing the role on. */
+  private static final int MAX_PASSES = 8;
+
+  /** The bit of the word set while students are waiting for a seat. */
+  private static final long WAITING = 1L << 63;
+
+  private static final int PENDING = 0;
+  private static final int ACCEPTED = 1;
+  private static final int REJECTED = 2;
+
+  /**
+   * Constructs a new SeatCounter object starting at the given count.
+   *
+   * @param seats the number of students enrolled
+   */
+  public SeatCounter(int seats) {
+    this.cells = new AtomicLongArray(2 * PADDING + 1);
+    cells.set(PADDING, pack(seats, 0));
+  }
+
+  /**
+   * Gets the number of seats taken, counting held seats.
+   *
+   * @return the current count
+   */
+  public int get() {
+    return taken(cells.get(PADDING));
+  }
+
+  /**
+   * Gets the number of seats held for students who have not confirmed yet.
+   *
+   * @return the number of held seats
+   */
+  public int getHeld() {
+    return held(cells.get(PADDING));
+  }
+
+  /**
+   * Gets the number of students enrolled, not counting held seats.
+   *
+   * @return the number of enrolled students
+   */
+  public int getEnrolled() {
+    long current = cells.get(PADDING);
+    return taken(current) - held(current);
+  }
+
+  /**
+   * Marks whether students are waiting for a seat. While they are, {@link #tryRelease()} and
+   * {@link #releaseHeld()} refuse to give seats back, so the caller hands them on instead.
+   *
+   * @param waiting whether students are waiting
+   */
+  public void setWaiting(boolean waiting) {
+    long current;
+    do {
+      current = cells.get(PADDING);
+    } while (!cells.compareAndSet(PADDING, current,
+        waiting ? current | WAITING : current & ~WAITING));
+  }
+
+  /**
+   * Gets whether students are waiting for a seat.
+   *
+   * @return true if the waiting flag is set
+   */
+  public boolean isWaiting() {
+    return waiting(cells.get(PADDING));
+  }
+
+  /**
+   * Sets the number of students enrolled, regardless of the capacity. Held seats are kept.
+   *
+   * @param seats the new number of enrolled students
+   */
+  public void set(int seats) {
+    long current;
+    do {
+      current = cells.get(PADDING);
+    } while (!cells.compareAndSet(PADDING, current,
+        repack(current, seats + held(current), held(current))));
+  }
+
+  /**
+   * Takes a seat if fewer than the given number are taken.
+   *
+   * @param capacity the number of seats of the course
+   * @return true if a seat was taken, false if the course is full
+   */
+  public boolean tryAcquire(int capacity) {
+    long current = cells.get(PADDING);
+    if (taken(current) >= capacity) {
+      return false;
+    }
+    if (cells.compareAndSet(PADDING, current,
+        repack(current, taken(current) + 1, held(current)))) {
+      return true;
+    }
+    return combine(new Request(true, capacity));
+  }
+
+  /**
+   * Gives back the seat of an enrolled student, if any is enrolled and nobody is waiting for a
+   * seat. Held seats are not given back.
+   *
+   * @return true if a seat was given back, false if no student is enrolled or students are
+   *         waiting
+   */
+  public boolean tryRelease() {
+    long current = cells.get(PADDING);
+    if (waiting(current) || taken(current) - held(current) <= 0) {
+      return false;
+    }
+    if (cells.compareAndSet(PADDING, current,
+        repack(current, taken(current) - 1, held(current)))) {
+      return true;
+    }
+    return combine(new Request(false, 0));
+  }
+
+  /**
+   * Takes a seat and holds it, if fewer than the given number are taken.
+   *
+   * @param capacity the number of seats of the course
+   * @return true if a seat was held, false if the course is full
+   */
+  public boolean tryHold(int capacity) {
+    while (true) {
+      long current = cells.get(PADDING);
+      if (taken(current) >= capacity) {
+        return false;
+      }
+      if (cells.compareAndSet(PADDING, current,
+          repack(current, taken(current) + 1, held(current) + 1))) {
+        return true;
+      }
+    }
+  }
+
+  /**
+   * Turns a held seat into the seat of an enrolled student.
+   *
+   * @return true if a held seat was confirmed, false if no seat is held
+   */
+  public boolean confirmHeld() {
+    while (true) {
+      long current = cells.get(PADDING);
+      if (held(current) <= 0) {
+        return false;
+      }
+      if (cells.compareAndSet(PADDING, current,
+          repack(current, taken(current), held(current) - 1))) {
+        return true;
+      }
+    }
+  }
+
+  /**
+   * Gives back a held seat, if nobody is waiting for a seat.
+   *
+   * @return true if a held seat was given back, false if no seat is held or students are
+   *         waiting
+   */
+  public boolean releaseHeld() {
+    while (true) {
+      long current = cells.get(PADDING);
+      if (waiting(current) || held(current) <= 0) {
+        return false;
+      }
+      if (cells.compareAndSet(PADDING, current,
+          repack(current, taken(current) - 1, held(current) - 1))) {
+        return true;
+      }
+    }
+  }
+
+  /**
+   * Queues a request and waits until a combiner has decided it, acting as the combiner
+   * whenever no other thread is.
+   *
+   * @param request the request to decide
+   * @return true if the request was accepted
+   */
+  private boolean combine(Request request) {
+    requests.add(request);
+    int spins = 0;
+    while (request.state == PENDING) {
+      if (!combining.get() && combining.compareAndSet(false, true)) {
+        try {
+          for (int pass = 0; pass < MAX_PASSES && !requests.isEmpty(); pass++) {
+            decideBatch();
+          }
+        } finally {
+          combining.set(false);
+        }
+      } else if (++spins % 64 == 0) {
+        Thread.yield();
+      } else {
+        Thread.onSpinWait();
+      }
+    }
+    return request.state == ACCEPTED;
+  }
+
+  /**
+   * Takes a batch of queued requests, decides them in order against the count and publishes
+   * the new count with one compare-and-set, retrying the batch if the count changed meanwhile.
+   */
+  private void decideBatch() {
+    Request[] batch = new Request[MAX_BATCH];
+    int size = 0;
+    Request next;
+    while (size < MAX_BATCH && (next = requests.poll()) != null) {
+      batch[size++] = next;
+    }
+    if (size == 0) {
+      return;
+    }
+
+    boolean[] accepted = new boolean[size];
+    while (true) {
+      long current = cells.get(PADDING);
+      int held = held(current);
+      int count = taken(current);
+      for (int i = 0; i < size; i++) {
+        Request request = batch[i];
+        if (request.acquire) {
+          accepted[i] = count < request.capacity;
+          count += accepted[i] ? 1 : 0;
+        } else {
+          accepted[i] = !waiting(current) && count - held > 0;
+          count -= accepted[i] ? 1 : 0;
+        }
+      }
+      if (count == taken(current)
+          || cells.compareAndSet(PADDING, current, repack(current, count, held))) {
+        break;
+      }
+    }
+    for (int i = 0; i < size; i++) {
+      batch[i].state = accepted[i] ? ACCEPTED : REJECTED;
+    }
+  }
+
+  @Override
+  public String toString() {
+    return Integer.toString(get());
+  }
+
+  /**
+   * Packs the seats taken into the low half of a word and the seats held into the high half.
+   */
+  private static long pack(int taken, int held) {
+    return ((long) held << Integer.SIZE) | (taken & 0xFFFFFFFFL);
+  }
+
+  /**
+   * Packs new counts into a word, keeping the waiting flag of the word they replace.
+   */
+  private static long repack(long word, int taken, int held) {
+    return pack(taken, held) | (word & WAITING);
+  }
+
+  private static int taken(long word) {
+    return (int) word;
+  }
+
+  private static int held(long word) {
+    return (int) ((word & ~WAITING) >>> Integer.SIZE);
+  }
+
+  private static boolean waiting(long word) {
+    return (word & WAITING) != 0;
+  }
+
+  /**
+   * An enroll or drop waiting to be decided by a combiner.
+   */
+  private static final class Request {
+    private final boolean acquire;
+    private final int capacity;
+    private volatile int state = PENDING;
+
+    Request(boolean acquire, int capacity) {
+      this.acquire = acquire;
+      this.capacity = capacity;
+    }
+  }
+
+  private final AtomicLongArray cells;
+  private final ConcurrentLinkedQueue<Request> requests = new ConcurrentLinkedQueue<>();
+  private final AtomicBoolean combining = new AtomicBoolean();
+}
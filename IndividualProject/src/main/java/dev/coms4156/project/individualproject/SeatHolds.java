@@ -0,0 +1,260 @@
+package dev.coms4156.project.individualproject;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.BiConsumer;
+
+/**
+ * Represents the seats held for students during a registration rush: a hold takes a seat of a
+ * course for a number of seconds, during which the student confirms the enrollment or the seat
+ * is given back. Holds are kept on a timer wheel, a ring of buckets each covering one tick, so
+ * placing a hold and expiring a tick's worth of holds cost the same however many holds are
+ * outstanding. A hold due more than a turn of the wheel away stays in its bucket until the turn
+ * it is due.
+ *
+ * <p>Confirming, releasing and expiring a hold each settle it, and only the first of them has
+ * any effect, so a hold confirmed as it expires is either enrolled or given back, never both.
+ * Settled holds are dropped from their bucket when the wheel next passes it. Expiry runs on a
+ * single daemon thread once {@link #start()} is called, or whenever {@link #advance(long)} is.
+ * A hold is placed under a shared lock and the wheel moves on a tick under the exclusive one,
+ * so a hold never lands in the bucket of a tick that has just been swept.
+ */
+public class SeatHolds {
+
+  /** The number of milliseconds each bucket of the wheel covers. */
+  public static final long DEFAULT_TICK_MILLIS = 100;
+
+  /** The number of buckets of the wheel, covering about a minute at the default tick. */
+  public static final int DEFAULT_WHEEL_SIZE = 512;
+
+  /**
+   * Constructs a new SeatHolds object using the default wheel, starting at the current time.
+   *
+   * @param onSettled called with the department code and course ID of a course whose
+   *                  enrollment changed because a hold was confirmed or given back
+   */
+  public SeatHolds(BiConsumer<String, String> onSettled) {
+    this(DEFAULT_TICK_MILLIS, DEFAULT_WHEEL_SIZE, System.currentTimeMillis(), onSettled);
+  }
+
+  /**
+   * Constructs a new SeatHolds object.
+   *
+   * @param tickMillis  the number of milliseconds each bucket covers
+   * @param wheelSize   the number of buckets
+   * @param startMillis the time the wheel starts at, in milliseconds
+   * @param onSettled   called with the department code and course ID of a course whose
+   *                    enrollment changed because a hold was confirmed or given back
+   */
+  public SeatHolds(long tickMillis, int wheelSize, long startMillis,
+                   BiConsumer<String, String> onSettled) {
+    this.tickMillis = tickMillis;
+    this.buckets = new ArrayList<>(wheelSize);
+    for (int i = 0; i < wheelSize; i++) {
+      buckets.add(new ConcurrentLinkedQueue<>());
+    }
+    this.currentTick = startMillis / tickMillis;
+    this.onSettled = onSettled;
+  }
+
+  /**
+   * Holds a seat of a course until a time.
+   *
+   * @param deptCode    the code of the department
+   * @param courseId    the ID of the course within the department
+   * @param course      the course
+   * @param untilMillis the time the hold expires at, in milliseconds
+   * @return the ID of the hold, or null if the course is full
+   */
+  public String hold(String deptCode, String courseId, Course course, long untilMillis) {
+    if (!course.holdSeat()) {
+      return null;
+    }
+    String holdId = UUID.randomUUID().toString();
+    long stamp = wheelLock.readLock();
+    try {
+      long tick = Math.max((untilMillis + tickMillis - 1) / tickMillis, currentTick + 1);
+      Hold hold = new Hold(holdId, deptCode, courseId, course, tick);
+      holds.put(holdId, hold);
+      bucket(tick).add(hold);
+    } finally {
+      wheelLock.unlockRead(stamp);
+    }
+    return holdId;
+  }
+
+  /**
+   * Confirms a hold, enrolling the student in the held seat.
+   *
+   * @param holdId the ID of the hold
+   * @return true if the student was enrolled, false if the hold is unknown, has expired or was
+   *         already settled
+   */
+  public boolean confirm(String holdId) {
+    Hold hold = settle(holdId);
+    if (hold == null) {
+      return false;
+    }
+    hold.course.confirmHeldSeat();
+    onSettled.accept(hold.deptCode, hold.courseId);
+    return true;
+  }
+
+  /**
+   * Gives back a held seat before the hold expires.
+   *
+   * @param holdId the ID of the hold
+   * @return true if the seat was given back, false if the hold is unknown, has expired or was
+   *         already settled
+   */
+  public boolean release(String holdId) {
+    Hold hold = settle(holdId);
+    if (hold == null) {
+      return false;
+    }
+    giveBack(hold);
+    return true;
+  }
+
+  /**
+   * Moves the wheel up to a time, giving back the seats of every hold that has expired by
+   * then.
+   *
+   * @param nowMillis the current time, in milliseconds
+   * @return the number of holds expired
+   */
+  public synchronized int advance(long nowMillis) {
+    long target = nowMillis / tickMillis;
+    List<Hold> due = new ArrayList<>();
+    int expired = 0;
+    while (currentTick < target) {
+      long stamp = wheelLock.writeLock();
+      try {
+        long tick = currentTick + 1;
+        currentTick = tick;
+        Iterator<Hold> bucket = bucket(tick).iterator();
+        while (bucket.hasNext()) {
+          Hold hold = bucket.next();
+          if (hold.settled.get()) {
+            bucket.remove();
+          } else if (hold.tick <= tick) {
+            bucket.remove();
+            due.add(hold);
+          }
+        }
+      } finally {
+        wheelLock.unlockWrite(stamp);
+      }
+      // Seats are given back outside the lock, since recording them waits for the disk
+      for (Hold hold : due) {
+        if (settle(hold.id) != null) {
+          giveBack(hold);
+          expired++;
+        }
+      }
+      due.clear();
+    }
+    expiredCount += expired;
+    return expired;
+  }
+
+  /**
+   * Starts expiring holds on a daemon thread, once every tick.
+   */
+  public synchronized void start() {
+    if (executor != null) {
+      return;
+    }
+    executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+      Thread thread = new Thread(runnable, "catalog-seat-holds");
+      thread.setDaemon(true);
+      return thread;
+    });
+    executor.scheduleAtFixedRate(() -> advance(System.currentTimeMillis()), tickMillis,
+        tickMillis, TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * Stops the expiry thread, if it was started.
+   */
+  public synchronized void stop() {
+    if (executor != null) {
+      executor.shutdownNow();
+      executor = null;
+    }
+  }
+
+  /**
+   * Gets the number of holds neither confirmed nor given back yet.
+   *
+   * @return the number of outstanding holds
+   */
+  public int size() {
+    return holds.size();
+  }
+
+  /**
+   * Gets the number of holds that have expired.
+   *
+   * @return the number of expired holds
+   */
+  public long getExpiredCount() {
+    return expiredCount;
+  }
+
+  private ConcurrentLinkedQueue<Hold> bucket(long tick) {
+    return buckets.get((int) (tick % buckets.size()));
+  }
+
+  private Hold settle(String holdId) {
+    Hold hold = holdId != null ? holds.remove(holdId) : null;
+    return hold != null && hold.settled.compareAndSet(false, true) ? hold : null;
+  }
+
+  private void giveBack(Hold hold) {
+    String promoted = hold.course.releaseHeldSeat();
+    if (promoted != null && !promoted.isEmpty()) {
+      onSettled.accept(hold.deptCode, hold.courseId);
+    }
+  }
+
+  /**
+   * Represents a seat held for a student.
+   */
+  private static final class Hold {
+
+    Hold(String id, String deptCode, String courseId, Course course, long tick) {
+      this.id = id;
+      this.deptCode = deptCode;
+      this.courseId = courseId;
+      this.course = course;
+      this.tick = tick;
+    }
+
+    private final String id;
+    private final String deptCode;
+    private final String courseId;
+    private final Course course;
+    /** The tick the hold expires at. */
+    private final long tick;
+    private final AtomicBoolean settled = new AtomicBoolean();
+  }
+
+  private final long tickMillis;
+  private final List<ConcurrentLinkedQueue<Hold>> buckets;
+  private final StampedLock wheelLock = new StampedLock();
+  private final ConcurrentHashMap<String, Hold> holds = new ConcurrentHashMap<>();
+  private final BiConsumer<String, String> onSettled;
+  private volatile long currentTick;
+  private volatile long expiredCount;
+  private ScheduledExecutorService executor;
+}
@@ -0,0 +1,179 @@
+package dev.coms4156.project.individualproject;
+
+import java.util.HashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Represents a pool of the instructor, location and time slot values of a catalog. The same
+ * few rooms and time slots recur across many courses, and every load or import would otherwise
+ * create a fresh copy of each one; courses instead keep the pooled instance of an equal value,
+ * so each distinct value is held once. Each catalog store owns its own pool and pools the
+ * courses it loads, replaces or changes. The pool stops taking new values once it holds its
+ * maximum number of them, so values changed through the endpoints cannot grow it without bound.
+ * Values stay pooled after the last course using them is changed, until the pool is rebuilt
+ * from the catalog with {@link #retainOnly(HashMap)} when it is loaded, replaced or saved.
+ */
+public final class StringPool {
+
+  /** The maximum number of distinct values a catalog pool holds. */
+  public static final int DEFAULT_MAX_SIZE = 1 << 16;
+
+  /**
+   * Constructs an empty StringPool object.
+   *
+   * @param maxSize the maximum number of distinct values the pool holds
+   */
+  public StringPool(int maxSize) {
+    this.maxSize = maxSize;
+  }
+
+  /**
+   * Gets the pooled instance of a value, adding the value to the pool if it holds no equal one
+   * and has room for it.
+   *
+   * @param value the value to look up, which may be null
+   * @return the pooled instance equal to the value, or the value itself if it is not pooled
+   */
+  public String intern(String value) {
+    if (value == null || !enabled) {
+      return value;
+    }
+    ConcurrentHashMap<String, String> pool = values;
+    String pooled = pool.get(value);
+    if (pooled == null) {
+      if (pool.size() >= maxSize) {
+        return value;
+      }
+      pooled = pool.putIfAbsent(value, value);
+      if (pooled == null) {
+        return value;
+      }
+    }
+    return pooled;
+  }
+
+  /**
+   * Gets the pooled instance of a value for a caller replacing its own reference with it, and
+   * counts the value as a dropped duplicate if it is a different instance. A value that already
+   * is the pooled instance is not counted again, however often it is pooled.
+   *
+   * @param value the value to look up, which may be null
+   * @return the pooled instance equal to the value, or the value itself if it is not pooled
+   */
+  String collapse(String value) {
+    String pooled = intern(value);
+    if (pooled != value) {
+      duplicatesDropped.incrementAndGet();
+      bytesSaved.addAndGet(estimateSize(pooled));
+    }
+    return pooled;
+  }
+
+  /**
+   * Pools the instructor, location and time slot of every course of a department.
+   *
+   * @param department the department whose courses are pooled, which may be null
+   */
+  public void pool(Department department) {
+    if (department == null) {
+      return;
+    }
+    for (Course course : department.getCourseSelection().values()) {
+      course.pool(this);
+    }
+  }
+
+  /**
+   * Replaces the values of the pool with the ones the courses of a catalog use, so values only
+   * used by replaced or changed courses are no longer held, and pools every course of the
+   * catalog into the rebuilt pool. Departments a lazily loaded catalog has not read yet are
+   * skipped; their values are pooled as they are read.
+   *
+   * @param departments the mapping of department names to Department objects
+   */
+  public void retainOnly(HashMap<String, Department> departments) {
+    LazyDepartmentMap lazy = departments instanceof LazyDepartmentMap lazyMapping
+        ? lazyMapping : null;
+    values = new ConcurrentHashMap<>();
+    for (String key : departments.keySet()) {
+      if (lazy == null || lazy.isLoaded(key)) {
+        pool(departments.get(key));
+      }
+    }
+  }
+
+  /**
+   * Checks whether the pool has stopped taking new values.
+   *
+   * @return true if the pool holds its maximum number of values
+   */
+  public boolean isFull() {
+    return values.size() >= maxSize;
+  }
+
+  /**
+   * Gets the number of distinct values in the pool.
+   *
+   * @return the number of pooled values
+   */
+  public int size() {
+    return values.size();
+  }
+
+  /**
+   * Gets the number of values replaced by an equal pooled instance.
+   *
+   * @return the number of duplicate values dropped
+   */
+  public long getDuplicatesDropped() {
+    return duplicatesDropped.get();
+  }
+
+  /**
+   * Gets an estimate of the heap freed by replacing duplicates with their pooled instances.
+   *
+   * @return the estimated number of bytes saved
+   */
+  public long getBytesSaved() {
+    return bytesSaved.get();
+  }
+
+  /**
+   * Turns pooling on or off. While it is off, values are returned as given; this is meant for
+   * measuring what the pool saves.
+   *
+   * @param enabled whether values are pooled
+   */
+  public void setEnabled(boolean enabled) {
+    this.enabled = enabled;
+  }
+
+  /**
+   * Returns a summary of the pool's footprint.
+   *
+   * @return the number of pooled values, duplicates dropped and the heap saved
+   */
+  @Override
+  public String toString() {
+    return "string pool: " + size() + " values, " + getDuplicatesDropped()
+        + " duplicates dropped, ~" + getBytesSaved() / 1024 + " KB saved";
+  }
+
+  /**
+   * Estimates the heap taken by a String holding one byte per character: a 24-byte object and
+   * a byte array with a 16-byte header, padded to 8 bytes.
+   *
+   * @param value the value to estimate
+   * @return the estimated number of bytes
+   */
+  private static long estimateSize(String value) {
+    return 24 + ((16L + value.length() + 7) & ~7L);
+  }
+
+  private volatile ConcurrentHashMap<String, String> values = new ConcurrentHashMap<>();
+  private final AtomicLong duplicatesDropped = new AtomicLong();
+  private final AtomicLong bytesSaved = new AtomicLong();
+  private final int maxSize;
+  private volatile boolean enabled = true;
+}
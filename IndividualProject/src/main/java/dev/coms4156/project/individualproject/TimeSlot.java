@@ -0,0 +1,222 @@
+package dev.coms4156.project.individualproject;
+
+/**
+ * Represents the parsed time slot of a course: the minute of the day it starts and ends at, and
+ * the weekdays it meets on if the slot names them. Courses keep the parsed slot next to the
+ * string they were given, so time-based queries compare a few ints instead of reparsing.
+ *
+ * <p>A slot is written as {@code [days ]start-end}, for example "11:40-12:55", "1:10-3:40" or
+ * "MW 4:10-5:25". Days are letters from "MTWRFSU" (R is Thursday, U is Sunday). Times are
+ * {@code H:MM}, optionally followed by "am" or "pm". Without a suffix, hours from 13 are read as
+ * a 24-hour clock, hours from 1 to 7 as the afternoon, and other hours as written, which is how
+ * the catalog writes its times; an end that would come before the start is read as the
+ * afternoon, so "7:10-9:40" runs in the evening.
+ */
+public final class TimeSlot {
+
+  /** The bit of a weekday mask standing for Monday; the other days follow up to Sunday. */
+  public static final int MONDAY = 1;
+
+  private static final String DAY_LETTERS = "MTWRFSU";
+
+  private static final int NOON = 12 * 60;
+
+  /**
+   * Constructs a new TimeSlot object.
+   *
+   * @param startMinute the minute of the day the slot starts at
+   * @param endMinute   the minute of the day the slot ends at, after the start
+   * @param days        the weekday mask, or 0 if the slot names no days
+   * @throws IllegalArgumentException if the slot ends before it starts or is out of the day
+   */
+  public TimeSlot(int startMinute, int endMinute, int days) {
+    if (startMinute < 0 || endMinute > 24 * 60 || endMinute <= startMinute) {
+      throw new IllegalArgumentException("Invalid time slot: " + startMinute + "-" + endMinute);
+    }
+    this.startMinute = startMinute;
+    this.endMinute = endMinute;
+    this.days = days;
+  }
+
+  /**
+   * Parses a time slot.
+   *
+   * @param value the time slot as written in the catalog
+   * @return the parsed time slot
+   * @throws IllegalArgumentException if the value is not a valid time slot
+   */
+  public static TimeSlot parse(String value) {
+    TimeSlot slot = tryParse(value);
+    if (slot == null) {
+      throw new IllegalArgumentException("Invalid time slot: " + value);
+    }
+    return slot;
+  }
+
+  /**
+   * Parses a time slot, tolerating values that are not one.
+   *
+   * @param value the time slot as written in the catalog, which may be null
+   * @return the parsed time slot, or null if the value is not a valid time slot
+   */
+  public static TimeSlot tryParse(String value) {
+    if (value == null) {
+      return null;
+    }
+    String times = value.trim();
+    int days = 0;
+    int space = times.indexOf(' ');
+    if (space > 0 && Character.isLetter(times.charAt(0))) {
+      days = parseDays(times.substring(0, space));
+      if (days == 0) {
+        return null;
+      }
+      times = times.substring(space + 1).trim();
+    }
+    int dash = times.indexOf('-');
+    if (dash <= 0) {
+      return null;
+    }
+    int start = parseTime(times.substring(0, dash).trim());
+    int end = parseTime(times.substring(dash + 1).trim());
+    if (start < 0 || end < 0) {
+      return null;
+    }
+    boolean endHasSuffix = Character.isLetter(times.charAt(times.length() - 1));
+    if (end <= start && !endHasSuffix && end < NOON && end + NOON > start) {
+      end += NOON;
+    }
+    return end > start ? new TimeSlot(start, end, days) : null;
+  }
+
+  private static int parseDays(String letters) {
+    int days = 0;
+    for (int i = 0; i < letters.length(); i++) {
+      int day = DAY_LETTERS.indexOf(Character.toUpperCase(letters.charAt(i)));
+      if (day < 0) {
+        return 0;
+      }
+      days |= MONDAY << day;
+    }
+    return days;
+  }
+
+  /**
+   * Parses one end of a slot.
+   *
+   * @param time the time, such as "1:10" or "4:10pm"
+   * @return the minute of the day, or -1 if the time is not valid
+   */
+  private static int parseTime(String time) {
+    String clock = time.toLowerCase();
+    String suffix = null;
+    if (clock.endsWith("am") || clock.endsWith("pm")) {
+      suffix = clock.substring(clock.length() - 2);
+      clock = clock.substring(0, clock.length() - 2).trim();
+    }
+    int colon = clock.indexOf(':');
+    if (colon < 1 || colon > 2 || clock.length() != colon + 3) {
+      return -1;
+    }
+    int hour = digits(clock, 0, colon);
+    int minute = digits(clock, colon + 1, colon + 3);
+    if (hour < 0 || hour > 23 || minute < 0 || minute > 59) {
+      return -1;
+    }
+    if (suffix != null) {
+      if (hour < 1 || hour > 12) {
+        return -1;
+      }
+      hour = hour % 12 + (suffix.equals("pm") ? 12 : 0);
+    } else if (hour >= 1 && hour <= 7) {
+      hour += 12;
+    }
+    return hour * 60 + minute;
+  }
+
+  private static int digits(String value, int from, int to) {
+    int result = 0;
+    for (int i = from; i < to; i++) {
+      char digit = value.charAt(i);
+      if (digit < '0' || digit > '9') {
+        return -1;
+      }
+      result = result * 10 + (digit - '0');
+    }
+    return result;
+  }
+
+  /**
+   * Checks whether two slots meet at the same time. Slots that name no days are taken to meet
+   * on any day.
+   *
+   * @param other the other slot
+   * @return true if the slots share a minute on a common day, false otherwise
+   */
+  public boolean overlaps(TimeSlot other) {
+    return startMinute < other.endMinute && other.startMinute < endMinute
+        && (days == 0 || other.days == 0 || (days & other.days) != 0);
+  }
+
+  /**
+   * Gets the minute of the day the slot starts at.
+   *
+   * @return the start minute
+   */
+  public int getStartMinute() {
+    return startMinute;
+  }
+
+  /**
+   * Gets the minute of the day the slot ends at.
+   *
+   * @return the end minute
+   */
+  public int getEndMinute() {
+    return endMinute;
+  }
+
+  /**
+   * Gets the weekdays the slot meets on, with {@link #MONDAY} as the lowest bit.
+   *
+   * @return the weekday mask, or 0 if the slot names no days
+   */
+  public int getDays() {
+    return days;
+  }
+
+  @Override
+  public boolean equals(Object other) {
+    return other instanceof TimeSlot slot && slot.startMinute == startMinute
+        && slot.endMinute == endMinute && slot.days == days;
+  }
+
+  @Override
+  public int hashCode() {
+    return (startMinute * 31 + endMinute) * 31 + days;
+  }
+
+  /**
+   * Returns the slot on a 24-hour clock, preceded by its days if it names any.
+   *
+   * @return a string such as "MW 16:10-17:25"
+   */
+  @Override
+  public String toString() {
+    StringBuilder result = new StringBuilder();
+    for (int day = 0; day < DAY_LETTERS.length(); day++) {
+      if ((days & (MONDAY << day)) != 0) {
+        result.append(DAY_LETTERS.charAt(day));
+      }
+    }
+    if (days != 0) {
+      result.append(' ');
+    }
+    return result.append(String.format("%d:%02d-%d:%02d", startMinute / 60, startMinute % 60,
+        endMinute / 60, endMinute % 60)).toString();
+  }
+
+  private final int startMinute;
+  private final int endMinute;
+  private final int days;
+}
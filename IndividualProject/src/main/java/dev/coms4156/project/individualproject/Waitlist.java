@@ -0,0 +1,222 @@
+package dev.coms4156.project.individualproject;
+
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+
+/**
+ * Represents the waitlist of a full course: the students waiting for a seat, first come first
+ * served, up to a fixed number. When an enrolled student drops, the seat passes straight to the
+ * first waiting student instead of being freed, so a full course never has to be polled for an
+ * open seat. Students are known only by the ID they join with.
+ *
+ * <p>Joining, leaving and promoting lock the waitlist. While students are waiting, the seat
+ * counter's waiting flag is set and refuses to give seats back, so every drop goes through the
+ * lock and hands its seat on. A drop from a course nobody is waiting for takes the seat
+ * counter's lock-free path; if a student joins while the seat is being freed, joining picks
+ * the seat up. The students promoted most recently are remembered so they can learn they have
+ * been enrolled, until they drop.
+ */
+public final class Waitlist {
+
+  /** The number of students a course's waitlist holds. */
+  public static final int DEFAULT_CAPACITY = 100;
+
+  /** The position of a student who holds a seat rather than waiting for one. */
+  public static final int ENROLLED = 0;
+
+  /** The result of joining a waitlist that has no room left. */
+  public static final int FULL = -1;
+
+  /** The position of a student who is neither waiting nor recently promoted. */
+  public static final int NOT_WAITING = -1;
+
+  /** The number of promoted students remembered. */
+  private static final int PROMOTED_HISTORY = 1024;
+
+  /**
+   * Constructs a new, empty Waitlist object.
+   *
+   * @param capacity the number of students it holds
+   */
+  public Waitlist(int capacity) {
+    this.capacity = capacity;
+  }
+
+  /**
+   * Adds a student to the end of the waitlist, or enrolls them straight away if the course has
+   * an open seat and nobody is waiting.
+   *
+   * @param studentId      the ID of the student
+   * @param seats          the seat counter of the course
+   * @param courseCapacity the number of seats of the course
+   * @return the student's position from 1, {@link #ENROLLED} if they hold a seat, or
+   *         {@link #FULL} if the waitlist has no room
+   */
+  public synchronized int join(String studentId, SeatCounter seats, int courseCapacity) {
+    int position = position(studentId);
+    if (position != NOT_WAITING) {
+      return position;
+    }
+    if (waiting.isEmpty() && seats.tryAcquire(courseCapacity)) {
+      remember(studentId);
+      return ENROLLED;
+    }
+    if (waiting.size() >= capacity) {
+      return FULL;
+    }
+    waiting.add(studentId);
+    resize(seats);
+    fill(seats, courseCapacity);
+    return position(studentId);
+  }
+
+  /**
+   * Removes a student from the waitlist. The seat counter's waiting flag is left set if the
+   * waitlist empties, and is cleared by the next drop.
+   *
+   * @param studentId the ID of the student
+   * @return true if the student was waiting, false otherwise
+   */
+  public synchronized boolean leave(String studentId) {
+    boolean removed = waiting.remove(studentId);
+    size = waiting.size();
+    return removed;
+  }
+
+  /**
+   * Gets the position of a student.
+   *
+   * @param studentId the ID of the student
+   * @return the student's position from 1, {@link #ENROLLED} if they were promoted recently,
+   *         or {@link #NOT_WAITING} otherwise
+   */
+  public synchronized int position(String studentId) {
+    if (promoted.contains(studentId)) {
+      return ENROLLED;
+    }
+    int position = 1;
+    for (String waitingId : waiting) {
+      if (waitingId.equals(studentId)) {
+        return position;
+      }
+      position++;
+    }
+    return NOT_WAITING;
+  }
+
+  /**
+   * Drops an enrolled student, passing their seat to the first waiting student if there is
+   * one. The seat is handed on without ever being free, so nobody can take it in between.
+   * Whether a student is enrolled is checked in the same step as the seat is given back or
+   * handed on, and held seats do not count. A student who drops is forgotten as promoted, so
+   * they can join the waitlist again.
+   *
+   * @param studentId the ID of the dropping student, or null if it is not known
+   * @param seats     the seat counter of the course
+   * @return the ID of the promoted student, the empty string if the seat was freed, or null if
+   *         no student is enrolled
+   */
+  public String release(String studentId, SeatCounter seats) {
+    String promotedId = seats.tryRelease() ? "" : handOn(seats);
+    if (promotedId != null && studentId != null) {
+      forget(studentId);
+    }
+    return promotedId;
+  }
+
+  /**
+   * Gives back a held seat, passing it to the first waiting student if there is one. The
+   * promoted student is enrolled in the seat in the same step as the hold ends.
+   *
+   * @param seats the seat counter of the course
+   * @return the ID of the promoted student, the empty string if the seat was freed, or null if
+   *         no seat is held
+   */
+  public String releaseHeld(SeatCounter seats) {
+    return seats.releaseHeld() ? "" : handOnHeld(seats);
+  }
+
+  /**
+   * Gets the number of students waiting.
+   *
+   * @return the length of the waitlist
+   */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Gets the number of students the waitlist holds.
+   *
+   * @return the capacity of the waitlist
+   */
+  public int getCapacity() {
+    return capacity;
+  }
+
+  /**
+   * Promotes waiting students for as long as the course has open seats, which only happens
+   * when a student joined while a seat was being freed.
+   */
+  private void fill(SeatCounter seats, int courseCapacity) {
+    while (!waiting.isEmpty() && seats.tryAcquire(courseCapacity)) {
+      promote(seats);
+    }
+  }
+
+  /**
+   * Hands an enrolled seat to the first waiting student, or gives it back if nobody is waiting.
+   * Nothing else gives back an enrolled seat while the waiting flag is set, so the seat checked
+   * for here is still there when it is handed on.
+   */
+  private synchronized String handOn(SeatCounter seats) {
+    if (waiting.isEmpty()) {
+      resize(seats);
+      return seats.tryRelease() ? "" : null;
+    }
+    return seats.getEnrolled() > 0 ? promote(seats) : null;
+  }
+
+  private synchronized String handOnHeld(SeatCounter seats) {
+    if (waiting.isEmpty()) {
+      resize(seats);
+      return seats.releaseHeld() ? "" : null;
+    }
+    return seats.confirmHeld() ? promote(seats) : null;
+  }
+
+  private String promote(SeatCounter seats) {
+    String studentId = waiting.poll();
+    resize(seats);
+    remember(studentId);
+    return studentId;
+  }
+
+  /**
+   * Publishes the length of the waitlist and sets the seat counter's waiting flag to match.
+   */
+  private void resize(SeatCounter seats) {
+    size = waiting.size();
+    seats.setWaiting(size > 0);
+  }
+
+  private synchronized void forget(String studentId) {
+    promoted.remove(studentId);
+  }
+
+  private void remember(String studentId) {
+    promoted.add(studentId);
+    if (promoted.size() > PROMOTED_HISTORY) {
+      Iterator<String> eldest = promoted.iterator();
+      eldest.next();
+      eldest.remove();
+    }
+  }
+
+  private final int capacity;
+  private final ArrayDeque<String> waiting = new ArrayDeque<>();
+  private final LinkedHashSet<String> promoted = new LinkedHashSet<>();
+  /** The length of the waitlist, read without locking by drops. */
+  private volatile int size;
+}
@@ -0,0 +1,151 @@
+package dev.coms4156.project.individualproject;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.TreeSet;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test class for AutocompleteIndex.
+ */
+public class AutocompleteIndexTest {
+
+  private MyFileDatabase database;
+
+  /**
+   * Set up an in-memory database holding two departments.
+   */
+  @BeforeEach
+  public void setUp() {
+    HashMap<String, Course> comsCourses = new HashMap<>();
+    comsCourses.put("1004", new Course("Adam Cannon", "417 IAB", "11:40-12:55", 400));
+    comsCourses.put("3157", new Course("Jae Lee", "417 IAB", "4:10-5:25", 400));
+    comsCourses.put("3203", new Course("Ansaf Salleb-Aouissi", "301 URIS", "10:10-11:25", 250));
+    HashMap<String, Course> econCourses = new HashMap<>();
+    econCourses.put("1105", new Course("Waseem Noor", "309 HAV", "4:10-5:25", 210));
+    econCourses.put("3211", new Course("Adam Cannon", "310 FAY", "4:10-5:25", 96));
+    HashMap<String, Department> mapping = new HashMap<>();
+    mapping.put("COMS", new Department("COMS", comsCourses, "Luca Carloni", 2700));
+    mapping.put("ECON", new Department("ECON", econCourses, "Michael Woodford", 2345));
+    database = new MyFileDatabase(new InMemoryCatalogStore());
+    database.setMapping(mapping);
+  }
+
+  private List<String> complete(String prefix, int limit) {
+    return database.autocomplete(prefix, limit).stream().map(Object::toString).toList();
+  }
+
+  @Test
+  public void testCompletesEachKindIgnoringCase() {
+    assertEquals(List.of("department: COMS"), complete("co", 10));
+    assertEquals(List.of("course: 3157", "course: 3203", "course: 3211"), complete("3", 10));
+    assertEquals(List.of("instructor: Adam Cannon", "instructor: Ansaf Salleb-Aouissi"),
+        complete("A", 10));
+    assertEquals(List.of("course: 3157", "course: 3203"), complete("3", 2));
+    assertTrue(complete("xyz", 10).isEmpty());
+  }
+
+  @Test
+  public void testMutationSeenByBuildIsNotAppliedTwice() {
+    CatalogStore store = new InMemoryCatalogStore();
+    store.setDepartments(database.getVersion().getDepartments());
+    AutocompleteIndex index = new AutocompleteIndex();
+    Course before = store.getCourse("COMS", "1004");
+    Mutation mutation = Mutation.courseInstructor("COMS", "1004", "Paul Blaer");
+    CatalogVersion published = store.apply(mutation);
+    index.complete("pa", 10, store);
+    index.published(mutation, published.getNumber(), before, store.getCourse("COMS", "1004"));
+
+    before = store.getCourse("COMS", "1004");
+    mutation = Mutation.courseInstructor("COMS", "1004", "Jae Lee");
+    published = store.apply(mutation);
+    index.published(mutation, published.getNumber(), before, store.getCourse("COMS", "1004"));
+    assertTrue(index.complete("pa", 10, store).isEmpty(),
+        "A change the index was built from should not be counted again.");
+  }
+
+  @Test
+  public void testInstructorChangesAreIndexedIncrementally() {
+    complete("a", 10);
+    database.logMutation(Mutation.courseInstructor("COMS", "1004", "Paul Blaer"));
+    assertEquals(List.of("instructor: Adam Cannon"), complete("adam", 10),
+        "An instructor still teaching a course should stay indexed.");
+    assertEquals(List.of("instructor: Paul Blaer"), complete("pa", 10));
+
+    database.logMutation(Mutation.courseInstructor("ECON", "3211", "Tamrat Gashaw"));
+    assertTrue(complete("adam", 10).isEmpty(), "An instructor with no course should be dropped.");
+  }
+
+  @Test
+  public void testReplacingCatalogRebuildsIndex() {
+    complete("c", 10);
+    HashMap<String, Department> mapping = new HashMap<>();
+    mapping.put("CHEM", new Department("CHEM", new HashMap<>(), "Laura Kaufman", 120));
+    database.setMapping(mapping);
+
+    assertEquals(List.of("department: CHEM"), complete("c", 10));
+  }
+
+  @Test
+  @Tag("benchmark")
+  public void testCompletionAtMillionTerms() throws Exception {
+    String[] syllables = {"ka", "ne", "mo", "ri", "su", "ta", "lo", "vi", "de", "ga"};
+    String[] names = new String[1_000_000];
+    for (int i = 0; i < names.length; i++) {
+      StringBuilder name = new StringBuilder();
+      for (int n = i; n > 0 || name.length() == 0; n /= 10) {
+        name.append(syllables[n % 10]);
+      }
+      names[i] = name.toString();
+    }
+    AutocompleteIndex[] built = new AutocompleteIndex[1];
+    Benchmarks.measure("AutocompleteIndex build, million terms", names.length, 1, 3, () -> {
+      AutocompleteIndex index = new AutocompleteIndex();
+      for (String name : names) {
+        index.add(AutocompleteIndex.Kind.INSTRUCTOR, name);
+      }
+      built[0] = index;
+      return index.size();
+    });
+    final AutocompleteIndex index = built[0];
+    assertEquals(1_000_000, index.size());
+
+    String[] prefixes = {"k", "ne", "mor", "rika", "sutalo", "g", "deka", "vi"};
+    // Without the index every term is checked and the first few kept in alphabetical order
+    final int scans = 20;
+    Benchmarks.measure("Prefix completion scanning million terms", scans, () -> {
+      long completions = 0;
+      for (int i = 0; i < scans; i++) {
+        String prefix = prefixes[i % prefixes.length];
+        TreeSet<String> first = new TreeSet<>();
+        for (String name : names) {
+          if (name.regionMatches(true, 0, prefix, 0, prefix.length())) {
+            first.add(name);
+            if (first.size() > AutocompleteIndex.DEFAULT_LIMIT) {
+              first.pollLast();
+            }
+          }
+        }
+        completions += first.size();
+      }
+      return completions;
+    });
+    final int lookups = 100_000;
+    long completions = Benchmarks.measure("Prefix completion in AutocompleteIndex", lookups,
+        () -> {
+          long found = 0;
+          for (int i = 0; i < lookups; i++) {
+            found += index.complete(prefixes[i % prefixes.length],
+                AutocompleteIndex.DEFAULT_LIMIT).size();
+          }
+          return found;
+        });
+
+    assertEquals((long) lookups * AutocompleteIndex.DEFAULT_LIMIT, completions);
+  }
+}
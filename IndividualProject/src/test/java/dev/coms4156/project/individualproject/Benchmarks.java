@@ -0,0 +1,112 @@
+package dev.coms4156.project.individualproject;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * Times the workloads of the tests tagged as benchmarks, which only run with -Pbenchmark. Each
+ * workload is run a few times untimed so the JIT compiles it, then timed several times, and the
+ * median time and throughput are printed and appended to target/benchmark-results.txt, so runs
+ * on the same machine can be compared across changes. Nothing is asserted about the timings,
+ * which depend on the machine; the tests only assert that the workloads computed the same
+ * results.
+ */
+final class Benchmarks {
+
+  /** The number of untimed runs before the timed ones. */
+  static final int WARMUP_RUNS = 3;
+
+  /** The number of timed runs the median is taken over. */
+  static final int TIMED_RUNS = 5;
+
+  /** The file every result is appended to. */
+  static final Path RESULTS = Paths.get("target", "benchmark-results.txt");
+
+  private Benchmarks() {
+  }
+
+  /**
+   * Runs a workload {@link #WARMUP_RUNS} times untimed and {@link #TIMED_RUNS} times timed, and
+   * reports the median.
+   *
+   * @param name       the name the result is reported under
+   * @param operations the number of operations one run performs
+   * @param workload   the workload, returning a result the caller can check
+   * @return the result of the last run
+   * @throws Exception if the workload fails
+   */
+  static long measure(String name, long operations, Workload workload) throws Exception {
+    return measure(name, operations, WARMUP_RUNS, TIMED_RUNS, workload);
+  }
+
+  /**
+   * Runs a workload untimed and then timed the given numbers of times, and reports the median.
+   * Heavy workloads take fewer runs.
+   *
+   * @param name       the name the result is reported under
+   * @param operations the number of operations one run performs
+   * @param warmupRuns the number of untimed runs
+   * @param timedRuns  the number of timed runs
+   * @param workload   the workload, returning a result the caller can check
+   * @return the result of the last run
+   * @throws Exception if the workload fails
+   */
+  static long measure(String name, long operations, int warmupRuns, int timedRuns,
+                      Workload workload) throws Exception {
+    long result = 0;
+    for (int i = 0; i < warmupRuns; i++) {
+      result = workload.run();
+    }
+    long[] nanos = new long[timedRuns];
+    for (int i = 0; i < timedRuns; i++) {
+      long start = System.nanoTime();
+      result = workload.run();
+      nanos[i] = System.nanoTime() - start;
+    }
+    Arrays.sort(nanos);
+    long median = nanos[timedRuns / 2];
+    report(name, String.format(Locale.ROOT, "median %.3f ms, %.0f ops/s over %d runs",
+        median / 1e6, operations * 1e9 / Math.max(1, median), timedRuns));
+    return result;
+  }
+
+  /**
+   * Reports a result that is not a time, such as a footprint in bytes.
+   *
+   * @param name   the name the result is reported under
+   * @param result the result
+   */
+  static void report(String name, String result) {
+    String line = name + ": " + result;
+    System.out.println(line);
+    try {
+      Files.createDirectories(RESULTS.getParent());
+      Files.writeString(RESULTS, line + System.lineSeparator(), StandardOpenOption.CREATE,
+          StandardOpenOption.APPEND);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /**
+   * A workload timed as one run.
+   */
+  @FunctionalInterface
+  interface Workload {
+
+    /**
+     * Performs one run of the workload.
+     *
+     * @return a result the caller can check, which also keeps the work from being optimized
+     *         away
+     * @throws Exception if the workload fails
+     */
+    long run() throws Exception;
+  }
+}
@@ -0,0 +1,168 @@
+package dev.coms4156.project.individualproject;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Locale;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Unit tests for the {@link CatalogExporter} class.
+ */
+public class CatalogExporterTest {
+
+  private HashMap<String, Department> mapping;
+
+  /**
+   * Set up a catalog with names that need quoting in CSV.
+   */
+  @BeforeEach
+  public void setUp() {
+    HashMap<String, Course> courses = new HashMap<>();
+    Course coms1004 = new Course("Cannon, Adam", "417 IAB", "11:40-12:55", 400);
+    coms1004.setEnrolledStudentCount(249);
+    courses.put("1004", coms1004);
+    courses.put("3157", new Course("Jae \"JL\" Lee", null, "4:10-5:25", 400));
+    mapping = new HashMap<>();
+    mapping.put("COMS", new Department("COMS", courses, "Luca Carloni", 2700));
+  }
+
+  @Test
+  public void testCsvRoundTrip() throws IOException {
+    assertRoundTrip(CatalogFormat.CSV);
+  }
+
+  @Test
+  public void testJsonLinesRoundTrip() throws IOException {
+    assertRoundTrip(CatalogFormat.JSONL);
+  }
+
+  @Test
+  public void testWriteSavedFile(@TempDir Path tempDir) throws IOException {
+    String filePath = tempDir.resolve("data.txt").toString();
+    MyFileDatabase database = new MyFileDatabase(1, filePath);
+    database.setMapping(mapping);
+    database.saveContentsToFile();
+    database.close();
+
+    StringWriter out = new StringWriter();
+    long rows = new CatalogExporter(CatalogFormat.CSV, out).writeFile(Path.of(filePath));
+    assertEquals(3, rows, "One department row and two course rows should be written.");
+    assertTrue(out.toString().startsWith("department,COMS,Luca Carloni,2700\n"));
+  }
+
+  @Test
+  @Tag("benchmark")
+  public void testStreamingExportAgainstToString(@TempDir Path tempDir) throws Exception {
+    HashMap<String, Department> catalog = new HashMap<>();
+    for (int d = 0; d < 1000; d++) {
+      HashMap<String, Course> courses = new HashMap<>();
+      for (int c = 0; c < 100; c++) {
+        courses.put(Integer.toString(1000 + c), new Course("Instructor " + c, "Room " + c,
+            "10:10-11:25", 100));
+      }
+      catalog.put("D" + d, new Department("D" + d, courses, "Chair " + d, 100));
+    }
+    String filePath = tempDir.resolve("data.txt").toString();
+    MyFileDatabase database = new MyFileDatabase(1, filePath);
+    database.setMapping(catalog);
+    database.saveContentsToFile();
+
+    String[] names = {"MyFileDatabase.toString", "CSV export", "JSON Lines export",
+        "CSV export of the saved file"};
+    for (int i = 0; i < names.length; i++) {
+      int exporter = i;
+      Export export = out -> {
+        switch (exporter) {
+          case 0 -> out.write(database.toString());
+          case 1 -> new CatalogExporter(CatalogFormat.CSV, out).write(catalog);
+          case 2 -> new CatalogExporter(CatalogFormat.JSONL, out).write(catalog);
+          default -> new CatalogExporter(CatalogFormat.CSV, out).writeFile(Path.of(filePath));
+        }
+      };
+      FirstByteWriter[] last = new FirstByteWriter[1];
+      long chars = Benchmarks.measure(names[i] + ", 100k courses", 100_000, () -> {
+        last[0] = new FirstByteWriter();
+        export.writeTo(last[0]);
+        return last[0].chars;
+      });
+      long allocated = allocatedBytes();
+      export.writeTo(new FirstByteWriter());
+      allocated = allocatedBytes() - allocated;
+      Benchmarks.report(names[i] + ", 100k courses", String.format(Locale.ROOT,
+          "first byte after %.3f ms, %d chars, %d KB allocated", last[0].firstByteNanos / 1e6,
+          chars, allocated / 1024));
+    }
+    database.close();
+  }
+
+  private interface Export {
+    void writeTo(Writer out) throws IOException;
+  }
+
+  /**
+   * Discards what is written, keeping the time of the first write and the number of characters.
+   */
+  private static class FirstByteWriter extends Writer {
+
+    private final long start = System.nanoTime();
+    private long firstByteNanos = -1;
+    private long chars;
+
+    @Override
+    public void write(char[] buffer, int offset, int length) {
+      count(length);
+    }
+
+    @Override
+    public void write(String text, int offset, int length) {
+      count(length);
+    }
+
+    private void count(int length) {
+      if (firstByteNanos < 0) {
+        firstByteNanos = System.nanoTime() - start;
+      }
+      chars += length;
+    }
+
+    @Override
+    public void flush() {
+    }
+
+    @Override
+    public void close() {
+    }
+  }
+
+  private static long allocatedBytes() {
+    if (ManagementFactory.getThreadMXBean()
+        instanceof com.sun.management.ThreadMXBean threads) {
+      return threads.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+    return 0;
+  }
+
+  private void assertRoundTrip(CatalogFormat format) throws IOException {
+    StringWriter out = new StringWriter();
+    assertEquals(3, new CatalogExporter(format, out).write(mapping));
+    assertEquals(3, out.toString().split("\n").length, "Each row should be on its own line.");
+
+    HashMap<String, Department> imported = new HashMap<>();
+    new CatalogImporter(format).importInto(new StringReader(out.toString()), imported);
+    assertEquals(mapping.get("COMS").toString(), imported.get("COMS").toString());
+    assertEquals(2700, imported.get("COMS").getNumberOfMajors());
+    assertEquals(249,
+            imported.get("COMS").getCourseSelection().get("1004").getEnrolledStudentCount());
+  }
+}
@@ -0,0 +1,177 @@
+package dev.coms4156.project.individualproject;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Unit tests for the {@link CatalogImporter} class.
+ */
+public class CatalogImporterTest {
+
+  @TempDir
+  Path tempDir;
+
+  @Test
+  public void testImportCsv() throws IOException {
+    String rows = "type,dept,chair,majors\n"
+        + "department,COMS,Luca Carloni,2700\n"
+        + "course,COMS,1004,Adam Cannon,417 IAB,11:40-12:55,400,249\n"
+        + "\n"
+        + "course,COMS,3157,\"Lee, Jae\",,4:10-5:25,400,311\n";
+    HashMap<String, Department> mapping = new HashMap<>();
+    CatalogImporter.Result result = new CatalogImporter(CatalogFormat.CSV)
+        .importInto(new StringReader(rows), mapping);
+
+    assertEquals(4, result.getRows(), "Blank lines should be skipped.");
+    assertEquals(2, result.getCourses());
+    assertEquals(1, result.getDepartments());
+    assertTrue(result.getPeakHeapBytes() > 0);
+    Department coms = mapping.get("COMS");
+    assertEquals("Luca Carloni", coms.getDepartmentChair());
+    assertEquals(2700, coms.getNumberOfMajors());
+    assertEquals(249, coms.getCourseSelection().get("1004").getEnrolledStudentCount());
+    assertEquals("Lee, Jae", coms.getCourseSelection().get("3157").getInstructorName(),
+            "Quoted fields may contain commas.");
+    assertNull(coms.getCourseSelection().get("3157").getCourseLocation(),
+            "Empty fields should be read as missing.");
+  }
+
+  @Test
+  public void testStagedRowsMergeLikeDirectImport() throws IOException {
+    String rows = "course,COMS,1004,Adam Cannon,501 NWC,11:40-12:55,400,250\n"
+        + "course,ECON,1105,Waseem Noor,309 HAV,2:40-3:55,210,187\n"
+        + "department,ECON,Michael Woodford,2345\n";
+    HashMap<String, Department> direct = catalog();
+    new CatalogImporter(CatalogFormat.CSV).importInto(new StringReader(rows), direct);
+    HashMap<String, Department> merged = catalog();
+    CatalogImporter.Staged staged = new CatalogImporter(CatalogFormat.CSV)
+        .stage(new StringReader(rows));
+    assertEquals(1, merged.get("COMS").getCourseSelection().size(),
+        "Staging should not touch the catalog.");
+    staged.mergeInto(merged);
+
+    assertEquals(direct.keySet(), merged.keySet());
+    for (String deptCode : direct.keySet()) {
+      assertEquals(direct.get(deptCode).toString(), merged.get(deptCode).toString());
+      assertEquals(direct.get(deptCode).getDepartmentChair(),
+          merged.get(deptCode).getDepartmentChair());
+      assertEquals(direct.get(deptCode).getNumberOfMajors(),
+          merged.get(deptCode).getNumberOfMajors());
+    }
+    assertEquals("Luca Carloni", merged.get("COMS").getDepartmentChair(),
+        "A department without a row should keep its chair.");
+    assertEquals(3, staged.getResult().getRows());
+  }
+
+  private static HashMap<String, Department> catalog() {
+    HashMap<String, Course> courses = new HashMap<>();
+    courses.put("3157", new Course("Jae Lee", "417 IAB", "4:10-5:25", 400));
+    HashMap<String, Department> mapping = new HashMap<>();
+    mapping.put("COMS", new Department("COMS", courses, "Luca Carloni", 2700));
+    return mapping;
+  }
+
+  @Test
+  public void testImportJsonLines() throws IOException {
+    String rows = "{\"type\":\"course\",\"dept\":\"ECON\",\"course\":\"1105\","
+        + "\"instructor\":\"Waseem Noor\",\"location\":\"309 HAV\",\"time\":\"2:40-3:55\","
+        + "\"capacity\":210,\"enrolled\":187}\n"
+        + "{\"type\":\"department\",\"dept\":\"ECON\",\"chair\":\"Michael Woodford\","
+        + "\"majors\":2345}\n";
+    HashMap<String, Department> mapping = new HashMap<>();
+    new CatalogImporter(CatalogFormat.JSONL).importInto(new StringReader(rows), mapping);
+
+    Department econ = mapping.get("ECON");
+    assertEquals("Michael Woodford", econ.getDepartmentChair(),
+            "A department row after its courses should fill in the department.");
+    assertEquals(187, econ.getCourseSelection().get("1105").getEnrolledStudentCount());
+  }
+
+  @Test
+  public void testJsonNumbersMustBeIntegers() {
+    String course = "{\"type\":\"course\",\"dept\":\"ECON\",\"course\":\"1105\",";
+    for (String numbers : List.of("\"enrolled\":187}", "\"capacity\":\"many\",\"enrolled\":187}",
+        "\"capacity\":210.5,\"enrolled\":187}", "\"capacity\":null,\"enrolled\":187}")) {
+      assertThrows(IOException.class, () -> new CatalogImporter(CatalogFormat.JSONL)
+          .importInto(new StringReader(course + numbers + "\n"), new HashMap<>()), numbers);
+    }
+  }
+
+  @Test
+  public void testMalformedRowNamesLine() {
+    String rows = "department,COMS,Luca Carloni,2700\n"
+        + "course,COMS,1004,Adam Cannon\n";
+    IOException e = assertThrows(IOException.class, () -> new CatalogImporter(CatalogFormat.CSV)
+        .importInto(new StringReader(rows), new HashMap<>()));
+    assertTrue(e.getMessage().startsWith("Line 2"), "The bad line should be named.");
+  }
+
+  @Test
+  public void testSplitCsv() {
+    assertEquals(List.of("a", "b \"c\"", ""), CatalogImporter.splitCsv("a,\"b \"\"c\"\"\","));
+  }
+
+  @Test
+  @Tag("benchmark")
+  public void testImportMillionRows() throws Exception {
+    int courses = 1_000_000;
+    for (CatalogFormat format : CatalogFormat.values()) {
+      Path input = tempDir.resolve("catalog." + format.name().toLowerCase());
+      writeRows(input, format, courses);
+      CatalogImporter.Result[] last = new CatalogImporter.Result[1];
+      long imported = Benchmarks.measure("Import of a million " + format + " rows",
+          courses + courses / 100, 1, 3, () -> {
+            try (BufferedReader reader = Files.newBufferedReader(input)) {
+              last[0] = new CatalogImporter(format).importInto(reader, new HashMap<>());
+            }
+            return last[0].getCourses();
+          });
+      assertEquals(courses, imported);
+      Benchmarks.report("Import of a million " + format + " rows, peak heap",
+          last[0].getPeakHeapBytes() / (1024 * 1024) + " MB for a "
+          + Files.size(input) / (1024 * 1024) + " MB input");
+    }
+  }
+
+  /**
+   * Writes a catalog of the given number of courses, in departments of a hundred courses each,
+   * with each department's row after its courses.
+   */
+  private static void writeRows(Path path, CatalogFormat format, int courses)
+      throws IOException {
+    try (BufferedWriter writer = Files.newBufferedWriter(path)) {
+      for (int i = 0; i < courses; i++) {
+        String dept = "D" + i / 100;
+        String course = Integer.toString(1000 + i % 100);
+        if (format == CatalogFormat.CSV) {
+          writer.write("course," + dept + "," + course + ",Instructor " + i % 2000 + ","
+              + i % 300 + " IAB,10:10-11:25,100," + i % 100 + "\n");
+        } else {
+          writer.write("{\"type\":\"course\",\"dept\":\"" + dept + "\",\"course\":\""
+              + course + "\",\"instructor\":\"Instructor " + i % 2000 + "\",\"location\":\""
+              + i % 300 + " IAB\",\"time\":\"10:10-11:25\",\"capacity\":100,\"enrolled\":"
+              + i % 100 + "}\n");
+        }
+        if (i % 100 == 99) {
+          writer.write(format == CatalogFormat.CSV ? "department," + dept + ",Chair,100\n"
+              : "{\"type\":\"department\",\"dept\":\"" + dept
+              + "\",\"chair\":\"Chair\",\"majors\":100}\n");
+        }
+      }
+    }
+  }
+}
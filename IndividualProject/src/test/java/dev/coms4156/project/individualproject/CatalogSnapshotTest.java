@@ -0,0 +1,221 @@
+package dev.coms4156.project.individualproject;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.concurrent.Callable;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Unit tests for the {@link CatalogSnapshot} class.
+ */
+public class CatalogSnapshotTest {
+
+  @TempDir
+  Path tempDir;
+
+  private HashMap<String, Department> mapping;
+
+  /**
+   * Set up a small catalog with two departments.
+   */
+  @BeforeEach
+  public void setUp() {
+    HashMap<String, Course> comsCourses = new HashMap<>();
+    Course coms1004 = new Course("Adam Cannon", "417 IAB", "11:40-12:55", 400);
+    coms1004.setEnrolledStudentCount(249);
+    comsCourses.put("1004", coms1004);
+    comsCourses.put("3157", new Course("Jae Lee", "417 IAB", "4:10-5:25", 400));
+
+    HashMap<String, Course> econCourses = new HashMap<>();
+    econCourses.put("1105", new Course("Waseem Noor", "309 HAV", "2:40-3:55", 210));
+
+    mapping = new HashMap<>();
+    mapping.put("COMS", new Department("COMS", comsCourses, "Luca Carloni", 2700));
+    mapping.put("ECON", new Department("ECON", econCourses, "Michael Woodford", 2345));
+  }
+
+  @Test
+  public void testWriteAndRead() throws IOException {
+    Path path = tempDir.resolve("data.txt");
+    long written = CatalogSnapshot.write(mapping, path);
+    assertEquals(Files.size(path), written, "Reported size should match the file.");
+    assertTrue(CatalogSnapshot.isSnapshot(path));
+
+    HashMap<String, Department> loaded = CatalogSnapshot.read(path);
+    assertEquals(2, loaded.size(), "Both departments should be read.");
+    Department coms = loaded.get("COMS");
+    assertEquals("Luca Carloni", coms.getDepartmentChair());
+    assertEquals(2700, coms.getNumberOfMajors());
+    assertEquals(mapping.get("COMS").toString(), coms.toString());
+
+    Course coms1004 = coms.getCourseSelection().get("1004");
+    assertEquals(400, coms1004.enrollmentCapacity);
+    assertEquals(249, coms1004.getEnrolledStudentCount());
+    assertEquals("Waseem Noor",
+            loaded.get("ECON").getCourseSelection().get("1105").getInstructorName());
+  }
+
+  @Test
+  public void testSharedStringsDecodedOnce() throws IOException {
+    Path path = tempDir.resolve("data.txt");
+    CatalogSnapshot.write(mapping, path);
+
+    HashMap<String, Course> loaded = CatalogSnapshot.read(path).get("COMS").getCourseSelection();
+    assertSame(loaded.get("1004").getCourseLocation(), loaded.get("3157").getCourseLocation(),
+            "Courses in the same room should share one location string.");
+  }
+
+  @Test
+  public void testNullStrings() throws IOException {
+    HashMap<String, Course> courses = new HashMap<>();
+    courses.put("101", new Course("Test Instructor", null, "10:00-11:00", 10));
+    HashMap<String, Department> withNull = new HashMap<>();
+    withNull.put("TEST", new Department("TEST", courses, null, 0));
+
+    Path path = tempDir.resolve("data.txt");
+    CatalogSnapshot.write(withNull, path);
+    Department loaded = CatalogSnapshot.read(path).get("TEST");
+    assertNull(loaded.getDepartmentChair());
+    assertNull(loaded.getCourseSelection().get("101").getCourseLocation());
+  }
+
+  @Test
+  public void testRejectsOtherFiles() throws IOException {
+    Path path = tempDir.resolve("data.txt");
+    Files.write(path, new byte[] {(byte) 0xAC, (byte) 0xED, 0, 5});
+    assertFalse(CatalogSnapshot.isSnapshot(path));
+    assertThrows(IOException.class, () -> CatalogSnapshot.read(path));
+  }
+
+  @Test
+  public void testRejectsCorruptOffsets() throws IOException {
+    Path path = tempDir.resolve("data.txt");
+    CatalogSnapshot.write(mapping, path);
+    final byte[] original = Files.readAllBytes(path);
+
+    // A department table starting before the file does
+    corruptInt(path, original, 28, -64);
+    assertThrows(IOException.class, () -> CatalogSnapshot.read(path));
+
+    // A string ending past the string data
+    corruptInt(path, original, CatalogSnapshot.HEADER_SIZE + Integer.BYTES, 1_000_000);
+    assertThrows(IOException.class, () -> CatalogSnapshot.read(path));
+
+    // A string count too large for the file
+    corruptInt(path, original, 8, Integer.MAX_VALUE);
+    assertThrows(IOException.class, () -> CatalogSnapshot.read(path));
+
+    Files.write(path, Arrays.copyOf(original, original.length / 2));
+    assertThrows(IOException.class, () -> CatalogSnapshot.read(path));
+  }
+
+  @Test
+  @Tag("benchmark")
+  public void testLoadAgainstJavaSerialization() throws Exception {
+    for (int size : new int[] {10_000, 100_000}) {
+      HashMap<String, Department> catalog = catalog(size);
+      Path binary = tempDir.resolve("binary-" + size);
+      Path serialized = tempDir.resolve("serialized-" + size);
+
+      Benchmarks.measure("Binary snapshot write, " + size + " courses", size,
+          () -> CatalogSnapshot.write(catalog, binary));
+      Benchmarks.measure("ObjectOutputStream write, " + size + " courses", size,
+          () -> {
+            try (ObjectOutputStream out = new ObjectOutputStream(
+                new BufferedOutputStream(Files.newOutputStream(serialized)))) {
+              out.writeObject(catalog);
+            }
+            return Files.size(serialized);
+          });
+      long mapped = Benchmarks.measure("Binary snapshot load, " + size + " courses", size,
+          () -> courseCount(CatalogSnapshot.read(binary)));
+      long deserialized = Benchmarks.measure("ObjectInputStream load, " + size + " courses", size,
+          () -> courseCount(readSerialized(serialized)));
+      assertEquals(size, mapped);
+      assertEquals(size, deserialized);
+
+      final long snapshotHeap = heapAfterLoad(size, () -> CatalogSnapshot.read(binary));
+      final long streamHeap = heapAfterLoad(size, () -> readSerialized(serialized));
+      Benchmarks.report("Heap after load, " + size + " courses", snapshotHeap / 1024
+          + " KB from the binary snapshot, " + streamHeap / 1024 + " KB from ObjectInputStream; "
+          + Files.size(binary) / 1024 + " KB against " + Files.size(serialized) / 1024
+          + " KB on disk");
+    }
+  }
+
+  /**
+   * Builds a catalog of departments of a hundred courses each, whose instructors, rooms and
+   * times repeat the way a real catalog's do.
+   */
+  private static HashMap<String, Department> catalog(int courses) {
+    HashMap<String, Department> catalog = new HashMap<>();
+    for (int d = 0; d < courses / 100; d++) {
+      HashMap<String, Course> selection = new HashMap<>();
+      for (int c = 0; c < 100; c++) {
+        int i = d * 100 + c;
+        selection.put(Integer.toString(1000 + c), new Course("Instructor " + i % 2000,
+            (i % 300) + " IAB", (i % 12) + ":10-" + (i % 12 + 1) + ":25", 100));
+      }
+      catalog.put("D" + d, new Department("D" + d, selection, "Chair " + d, 100));
+    }
+    return catalog;
+  }
+
+  @SuppressWarnings("unchecked")
+  private static HashMap<String, Department> readSerialized(Path path) throws Exception {
+    try (ObjectInputStream in = new ObjectInputStream(
+        new BufferedInputStream(Files.newInputStream(path)))) {
+      return (HashMap<String, Department>) in.readObject();
+    }
+  }
+
+  private static long courseCount(HashMap<String, Department> catalog) {
+    long courses = 0;
+    for (Department department : catalog.values()) {
+      courses += department.getCourseSelection().size();
+    }
+    return courses;
+  }
+
+  private static long heapAfterLoad(int size, Callable<HashMap<String, Department>> load)
+      throws Exception {
+    long before = heapUsed();
+    HashMap<String, Department> loaded = load.call();
+    long after = heapUsed();
+    assertEquals(size, courseCount(loaded));
+    return after - before;
+  }
+
+  private static long heapUsed() {
+    for (int i = 0; i < 3; i++) {
+      System.gc();
+    }
+    return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+  }
+
+  private static void corruptInt(Path path, byte[] original, int offset, int value)
+      throws IOException {
+    byte[] corrupt = original.clone();
+    ByteBuffer.wrap(corrupt).putInt(offset, value);
+    Files.write(path, corrupt);
+  }
+}
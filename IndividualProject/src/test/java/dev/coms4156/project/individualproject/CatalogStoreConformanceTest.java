@@ -0,0 +1,231 @@
+package dev.coms4156.project.individualproject;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Tests every {@link CatalogStore} engine must pass. Each engine has a subclass creating it.
+ */
+public abstract class CatalogStoreConformanceTest {
+
+  @TempDir
+  Path tempDir;
+
+  protected String filePath;
+  private CatalogStore store;
+
+  /**
+   * Creates the engine under test.
+   *
+   * @param flag     0 to load the saved catalog, otherwise start with an empty one
+   * @param filePath the path the engine names its files after
+   * @return the engine
+   * @throws Exception if the engine cannot be opened
+   */
+  protected abstract CatalogStore createStore(int flag, String filePath) throws Exception;
+
+  /**
+   * Checks whether the engine keeps the catalog across restarts.
+   *
+   * @return true if a reopened engine sees the saved catalog
+   */
+  protected boolean isDurable() {
+    return true;
+  }
+
+  /**
+   * Set up an engine holding two departments.
+   */
+  @BeforeEach
+  public void setUp() throws Exception {
+    filePath = tempDir.resolve("data.txt").toString();
+    HashMap<String, Course> comsCourses = new HashMap<>();
+    Course coms1004 = new Course("Adam Cannon", "417 IAB", "11:40-12:55", 400);
+    coms1004.setEnrolledStudentCount(249);
+    comsCourses.put("1004", coms1004);
+    HashMap<String, Course> econCourses = new HashMap<>();
+    econCourses.put("1105", new Course("Waseem Noor", "309 HAV", "2:40-3:55", 210));
+    HashMap<String, Department> mapping = new HashMap<>();
+    mapping.put("COMS", new Department("COMS", comsCourses, "Luca Carloni", 2700));
+    mapping.put("ECON", new Department("ECON", econCourses, "Michael Woodford", 2345));
+
+    store = createStore(1, filePath);
+    store.setDepartments(mapping);
+    assertTrue(store.snapshot(), "The snapshot should be written.");
+  }
+
+  @AfterEach
+  public void tearDown() {
+    store.close();
+  }
+
+  @Test
+  public void testGetDepartmentAndCourse() {
+    assertEquals("Luca Carloni", store.getDepartment("COMS").getDepartmentChair());
+    assertEquals(249, store.getCourse("COMS", "1004").getEnrolledStudentCount());
+    assertNull(store.getDepartment("PHYS"), "A missing department should be null.");
+    assertNull(store.getCourse("COMS", "9999"), "A missing course should be null.");
+    assertNull(store.getCourse("PHYS", "1004"), "A course of a missing department should be null.");
+  }
+
+  @Test
+  public void testIterateDepartments() {
+    assertEquals(2, store.getDepartments().size());
+    assertTrue(store.getDepartments().keySet().containsAll(List.of("COMS", "ECON")));
+  }
+
+  @Test
+  public void testApplyMutation() {
+    store.apply(Mutation.enrollmentCount("COMS", "1004", 300));
+    store.apply(Mutation.courseLocation("ECON", "1105", "501 NWC"));
+    store.apply(Mutation.majorCount("COMS", 2701));
+    assertEquals(300, store.getCourse("COMS", "1004").getEnrolledStudentCount());
+    assertEquals("501 NWC", store.getCourse("ECON", "1105").getCourseLocation());
+    assertEquals(2701, store.getDepartment("COMS").getNumberOfMajors());
+  }
+
+  @Test
+  public void testMutationsSurviveRestart() throws Exception {
+    store.apply(Mutation.enrollmentCount("COMS", "1004", 300));
+    store.apply(Mutation.courseInstructor("COMS", "1004", "Jae Lee"));
+    store.close();
+
+    store = createStore(0, filePath);
+    if (isDurable()) {
+      assertEquals(300, store.getCourse("COMS", "1004").getEnrolledStudentCount());
+      assertEquals("Jae Lee", store.getCourse("COMS", "1004").getInstructorName());
+      assertEquals(2345, store.getDepartment("ECON").getNumberOfMajors());
+    } else {
+      assertTrue(store.getDepartments().isEmpty(), "Nothing should survive a restart.");
+    }
+  }
+
+  @Test
+  public void testRecordedSeatsSurviveRestart() throws Exception {
+    assertTrue(store.getCourse("COMS", "1004").enrollStudent());
+    store.recordSeats("COMS", "1004");
+    store.close();
+
+    store = createStore(0, filePath);
+    if (isDurable()) {
+      assertEquals(250, store.getCourse("COMS", "1004").getEnrolledStudentCount());
+    }
+  }
+
+  @Test
+  public void testSeatsRecordedByCourseNumberSurviveRestart() throws Exception {
+    assertTrue(store.getCourse("COMS", 1004).enrollStudent());
+    store.recordSeats("COMS", 1004);
+    store.recordSeats("COMS", 9999);
+    store.close();
+
+    store = createStore(0, filePath);
+    if (isDurable()) {
+      assertEquals(250, store.getCourse("COMS", 1004).getEnrolledStudentCount());
+    }
+    assertNull(store.getCourse("COMS", 9999), "Recording a missing course should add nothing.");
+  }
+
+  @Test
+  public void testSnapshotAfterReplace() throws Exception {
+    HashMap<String, Department> replacement = new HashMap<>();
+    replacement.put("PHYS", new Department("PHYS", new HashMap<>(), "Dmitri N. Basov", 43));
+    store.setDepartments(replacement);
+    assertTrue(store.snapshot());
+    store.close();
+
+    store = createStore(0, filePath);
+    if (isDurable()) {
+      assertEquals(1, store.getDepartments().size(), "Replaced departments should be gone.");
+      assertEquals(43, store.getDepartment("PHYS").getNumberOfMajors());
+    }
+    assertFalse(store.getDepartments().containsKey("COMS"));
+  }
+
+  @Test
+  public void testMutationWaitsForReplacement() throws Exception {
+    Thread writer = new Thread(() -> store.apply(Mutation.courseLocation("ECON", "1105",
+        "501 NWC")));
+    store.replaceDepartments(mapping -> {
+      writer.start();
+      while (writer.getState() != Thread.State.BLOCKED) {
+        assertNotEquals(Thread.State.TERMINATED, writer.getState(),
+            "A mutation should wait for the replacement.");
+        Thread.onSpinWait();
+      }
+      mapping.put("PHYS", new Department("PHYS", new HashMap<>(), "Dmitri N. Basov", 43));
+      return null;
+    });
+    writer.join();
+
+    assertEquals(43, store.getDepartment("PHYS").getNumberOfMajors());
+    assertEquals("501 NWC", store.getCourse("ECON", "1105").getCourseLocation(),
+        "A mutation published during a replacement should not be lost.");
+  }
+
+  @Test
+  public void testFailedReplacementLeavesCatalog() {
+    assertThrows(IOException.class, () -> store.replaceDepartments(mapping -> {
+      mapping.remove("COMS");
+      throw new IOException("Line 2: malformed");
+    }));
+    assertTrue(store.getDepartments().containsKey("COMS"));
+  }
+
+  @Test
+  @Tag("benchmark")
+  public void testReadAndWriteThroughput() throws Exception {
+    HashMap<String, Department> mapping = new HashMap<>();
+    for (int d = 0; d < 100; d++) {
+      HashMap<String, Course> courses = new HashMap<>();
+      for (int c = 0; c < 100; c++) {
+        courses.put(Integer.toString(1000 + c), new Course("Instructor " + c, "Room " + c,
+            "10:10-11:25", 100));
+      }
+      mapping.put("D" + d, new Department("D" + d, courses, "Chair " + d, 100));
+    }
+    store.setDepartments(mapping);
+    assertTrue(store.snapshot());
+    String engine = store.getClass().getSimpleName();
+
+    int reads = 100_000;
+    long found = Benchmarks.measure(engine + " course reads, 10k courses", reads, () -> {
+      long hits = 0;
+      for (int i = 0; i < reads; i++) {
+        hits += store.getCourse("D" + i % 100, 1000 + i / 100 % 100) != null ? 1 : 0;
+      }
+      return hits;
+    });
+    assertEquals(reads, found);
+
+    int writes = 1000;
+    Benchmarks.measure(engine + " mutations applied, 10k courses", writes, () -> {
+      for (int i = 0; i < writes; i++) {
+        store.apply(Mutation.enrollmentCount("D" + i % 100, Integer.toString(1000 + i / 100),
+            i % 100));
+      }
+      return writes;
+    });
+    Benchmarks.measure(engine + " seat counts recorded, 10k courses", writes, () -> {
+      for (int i = 0; i < writes; i++) {
+        store.recordSeats("D" + i % 100, 1000 + i / 100);
+      }
+      return writes;
+    });
+    assertEquals(99, store.getCourse("D99", 1009).getEnrolledStudentCount());
+  }
+}
@@ -0,0 +1,247 @@
+package dev.coms4156.project.individualproject;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test class for CatalogVersion.
+ */
+public class CatalogVersionTest {
+
+  private CatalogVersion version;
+
+  /**
+   * Set up a version holding two departments.
+   */
+  @BeforeEach
+  public void setUp() {
+    HashMap<String, Course> comsCourses = new HashMap<>();
+    comsCourses.put("1004", new Course("Adam Cannon", "417 IAB", "11:40-12:55", 400));
+    comsCourses.put("3134", new Course("Brian Borowski", "301 URIS", "4:10-5:25", 250));
+    HashMap<String, Department> mapping = new HashMap<>();
+    mapping.put("COMS", new Department("COMS", comsCourses, "Luca Carloni", 2700));
+    mapping.put("ECON", new Department("ECON", new HashMap<>(), "Michael Woodford", 2345));
+    version = new CatalogVersion(1, mapping);
+  }
+
+  @Test
+  public void testApplySharesUnchangedObjects() {
+    CatalogVersion next = version.apply(Mutation.courseLocation("COMS", "1004", "501 NWC"));
+
+    assertEquals(2, next.getNumber());
+    assertEquals("501 NWC", next.getDepartment("COMS").getCourseSelection().get("1004")
+        .getCourseLocation());
+    assertEquals("417 IAB", version.getDepartment("COMS").getCourseSelection().get("1004")
+        .getCourseLocation(), "The published version should not change.");
+    assertNotSame(version.getDepartment("COMS"), next.getDepartment("COMS"));
+    assertSame(version.getDepartment("ECON"), next.getDepartment("ECON"));
+    assertSame(version.getDepartment("COMS").getCourseSelection().get("3134"),
+        next.getDepartment("COMS").getCourseSelection().get("3134"));
+  }
+
+  @Test
+  public void testManyWritesKeepEveryVersionIntact() {
+    HashMap<String, Department> mapping = new HashMap<>();
+    for (int i = 0; i < 100; i++) {
+      HashMap<String, Course> courses = new HashMap<>();
+      courses.put("101", new Course("Instructor", "Location", "10:00-11:00", 100));
+      mapping.put("DEPT" + i, new Department("DEPT" + i, courses, "Chair", 50));
+    }
+    CatalogVersion first = new CatalogVersion(1, mapping);
+    CatalogVersion current = first;
+    for (int i = 0; i < 100; i++) {
+      current = current.apply(Mutation.majorCount("DEPT" + i, i));
+    }
+
+    assertEquals(101, current.getNumber());
+    assertEquals(100, current.getDepartments().size());
+    for (int i = 0; i < 100; i++) {
+      assertEquals(i, current.getDepartment("DEPT" + i).getNumberOfMajors());
+      assertEquals(i, current.getDepartments().get("DEPT" + i).getNumberOfMajors());
+      assertEquals(50, first.getDepartment("DEPT" + i).getNumberOfMajors(),
+          "The first version should not change.");
+    }
+    assertSame(current.getDepartments(), current.getDepartments(),
+        "The full mapping should be built once per version.");
+  }
+
+  @Test
+  public void testDepartmentsOfferingFollowReplacement() {
+    CatalogVersion next = version.apply(Mutation.courseLocation("COMS", "1004", "501 NWC"));
+    assertEquals(List.of("COMS"), next.getDepartmentsOffering("1004"));
+    assertTrue(next.getDepartmentsOffering("9999").isEmpty());
+
+    HashMap<String, Course> econCourses = new HashMap<>();
+    econCourses.put("1004", new Course("Waseem Noor", "309 HAV", "4:10-5:25", 210));
+    HashMap<String, Department> replacement = new HashMap<>(next.getDepartments());
+    replacement.put("ECON", new Department("ECON", econCourses, "Michael Woodford", 2345));
+    CatalogVersion replaced = next.replace(replacement);
+    assertEquals(List.of("COMS", "ECON"),
+        replaced.getDepartmentsOffering("1004").stream().sorted().toList());
+    assertEquals(List.of("COMS"), next.getDepartmentsOffering("1004"),
+        "The published version should not change.");
+  }
+
+  @Test
+  public void testApplyMissingTargetKeepsVersion() {
+    assertSame(version, version.apply(Mutation.majorCount("PHYS", 10)));
+    assertSame(version, version.apply(Mutation.enrollmentCount("COMS", "9999", 10)));
+  }
+
+  @Test
+  public void testReadersSeeConsistentVersionsDuringWrites() throws InterruptedException {
+    InMemoryCatalogStore store = new InMemoryCatalogStore();
+    store.setDepartments(version.getDepartments());
+    publishCount(store, 0);
+    AtomicBoolean writing = new AtomicBoolean(true);
+    AtomicReference<String> failure = new AtomicReference<>();
+
+    Thread[] readers = new Thread[4];
+    for (int i = 0; i < readers.length; i++) {
+      readers[i] = new Thread(() -> {
+        long lastNumber = 0;
+        while (writing.get()) {
+          CatalogVersion current = store.getVersion();
+          Department coms = current.getDepartment("COMS");
+          String location = coms.getCourseSelection().get("1004").getCourseLocation();
+          // Every write sets both fields from the same count, so a version never differs
+          if (current.getNumber() < lastNumber
+              || !location.equals("Room " + coms.getNumberOfMajors())) {
+            failure.set("Torn read at version " + current.getNumber());
+          }
+          lastNumber = current.getNumber();
+        }
+      });
+      readers[i].start();
+    }
+
+    for (int count = 1; count <= 2000; count++) {
+      publishCount(store, count);
+      store.apply(Mutation.majorCount("ECON", count));
+    }
+    writing.set(false);
+    for (Thread reader : readers) {
+      reader.join();
+    }
+
+    assertNull(failure.get(), failure.get());
+    assertEquals(2000, store.getDepartment("ECON").getNumberOfMajors());
+    assertTrue(store.getVersion().getNumber() >= 4000);
+  }
+
+  @Test
+  @Tag("benchmark")
+  public void testReadThroughputUnderWritesAgainstGlobalLock() throws Exception {
+    HashMap<String, Department> mapping = new HashMap<>();
+    for (int d = 0; d < 100; d++) {
+      HashMap<String, Course> courses = new HashMap<>();
+      for (int c = 0; c < 100; c++) {
+        courses.put(Integer.toString(1000 + c), new Course("Instructor " + c, "Room " + c,
+            "10:10-11:25", 100));
+      }
+      mapping.put("D" + d, new Department("D" + d, courses, "Chair " + d, 100));
+    }
+    InMemoryCatalogStore store = new InMemoryCatalogStore();
+    store.setDepartments(new HashMap<>(mapping));
+    Object globalLock = new Object();
+
+    int readers = 4;
+    int reads = 100_000;
+    AtomicLong writes = new AtomicLong();
+    long versioned = Benchmarks.measure("Reads of published versions during writes",
+        readers * reads, () -> readDuringWrites(readers, reads, writes,
+            i -> store.getCourse("D" + i % 100, 1000 + i / 100 % 100),
+            i -> store.apply(Mutation.enrollmentCount("D" + i % 100, "1000", (int) (i % 100)))));
+    Benchmarks.report("Writes during versioned reads", writes + " in the last run");
+    long locked = Benchmarks.measure("Reads under a global lock during writes",
+        readers * reads, () -> readDuringWrites(readers, reads, writes,
+            i -> {
+              synchronized (globalLock) {
+                return mapping.get("D" + i % 100).getCourseSelection()
+                    .get(Integer.toString(1000 + i / 100 % 100));
+              }
+            },
+            i -> {
+              synchronized (globalLock) {
+                Mutation.enrollmentCount("D" + i % 100, "1000", (int) (i % 100))
+                    .applyTo(mapping);
+              }
+            }));
+    Benchmarks.report("Writes during locked reads", writes + " in the last run");
+    assertEquals(readers * reads, versioned);
+    assertEquals(readers * reads, locked);
+  }
+
+  private interface Read {
+    Course read(int i);
+  }
+
+  private interface Write {
+    void write(long i);
+  }
+
+  /**
+   * Runs reader threads to completion while one writer applies mutations until they finish.
+   *
+   * @return the number of reads that found their course
+   */
+  private static long readDuringWrites(int readers, int reads, AtomicLong writes, Read read,
+      Write write) throws InterruptedException {
+    AtomicBoolean reading = new AtomicBoolean(true);
+    AtomicLong found = new AtomicLong();
+    Thread writer = new Thread(() -> {
+      long count = 0;
+      while (reading.get()) {
+        write.write(count++);
+      }
+      writes.set(count);
+    });
+    Thread[] threads = new Thread[readers];
+    for (int t = 0; t < readers; t++) {
+      threads[t] = new Thread(() -> {
+        long hits = 0;
+        for (int i = 0; i < reads; i++) {
+          hits += read.read(i) != null ? 1 : 0;
+        }
+        found.addAndGet(hits);
+      });
+    }
+    writer.start();
+    for (Thread thread : threads) {
+      thread.start();
+    }
+    for (Thread thread : threads) {
+      thread.join();
+    }
+    reading.set(false);
+    writer.join();
+    return found.get();
+  }
+
+  /**
+   * Publishes a version in which the majors of COMS and the room of COMS 1004 are both set
+   * from the given count.
+   */
+  private static void publishCount(CatalogStore store, int count) {
+    HashMap<String, Department> mapping = new HashMap<>(store.getDepartments());
+    Department coms = mapping.get("COMS").copy();
+    coms.setNumberOfMajors(count);
+    Course course = coms.getCourseSelection().get("1004").copy();
+    course.reassignLocation("Room " + count);
+    coms.addCourse("1004", course);
+    mapping.put("COMS", coms);
+    store.setDepartments(mapping);
+  }
+}
@@ -0,0 +1,153 @@
+package dev.coms4156.project.individualproject;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Locale;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Unit tests for the {@link Checkpointer} class.
+ */
+public class CheckpointerTest {
+
+  @TempDir
+  Path tempDir;
+
+  private String filePath;
+  private MyFileDatabase database;
+
+  /**
+   * Set up a saved database with one course in a temporary directory.
+   */
+  @BeforeEach
+  public void setUp() {
+    filePath = tempDir.resolve("data.txt").toString();
+    HashMap<String, Course> courses = new HashMap<>();
+    courses.put("1004", new Course("Adam Cannon", "417 IAB", "11:40-12:55", 400));
+    HashMap<String, Department> mapping = new HashMap<>();
+    mapping.put("COMS", new Department("COMS", courses, "Luca Carloni", 2700));
+
+    database = new MyFileDatabase(1, filePath);
+    database.setMapping(mapping);
+    database.saveContentsToFile();
+  }
+
+  @AfterEach
+  public void tearDown() {
+    database.close();
+  }
+
+  @Test
+  public void testCheckpointRequestedAfterMutations() throws Exception {
+    database.setSnapshotInterval(3);
+    database.startCheckpointer(0);
+    Course course = database.getDepartmentMapping().get("COMS").getCourseSelection().get("1004");
+    for (int count = 1; count <= 3; count++) {
+      course.setEnrolledStudentCount(count);
+      database.logMutation(Mutation.enrollmentCount("COMS", "1004", count));
+    }
+
+    Checkpointer checkpointer = database.getCheckpointer();
+    long deadline = System.currentTimeMillis() + 10_000;
+    while (checkpointer.getCheckpointCount() == 0 && System.currentTimeMillis() < deadline) {
+      Thread.sleep(10);
+    }
+    assertEquals(1, checkpointer.getCheckpointCount(), "One checkpoint should be taken.");
+    assertTrue(checkpointer.getLastBytesWritten() > 0, "The checkpoint size should be recorded.");
+    assertEquals(checkpointer.getLastBytesWritten(), checkpointer.getTotalBytesWritten());
+    assertEquals(0, database.getMutationsSinceSnapshot(),
+            "The checkpoint should cover every logged mutation.");
+
+    database.close();
+    MyFileDatabase reloaded = new MyFileDatabase(0, filePath);
+    assertEquals(3, reloaded.getDepartmentMapping().get("COMS").getCourseSelection()
+            .get("1004").getEnrolledStudentCount());
+    reloaded.close();
+  }
+
+  @Test
+  public void testReplacedCatalogIsCheckpointed() throws Exception {
+    database.startCheckpointer(0);
+    HashMap<String, Course> courses = new HashMap<>();
+    courses.put("1201", new Course("Tian Zheng", "309 HAV", "2:40-3:55", 150));
+    HashMap<String, Department> mapping = new HashMap<>();
+    mapping.put("STAT", new Department("STAT", courses, "Tian Zheng", 800));
+    database.setMapping(mapping);
+
+    Checkpointer checkpointer = database.getCheckpointer();
+    long deadline = System.currentTimeMillis() + 10_000;
+    while (checkpointer.getCheckpointCount() == 0 && System.currentTimeMillis() < deadline) {
+      Thread.sleep(10);
+    }
+    assertEquals(1, checkpointer.getCheckpointCount(),
+            "Replacing the catalog should be checkpointed without any logged mutation.");
+
+    database.close();
+    MyFileDatabase reloaded = new MyFileDatabase(0, filePath);
+    assertEquals(mapping.keySet(), reloaded.getDepartmentMapping().keySet());
+    reloaded.close();
+  }
+
+  @Test
+  public void testCheckpointSkippedWithoutMutations() {
+    database.startCheckpointer(0);
+    Checkpointer checkpointer = database.getCheckpointer();
+    checkpointer.requestCheckpoint();
+    checkpointer.stop();
+    assertEquals(0, checkpointer.getCheckpointCount(),
+            "Nothing should be written when nothing has changed.");
+  }
+
+  @Test
+  @Tag("benchmark")
+  public void testMutationLatencyWhileCheckpointing() throws Exception {
+    int mutations = 1000;
+    for (boolean background : new boolean[] {false, true}) {
+      HashMap<String, Department> mapping = new HashMap<>();
+      for (int d = 0; d < 100; d++) {
+        HashMap<String, Course> courses = new HashMap<>();
+        for (int c = 0; c < 100; c++) {
+          courses.put(Integer.toString(1000 + c), new Course("Instructor " + c, "Room " + c,
+              "10:10-11:25", 100));
+        }
+        mapping.put("D" + d, new Department("D" + d, courses, "Chair " + d, 100));
+      }
+      MyFileDatabase checkpointed = new MyFileDatabase(1,
+          tempDir.resolve("latency-" + background + ".txt").toString());
+      checkpointed.setMapping(mapping);
+      checkpointed.saveContentsToFile();
+      checkpointed.setSnapshotInterval(100);
+      if (background) {
+        checkpointed.startCheckpointer(0);
+      }
+
+      String name = background ? "Mutations with background checkpoints"
+          : "Mutations with checkpoints on the request thread";
+      long[] latencies = new long[mutations];
+      long logged = Benchmarks.measure(name, mutations, () -> {
+        for (int i = 0; i < mutations; i++) {
+          long start = System.nanoTime();
+          checkpointed.logMutation(Mutation.enrollmentCount("D" + i * 37 % 100, "1000", i % 100));
+          latencies[i] = System.nanoTime() - start;
+        }
+        return mutations;
+      });
+      assertEquals(mutations, logged);
+      Arrays.sort(latencies);
+      Checkpointer checkpointer = checkpointed.getCheckpointer();
+      Benchmarks.report(name + ", latency", String.format(Locale.ROOT,
+          "p50 %.3f ms, p99 %.3f ms, max %.3f ms%s", latencies[mutations / 2] / 1e6,
+          latencies[mutations * 99 / 100] / 1e6, latencies[mutations - 1] / 1e6,
+          checkpointer != null ? "; " + checkpointer : ""));
+      checkpointed.close();
+    }
+  }
+}
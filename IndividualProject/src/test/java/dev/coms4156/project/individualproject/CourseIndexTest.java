@@ -0,0 +1,161 @@
+package dev.coms4156.project.individualproject;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test class for CourseIndex.
+ */
+public class CourseIndexTest {
+
+  private MyFileDatabase database;
+
+  /**
+   * Set up an in-memory database holding two departments.
+   */
+  @BeforeEach
+  public void setUp() {
+    HashMap<String, Course> comsCourses = new HashMap<>();
+    comsCourses.put("1004", new Course("Adam Cannon", "417 IAB", "11:40-12:55", 400));
+    comsCourses.put("3157", new Course("Jae Lee", "417 IAB", "4:10-5:25", 400));
+    comsCourses.put("4156", new Course("Gail Kaiser", "501 NWC", "10:10-11:25", 120));
+    HashMap<String, Course> econCourses = new HashMap<>();
+    econCourses.put("1105", new Course("Waseem Noor", "309 HAV", "4:10-5:25", 210));
+    HashMap<String, Department> mapping = new HashMap<>();
+    mapping.put("COMS", new Department("COMS", comsCourses, "Luca Carloni", 2700));
+    mapping.put("ECON", new Department("ECON", econCourses, "Michael Woodford", 2345));
+    database = new MyFileDatabase(new InMemoryCatalogStore());
+    database.setMapping(mapping);
+  }
+
+  @Test
+  public void testFindsCoursesByEachField() {
+    assertEquals(Map.of("COMS 4156", database.getCourse("COMS", "4156")),
+        database.findCourses(CourseIndex.Field.INSTRUCTOR, "gail kaiser"));
+    assertEquals("[COMS 1004, COMS 3157]",
+        database.findCourses(CourseIndex.Field.LOCATION, " 417 IAB").keySet().toString());
+    assertEquals("[COMS 3157, ECON 1105]",
+        database.findCourses(CourseIndex.Field.TIME, "16:10-17:25").keySet().toString(),
+        "Time slots should match by the time they stand for.");
+    assertTrue(database.findCourses(CourseIndex.Field.INSTRUCTOR, "Nobody").isEmpty());
+  }
+
+  @Test
+  public void testIndexFollowsMutations() {
+    database.findCourses(CourseIndex.Field.LOCATION, "417 IAB");
+    database.logMutation(Mutation.courseLocation("COMS", "1004", "501 NWC"));
+    database.logMutation(Mutation.courseInstructor("COMS", "4156", "Adam Cannon"));
+    database.logMutation(Mutation.courseTime("ECON", "1105", "MW 8:40-9:55"));
+
+    assertEquals("[COMS 3157]",
+        database.findCourses(CourseIndex.Field.LOCATION, "417 IAB").keySet().toString());
+    assertEquals("[COMS 1004, COMS 4156]",
+        database.findCourses(CourseIndex.Field.LOCATION, "501 NWC").keySet().toString());
+    assertEquals("[COMS 1004, COMS 4156]",
+        database.findCourses(CourseIndex.Field.INSTRUCTOR, "Adam Cannon").keySet().toString());
+    assertTrue(database.findCourses(CourseIndex.Field.INSTRUCTOR, "Gail Kaiser").isEmpty());
+    assertEquals("[COMS 3157]",
+        database.findCourses(CourseIndex.Field.TIME, "4:10-5:25").keySet().toString());
+  }
+
+  @Test
+  public void testMutationOfMissingCourseLeavesNoEntry() {
+    database.findCourses(CourseIndex.Field.LOCATION, "417 IAB");
+    database.logMutation(Mutation.courseLocation("COMS", "9999", "833 MUDD"));
+    assertTrue(database.findCourses(CourseIndex.Field.LOCATION, "833 MUDD").isEmpty());
+  }
+
+  @Test
+  public void testFailedPublishRebuildsIndex() {
+    CatalogStore failing = new InMemoryCatalogStore() {
+      @Override
+      public CatalogVersion apply(Mutation mutation) {
+        super.apply(mutation);
+        throw new UncheckedIOException(new IOException("disk full"));
+      }
+    };
+    failing.setDepartments(database.getVersion().getDepartments());
+    MyFileDatabase failingDatabase = new MyFileDatabase(failing);
+    failingDatabase.findCourses(CourseIndex.Field.LOCATION, "417 IAB");
+
+    assertThrows(UncheckedIOException.class, () ->
+        failingDatabase.logMutation(Mutation.courseLocation("COMS", "1004", "501 NWC")));
+    assertEquals("[COMS 3157]", failingDatabase.findCourses(CourseIndex.Field.LOCATION,
+        "417 IAB").keySet().toString());
+    assertEquals("[COMS 1004, COMS 4156]", failingDatabase.findCourses(
+        CourseIndex.Field.LOCATION, "501 NWC").keySet().toString());
+  }
+
+  @Test
+  public void testReplacingCatalogRebuildsIndex() {
+    database.findCourses(CourseIndex.Field.LOCATION, "417 IAB");
+    HashMap<String, Course> physCourses = new HashMap<>();
+    physCourses.put("1201", new Course("Brian Cole", "417 IAB", "2:40-3:55", 90));
+    HashMap<String, Department> mapping = new HashMap<>();
+    mapping.put("PHYS", new Department("PHYS", physCourses, "Brian Cole", 80));
+    database.setMapping(mapping);
+
+    assertEquals("[PHYS 1201]",
+        database.findCourses(CourseIndex.Field.LOCATION, "417 IAB").keySet().toString());
+  }
+
+  @Test
+  @Tag("benchmark")
+  public void testIndexAgainstScanAtHundredThousandCourses() throws Exception {
+    HashMap<String, Department> mapping = new HashMap<>();
+    for (int d = 0; d < 100; d++) {
+      HashMap<String, Course> courses = new HashMap<>();
+      for (int c = 0; c < 1000; c++) {
+        int n = d * 1000 + c;
+        courses.put(Integer.toString(1000 + c), new Course("Instructor " + n % 5000,
+            "Room " + n % 2000, "10:10-11:25", 100));
+      }
+      mapping.put("D" + d, new Department("D" + d, courses, "Chair " + d, 100));
+    }
+    database.setMapping(mapping);
+
+    final int queries = 200;
+    long scanned = Benchmarks.measure("Instructor lookup scanning 100k courses", queries, () -> {
+      long matches = 0;
+      for (int i = 0; i < queries; i++) {
+        String instructor = "Instructor " + i;
+        for (Department department : database.getDepartmentMapping().values()) {
+          for (Course course : department.getCourseSelection().values()) {
+            matches += course.getInstructorName().equalsIgnoreCase(instructor) ? 1 : 0;
+          }
+        }
+      }
+      return matches;
+    });
+    long found = Benchmarks.measure("Instructor lookup in CourseIndex", queries, () -> {
+      long matches = 0;
+      for (int i = 0; i < queries; i++) {
+        TreeMap<String, Course> courses =
+            database.findCourses(CourseIndex.Field.INSTRUCTOR, "Instructor " + i);
+        matches += courses.size();
+      }
+      return matches;
+    });
+    assertEquals(scanned, found);
+
+    final int mutations = 2000;
+    Benchmarks.measure("Location change keeping CourseIndex current", mutations, () -> {
+      for (int i = 0; i < mutations; i++) {
+        database.logMutation(Mutation.courseLocation("D" + i % 100, "1001", "Room " + i % 2000));
+      }
+      return mutations;
+    });
+    assertFalse(database.findCourses(CourseIndex.Field.LOCATION, "Room 1999").isEmpty());
+  }
+}
@@ -0,0 +1,183 @@
+package dev.coms4156.project.individualproject;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.lang.management.ManagementFactory;
+import java.util.HashMap;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test class for CourseMap.
+ */
+public class CourseMapTest {
+
+  private static Course course(String location) {
+    return new Course("Adam Cannon", location, "11:40-12:55", 400);
+  }
+
+  @Test
+  public void testIndexFollowsPutAndRemove() {
+    CourseMap courses = new CourseMap();
+    Course coms1004 = course("417 IAB");
+    courses.put("1004", coms1004);
+    assertSame(coms1004, courses.get(1004));
+
+    Course moved = course("501 NWC");
+    courses.put("1004", moved);
+    assertSame(moved, courses.get(1004), "Replacing a course should update the index.");
+
+    courses.remove("1004");
+    assertNull(courses.get(1004));
+    assertNull(courses.get("1004"));
+  }
+
+  @Test
+  public void testCopyHasItsOwnIndex() {
+    CourseMap courses = new CourseMap();
+    Course coms1004 = course("417 IAB");
+    courses.put("1004", coms1004);
+    courses.put("W1002", course("301 URIS"));
+
+    CourseMap copy = courses.copy();
+    assertSame(coms1004, copy.get(1004));
+    assertEquals(2, copy.size());
+
+    Course moved = course("501 NWC");
+    copy.put("1004", moved);
+    copy.put("3134", course("309 HAV"));
+    assertSame(moved, copy.get(1004));
+    assertSame(coms1004, courses.get(1004), "Changing the copy should not change the original.");
+    assertNull(courses.get(3134));
+  }
+
+  @Test
+  public void testOnlyPlainNumbersAreIndexed() {
+    CourseMap courses = new CourseMap();
+    courses.put("01004", course("417 IAB"));
+    courses.put("W4156", course("501 NWC"));
+    courses.put("-0", course("301 URIS"));
+    courses.put(Integer.toString(Integer.MIN_VALUE), course("833 MUDD"));
+
+    assertNull(courses.get(1004), "A zero-padded ID is a different course.");
+    assertNull(courses.get(0));
+    assertEquals("833 MUDD", courses.get(Integer.MIN_VALUE).getCourseLocation());
+    assertEquals("501 NWC", courses.get("W4156").getCourseLocation());
+  }
+
+  @Test
+  public void testIndexSurvivesGrowthAndRemoval() {
+    CourseMap courses = new CourseMap();
+    for (int id = 0; id < 5000; id++) {
+      courses.put(Integer.toString(id * 7), course("Room " + id));
+    }
+    for (int id = 0; id < 5000; id += 2) {
+      courses.remove(Integer.toString(id * 7));
+    }
+    for (int id = 0; id < 5000; id++) {
+      Course found = courses.get(id * 7);
+      if (id % 2 == 0) {
+        assertNull(found, "Course " + id * 7 + " should have been removed.");
+      } else {
+        assertEquals("Room " + id, found.getCourseLocation());
+      }
+    }
+    assertEquals(2500, courses.size());
+  }
+
+  @Test
+  public void testHashMapOperationsKeepIndex() {
+    CourseMap courses = new CourseMap();
+    courses.computeIfAbsent("4156", id -> course("501 NWC"));
+    courses.merge("3157", course("417 IAB"), (old, added) -> added);
+    courses.replaceAll((id, value) -> course(value.getCourseLocation() + " Annex"));
+    assertEquals("501 NWC Annex", courses.get(4156).getCourseLocation());
+    assertEquals("417 IAB Annex", courses.get(3157).getCourseLocation());
+
+    courses.computeIfPresent("4156", (id, value) -> null);
+    assertNull(courses.get(4156));
+    assertThrows(UnsupportedOperationException.class, () -> courses.keySet().remove("3157"));
+
+    courses.clear();
+    assertNull(courses.get(3157));
+  }
+
+  @Test
+  public void testSerializedAsHashMap() throws Exception {
+    HashMap<String, Course> plain = new HashMap<>();
+    plain.put("1004", course("417 IAB"));
+    Department coms = new Department("COMS", plain, "Luca Carloni", 2700);
+
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+      out.writeObject(coms);
+    }
+    Department restored;
+    try (ObjectInputStream in = new ObjectInputStream(
+        new ByteArrayInputStream(bytes.toByteArray()))) {
+      restored = (Department) in.readObject();
+    }
+
+    assertInstanceOf(CourseMap.class, restored.getCourseSelection());
+    assertEquals("417 IAB", restored.getCourse(1004).getCourseLocation());
+  }
+
+  @Test
+  @Tag("benchmark")
+  public void testLookupByNumberAllocatesLess() throws Exception {
+    HashMap<String, Course> plain = new HashMap<>();
+    for (int id = 1000; id < 1200; id++) {
+      plain.put(Integer.toString(id), course("Room " + id));
+    }
+    final CourseMap courses = new CourseMap(plain);
+    final int lookups = 200_000;
+    Benchmarks.Workload byString = () -> {
+      long hits = 0;
+      for (int i = 0; i < lookups; i++) {
+        hits += plain.get(Integer.toString(1000 + i % 200)) != null ? 1 : 0;
+      }
+      return hits;
+    };
+    Benchmarks.Workload byNumber = () -> {
+      long hits = 0;
+      for (int i = 0; i < lookups; i++) {
+        hits += courses.get(1000 + i % 200) != null ? 1 : 0;
+      }
+      return hits;
+    };
+
+    assertEquals(lookups, Benchmarks.measure("Course lookup by formatted String key", lookups,
+        byString));
+    assertEquals(lookups, Benchmarks.measure("Course lookup by int in CourseMap", lookups,
+        byNumber));
+
+    long stringBytes = allocatedBytes();
+    byString.run();
+    stringBytes = allocatedBytes() - stringBytes;
+    long intBytes = allocatedBytes();
+    byNumber.run();
+    intBytes = allocatedBytes() - intBytes;
+    Benchmarks.report("Course lookup allocation", stringBytes + " bytes by String, "
+        + intBytes + " bytes by int, per " + lookups + " lookups");
+    if (stringBytes > 0) {
+      assertTrue(intBytes < stringBytes, "Looking up by number should allocate less.");
+    }
+  }
+
+  private static long allocatedBytes() {
+    if (ManagementFactory.getThreadMXBean()
+        instanceof com.sun.management.ThreadMXBean threads) {
+      return threads.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+    return 0;
+  }
+}
@@ -3,6 +3,7 @@ package dev.coms4156.project.individualproject;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import org.junit.jupiter.api.BeforeAll;
@@ -99,6 +100,15 @@ public class CourseUnitTests {
     testCourse.reassignTime("11:40-12:55");
   }
 
+  @Test
+  public void reassignInvalidTimeTest() {
+    assertThrows(IllegalArgumentException.class, () -> testCourse.reassignTime("TBA"),
+            "An invalid time slot should be rejected.");
+    assertEquals("11:40-12:55", testCourse.getCourseTimeSlot(),
+            "A rejected time should leave the course unchanged.");
+    assertEquals(TimeSlot.parse("11:40-12:55"), testCourse.getTimeSlot());
+  }
+
   @Test
   public void setEnrolledStudentCountTest() {
     testCourse.setEnrolledStudentCount(249);
@@ -129,4 +139,29 @@ public class CourseUnitTests {
     assertFalse(testCourse.dropStudent(), "Should not drop a student when none are enrolled.");
   }
 
+  @Test
+  public void dirtyTrackingTest() {
+    testCourse.markClean();
+    assertFalse(testCourse.isDirty(), "Course should be clean after being marked clean.");
+    testCourse.setEnrolledStudentCount(0);
+    testCourse.markClean();
+    testCourse.enrollStudent();
+    assertTrue(testCourse.isDirty(), "Enrolling a student should mark the course dirty.");
+    testCourse.markClean();
+    testCourse.reassignTime("11:40-12:55");
+    assertTrue(testCourse.isDirty(), "Reassigning the time should mark the course dirty.");
+  }
+
+  @Test
+  public void copySharesSeatsTest() {
+    Course course = new Course("Adam Cannon", "417 IAB", "11:40-12:55", 2);
+    Course copy = course.copy();
+    copy.reassignLocation("501 NWC");
+    assertTrue(copy.enrollStudent());
+    assertTrue(course.enrollStudent());
+    assertFalse(copy.enrollStudent(), "Copies should share the seats of the course.");
+    assertEquals(2, course.getEnrolledStudentCount());
+    assertEquals("417 IAB", course.getCourseLocation(), "Copies should not share the location.");
+  }
+
 }
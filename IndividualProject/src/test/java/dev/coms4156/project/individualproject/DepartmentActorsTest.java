@@ -0,0 +1,112 @@
+package dev.coms4156.project.individualproject;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test class for DepartmentActors.
+ */
+public class DepartmentActorsTest {
+
+  @Test
+  public void testChangesToOneDepartmentRunInOrder() {
+    DepartmentActors actors = new DepartmentActors(4);
+    List<Integer> applied = new ArrayList<>();
+    for (int i = 0; i < 100; i++) {
+      int change = i;
+      actors.submit("COMS", () -> applied.add(change));
+    }
+    actors.run("COMS", () -> { });
+    actors.stop();
+
+    assertEquals(100, applied.size());
+    for (int i = 0; i < 100; i++) {
+      assertEquals(i, applied.get(i), "Changes should be applied in the order queued.");
+    }
+  }
+
+  @Test
+  public void testRunRethrowsFailure() {
+    DepartmentActors actors = new DepartmentActors(1);
+    assertThrows(IllegalStateException.class, () -> actors.run("COMS", () -> {
+      throw new IllegalStateException("Simulated failure");
+    }));
+    actors.stop();
+  }
+
+  @Test
+  public void testShardMovesOnBeforeWorkFinishes() {
+    DepartmentActors actors = new DepartmentActors(1);
+    CompletableFuture<String> persisted = new CompletableFuture<>();
+    CompletableFuture<String> first = actors.submitAsync("COMS", () -> persisted);
+
+    actors.run("COMS", () -> { });
+    assertFalse(first.isDone(), "The change should wait for its work.");
+    persisted.complete("done");
+    assertEquals("done", actors.call("COMS", () -> first));
+    actors.stop();
+  }
+
+  @Test
+  public void testSkewedWorkloadWithActorsAndLocks() throws InterruptedException {
+    runSkewedWorkload(0);
+    runSkewedWorkload(8);
+  }
+
+  /**
+   * Sends most major changes to one hot department from many threads and checks that every
+   * change is kept.
+   *
+   * @param shards the number of department threads, or 0 to run changes under locks
+   */
+  private static void runSkewedWorkload(int shards) throws InterruptedException {
+    int departments = 16;
+    final int threads = 16;
+    final int changesPerThread = 300;
+    HashMap<String, Department> mapping = new HashMap<>();
+    for (int i = 0; i < departments; i++) {
+      mapping.put("DEPT" + i, new Department("DEPT" + i, new HashMap<>(), "Chair", 0));
+    }
+    MyFileDatabase database = new MyFileDatabase(1, "unused", MyFileDatabase.MEMORY_ENGINE,
+        false, 0);
+    database.setMapping(mapping);
+    database.startDepartmentActors(shards);
+
+    List<Thread> workers = new ArrayList<>();
+    for (int t = 0; t < threads; t++) {
+      workers.add(new Thread(() -> {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (int i = 0; i < changesPerThread; i++) {
+          // Four changes in five go to the hot department
+          String deptCode = random.nextInt(5) < 4 ? "DEPT0" : "DEPT" + random.nextInt(departments);
+          database.updateDepartment(deptCode, () -> {
+            Department draft = database.draftDepartment(deptCode);
+            draft.addPersonToMajor();
+            database.logMutation(Mutation.majorCount(deptCode, draft.getNumberOfMajors()));
+          });
+        }
+      }));
+    }
+    for (Thread worker : workers) {
+      worker.start();
+    }
+    for (Thread worker : workers) {
+      worker.join();
+    }
+
+    int total = 0;
+    for (Department department : database.getDepartmentMapping().values()) {
+      total += department.getNumberOfMajors();
+    }
+    assertEquals(threads * changesPerThread, total, "No change should be lost.");
+    database.close();
+  }
+}
@@ -0,0 +1,98 @@
+package dev.coms4156.project.individualproject;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.FutureTask;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test class for DepartmentLocks.
+ */
+public class DepartmentLocksTest {
+
+  @Test
+  public void testStripesRoundedToPowerOfTwo() {
+    assertEquals(1, new DepartmentLocks(1).getStripes());
+    assertEquals(64, new DepartmentLocks(64).getStripes());
+    assertEquals(128, new DepartmentLocks(100).getStripes());
+  }
+
+  @Test
+  public void testLockOfOneDepartmentLeavesOthersFree() throws Exception {
+    DepartmentLocks locks = new DepartmentLocks(DepartmentLocks.DEFAULT_STRIPES);
+    assertSame(locks.lockFor("COMS"), locks.lockFor("COMS"));
+    assertNotSame(locks.lockFor("COMS"), locks.lockFor("ECON"));
+
+    locks.lock("COMS");
+    FutureTask<Boolean> otherThread = new FutureTask<>(() -> {
+      boolean econFree = locks.lockFor("ECON").tryLock();
+      if (econFree) {
+        locks.unlock("ECON");
+      }
+      assertFalse(locks.lockFor("COMS").tryLock(), "COMS should stay locked.");
+      return econFree;
+    });
+    new Thread(otherThread).start();
+    assertTrue(otherThread.get(), "ECON should not wait for a change to COMS.");
+    locks.unlock("COMS");
+  }
+
+  @Test
+  public void testConcurrentMajorChangesAreNotLost() throws InterruptedException {
+    for (int departments : new int[] {1, 8, 64}) {
+      runMajorChanges(departments, 16, 500);
+    }
+  }
+
+  /**
+   * Adds majors to the given number of departments from many threads, each also reading the
+   * catalog, and checks that every addition is kept.
+   */
+  private static void runMajorChanges(int departments, int threads, int changesPerThread)
+      throws InterruptedException {
+    HashMap<String, Department> mapping = new HashMap<>();
+    for (int i = 0; i < departments; i++) {
+      mapping.put("DEPT" + i, new Department("DEPT" + i, new HashMap<>(), "Chair", 0));
+    }
+    MyFileDatabase database = new MyFileDatabase(1, "unused", MyFileDatabase.MEMORY_ENGINE,
+        false, 0);
+    database.setMapping(mapping);
+
+    List<Thread> workers = new ArrayList<>();
+    for (int t = 0; t < threads; t++) {
+      int seed = t;
+      Thread worker = new Thread(() -> {
+        for (int i = 0; i < changesPerThread; i++) {
+          String deptCode = "DEPT" + ((seed + i) % departments);
+          database.getDepartment("DEPT" + (i % departments)).getNumberOfMajors();
+          database.updateDepartment(deptCode, () -> {
+            Department draft = database.draftDepartment(deptCode);
+            draft.addPersonToMajor();
+            database.logMutation(Mutation.majorCount(deptCode, draft.getNumberOfMajors()));
+          });
+        }
+      });
+      workers.add(worker);
+    }
+    for (Thread worker : workers) {
+      worker.start();
+    }
+    for (Thread worker : workers) {
+      worker.join();
+    }
+
+    int total = 0;
+    for (Department department : database.getDepartmentMapping().values()) {
+      total += department.getNumberOfMajors();
+    }
+    assertEquals(threads * changesPerThread, total, "No change should be lost.");
+    database.close();
+  }
+}
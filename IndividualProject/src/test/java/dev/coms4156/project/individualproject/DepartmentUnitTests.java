@@ -1,6 +1,8 @@
 package dev.coms4156.project.individualproject;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.util.HashMap;
 import org.junit.jupiter.api.BeforeEach;
@@ -97,4 +99,17 @@ public class DepartmentUnitTests {
             + "COMS 3134: \nInstructor: Brian Borowski; Location: 301 URIS; Time: 4:10-5:25\n",
             department.toString());
   }
-}
\ No newline at end of file
+
+  @Test
+  public void testDirtyTracking() {
+    assertTrue(department.isDirty(), "A new department is dirty until it is saved.");
+    department.markClean();
+    assertFalse(department.isDirty(), "The department and its courses should be clean.");
+    course1.dropStudent();
+    course1.enrollStudent();
+    assertTrue(department.isDirty(), "A changed course should make its department dirty.");
+    department.markClean();
+    department.addPersonToMajor();
+    assertTrue(department.isDirty(), "Adding a major should mark the department dirty.");
+  }
+}
@@ -0,0 +1,74 @@
+package dev.coms4156.project.individualproject;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.HashMap;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Runs the catalog store conformance tests against the {@link FileCatalogStore} engine.
+ */
+public class FileCatalogStoreTest extends CatalogStoreConformanceTest {
+
+  @Override
+  protected CatalogStore createStore(int flag, String filePath) {
+    return new FileCatalogStore(flag, filePath, false, 1);
+  }
+
+  @Test
+  public void testFailedLogAppendIsReported() throws IOException {
+    String path = tempDir.resolve("unwritable.txt").toString();
+    // A log path naming a directory with a file in it can be neither removed nor appended to
+    Path log = Files.createDirectory(Paths.get(path + FileCatalogStore.LOG_SUFFIX));
+    Files.createFile(log.resolve("blocker"));
+    FileCatalogStore store = new FileCatalogStore(1, path, false, 1);
+    try {
+      assertThrows(UncheckedIOException.class,
+          () -> store.apply(Mutation.majorCount("COMS", 2800)));
+    } finally {
+      store.close();
+    }
+  }
+
+  @Test
+  public void testCorruptSnapshotStartsEmpty() throws IOException {
+    Path path = tempDir.resolve("corrupt.txt");
+    HashMap<String, Department> mapping = new HashMap<>();
+    mapping.put("COMS", new Department("COMS", new HashMap<>(), "Luca Carloni", 2700));
+    CatalogSnapshot.write(mapping, path);
+    byte[] corrupt = Files.readAllBytes(path);
+    ByteBuffer.wrap(corrupt).putInt(28, -64);
+    Files.write(path, corrupt);
+
+    FileCatalogStore store = new FileCatalogStore(0, path.toString(), false, 1);
+    try {
+      assertTrue(store.getDepartments().isEmpty(), "A corrupt file should not stop startup.");
+    } finally {
+      store.close();
+    }
+  }
+
+  @Test
+  public void testCorruptManifestStartsEmpty() throws IOException {
+    Path path = tempDir.resolve("manifest.txt");
+    new CatalogManifest(1, Map.of("COMS", "manifest.txt.1.0.seg")).writeAtomically(path);
+    byte[] corrupt = Files.readAllBytes(path);
+    ByteBuffer.wrap(corrupt).putInt(14, -1);
+    Files.write(path, corrupt);
+
+    FileCatalogStore store = new FileCatalogStore(0, path.toString(), false, 1);
+    try {
+      assertTrue(store.getDepartments().isEmpty(), "A corrupt manifest should not stop startup.");
+    } finally {
+      store.close();
+    }
+  }
+}
@@ -0,0 +1,69 @@
+package dev.coms4156.project.individualproject;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Runs the catalog store conformance tests against the {@link H2CatalogStore} engine.
+ */
+public class H2CatalogStoreTest extends CatalogStoreConformanceTest {
+
+  @Override
+  protected CatalogStore createStore(int flag, String filePath) throws SQLException {
+    return new H2CatalogStore(flag, filePath);
+  }
+
+  @Test
+  public void testConcurrentSeatRecordsAcrossCourses() throws Exception {
+    String path = tempDir.resolve("seats.txt").toString();
+    HashMap<String, Course> courses = new HashMap<>();
+    for (int i = 0; i < 8; i++) {
+      courses.put(Integer.toString(1000 + i), new Course("Adam Cannon", "417 IAB",
+          "11:40-12:55", 1000));
+    }
+    HashMap<String, Department> mapping = new HashMap<>();
+    mapping.put("COMS", new Department("COMS", courses, "Luca Carloni", 2700));
+    H2CatalogStore store = new H2CatalogStore(1, path);
+    store.setDepartments(mapping);
+    assertTrue(store.snapshot());
+
+    CountDownLatch start = new CountDownLatch(1);
+    List<Thread> threads = new ArrayList<>();
+    for (int t = 0; t < 16; t++) {
+      String courseId = Integer.toString(1000 + t % 8);
+      Thread thread = new Thread(() -> {
+        try {
+          start.await();
+        } catch (InterruptedException e) {
+          return;
+        }
+        Course course = store.getCourse("COMS", courseId);
+        for (int i = 0; i < 50; i++) {
+          course.enrollStudent();
+          store.recordSeats("COMS", courseId);
+        }
+      });
+      thread.start();
+      threads.add(thread);
+    }
+    start.countDown();
+    for (Thread thread : threads) {
+      thread.join();
+    }
+    store.close();
+
+    H2CatalogStore reopened = new H2CatalogStore(0, path);
+    for (int i = 0; i < 8; i++) {
+      assertEquals(100, reopened.getCourse("COMS", Integer.toString(1000 + i))
+          .getEnrolledStudentCount(), "The last count recorded for each course should win.");
+    }
+    reopened.close();
+  }
+}
@@ -0,0 +1,17 @@
+package dev.coms4156.project.individualproject;
+
+/**
+ * Runs the catalog store conformance tests against the {@link InMemoryCatalogStore} engine.
+ */
+public class InMemoryCatalogStoreTest extends CatalogStoreConformanceTest {
+
+  @Override
+  protected CatalogStore createStore(int flag, String filePath) {
+    return new InMemoryCatalogStore();
+  }
+
+  @Override
+  protected boolean isDurable() {
+    return false;
+  }
+}
@@ -12,10 +12,17 @@ import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.lang.reflect.Field;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.HashMap;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
 import org.mockito.Mockito;
+import org.mockito.MockitoAnnotations;
 
 
 /**
@@ -25,18 +32,28 @@ public class IndividualProjectApplicationTest {
 
   private IndividualProjectApplication app;
   private MyFileDatabase mockDatabase;
+  private AutoCloseable mocks;
+
+  @Captor
+  private ArgumentCaptor<HashMap<String, Department>> captor;
 
   /**
    * Set up mock database.
    */
   @BeforeEach
   public void setUp() {
+    mocks = MockitoAnnotations.openMocks(this);
     // Initialize the IndividualProjectApplication object and mock the database
     app = new IndividualProjectApplication();
     mockDatabase = mock(MyFileDatabase.class);
     IndividualProjectApplication.overrideDatabase(mockDatabase);
   }
 
+  @AfterEach
+  public void tearDown() throws Exception {
+    mocks.close();
+  }
+
   @Test
   public void testRunWithSetupArgument() {
     String[] args = {"setup"};
@@ -66,6 +83,23 @@ public class IndividualProjectApplicationTest {
     }
   }
 
+  @Test
+  public void testRunWithImportArgument(@TempDir Path tempDir) throws Exception {
+    Path rows = tempDir.resolve("catalog.csv");
+    Files.writeString(rows, "department,COMS,Luca Carloni,2700\n"
+        + "course,COMS,1004,Adam Cannon,417 IAB,11:40-12:55,400,249\n");
+    String[] args = {"import", rows.toString()};
+    try (var mockDatabaseConstructor = Mockito.mockConstruction(MyFileDatabase.class)) {
+      app.run(args);
+      var instances = mockDatabaseConstructor.constructed();
+      assertFalse(instances.isEmpty(), "MyFileDatabase should have been instantiated.");
+      verify(instances.get(0), times(1)).setMapping(captor.capture());
+      verify(instances.get(0), times(1)).saveContentsToFile();
+      assertTrue(captor.getValue().get("COMS").getCourseSelection().containsKey("1004"),
+              "The imported rows should be set as the mapping.");
+    }
+  }
+
   @Test
   public void testOverrideDatabase() {
     IndividualProjectApplication.overrideDatabase(mockDatabase);
@@ -0,0 +1,267 @@
+package dev.coms4156.project.individualproject;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Unit tests for the {@link MutationLog} class.
+ */
+public class MutationLogTest {
+
+  @TempDir
+  Path tempDir;
+
+  private Path logPath;
+  private MutationLog mutationLog;
+
+  /**
+   * Set up an empty log in a temporary directory.
+   */
+  @BeforeEach
+  public void setUp() {
+    logPath = tempDir.resolve("data.txt.wal");
+    mutationLog = new MutationLog(logPath);
+  }
+
+  @AfterEach
+  public void tearDown() throws IOException {
+    mutationLog.close();
+  }
+
+  @Test
+  public void testAppendAndReplay() throws IOException {
+    mutationLog.append(Mutation.enrollmentCount("COMS", "1004", 250));
+    mutationLog.append(Mutation.courseLocation("COMS", "1004", "501 NWC"));
+    mutationLog.append(Mutation.majorCount("COMS", 2701));
+    mutationLog.close();
+
+    List<Mutation> replayed = new ArrayList<>();
+    assertEquals(3, new MutationLog(logPath).replay(replayed::add),
+            "Every appended mutation should be replayed.");
+    assertEquals(Mutation.Type.COURSE_LOCATION, replayed.get(1).getType());
+    assertEquals("501 NWC", replayed.get(1).getStringValue());
+    assertEquals(2701, replayed.get(2).getIntValue());
+  }
+
+  @Test
+  public void testReplayDiscardsTornRecord() throws IOException {
+    mutationLog.append(Mutation.enrollmentCount("COMS", "1004", 250));
+    mutationLog.append(Mutation.enrollmentCount("COMS", "1004", 251));
+    long intactSize = mutationLog.size();
+    mutationLog.close();
+
+    try (FileChannel out = FileChannel.open(logPath, StandardOpenOption.WRITE)) {
+      out.truncate(intactSize - 3);
+    }
+
+    List<Mutation> replayed = new ArrayList<>();
+    assertEquals(1, new MutationLog(logPath).replay(replayed::add),
+            "Only the intact record should be replayed.");
+    assertEquals(250, replayed.get(0).getIntValue());
+    assertTrue(Files.size(logPath) < intactSize - 3, "The torn record should be truncated.");
+  }
+
+  @Test
+  public void testReplayStopsAtCorruptedChecksum() throws IOException {
+    mutationLog.append(Mutation.courseTime("COMS", "1004", "10:10-11:25"));
+    mutationLog.close();
+
+    byte[] bytes = Files.readAllBytes(logPath);
+    bytes[bytes.length - 1] ^= 0x1;
+    Files.write(logPath, bytes);
+
+    assertEquals(0, new MutationLog(logPath).replay(mutation -> { }),
+            "A record with a bad checksum should not be replayed.");
+  }
+
+  @Test
+  public void testConcurrentAppendsShareCommits() throws Exception {
+    mutationLog.setGroupCommit(64, 2000);
+    ExecutorService pool = Executors.newFixedThreadPool(16);
+    List<Future<?>> futures = new ArrayList<>();
+    for (int i = 0; i < 256; i++) {
+      int count = i;
+      futures.add(pool.submit(() -> {
+        mutationLog.append(Mutation.enrollmentCount("COMS", "1004", count));
+        return null;
+      }));
+    }
+    for (Future<?> future : futures) {
+      future.get();
+    }
+    pool.shutdown();
+
+    assertEquals(256, mutationLog.getRecordsCommitted(), "Every record should be committed.");
+    assertTrue(mutationLog.getBatchesCommitted() < 256,
+            "Concurrent records should be grouped into fewer forced writes.");
+    mutationLog.close();
+    assertEquals(256, new MutationLog(logPath).replay(mutation -> { }),
+            "Every committed record should be replayed.");
+  }
+
+  @Test
+  public void testReset() throws IOException {
+    mutationLog.append(Mutation.majorCount("ECON", 2346));
+    mutationLog.reset();
+    assertEquals(0, mutationLog.size(), "The log should be empty after a reset.");
+    mutationLog.close();
+  }
+
+  @Test
+  public void testTruncatePrefixKeepsLaterRecords() throws IOException {
+    mutationLog.append(Mutation.enrollmentCount("COMS", "1004", 250));
+    long mark = mutationLog.size();
+    mutationLog.append(Mutation.enrollmentCount("COMS", "1004", 251));
+    mutationLog.truncatePrefix(mark);
+    mutationLog.append(Mutation.enrollmentCount("COMS", "1004", 252));
+    mutationLog.close();
+
+    List<Mutation> replayed = new ArrayList<>();
+    assertEquals(2, new MutationLog(logPath).replay(replayed::add),
+            "Only records after the mark should remain.");
+    assertEquals(251, replayed.get(0).getIntValue());
+    assertEquals(252, replayed.get(1).getIntValue());
+  }
+
+  @Test
+  public void testEnqueueDoesNotWaitForDiskLock() throws Exception {
+    ExecutorService executor = Executors.newSingleThreadExecutor();
+    try {
+      Future<?> queued;
+      synchronized (mutationLog) {
+        queued = executor.submit(() -> {
+          mutationLog.enqueue(Mutation.majorCount("COMS", 2701));
+          return mutationLog.size();
+        });
+        queued.get(5, TimeUnit.SECONDS);
+      }
+      mutationLog.append(Mutation.majorCount("COMS", 2702));
+      assertEquals(2, mutationLog.getRecordsCommitted(),
+              "Both records should be committed once the lock is released.");
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  @Test
+  public void testApplyIsIdempotent() {
+    HashMap<String, Course> courses = new HashMap<>();
+    courses.put("1004", new Course("Adam Cannon", "417 IAB", "11:40-12:55", 400));
+    HashMap<String, Department> mapping = new HashMap<>();
+    mapping.put("COMS", new Department("COMS", courses, "Luca Carloni", 2700));
+
+    Mutation mutation = Mutation.enrollmentCount("COMS", "1004", 300);
+    assertTrue(mutation.applyTo(mapping));
+    assertTrue(mutation.applyTo(mapping));
+    assertEquals(300, courses.get("1004").getEnrolledStudentCount(),
+            "Applying a mutation twice should leave the same value.");
+    assertFalse(Mutation.enrollmentCount("COMS", "9999", 1).applyTo(mapping),
+            "A mutation for a missing course should not apply.");
+  }
+
+  @Test
+  @Tag("benchmark")
+  public void testAppendCostAgainstFullRewrite() throws Exception {
+    HashMap<String, Department> mapping = catalog(100, 100);
+    Course course = mapping.get("D0").getCourseSelection().get("1000");
+    Path dataPath = tempDir.resolve("data.txt");
+
+    int appends = 1000;
+    long logged = Benchmarks.measure("durable enrollment by forced log append", appends, () -> {
+      mutationLog.reset();
+      for (int i = 0; i < appends; i++) {
+        mutationLog.append(Mutation.enrollmentCount("D0", "1000", i));
+      }
+      return mutationLog.replay(mutation -> { });
+    });
+
+    int rewrites = 20;
+    long rewritten = Benchmarks.measure("durable enrollment by rewriting 10k courses", rewrites,
+        1, 3, () -> {
+          for (int i = 0; i < rewrites; i++) {
+            course.setEnrolledStudentCount(i);
+            try (FileChannel out = FileChannel.open(dataPath, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+              ObjectOutputStream objects = new ObjectOutputStream(Channels.newOutputStream(out));
+              objects.writeObject(mapping);
+              objects.flush();
+              out.force(true);
+            }
+          }
+          return rewrites;
+        });
+    assertEquals(appends, logged, "Every appended record should be replayed.");
+    assertEquals(rewrites, rewritten);
+    Benchmarks.report("bytes per durable enrollment", mutationLog.size() / appends
+        + " appended, " + Files.size(dataPath) + " rewritten");
+  }
+
+  @Test
+  @Tag("benchmark")
+  public void testGroupCommitThroughputByThreads() throws Exception {
+    int appends = 1024;
+    for (int threads : new int[] {1, 2, 4, 8, 16}) {
+      for (int batchSize : new int[] {1, MutationLog.DEFAULT_MAX_BATCH_SIZE}) {
+        mutationLog.setGroupCommit(batchSize, MutationLog.DEFAULT_MAX_WAIT_MICROS);
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+          long committed = Benchmarks.measure("commits with " + threads + " threads, batches of "
+              + batchSize, appends, 1, 3, () -> {
+                long before = mutationLog.getRecordsCommitted();
+                List<Future<?>> futures = new ArrayList<>();
+                for (int t = 0; t < threads; t++) {
+                  futures.add(pool.submit(() -> {
+                    for (int i = 0; i < appends / threads; i++) {
+                      mutationLog.append(Mutation.enrollmentCount("COMS", "1004", i));
+                    }
+                    return null;
+                  }));
+                }
+                for (Future<?> future : futures) {
+                  future.get();
+                }
+                return mutationLog.getRecordsCommitted() - before;
+              });
+          assertEquals(appends, committed, "Every record should be committed.");
+        } finally {
+          pool.shutdown();
+        }
+        mutationLog.reset();
+      }
+    }
+  }
+
+  private static HashMap<String, Department> catalog(int departments, int coursesPerDepartment) {
+    HashMap<String, Department> mapping = new HashMap<>();
+    for (int d = 0; d < departments; d++) {
+      HashMap<String, Course> courses = new HashMap<>();
+      for (int c = 0; c < coursesPerDepartment; c++) {
+        courses.put(Integer.toString(1000 + c), new Course("Instructor " + c,
+            "Room " + c, "10:10-11:25", 100));
+      }
+      mapping.put("D" + d, new Department("D" + d, courses, "Chair " + d, 100));
+    }
+    return mapping;
+  }
+}
@@ -2,24 +2,44 @@ package dev.coms4156.project.individualproject;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.io.Reader;
+import java.io.StringReader;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.HashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
 import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
 /**
  * Test class for MyFileDatabase.
  */
 public class MyFileDatabaseTest {
 
+  @TempDir
+  Path dataDir;
+
   private MyFileDatabase fileDatabase;
-  private String testFilePath = "./test-data.txt";
+  private String testFilePath;
 
   /**
    * Setup test database.
    */
   @BeforeEach
   public void setUp() {
+    testFilePath = dataDir.resolve("test-data.txt").toString();
     fileDatabase = new MyFileDatabase(1, testFilePath);
   }
 
@@ -62,6 +82,387 @@ public class MyFileDatabaseTest {
             "Instructor name should match.");
   }
 
+  @Test
+  public void testLegacySerializedFileMigrated(@TempDir Path tempDir) throws IOException {
+    Course testCourse = new Course("Test Instructor",
+            "Test Location", "10:00-11:00", 100);
+    HashMap<String, Course> courses = new HashMap<>();
+    courses.put("101", testCourse);
+    HashMap<String, Department> deptMap = new HashMap<>();
+    deptMap.put("TEST", new Department("TEST", courses, "Test Chair", 50));
+
+    String legacyPath = tempDir.resolve("legacy.txt").toString();
+    try (ObjectOutputStream out = new ObjectOutputStream(new FileOutputStream(legacyPath))) {
+      out.writeObject(deptMap);
+    }
+
+    MyFileDatabase legacyDatabase = new MyFileDatabase(0, legacyPath);
+    assertEquals("Test Chair",
+            legacyDatabase.getDepartmentMapping().get("TEST").getDepartmentChair(),
+            "Java-serialized files should still be readable.");
+    legacyDatabase.saveContentsToFile();
+    assertEquals(CatalogManifest.MAGIC, CatalogSnapshot.readMagic(Path.of(legacyPath)),
+            "Saving should migrate the file to the segmented snapshot format.");
+    assertEquals("Test Instructor", new MyFileDatabase(0, legacyPath).getDepartmentMapping()
+            .get("TEST").getCourseSelection().get("101").getInstructorName());
+  }
+
+  @Test
+  public void testSaveRewritesOnlyDirtyDepartments(@TempDir Path tempDir) {
+    HashMap<String, Department> deptMap = new HashMap<>();
+    for (int i = 0; i < 100; i++) {
+      HashMap<String, Course> courses = new HashMap<>();
+      for (int j = 0; j < 20; j++) {
+        courses.put(Integer.toString(101 + j),
+                new Course("Instructor " + j, "Location " + j, "10:00-11:00", 100));
+      }
+      deptMap.put("DEPT" + i, new Department("DEPT" + i, courses, "Test Chair", 50));
+    }
+    String segmentedPath = tempDir.resolve("segmented.txt").toString();
+    MyFileDatabase database = new MyFileDatabase(1, segmentedPath);
+    database.setMapping(deptMap);
+    database.saveContentsToFile();
+    long fullSaveBytes = database.getLastSnapshotBytes();
+
+    // Touch a single department
+    deptMap.get("DEPT7").getCourseSelection().get("101").enrollStudent();
+    database.saveContentsToFile();
+    assertTrue(database.getLastSnapshotBytes() * 10 < fullSaveBytes,
+            "Only the changed department segment should be rewritten.");
+
+    database.saveContentsToFile();
+    MyFileDatabase loadedDatabase = new MyFileDatabase(0, segmentedPath);
+    assertEquals(100, loadedDatabase.getDepartmentMapping().size(),
+            "Every department should be loaded from its segment.");
+    assertEquals(1, loadedDatabase.getDepartmentMapping().get("DEPT7").getCourseSelection()
+            .get("101").getEnrolledStudentCount(), "The rewritten segment should be loaded.");
+  }
+
+  @Test
+  @Tag("benchmark")
+  public void testCheckpointTouchingOnePercentOfDepartments(@TempDir Path tempDir)
+      throws Exception {
+    HashMap<String, Department> deptMap = catalog(1000, 100);
+    MyFileDatabase database = new MyFileDatabase(1, tempDir.resolve("dirty.txt").toString());
+    database.setMapping(deptMap);
+    database.saveContentsToFile();
+    final long fullSaveBytes = database.getLastSnapshotBytes();
+
+    long incrementalBytes = Benchmarks.measure("Checkpoint rewriting the 1% dirty departments",
+        1, () -> {
+          for (int i = 0; i < 10; i++) {
+            deptMap.get("D" + i * 100).getCourseSelection().get("1000").enrollStudent();
+          }
+          database.saveContentsToFile();
+          return database.getLastSnapshotBytes();
+        });
+    Path full = tempDir.resolve("full.txt");
+    long rewrittenBytes = Benchmarks.measure("Checkpoint rewriting every department", 1,
+        () -> CatalogSnapshot.write(deptMap, full));
+    database.close();
+    Benchmarks.report("Bytes per checkpoint touching 1% of 1000 departments", incrementalBytes
+        + " incremental, " + rewrittenBytes + " rewriting everything (" + fullSaveBytes
+        + " for the first segmented save)");
+  }
+
+  @Test
+  public void testSegmentsWrittenToConfiguredDirectory(@TempDir Path tempDir) throws IOException {
+    HashMap<String, Course> courses = new HashMap<>();
+    courses.put("101", new Course("Test Instructor", "Test Location", "10:00-11:00", 100));
+    HashMap<String, Department> deptMap = new HashMap<>();
+    deptMap.put("TEST", new Department("TEST", courses, "Test Chair", 50));
+    String filePath = tempDir.resolve("catalog.txt").toString();
+    Path segments = tempDir.resolve("segments");
+
+    MyFileDatabase database = new MyFileDatabase(1, filePath, MyFileDatabase.FILE_ENGINE,
+        segments.toString(), false, 0);
+    database.setMapping(deptMap);
+    database.saveContentsToFile();
+    try (Stream<Path> files = Files.list(tempDir)) {
+      assertTrue(files.noneMatch(file -> file.getFileName().toString().endsWith(".seg")),
+          "Segments should not be written next to the file.");
+    }
+    try (Stream<Path> files = Files.list(segments)) {
+      assertEquals(1, files.count());
+    }
+
+    // Segments written before the directory changed are still found
+    MyFileDatabase moved = new MyFileDatabase(0, filePath, MyFileDatabase.FILE_ENGINE,
+        tempDir.resolve("elsewhere").toString(), false, 0);
+    assertEquals("Test Chair", moved.getDepartmentMapping().get("TEST").getDepartmentChair());
+  }
+
+  @Test
+  public void testLazyLoadReadsDepartmentsOnFirstAccess(@TempDir Path tempDir) {
+    HashMap<String, Department> deptMap = new HashMap<>();
+    for (int i = 0; i < 10; i++) {
+      HashMap<String, Course> courses = new HashMap<>();
+      courses.put("101", new Course("Instructor " + i, "Location", "10:00-11:00", 100));
+      deptMap.put("DEPT" + i, new Department("DEPT" + i, courses, "Test Chair", 50));
+    }
+    String lazyPath = tempDir.resolve("lazy.txt").toString();
+    MyFileDatabase database = new MyFileDatabase(1, lazyPath);
+    database.setMapping(deptMap);
+    database.saveContentsToFile();
+    database.close();
+
+    MyFileDatabase lazyDatabase = new MyFileDatabase(0, lazyPath, true);
+    LazyDepartmentMap mapping = (LazyDepartmentMap) lazyDatabase.getDepartmentMapping();
+    assertEquals(10, mapping.size(), "Every department should be indexed.");
+    assertTrue(mapping.containsKey("DEPT3"));
+    assertEquals(0, mapping.loadedCount(), "No department should be read at startup.");
+
+    mapping.get("DEPT3").getCourseSelection().get("101").enrollStudent();
+    assertEquals(1, mapping.loadedCount(), "Only the looked up department should be read.");
+
+    // Unread departments keep their segments without being read
+    lazyDatabase.saveContentsToFile();
+    assertEquals(1, mapping.loadedCount(), "Saving should not read other departments.");
+    lazyDatabase.close();
+
+    MyFileDatabase eagerDatabase = new MyFileDatabase(0, lazyPath);
+    assertEquals(10, eagerDatabase.getDepartmentMapping().size());
+    assertEquals(1, eagerDatabase.getDepartmentMapping().get("DEPT3").getCourseSelection()
+            .get("101").getEnrolledStudentCount(), "The changed department should be saved.");
+    assertEquals("Instructor 8", eagerDatabase.getDepartmentMapping().get("DEPT8")
+            .getCourseSelection().get("101").getInstructorName());
+    eagerDatabase.close();
+  }
+
+  @Test
+  @Tag("benchmark")
+  public void testFirstRequestWithLazyAndEagerLoading(@TempDir Path tempDir) throws Exception {
+    String path = tempDir.resolve("startup.txt").toString();
+    MyFileDatabase database = new MyFileDatabase(1, path);
+    database.setMapping(catalog(1000, 100));
+    database.saveContentsToFile();
+    database.close();
+
+    for (boolean lazy : new boolean[] {false, true}) {
+      String loading = lazy ? "lazy" : "eager";
+      long enrolled = Benchmarks.measure("Startup to first lookup, " + loading
+          + " loading of 1000 departments", 1, () -> {
+            MyFileDatabase started = new MyFileDatabase(0, path, lazy);
+            long count = started.getCourse("D500", "1000").getEnrolledStudentCount();
+            started.close();
+            return count;
+          });
+      assertEquals(0, enrolled);
+
+      long before = heapUsed();
+      MyFileDatabase started = new MyFileDatabase(0, path, lazy);
+      started.getCourse("D500", "1000");
+      long resident = heapUsed() - before;
+      started.close();
+      Benchmarks.report("Heap after first lookup, " + loading + " loading",
+          resident / 1024 + " KB");
+    }
+  }
+
+  @Test
+  public void testMutationKeepsUnreadDepartmentsLazy(@TempDir Path tempDir) {
+    HashMap<String, Department> deptMap = new HashMap<>();
+    for (int i = 0; i < 10; i++) {
+      HashMap<String, Course> courses = new HashMap<>();
+      courses.put("101", new Course("Instructor " + i, "Location", "10:00-11:00", 100));
+      deptMap.put("DEPT" + i, new Department("DEPT" + i, courses, "Test Chair", 50));
+    }
+    String lazyPath = tempDir.resolve("lazy.txt").toString();
+    MyFileDatabase database = new MyFileDatabase(1, lazyPath);
+    database.setMapping(deptMap);
+    database.saveContentsToFile();
+    database.close();
+
+    MyFileDatabase lazyDatabase = new MyFileDatabase(0, lazyPath, true);
+    CatalogVersion before = lazyDatabase.getVersion();
+    lazyDatabase.logMutation(Mutation.courseLocation("DEPT3", "101", "New Location"));
+    CatalogVersion after = lazyDatabase.getVersion();
+
+    assertEquals(before.getNumber() + 1, after.getNumber());
+    LazyDepartmentMap mapping = (LazyDepartmentMap) after.getDepartments();
+    assertEquals(10, mapping.size(), "Every department should still be indexed.");
+    assertEquals(1, mapping.loadedCount(), "Only the changed department should be read.");
+    assertEquals("New Location", after.getDepartment("DEPT3").getCourseSelection().get("101")
+            .getCourseLocation());
+    assertEquals("Location", before.getDepartment("DEPT3").getCourseSelection().get("101")
+            .getCourseLocation(), "The earlier version should not change.");
+    lazyDatabase.close();
+  }
+
+  @Test
+  public void testVersionsShareDepartmentsReadLater(@TempDir Path tempDir) {
+    HashMap<String, Department> deptMap = new HashMap<>();
+    for (int i = 0; i < 10; i++) {
+      HashMap<String, Course> courses = new HashMap<>();
+      courses.put("101", new Course("Instructor " + i, "Location", "10:00-11:00", 100));
+      deptMap.put("DEPT" + i, new Department("DEPT" + i, courses, "Test Chair", 50));
+    }
+    String lazyPath = tempDir.resolve("lazy.txt").toString();
+    MyFileDatabase database = new MyFileDatabase(1, lazyPath);
+    database.setMapping(deptMap);
+    database.saveContentsToFile();
+    database.close();
+
+    MyFileDatabase lazyDatabase = new MyFileDatabase(0, lazyPath, true);
+    CatalogVersion before = lazyDatabase.getVersion();
+    lazyDatabase.logMutation(Mutation.courseLocation("DEPT5", "101", "New Location"));
+    CatalogVersion after = lazyDatabase.getVersion();
+
+    // DEPT3 was read by neither version when the second was published
+    Department later = after.getDepartment("DEPT3");
+    assertSame(later, before.getDepartment("DEPT3"),
+            "Both versions should see the department read once.");
+    later.getCourseSelection().get("101").enrollStudent();
+    assertEquals(1, before.getDepartment("DEPT3").getCourseSelection().get("101")
+            .getEnrolledStudentCount(), "An enrollment should be seen by every version.");
+    lazyDatabase.close();
+  }
+
+  @Test
+  public void testImportReadsRowsWithoutBlockingWrites(@TempDir Path tempDir) throws Exception {
+    HashMap<String, Course> courses = new HashMap<>();
+    courses.put("101", new Course("Instructor", "Location", "10:00-11:00", 100));
+    HashMap<String, Department> deptMap = new HashMap<>();
+    deptMap.put("TEST", new Department("TEST", courses, "Test Chair", 50));
+    MyFileDatabase database = new MyFileDatabase(1, tempDir.resolve("import.txt").toString());
+    database.setMapping(deptMap);
+
+    // The body publishes a mutation while it is being read, as another request would
+    ExecutorService writer = Executors.newSingleThreadExecutor();
+    Reader body = new StringReader("course,TEST,102,Instructor,Location,10:00-11:00,50,0\n") {
+      @Override
+      public int read(char[] buffer, int offset, int length) throws IOException {
+        try {
+          writer.submit(() -> database.logMutation(Mutation.majorCount("TEST", 51)))
+              .get(5, TimeUnit.SECONDS);
+        } catch (Exception e) {
+          throw new IOException("The write waited for the import", e);
+        }
+        return super.read(buffer, offset, length);
+      }
+    };
+    try {
+      database.importCatalog(new CatalogImporter(CatalogFormat.CSV), body);
+    } finally {
+      writer.shutdownNow();
+    }
+
+    Department imported = database.getDepartment("TEST");
+    assertEquals(51, imported.getNumberOfMajors(), "The write should not be lost.");
+    assertEquals(2, imported.getCourseSelection().size());
+    database.close();
+  }
+
+  @Test
+  public void testParallelLoadMatchesSequentialLoad(@TempDir Path tempDir) {
+    HashMap<String, Department> deptMap = new HashMap<>();
+    for (int i = 0; i < 50; i++) {
+      HashMap<String, Course> courses = new HashMap<>();
+      for (int j = 0; j < 5; j++) {
+        Course course = new Course("Instructor " + j, "Location " + i, "10:00-11:00", 100);
+        course.setEnrolledStudentCount(i + j);
+        courses.put(Integer.toString(101 + j), course);
+      }
+      deptMap.put("DEPT" + i, new Department("DEPT" + i, courses, "Chair " + i, i));
+    }
+    String parallelPath = tempDir.resolve("parallel.txt").toString();
+    MyFileDatabase database = new MyFileDatabase(1, parallelPath);
+    database.setMapping(deptMap);
+    database.saveContentsToFile();
+    database.close();
+
+    MyFileDatabase sequential = new MyFileDatabase(0, parallelPath, false, 1);
+    MyFileDatabase parallel = new MyFileDatabase(0, parallelPath, false, 4);
+    assertEquals(50, parallel.getDepartmentMapping().size(), "Every segment should be merged.");
+    for (String key : deptMap.keySet()) {
+      assertEquals(sequential.getDepartmentMapping().get(key).toString(),
+              parallel.getDepartmentMapping().get(key).toString());
+      assertEquals(deptMap.get(key).getNumberOfMajors(),
+              parallel.getDepartmentMapping().get(key).getNumberOfMajors());
+    }
+    sequential.close();
+    parallel.close();
+  }
+
+  @Test
+  @Tag("benchmark")
+  public void testStartupScalingWithLoadParallelism(@TempDir Path tempDir) throws Exception {
+    String path = tempDir.resolve("parallel.txt").toString();
+    MyFileDatabase database = new MyFileDatabase(1, path);
+    database.setMapping(catalog(1000, 100));
+    database.saveContentsToFile();
+    database.close();
+
+    // Past the core count too, so the curve shows the cost of oversubscribing small machines
+    int maxParallelism = Math.max(4, Runtime.getRuntime().availableProcessors());
+    for (int parallelism = 1; parallelism <= maxParallelism; parallelism *= 2) {
+      int threads = parallelism;
+      long departments = Benchmarks.measure("Startup loading 1000 departments, parallelism "
+          + threads, 1000, () -> {
+            MyFileDatabase started = new MyFileDatabase(0, path, false, threads);
+            long loaded = started.getDepartmentMapping().size();
+            started.close();
+            return loaded;
+          });
+      assertEquals(1000, departments);
+    }
+  }
+
+  @Test
+  public void testLoggedMutationsReplayedOnStartup() {
+    Course testCourse = new Course("Test Instructor",
+            "Test Location", "10:00-11:00", 100);
+    HashMap<String, Course> courses = new HashMap<>();
+    courses.put("101", testCourse);
+    HashMap<String, Department> deptMap = new HashMap<>();
+    deptMap.put("TEST", new Department("TEST", courses, "Test Chair", 50));
+    fileDatabase.setMapping(deptMap);
+    fileDatabase.saveContentsToFile();
+
+    // Mutations after the save only reach the log
+    testCourse.setEnrolledStudentCount(42);
+    fileDatabase.logMutation(Mutation.enrollmentCount("TEST", "101", 42));
+    fileDatabase.logMutation(Mutation.courseLocation("TEST", "101", "New Location"));
+    fileDatabase.close();
+
+    MyFileDatabase loadedDatabase = new MyFileDatabase(0, testFilePath);
+    Course loadedCourse = loadedDatabase.getDepartmentMapping().get("TEST")
+            .getCourseSelection().get("101");
+    assertEquals(42, loadedCourse.getEnrolledStudentCount(),
+            "Logged enrollment count should be replayed.");
+    assertEquals("New Location", loadedCourse.getCourseLocation(),
+            "Logged location should be replayed.");
+    loadedDatabase.saveContentsToFile();
+  }
+
+  @Test
+  public void testConfirmedHoldSurvivesCheckpointAfterReassign(@TempDir Path tempDir) {
+    HashMap<String, Course> courses = new HashMap<>();
+    courses.put("101", new Course("Test Instructor", "Test Location", "10:00-11:00", 100));
+    HashMap<String, Department> deptMap = new HashMap<>();
+    deptMap.put("TEST", new Department("TEST", courses, "Test Chair", 50));
+    String path = tempDir.resolve("holds.txt").toString();
+    MyFileDatabase database = new MyFileDatabase(1, path);
+    database.setMapping(deptMap);
+    database.saveContentsToFile();
+
+    // The hold keeps the version of the course it was taken on
+    String holdId = database.getSeatHolds().hold("TEST", "101",
+            database.getCourse("TEST", "101"), System.currentTimeMillis() + 60_000);
+    database.logMutation(Mutation.courseInstructor("TEST", "101", "New Instructor"));
+    database.saveContentsToFile();
+    assertTrue(database.getSeatHolds().confirm(holdId));
+    database.saveContentsToFile();
+    database.close();
+
+    MyFileDatabase loadedDatabase = new MyFileDatabase(0, path);
+    Course loadedCourse = loadedDatabase.getCourse("TEST", "101");
+    assertEquals(1, loadedCourse.getEnrolledStudentCount(),
+            "The confirmed enrollment should be saved by the checkpoint.");
+    assertEquals("New Instructor", loadedCourse.getInstructorName());
+    loadedDatabase.close();
+  }
+
   @Test
   public void testToString() {
     Course testCourse = new Course("Test Instructor",
@@ -82,4 +483,28 @@ public class MyFileDatabaseTest {
     assertEquals(expected, fileDatabase.toString(),
             "The string representation should match.");
   }
-}
\ No newline at end of file
+
+  /**
+   * Builds a catalog of the given number of departments, each offering the given number of
+   * courses.
+   */
+  private static HashMap<String, Department> catalog(int departments, int coursesPerDepartment) {
+    HashMap<String, Department> deptMap = new HashMap<>();
+    for (int i = 0; i < departments; i++) {
+      HashMap<String, Course> courses = new HashMap<>();
+      for (int j = 0; j < coursesPerDepartment; j++) {
+        courses.put(Integer.toString(1000 + j),
+                new Course("Instructor " + j, "Location " + j, "10:00-11:00", 100));
+      }
+      deptMap.put("D" + i, new Department("D" + i, courses, "Chair " + i, 50));
+    }
+    return deptMap;
+  }
+
+  private static long heapUsed() {
+    for (int i = 0; i < 3; i++) {
+      System.gc();
+    }
+    return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+  }
+}
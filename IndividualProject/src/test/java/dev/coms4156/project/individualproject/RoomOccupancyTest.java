@@ -0,0 +1,145 @@
+package dev.coms4156.project.individualproject;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test class for RoomOccupancy.
+ */
+public class RoomOccupancyTest {
+
+  private static final String[] DAYS = {"MW", "TR", "F", "MWF"};
+
+  private MyFileDatabase database;
+
+  /**
+   * Set up an in-memory database holding two departments.
+   */
+  @BeforeEach
+  public void setUp() {
+    HashMap<String, Course> comsCourses = new HashMap<>();
+    comsCourses.put("1004", new Course("Adam Cannon", "417 IAB", "11:40-12:55", 400));
+    comsCourses.put("3157", new Course("Jae Lee", "301 URIS", "MW 4:10-5:25", 400));
+    comsCourses.put("4156", new Course("Gail Kaiser", "501 NWC", "TR 2:40-3:55", 120));
+    comsCourses.put("3827", new Course("Daniel Rubenstein", "207 Math", "TBA", 300));
+    HashMap<String, Course> econCourses = new HashMap<>();
+    econCourses.put("1105", new Course("Waseem Noor", "309 HAV", "TR 1:10-2:43", 210));
+    HashMap<String, Department> mapping = new HashMap<>();
+    mapping.put("COMS", new Department("COMS", comsCourses, "Luca Carloni", 2700));
+    mapping.put("ECON", new Department("ECON", econCourses, "Michael Woodford", 2345));
+    database = new MyFileDatabase(new InMemoryCatalogStore());
+    database.setMapping(mapping);
+  }
+
+  private List<String> free(String time) {
+    return database.findFreeRooms(TimeSlot.parse(time));
+  }
+
+  @Test
+  public void testFindsFreeRooms() {
+    assertEquals(List.of("207 Math", "301 URIS", "417 IAB"), free("TR 2:40-3:55"),
+        "A time ending in a five-minute period should occupy all of it.");
+    assertEquals(List.of("207 Math", "309 HAV", "501 NWC"), free("W 12:00-4:30"),
+        "A slot naming no days should be in use every day.");
+    assertEquals(List.of("207 Math", "301 URIS", "309 HAV", "417 IAB", "501 NWC"),
+        free("12:55-13:10"),
+        "Slots meeting end to start should not overlap.");
+    assertEquals(List.of("207 Math"), free("10:00-17:00"));
+  }
+
+  @Test
+  public void testBitmapsFollowMutations() {
+    free("TR 2:40-3:55");
+    database.logMutation(Mutation.courseTime("COMS", "4156", "MW 8:40-9:55"));
+    database.logMutation(Mutation.courseLocation("COMS", "1004", "833 MUDD"));
+    assertEquals(List.of("207 Math", "301 URIS", "309 HAV", "501 NWC", "833 MUDD"),
+        free("TR 2:45-3:55"));
+    assertEquals(List.of("207 Math", "301 URIS", "309 HAV"), free("MW 9:00-12:00"),
+        "A room should be forgotten once its last course leaves.");
+
+    database.logMutation(Mutation.courseLocation("COMS", "3827", "501 nwc"));
+    database.logMutation(Mutation.courseTime("COMS", "3827", "F 9:00-10:00"));
+    assertEquals(List.of("301 URIS", "309 HAV", "501 NWC", "833 MUDD"), free("F 8:00-9:00"));
+    assertEquals(List.of("301 URIS", "309 HAV", "833 MUDD"), free("F 9:30-11:00"));
+  }
+
+  @Test
+  public void testReplacingCatalogRebuildsBitmaps() {
+    free("TR 2:40-3:55");
+    HashMap<String, Course> physCourses = new HashMap<>();
+    physCourses.put("1201", new Course("Brian Cole", "428 PUP", "MW 4:00-5:00", 90));
+    HashMap<String, Department> mapping = new HashMap<>();
+    mapping.put("PHYS", new Department("PHYS", physCourses, "Brian Cole", 80));
+    database.setMapping(mapping);
+
+    assertEquals(List.of("428 PUP"), free("TR 2:40-3:55"));
+    assertTrue(free("M 4:30-4:35").isEmpty());
+  }
+
+  @Test
+  @Tag("benchmark")
+  public void testFreeRoomsAtThousandsOfRooms() throws Exception {
+    Random random = new Random(4156);
+    HashMap<String, Department> mapping = new HashMap<>();
+    for (int d = 0; d < 100; d++) {
+      HashMap<String, Course> courses = new HashMap<>();
+      for (int c = 0; c < 500; c++) {
+        int start = 8 * 60 + random.nextInt(72) * 10;
+        courses.put(Integer.toString(1000 + c), new Course("Instructor " + c,
+            "Room " + random.nextInt(5000), DAYS[random.nextInt(DAYS.length)] + " "
+            + start / 60 + ":" + String.format("%02d", start % 60) + "-"
+            + (start + 75) / 60 + ":" + String.format("%02d", (start + 75) % 60), 100));
+      }
+      mapping.put("D" + d, new Department("D" + d, courses, "Chair " + d, 100));
+    }
+    database.setMapping(mapping);
+    String[] times = {"TR 14:40-15:55", "MW 10:10-11:25", "F 9:00-12:00", "M 18:00-19:00"};
+    final List<TimeSlot> slots = new ArrayList<>();
+    for (String time : times) {
+      slots.add(TimeSlot.parse(time));
+    }
+
+    int queries = 200;
+    long scanned = Benchmarks.measure("free rooms by catalog scan", queries, () -> {
+      long rooms = 0;
+      for (int i = 0; i < queries; i++) {
+        rooms += scanFree(slots.get(i % slots.size())).size();
+      }
+      return rooms;
+    });
+    long found = Benchmarks.measure("free rooms by occupancy index", queries, () -> {
+      long rooms = 0;
+      for (int i = 0; i < queries; i++) {
+        rooms += database.findFreeRooms(slots.get(i % slots.size())).size();
+      }
+      return rooms;
+    });
+    assertEquals(scanned, found);
+  }
+
+  private List<String> scanFree(TimeSlot slot) {
+    Map<String, Boolean> rooms = new HashMap<>();
+    for (Department department : database.getDepartmentMapping().values()) {
+      for (Course course : department.getCourseSelection().values()) {
+        boolean used = course.getTimeSlot().overlaps(slot);
+        rooms.merge(course.getCourseLocation(), used, Boolean::logicalOr);
+      }
+    }
+    List<String> free = new ArrayList<>();
+    for (Map.Entry<String, Boolean> room : rooms.entrySet()) {
+      if (!room.getValue()) {
+        free.add(room.getKey());
+      }
+    }
+    return free;
+  }
+}
@@ -0,0 +1,266 @@
+package dev.coms4156.project.individualproject;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test class for RoomSchedule.
+ */
+public class RoomScheduleTest {
+
+  private static final String[] DAYS = {"MW", "TR", "F", ""};
+
+  private MyFileDatabase database;
+
+  /**
+   * Set up an in-memory database holding two departments.
+   */
+  @BeforeEach
+  public void setUp() {
+    HashMap<String, Course> comsCourses = new HashMap<>();
+    comsCourses.put("1004", new Course("Adam Cannon", "417 IAB", "11:40-12:55", 400));
+    comsCourses.put("3157", new Course("Jae Lee", "417 IAB", "MW 4:10-5:25", 400));
+    comsCourses.put("4156", new Course("Gail Kaiser", "501 NWC", "10:10-11:25", 120));
+    comsCourses.put("3827", new Course("Daniel Rubenstein", "417 IAB", "TBA", 300));
+    HashMap<String, Course> econCourses = new HashMap<>();
+    econCourses.put("1105", new Course("Waseem Noor", "417 iab", "TR 4:10-5:25", 210));
+    HashMap<String, Department> mapping = new HashMap<>();
+    mapping.put("COMS", new Department("COMS", comsCourses, "Luca Carloni", 2700));
+    mapping.put("ECON", new Department("ECON", econCourses, "Michael Woodford", 2345));
+    database = new MyFileDatabase(new InMemoryCatalogStore());
+    database.setMapping(mapping);
+  }
+
+  @Test
+  public void testFindsConflictsOfProposedChanges() {
+    assertTrue(database.findRoomConflicts("COMS", "3157", null, null).isEmpty(),
+        "Courses on different days should not conflict.");
+    assertEquals(List.of("COMS 1004"),
+        database.findRoomConflicts("COMS", "4156", "417 IAB", "12:00-13:00"));
+    assertTrue(database.findRoomConflicts("COMS", "4156", "417 IAB", null).isEmpty(),
+        "Slots meeting end to start should not conflict.");
+    assertEquals(List.of("COMS 1004", "COMS 3157", "ECON 1105"),
+        database.findRoomConflicts("COMS", "4156", " 417 IAB ", "12:00-16:30"),
+        "A slot naming no days should meet every other slot.");
+    assertTrue(database.findRoomConflicts("COMS", "4156", "417 IAB", "TBA").isEmpty());
+    assertTrue(database.findRoomConflicts("COMS", "9999", "417 IAB", null).isEmpty());
+  }
+
+  @Test
+  public void testMoveCourseRefusesOrWarnsOfConflicts() {
+    assertTrue(database.moveCourse("COMS", "4156", "417 IAB", null, true).isEmpty());
+    assertEquals("417 IAB", database.getCourse("COMS", "4156").getCourseLocation());
+
+    assertEquals(List.of("COMS 1004"),
+        database.moveCourse("COMS", "4156", null, "12:00-13:00", true));
+    assertEquals("10:10-11:25", database.getCourse("COMS", "4156").getCourseTimeSlot(),
+        "A refused move should leave the course where it was.");
+
+    assertEquals(List.of("COMS 1004"),
+        database.moveCourse("COMS", "4156", null, "12:00-13:00", false));
+    assertEquals("12:00-13:00", database.getCourse("COMS", "4156").getCourseTimeSlot(),
+        "A conflicting move should be made with a warning.");
+  }
+
+  @Test
+  public void testConcurrentMovesAcrossDepartmentsBookRoomOnce() throws Exception {
+    database.logMutation(Mutation.courseTime("ECON", "1105", "10:10-11:25"));
+    ExecutorService executor = Executors.newFixedThreadPool(2);
+    try {
+      for (int round = 0; round < 50; round++) {
+        String room = "Room " + round;
+        Future<List<String>> coms = executor.submit(
+            () -> database.moveCourse("COMS", "4156", room, null, true));
+        Future<List<String>> econ = executor.submit(
+            () -> database.moveCourse("ECON", "1105", room, null, true));
+        assertEquals(1, (coms.get().isEmpty() ? 1 : 0) + (econ.get().isEmpty() ? 1 : 0),
+            "Only one of the two courses should be booked into the room.");
+        assertTrue(database.findAllRoomConflicts().isEmpty());
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  @Test
+  public void testScheduleFollowsMutations() {
+    database.findRoomConflicts("COMS", "3157", null, null);
+    database.logMutation(Mutation.courseTime("ECON", "1105", "MW 5:00-6:15"));
+    assertEquals(List.of("ECON 1105"), database.findRoomConflicts("COMS", "3157", null, null));
+
+    database.logMutation(Mutation.courseLocation("ECON", "1105", "309 HAV"));
+    assertTrue(database.findRoomConflicts("COMS", "3157", null, null).isEmpty());
+    assertEquals(List.of("ECON 1105"),
+        database.findRoomConflicts("COMS", "3157", "309 HAV", null));
+
+    database.logMutation(Mutation.courseInstructor("ECON", "1105", "Tamrat Gashaw"));
+    assertEquals(List.of("ECON 1105"),
+        database.findRoomConflicts("COMS", "3157", "309 HAV", null),
+        "Changes to other attributes should keep the booking.");
+  }
+
+  @Test
+  public void testReplacingCatalogRebuildsSchedule() {
+    database.findRoomConflicts("COMS", "3157", null, null);
+    HashMap<String, Course> physCourses = new HashMap<>();
+    physCourses.put("1201", new Course("Brian Cole", "417 IAB", "MW 4:00-5:00", 90));
+    physCourses.put("1202", new Course("Brian Cole", "417 IAB", "MW 8:40-9:55", 90));
+    HashMap<String, Department> mapping = new HashMap<>();
+    mapping.put("PHYS", new Department("PHYS", physCourses, "Brian Cole", 80));
+    database.setMapping(mapping);
+
+    assertTrue(database.findRoomConflicts("PHYS", "1202", null, null).isEmpty());
+    assertEquals(List.of("PHYS 1201"),
+        database.findRoomConflicts("PHYS", "1202", null, "MW 4:30-5:45"));
+  }
+
+  @Test
+  public void testSweepListsEveryConflict() {
+    assertEquals(0, database.findAllRoomConflicts().size(),
+        "Courses meeting on different days or one after the other should not conflict.");
+
+    database.logMutation(Mutation.courseTime("COMS", "1004", "12:00-16:30"));
+    database.logMutation(Mutation.courseLocation("COMS", "4156", "417 IAB"));
+    List<String> conflicts = new ArrayList<>();
+    for (RoomSchedule.Conflict conflict : database.findAllRoomConflicts()) {
+      conflicts.add(conflict.toString());
+    }
+    assertEquals(List.of("417 IAB: COMS 1004, COMS 3157", "417 IAB: COMS 1004, ECON 1105"),
+        conflicts);
+  }
+
+  @Test
+  public void testTreeAgainstScanUnderChurn() {
+    Random random = new Random(4156);
+    HashMap<String, Course> courses = new HashMap<>();
+    for (int c = 0; c < 500; c++) {
+      courses.put(Integer.toString(1000 + c),
+          new Course("Instructor", "Room " + c % 3, randomTime(random), 100));
+    }
+    HashMap<String, Department> mapping = new HashMap<>();
+    mapping.put("COMS", new Department("COMS", courses, "Chair", 100));
+    database.setMapping(mapping);
+    database.findRoomConflicts("COMS", "1000", null, null);
+
+    for (int i = 0; i < 2000; i++) {
+      String courseId = Integer.toString(1000 + random.nextInt(500));
+      if (random.nextBoolean()) {
+        database.logMutation(Mutation.courseTime("COMS", courseId, randomTime(random)));
+      } else {
+        database.logMutation(Mutation.courseLocation("COMS", courseId,
+            "Room " + random.nextInt(3)));
+      }
+      if (i % 20 == 0) {
+        String location = "Room " + random.nextInt(3);
+        String time = randomTime(random);
+        assertEquals(scan(courseId, location, TimeSlot.parse(time)),
+            database.findRoomConflicts("COMS", courseId, location, time));
+      }
+    }
+  }
+
+  @Test
+  @Tag("benchmark")
+  public void testSweepAtHundredThousandCourses() throws Exception {
+    Random random = new Random(3157);
+    HashMap<String, Department> mapping = new HashMap<>();
+    for (int d = 0; d < 100; d++) {
+      HashMap<String, Course> courses = new HashMap<>();
+      for (int c = 0; c < 1000; c++) {
+        courses.put(Integer.toString(1000 + c), new Course("Instructor " + c,
+            "Room " + random.nextInt(10_000), randomTime(random), 100));
+      }
+      mapping.put("D" + d, new Department("D" + d, courses, "Chair " + d, 100));
+    }
+    database.setMapping(mapping);
+
+    long swept = Benchmarks.measure("Room conflict sweep, 100k courses", 1, () ->
+        database.findAllRoomConflicts().size());
+
+    long paired = Benchmarks.measure("Room conflicts by comparing every pair, 100k courses", 1,
+        () -> {
+          Map<String, List<TimeSlot>> rooms = new HashMap<>();
+          for (Department department : database.getDepartmentMapping().values()) {
+            for (Course course : department.getCourseSelection().values()) {
+              rooms.computeIfAbsent(course.getCourseLocation(), k -> new ArrayList<>())
+                  .add(course.getTimeSlot());
+            }
+          }
+          long overlapping = 0;
+          for (List<TimeSlot> slots : rooms.values()) {
+            for (int i = 0; i < slots.size(); i++) {
+              for (int j = i + 1; j < slots.size(); j++) {
+                overlapping += slots.get(i).overlaps(slots.get(j)) ? 1 : 0;
+              }
+            }
+          }
+          return overlapping;
+        });
+    assertEquals(paired, swept);
+
+    // The check made before each move, against scanning the catalog for the room
+    final int checks = 200;
+    long indexed = Benchmarks.measure("Room conflict check for one move, 100k courses", checks,
+        () -> {
+          long conflicts = 0;
+          for (int i = 0; i < checks; i++) {
+            conflicts += database.findRoomConflicts("D" + i % 100, Integer.toString(1000 + i),
+                null, null).size();
+          }
+          return conflicts;
+        });
+    long scanned = Benchmarks.measure("Room conflict check scanning 100k courses", checks, () -> {
+      long conflicts = 0;
+      for (int i = 0; i < checks; i++) {
+        Course moved = database.getCourse("D" + i % 100, Integer.toString(1000 + i));
+        for (Map.Entry<String, Department> department
+            : database.getDepartmentMapping().entrySet()) {
+          for (Map.Entry<String, Course> entry
+              : department.getValue().getCourseSelection().entrySet()) {
+            Course course = entry.getValue();
+            if (course != moved && course.getCourseLocation().equals(moved.getCourseLocation())
+                && course.getTimeSlot().overlaps(moved.getTimeSlot())) {
+              conflicts++;
+            }
+          }
+        }
+      }
+      return conflicts;
+    });
+    assertEquals(scanned, indexed);
+  }
+
+  private List<String> scan(String courseId, String location, TimeSlot slot) {
+    List<String> conflicts = new ArrayList<>();
+    for (Map.Entry<String, Course> entry
+        : database.getDepartment("COMS").getCourseSelection().entrySet()) {
+      Course course = entry.getValue();
+      if (!entry.getKey().equals(courseId) && course.getCourseLocation().equals(location)
+          && course.getTimeSlot().overlaps(slot)) {
+        conflicts.add("COMS " + entry.getKey());
+      }
+    }
+    conflicts.sort(null);
+    return conflicts;
+  }
+
+  private static String randomTime(Random random) {
+    int start = 8 * 60 + random.nextInt(73) * 10;
+    int end = start + 50 + random.nextInt(4) * 25;
+    return (DAYS[random.nextInt(DAYS.length)] + " " + start / 60 + ":"
+        + String.format("%02d", start % 60) + "-" + end / 60 + ":"
+        + String.format("%02d", end % 60)).trim();
+  }
+}
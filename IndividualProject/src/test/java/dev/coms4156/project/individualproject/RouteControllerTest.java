@@ -3,17 +3,31 @@ package dev.coms4156.project.individualproject;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.spy;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
 import java.util.HashMap;
+import java.util.List;
+import java.util.TreeMap;
 import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
 import org.junit.jupiter.api.Test;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 /**
  * Test class for RouteController.
@@ -38,6 +52,32 @@ public class RouteControllerTest {
     // Set up the mock department mapping
     mockDepartmentMapping = new HashMap<>();
     when(mockDatabase.getDepartmentMapping()).thenReturn(mockDepartmentMapping);
+
+    // Look departments and courses up in whichever mapping the test has stubbed
+    when(mockDatabase.getVersion()).thenAnswer(invocation ->
+            new CatalogVersion(0, mockDatabase.getDepartmentMapping()));
+    when(mockDatabase.getDepartment(anyString())).thenAnswer(invocation ->
+            mockDatabase.getDepartmentMapping().get(invocation.getArgument(0)));
+    when(mockDatabase.getCourse(anyString(), anyString())).thenAnswer(invocation -> {
+      Department department = mockDatabase.getDepartment(invocation.getArgument(0));
+      return department != null
+              ? department.getCourseSelection().get(invocation.getArgument(1)) : null;
+    });
+    when(mockDatabase.getCourse(anyString(), anyInt())).thenAnswer(invocation ->
+            mockDatabase.getCourse(invocation.getArgument(0),
+                    Integer.toString(invocation.getArgument(1))));
+
+    // Hand out the stubbed objects themselves as drafts so tests can verify the changes made
+    when(mockDatabase.draftDepartment(anyString())).thenAnswer(invocation ->
+            mockDatabase.getDepartment(invocation.getArgument(0)));
+    when(mockDatabase.draftCourse(anyString(), anyString())).thenAnswer(invocation ->
+            mockDatabase.getCourse(invocation.getArgument(0), invocation.getArgument(1)));
+
+    // Run department changes on the calling thread
+    doAnswer(invocation -> {
+      invocation.<Runnable>getArgument(1).run();
+      return null;
+    }).when(mockDatabase).updateDepartment(anyString(), any(Runnable.class));
   }
 
 
@@ -66,7 +106,7 @@ public class RouteControllerTest {
   public void testRetrieveCourse_Valid() {
     // Create a mock course and department
     Course mockCourse = mock(Course.class);
-    when(mockCourse.dropStudent()).thenReturn(true);
+    when(mockCourse.dropStudent(null)).thenReturn(true);
     HashMap<String, Course> courseMap = new HashMap<>();
     courseMap.put("101", mockCourse);
     Department mockDept = new Department("COMS", courseMap,
@@ -146,6 +186,18 @@ public class RouteControllerTest {
     verify(mockDept, times(1)).addPersonToMajor();
   }
 
+  @Test
+  public void testAddMajorToDept_LogFailure() {
+    Department mockDept = mock(Department.class);
+    mockDepartmentMapping.put("COMS", mockDept);
+    doThrow(new UncheckedIOException(new IOException("Disk full")))
+            .when(mockDatabase).logMutation(any(Mutation.class));
+
+    ResponseEntity<?> response = routeController.addMajorToDept("COMS");
+    assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, response.getStatusCode(),
+            "A change that was not saved should not be reported as made.");
+  }
+
   @Test
   public void testAddMajorToDept_InvalidDepartment() {
     // Test adding a major to non-existent department
@@ -157,7 +209,7 @@ public class RouteControllerTest {
   public void testDropStudentFromCourse_ValidCourse() {
     // Create a mock course and department
     Course mockCourse = mock(Course.class);
-    when(mockCourse.dropStudent()).thenReturn(true);
+    when(mockCourse.dropStudent(null)).thenReturn(true);
     HashMap<String, Course> courseMap = new HashMap<>();
     courseMap.put("101", mockCourse);
     Department mockDept = new Department("COMS", courseMap,
@@ -165,9 +217,9 @@ public class RouteControllerTest {
     mockDepartmentMapping.put("COMS", mockDept);
 
     // Test dropping a student
-    ResponseEntity<?> response = routeController.dropStudent("COMS", 101);
+    ResponseEntity<?> response = routeController.dropStudent("COMS", 101, null);
     assertEquals(HttpStatus.OK, response.getStatusCode(), "Status should be OK.");
-    verify(mockCourse, times(1)).dropStudent();
+    verify(mockCourse, times(1)).dropStudent(null);
   }
 
   @Test
@@ -177,7 +229,7 @@ public class RouteControllerTest {
             "Adam Cannon", 3000);
     mockDepartmentMapping.put("COMS", mockDept);
 
-    ResponseEntity<?> response = routeController.dropStudent("COMS", 999);
+    ResponseEntity<?> response = routeController.dropStudent("COMS", 999, null);
     assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode(), "Status should be NOT FOUND.");
   }
 
@@ -195,7 +247,7 @@ public class RouteControllerTest {
             "Adam Cannon", 3000);
     mockDepartmentMapping.put("COMS", mockDept);
 
-    ResponseEntity<?> response = routeController.dropStudent("COMS", 101);
+    ResponseEntity<?> response = routeController.dropStudent("COMS", 101, null);
     assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode(), "Status should be NOT FOUND.");
   }
 
@@ -400,7 +452,227 @@ public class RouteControllerTest {
     ResponseEntity<?> response = routeController.changeCourseLocation("COMS",
             101, "New Location");
     assertEquals(HttpStatus.OK, response.getStatusCode(), "Status should be OK.");
-    verify(mockCourse, times(1)).reassignLocation("New Location");
+    verify(mockDatabase, times(1)).moveCourse("COMS", "101", "New Location", null, false);
+  }
+
+  @Test
+  public void testChangeCourseTime_ValidTime() {
+    Course mockCourse = mock(Course.class);
+    HashMap<String, Course> courseMap = new HashMap<>();
+    courseMap.put("101", mockCourse);
+    mockDepartmentMapping.put("COMS", new Department("COMS", courseMap, "Adam Cannon", 3000));
+
+    ResponseEntity<?> response = routeController.changeCourseTime("COMS", 101, "MW 4:10-5:25");
+    assertEquals(HttpStatus.OK, response.getStatusCode(), "Status should be OK.");
+    verify(mockDatabase, times(1)).moveCourse("COMS", "101", null, "MW 4:10-5:25", false);
+  }
+
+  @Test
+  public void testChangeCourseTime_InvalidTime() {
+    Course mockCourse = mock(Course.class);
+    HashMap<String, Course> courseMap = new HashMap<>();
+    courseMap.put("101", mockCourse);
+    mockDepartmentMapping.put("COMS", new Department("COMS", courseMap, "Adam Cannon", 3000));
+
+    ResponseEntity<?> response = routeController.changeCourseTime("COMS", 101, "TBA");
+    assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode(),
+            "Status should be BAD REQUEST.");
+    verify(mockCourse, times(0)).reassignTime("TBA");
+  }
+
+  @Test
+  public void testRetrieveCoursesByInstructor_Found() {
+    TreeMap<String, Course> courses = new TreeMap<>();
+    courses.put("COMS 4156", new Course("Gail Kaiser", "501 NWC", "10:10-11:25", 120));
+    when(mockDatabase.findCourses(CourseIndex.Field.INSTRUCTOR, "Gail Kaiser"))
+            .thenReturn(courses);
+
+    ResponseEntity<?> response = routeController.retrieveCoursesByInstructor("Gail Kaiser");
+    assertEquals(HttpStatus.OK, response.getStatusCode(), "Status should be OK.");
+    assertTrue(response.getBody().toString().startsWith("COMS 4156: "),
+            "Response should list the course.");
+  }
+
+  @Test
+  public void testRetrieveCoursesByLocation_NotFound() {
+    when(mockDatabase.findCourses(CourseIndex.Field.LOCATION, "833 MUDD"))
+            .thenReturn(new TreeMap<>());
+
+    ResponseEntity<?> response = routeController.retrieveCoursesByLocation("833 MUDD");
+    assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode(), "Status should be NOT FOUND.");
+  }
+
+  @Test
+  public void testRetrieveCoursesByTime_EmptyTime() {
+    ResponseEntity<?> response = routeController.retrieveCoursesByTime(" ");
+    assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode(),
+            "Status should be BAD REQUEST.");
+  }
+
+  @Test
+  public void testAutocomplete_ListsCompletions() {
+    HashMap<String, Course> courseMap = new HashMap<>();
+    courseMap.put("1004", new Course("Adam Cannon", "417 IAB", "11:40-12:55", 400));
+    HashMap<String, Department> mapping = new HashMap<>();
+    mapping.put("COMS", new Department("COMS", courseMap, "Luca Carloni", 2700));
+    MyFileDatabase database = new MyFileDatabase(new InMemoryCatalogStore());
+    database.setMapping(mapping);
+    IndividualProjectApplication.overrideDatabase(database);
+
+    ResponseEntity<?> response = routeController.autocomplete("ad", 10);
+    assertEquals(HttpStatus.OK, response.getStatusCode(), "Status should be OK.");
+    assertEquals("instructor: Adam Cannon\n", response.getBody().toString());
+  }
+
+  @Test
+  public void testAutocomplete_InvalidArguments() {
+    assertEquals(HttpStatus.BAD_REQUEST, routeController.autocomplete("", 10).getStatusCode(),
+            "An empty prefix should be rejected.");
+    assertEquals(HttpStatus.BAD_REQUEST, routeController.autocomplete("co", 0).getStatusCode(),
+            "A limit below one should be rejected.");
+  }
+
+  @Test
+  public void testChangeCourseTime_RoomConflictWarns() {
+    Course mockCourse = mock(Course.class);
+    HashMap<String, Course> courseMap = new HashMap<>();
+    courseMap.put("101", mockCourse);
+    mockDepartmentMapping.put("COMS", new Department("COMS", courseMap, "Adam Cannon", 3000));
+    when(mockDatabase.moveCourse("COMS", "101", null, "MW 4:10-5:25", false))
+            .thenReturn(List.of("COMS 3157"));
+
+    ResponseEntity<?> response = routeController.changeCourseTime("COMS", 101, "MW 4:10-5:25");
+    assertEquals(HttpStatus.OK, response.getStatusCode(), "Status should be OK.");
+    assertTrue(response.getBody().toString().contains("COMS 3157"),
+            "Response should warn of the course already in the room.");
+  }
+
+  @Test
+  public void testChangeCourseLocation_RoomConflictRejected() {
+    Course mockCourse = mock(Course.class);
+    HashMap<String, Course> courseMap = new HashMap<>();
+    courseMap.put("101", mockCourse);
+    mockDepartmentMapping.put("COMS", new Department("COMS", courseMap, "Adam Cannon", 3000));
+    when(mockDatabase.moveCourse("COMS", "101", "417 IAB", null, true))
+            .thenReturn(List.of("COMS 1004", "ECON 1105"));
+    when(mockDatabase.isRejectingRoomConflicts()).thenReturn(true);
+
+    ResponseEntity<?> response = routeController.changeCourseLocation("COMS", 101, "417 IAB");
+    assertEquals(HttpStatus.CONFLICT, response.getStatusCode(), "Status should be CONFLICT.");
+    assertEquals("The room is already booked at that time by: COMS 1004, ECON 1105",
+            response.getBody().toString());
+  }
+
+  @Test
+  public void testRoomConflicts() {
+    assertEquals("No room conflicts found", routeController.roomConflicts().getBody());
+
+    when(mockDatabase.findAllRoomConflicts()).thenReturn(
+            List.of(new RoomSchedule.Conflict("417 IAB", "COMS 1004", "COMS 3157")));
+    ResponseEntity<?> response = routeController.roomConflicts();
+    assertEquals(HttpStatus.OK, response.getStatusCode(), "Status should be OK.");
+    assertEquals("417 IAB: COMS 1004, COMS 3157\n", response.getBody().toString());
+  }
+
+  @Test
+  public void testFreeRooms() {
+    when(mockDatabase.findFreeRooms(TimeSlot.parse("TR 2:40-3:55")))
+            .thenReturn(List.of("301 URIS", "417 IAB"));
+    ResponseEntity<?> response = routeController.freeRooms("TR 2:40-3:55");
+    assertEquals(HttpStatus.OK, response.getStatusCode(), "Status should be OK.");
+    assertEquals("301 URIS\n417 IAB\n", response.getBody().toString());
+
+    assertEquals(HttpStatus.NOT_FOUND, routeController.freeRooms("M 9:00-10:00").getStatusCode(),
+            "Status should be NOT FOUND when every room is in use.");
+    assertEquals(HttpStatus.BAD_REQUEST, routeController.freeRooms("TBA").getStatusCode(),
+            "Status should be BAD REQUEST for an invalid time.");
+  }
+
+  @Test
+  public void testWaitlistEndpoints() {
+    Course course = new Course("Adam Cannon", "417 IAB", "11:40-12:55", 1);
+    course.setEnrolledStudentCount(1);
+    HashMap<String, Course> courseMap = new HashMap<>();
+    courseMap.put("1004", course);
+    mockDepartmentMapping.put("COMS", new Department("COMS", courseMap, "Luca Carloni", 2700));
+
+    assertEquals("Position on waitlist: 1",
+            routeController.joinWaitlist("COMS", 1004, "ab1234").getBody());
+    routeController.joinWaitlist("COMS", 1004, "cd5678");
+    assertEquals("Position on waitlist: 2 of 2",
+            routeController.waitlistPosition("COMS", 1004, "cd5678").getBody());
+
+    routeController.dropStudent("COMS", 1004, null);
+    assertEquals("Student has been enrolled from the waitlist",
+            routeController.waitlistPosition("COMS", 1004, "ab1234").getBody());
+    assertEquals(HttpStatus.OK,
+            routeController.leaveWaitlist("COMS", 1004, "cd5678").getStatusCode());
+    assertEquals(HttpStatus.NOT_FOUND,
+            routeController.waitlistPosition("COMS", 1004, "cd5678").getStatusCode(),
+            "Status should be NOT FOUND for a student not on the waitlist.");
+  }
+
+  @Test
+  public void testJoinWaitlist_InvalidRequests() {
+    assertEquals(HttpStatus.NOT_FOUND,
+            routeController.joinWaitlist("COMS", 9999, "ab1234").getStatusCode(),
+            "Status should be NOT FOUND for a missing course.");
+    assertEquals(HttpStatus.BAD_REQUEST,
+            routeController.joinWaitlist("COMS", 1004, " ").getStatusCode(),
+            "Status should be BAD REQUEST for an empty student ID.");
+    assertEquals(HttpStatus.BAD_REQUEST,
+            routeController.joinWaitlist(null, 1004, "ab1234").getStatusCode(),
+            "Status should be BAD REQUEST for a null department code.");
+    assertEquals(HttpStatus.BAD_REQUEST,
+            routeController.leaveWaitlist(" ", 1004, "ab1234").getStatusCode(),
+            "Status should be BAD REQUEST for an empty department code.");
+    assertEquals(HttpStatus.BAD_REQUEST,
+            routeController.leaveWaitlist("COMS", 1004, null).getStatusCode(),
+            "Status should be BAD REQUEST for a null student ID.");
+    assertEquals(HttpStatus.BAD_REQUEST,
+            routeController.waitlistPosition(null, 1004, "ab1234").getStatusCode(),
+            "Status should be BAD REQUEST for a null department code.");
+    assertEquals(HttpStatus.BAD_REQUEST,
+            routeController.waitlistPosition("COMS", 1004, "").getStatusCode(),
+            "Status should be BAD REQUEST for an empty student ID.");
+  }
+
+  @Test
+  public void testSeatHoldEndpoints() {
+    Course course = new Course("Adam Cannon", "417 IAB", "11:40-12:55", 1);
+    HashMap<String, Course> courseMap = new HashMap<>();
+    courseMap.put("1004", course);
+    mockDepartmentMapping.put("COMS", new Department("COMS", courseMap, "Luca Carloni", 2700));
+    when(mockDatabase.getSeatHolds()).thenReturn(new SeatHolds(mockDatabase::recordSeats));
+
+    ResponseEntity<?> held = routeController.holdSeat("COMS", 1004, 60);
+    assertEquals(HttpStatus.OK, held.getStatusCode(), "Status should be OK.");
+    assertEquals(HttpStatus.FORBIDDEN, routeController.holdSeat("COMS", 1004, 60).getStatusCode(),
+            "A held seat should leave the course full.");
+
+    final String holdId = held.getBody().toString();
+    assertEquals(HttpStatus.OK, routeController.confirmHold(holdId).getStatusCode());
+    assertEquals(1, course.getEnrolledStudentCount());
+    verify(mockDatabase, times(1)).recordSeats("COMS", "1004");
+    assertEquals(HttpStatus.NOT_FOUND, routeController.confirmHold(holdId).getStatusCode(),
+            "A hold should only be confirmed once.");
+    assertEquals(HttpStatus.NOT_FOUND, routeController.releaseHold(holdId).getStatusCode());
+  }
+
+  @Test
+  public void testHoldSeat_InvalidRequests() {
+    assertEquals(HttpStatus.BAD_REQUEST, routeController.holdSeat("COMS", 1004, 0).getStatusCode(),
+            "Status should be BAD REQUEST for a hold of no time.");
+    assertEquals(HttpStatus.NOT_FOUND, routeController.holdSeat("COMS", 9999, 60).getStatusCode(),
+            "Status should be NOT FOUND for a missing course.");
+    assertEquals(HttpStatus.BAD_REQUEST, routeController.holdSeat(null, 1004, 60).getStatusCode(),
+            "Status should be BAD REQUEST for a null department code.");
+    assertEquals(HttpStatus.BAD_REQUEST, routeController.holdSeat(" ", 1004, 60).getStatusCode(),
+            "Status should be BAD REQUEST for an empty department code.");
+    assertEquals(HttpStatus.BAD_REQUEST, routeController.confirmHold(null).getStatusCode(),
+            "Status should be BAD REQUEST for a null hold ID.");
+    assertEquals(HttpStatus.BAD_REQUEST, routeController.releaseHold("").getStatusCode(),
+            "Status should be BAD REQUEST for an empty hold ID.");
   }
 
   @Test
@@ -487,6 +759,50 @@ public class RouteControllerTest {
             "Response should not Physics 1004 course.");
   }
 
+  @Test
+  @Tag("benchmark")
+  public void testRetrieveCourses_FiveThousandDepartments() throws Exception {
+    HashMap<String, Department> departmentMapping = new HashMap<>();
+    for (int d = 0; d < 5000; d++) {
+      HashMap<String, Course> courses = new HashMap<>();
+      for (int c = 0; c < 20; c++) {
+        courses.put(Integer.toString(1000 + (d % 50 == 0 ? c : 100 + c)),
+                new Course("Instructor " + d, "Room " + c, "10:10-11:25", 100));
+      }
+      departmentMapping.put("D" + d, new Department("D" + d, courses, "Chair " + d, 100));
+    }
+    MyFileDatabase database = new MyFileDatabase(new InMemoryCatalogStore());
+    database.setMapping(departmentMapping);
+    IndividualProjectApplication.overrideDatabase(database);
+    final int requests = 2000;
+
+    // The loop the endpoint used before the inverted index
+    long scanned = Benchmarks.measure("retrieveCourses scanning 5000 departments", requests,
+        () -> {
+          long offering = 0;
+          for (int i = 0; i < requests; i++) {
+            for (Department dept : database.getDepartmentMapping().values()) {
+              if (dept.getCourseSelection().containsKey("1004")) {
+                offering++;
+              }
+            }
+          }
+          return offering;
+        });
+
+    ResponseEntity<?>[] response = new ResponseEntity<?>[1];
+    Benchmarks.measure("retrieveCourses through the course-code index", requests, () -> {
+      for (int i = 0; i < requests; i++) {
+        response[0] = routeController.retrieveCourses("1004");
+      }
+      return requests;
+    });
+
+    assertEquals(HttpStatus.OK, response[0].getStatusCode(), "Status should be OK.");
+    assertEquals(scanned / requests, response[0].getBody().toString().split(" 1004: ").length - 1,
+            "Every department offering the course should be listed.");
+  }
+
   @Test
   public void testEnrollStudentInCourse_Success() {
     // Set up course for valid enrollment
@@ -505,5 +821,62 @@ public class RouteControllerTest {
 
     ResponseEntity<?> response = routeController.enrollStudentInCourse("COMS", "1001");
     assertEquals(HttpStatus.OK, response.getStatusCode(), "Status should be OK.");
+    verify(mockDatabase, times(1)).recordSeats("COMS", 1001);
+  }
+
+  @Test
+  public void testCheckpointStats() {
+    ResponseEntity<?> response = routeController.checkpointStats();
+    assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode(),
+            "Status should be NOT FOUND without a checkpointer.");
+
+    Checkpointer checkpointer = mock(Checkpointer.class);
+    when(checkpointer.toString()).thenReturn("Checkpoints: 2");
+    when(mockDatabase.getCheckpointer()).thenReturn(checkpointer);
+    response = routeController.checkpointStats();
+    assertEquals(HttpStatus.OK, response.getStatusCode(), "Status should be OK.");
+    assertEquals("Checkpoints: 2", response.getBody());
+  }
+
+  @Test
+  public void testImportCatalog() {
+    HashMap<String, Department> mapping = new HashMap<>();
+    mapping.put("ECON", new Department("ECON", new HashMap<>(), "Michael Woodford", 2345));
+    MyFileDatabase database = new MyFileDatabase(new InMemoryCatalogStore());
+    database.setMapping(mapping);
+    IndividualProjectApplication.overrideDatabase(database);
+    String rows = "course,COMS,1004,Adam Cannon,417 IAB,11:40-12:55,400,249\n";
+    ResponseEntity<?> response = routeController.importCatalog("csv",
+            new ByteArrayInputStream(rows.getBytes(StandardCharsets.UTF_8)));
+    assertEquals(HttpStatus.OK, response.getStatusCode(), "Status should be OK.");
+    assertTrue(database.getDepartmentMapping().containsKey("ECON"),
+            "Existing departments should be kept.");
+    assertEquals(249, database.getCourse("COMS", "1004").getEnrolledStudentCount(),
+            "Imported courses should be added.");
+
+    response = routeController.importCatalog("csv",
+            new ByteArrayInputStream("course,COMS\n".getBytes(StandardCharsets.UTF_8)));
+    assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode(),
+            "Status should be BAD REQUEST for a malformed row.");
+  }
+
+  @Test
+  public void testExportCatalog() throws Exception {
+    HashMap<String, Course> courses = new HashMap<>();
+    courses.put("1004", new Course("Adam Cannon", "417 IAB", "11:40-12:55", 400));
+    mockDepartmentMapping.put("COMS", new Department("COMS", courses, "Luca Carloni", 2700));
+
+    ResponseEntity<?> response = routeController.exportCatalog("jsonl");
+    assertEquals(HttpStatus.OK, response.getStatusCode(), "Status should be OK.");
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    ((StreamingResponseBody) response.getBody()).writeTo(out);
+    String rows = out.toString(StandardCharsets.UTF_8);
+    assertTrue(rows.startsWith("{\"type\":\"department\",\"dept\":\"COMS\""),
+            "The department row should come first.");
+    assertTrue(rows.contains("\"course\":\"1004\""), "Course rows should be streamed.");
+
+    response = routeController.exportCatalog("xml");
+    assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode(),
+            "Status should be BAD REQUEST for an unknown format.");
   }
-}
\ No newline at end of file
+}
@@ -0,0 +1,207 @@
+package dev.coms4156.project.individualproject;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test class for SeatCounter.
+ */
+public class SeatCounterTest {
+
+  @Test
+  public void testAcquireStopsAtCapacity() {
+    SeatCounter seats = new SeatCounter(1);
+    assertTrue(seats.tryAcquire(2));
+    assertFalse(seats.tryAcquire(2), "No seat should be taken past the capacity.");
+    assertEquals(2, seats.get());
+  }
+
+  @Test
+  public void testReleaseStopsAtZero() {
+    SeatCounter seats = new SeatCounter(1);
+    assertTrue(seats.tryRelease());
+    assertFalse(seats.tryRelease(), "No seat should be given back when none is taken.");
+    assertEquals(0, seats.get());
+  }
+
+  @Test
+  public void testHeldSeatsAreCountedTogether() {
+    SeatCounter seats = new SeatCounter(1);
+    assertTrue(seats.tryHold(3));
+    assertTrue(seats.tryHold(3));
+    assertFalse(seats.tryHold(3), "No seat should be held past the capacity.");
+    assertEquals(3, seats.get());
+    assertEquals(2, seats.getHeld());
+    assertEquals(1, seats.getEnrolled());
+
+    assertTrue(seats.tryRelease());
+    assertFalse(seats.tryRelease(), "A held seat should not be given back as a drop.");
+    assertTrue(seats.confirmHeld());
+    assertTrue(seats.releaseHeld());
+    assertFalse(seats.releaseHeld(), "No seat should be given back when none is held.");
+    assertEquals(1, seats.getEnrolled());
+    assertEquals(0, seats.getHeld());
+
+    seats.set(5);
+    assertEquals(5, seats.get());
+  }
+
+  @Test
+  public void testWaitingFlagKeepsSeatsTaken() {
+    SeatCounter seats = new SeatCounter(1);
+    assertTrue(seats.tryHold(3));
+    seats.setWaiting(true);
+    assertTrue(seats.tryAcquire(3));
+    assertTrue(seats.isWaiting(), "Changing the count should keep the flag.");
+    assertFalse(seats.tryRelease(), "No seat should be given back while students wait.");
+    assertFalse(seats.releaseHeld(), "No held seat should be given back while students wait.");
+    assertTrue(seats.confirmHeld());
+    assertEquals(3, seats.getEnrolled());
+    assertEquals(0, seats.getHeld());
+
+    seats.setWaiting(false);
+    assertTrue(seats.tryRelease());
+    assertEquals(2, seats.get());
+  }
+
+  @Test
+  public void testHotCourseIsNeverOversold() throws InterruptedException {
+    Course coms1004 = new Course("Adam Cannon", "417 IAB", "11:40-12:55", 400);
+    coms1004.setEnrolledStudentCount(249);
+    int threads = 200;
+    int attemptsPerThread = 500;
+    AtomicInteger enrolled = new AtomicInteger();
+    AtomicInteger dropped = new AtomicInteger();
+    CountDownLatch start = new CountDownLatch(1);
+
+    List<Thread> workers = new ArrayList<>();
+    for (int i = 0; i < threads; i++) {
+      boolean dropper = i % 4 == 0;
+      Thread worker = new Thread(() -> {
+        try {
+          start.await();
+        } catch (InterruptedException e) {
+          return;
+        }
+        for (int attempt = 0; attempt < attemptsPerThread; attempt++) {
+          if (dropper) {
+            if (coms1004.dropStudent()) {
+              dropped.incrementAndGet();
+            }
+          } else if (coms1004.enrollStudent()) {
+            enrolled.incrementAndGet();
+          }
+          if (coms1004.getEnrolledStudentCount() > 400) {
+            throw new IllegalStateException("Oversold");
+          }
+        }
+      });
+      workers.add(worker);
+      worker.start();
+    }
+
+    start.countDown();
+    for (Thread worker : workers) {
+      worker.join();
+    }
+
+    assertEquals(249 + enrolled.get() - dropped.get(), coms1004.getEnrolledStudentCount(),
+        "Every successful enroll and drop should be counted exactly once.");
+    assertTrue(coms1004.getEnrolledStudentCount() <= 400, "The course should not be oversold.");
+  }
+
+  @Test
+  @Tag("benchmark")
+  public void testCombiningAgainstPlainCompareAndSet() throws Exception {
+    for (int clients : new int[] {1, 16, 256}) {
+      final int operations = clients * operationsPerClient(clients);
+      Benchmarks.measure("SeatCounter combining, " + clients + " clients", operations, () -> {
+        SeatCounter seats = new SeatCounter(0);
+        int[] accepted = runClients(clients, () -> seats.tryAcquire(400), seats::tryRelease);
+        assertEquals(accepted[0] - accepted[1], seats.get(),
+            "Every accepted request should be counted exactly once.");
+        assertTrue(seats.get() >= 0 && seats.get() <= 400, "The capacity should hold.");
+        return seats.get();
+      });
+      Benchmarks.measure("AtomicInteger compare-and-set, " + clients + " clients", operations,
+          () -> {
+            AtomicInteger plain = new AtomicInteger();
+            int[] accepted = runClients(clients, () -> {
+              while (true) {
+                int current = plain.get();
+                if (current >= 400) {
+                  return false;
+                }
+                if (plain.compareAndSet(current, current + 1)) {
+                  return true;
+                }
+              }
+            }, () -> {
+              while (true) {
+                int current = plain.get();
+                if (current <= 0) {
+                  return false;
+                }
+                if (plain.compareAndSet(current, current - 1)) {
+                  return true;
+                }
+              }
+            });
+            assertEquals(accepted[0] - accepted[1], plain.get());
+            return plain.get();
+          });
+    }
+  }
+
+  private static int operationsPerClient(int clients) {
+    return 100_000 / clients + 200;
+  }
+
+  /**
+   * Runs clients that each alternate between enrolling and dropping on one course.
+   *
+   * @return the number of accepted enrolls and accepted drops
+   */
+  private static int[] runClients(int clients, BooleanSupplier enroll, BooleanSupplier drop)
+      throws InterruptedException {
+    final int operationsPerClient = operationsPerClient(clients);
+    AtomicInteger enrolled = new AtomicInteger();
+    AtomicInteger dropped = new AtomicInteger();
+    CountDownLatch start = new CountDownLatch(1);
+    List<Thread> workers = new ArrayList<>();
+    for (int i = 0; i < clients; i++) {
+      Thread worker = new Thread(() -> {
+        try {
+          start.await();
+        } catch (InterruptedException e) {
+          return;
+        }
+        for (int op = 0; op < operationsPerClient; op++) {
+          if (op % 3 == 2) {
+            if (drop.getAsBoolean()) {
+              dropped.incrementAndGet();
+            }
+          } else if (enroll.getAsBoolean()) {
+            enrolled.incrementAndGet();
+          }
+        }
+      });
+      workers.add(worker);
+      worker.start();
+    }
+    start.countDown();
+    for (Thread worker : workers) {
+      worker.join();
+    }
+    return new int[] {enrolled.get(), dropped.get()};
+  }
+}
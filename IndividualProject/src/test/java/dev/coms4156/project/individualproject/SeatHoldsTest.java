@@ -0,0 +1,189 @@
+package dev.coms4156.project.individualproject;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test class for SeatHolds.
+ */
+public class SeatHoldsTest {
+
+  private List<String> settled;
+  private SeatHolds holds;
+
+  /**
+   * Set up a wheel of eight 100 ms ticks starting at time 0.
+   */
+  @BeforeEach
+  public void setUp() {
+    settled = new ArrayList<>();
+    holds = new SeatHolds(100, 8, 0, (deptCode, courseId) -> settled.add(deptCode + courseId));
+  }
+
+  @Test
+  public void testHeldSeatsCountAgainstCapacity() {
+    Course course = new Course("Adam Cannon", "417 IAB", "11:40-12:55", 2);
+    assertTrue(holds.hold("COMS", "1004", course, 500) != null);
+    assertTrue(course.enrollStudent());
+    assertTrue(course.isCourseFull(), "A held seat should count as taken.");
+    assertNull(holds.hold("COMS", "1004", course, 500));
+    assertEquals(1, course.getEnrolledStudentCount(), "A held seat is not an enrollment.");
+    assertEquals(1, course.getHeldSeatCount());
+  }
+
+  @Test
+  public void testConfirmEnrollsOnce() {
+    Course course = new Course("Adam Cannon", "417 IAB", "11:40-12:55", 2);
+    String holdId = holds.hold("COMS", "1004", course, 500);
+    assertTrue(holds.confirm(holdId));
+    assertFalse(holds.confirm(holdId), "A hold should only be confirmed once.");
+    assertFalse(holds.release(holdId));
+    assertEquals(1, course.getEnrolledStudentCount());
+    assertEquals(0, course.getHeldSeatCount());
+    assertEquals(List.of("COMS1004"), settled);
+
+    assertEquals(0, holds.advance(1000), "A confirmed hold should not expire.");
+    assertEquals(1, course.getEnrolledStudentCount());
+  }
+
+  @Test
+  public void testExpiredHoldsGiveSeatsBack() {
+    Course course = new Course("Adam Cannon", "417 IAB", "11:40-12:55", 1);
+    final String holdId = holds.hold("COMS", "1004", course, 450);
+    assertEquals(0, holds.advance(400));
+    assertTrue(course.isCourseFull());
+
+    assertEquals(1, holds.advance(500));
+    assertFalse(course.isCourseFull(), "The seat should be free once the hold expires.");
+    assertFalse(holds.confirm(holdId), "An expired hold cannot be confirmed.");
+    assertEquals(0, holds.size());
+    assertEquals(1, holds.getExpiredCount());
+  }
+
+  @Test
+  public void testHoldsLongerThanWheelTurn() {
+    Course course = new Course("Adam Cannon", "417 IAB", "11:40-12:55", 5);
+    holds.hold("COMS", "1004", course, 2000);
+    holds.hold("COMS", "1004", course, 300);
+    assertEquals(1, holds.advance(1900), "Only the short hold should expire in the first turns.");
+    assertEquals(1, course.getHeldSeatCount());
+    assertEquals(1, holds.advance(2000));
+    assertEquals(0, course.getHeldSeatCount());
+  }
+
+  @Test
+  public void testReleasedSeatPassesToWaitlist() {
+    Course course = new Course("Adam Cannon", "417 IAB", "11:40-12:55", 1);
+    String holdId = holds.hold("COMS", "1004", course, 500);
+    assertEquals(1, course.joinWaitlist("ab1234"));
+
+    assertTrue(holds.release(holdId));
+    assertEquals(Waitlist.ENROLLED, course.getWaitlist().position("ab1234"));
+    assertEquals(1, course.getEnrolledStudentCount());
+    assertEquals(List.of("COMS1004"), settled, "The promotion should be persisted.");
+  }
+
+  @Test
+  public void testSetCountKeepsHeldSeats() {
+    Course course = new Course("Adam Cannon", "417 IAB", "11:40-12:55", 3);
+    holds.hold("COMS", "1004", course, 500);
+    course.setEnrolledStudentCount(2);
+    assertEquals(2, course.getEnrolledStudentCount());
+    assertTrue(course.isCourseFull());
+    assertFalse(course.copy().holdSeat(), "Copies should share the held seats.");
+  }
+
+  @Test
+  @Tag("benchmark")
+  public void testHundredThousandConcurrentHolds() throws Exception {
+    final int count = 100_000;
+    final int threads = 8;
+    Course course = new Course("Adam Cannon", "417 IAB", "11:40-12:55", count);
+    AtomicInteger persisted = new AtomicInteger();
+    SeatHolds wheel = new SeatHolds(SeatHolds.DEFAULT_TICK_MILLIS, SeatHolds.DEFAULT_WHEEL_SIZE,
+        0, (deptCode, courseId) -> persisted.incrementAndGet());
+    String[] holdIds = new String[count];
+
+    runConcurrently(threads, count, i ->
+        holdIds[i] = wheel.hold("COMS", "1004", course, 1000 + i % 50_000));
+    assertTrue(course.isCourseFull());
+    assertNull(wheel.hold("COMS", "1004", course, 1000));
+
+    runConcurrently(threads, count / 2, i -> wheel.confirm(holdIds[2 * i]));
+
+    assertEquals(count / 2, wheel.advance(60_000));
+    assertEquals(count / 2, persisted.get());
+    assertEquals(count / 2, course.getEnrolledStudentCount());
+    assertEquals(0, course.getHeldSeatCount());
+    assertEquals(0, wheel.size());
+
+    long held = Benchmarks.measure("hold 100k seats on 8 threads", count,
+        () -> holdAll(count, threads, false));
+    long confirmed = Benchmarks.measure("hold, confirm half and expire 100k seats", count,
+        () -> holdAll(count, threads, true));
+    assertEquals(count, held);
+    assertEquals(count / 2, confirmed);
+  }
+
+  /**
+   * Holds every seat of a fresh course from several threads, then optionally confirms every
+   * other hold and lets the rest expire.
+   *
+   * @return the number of seats held, or the number confirmed when the holds were settled
+   */
+  private static long holdAll(int count, int threads, boolean settle)
+      throws InterruptedException {
+    Course course = new Course("Adam Cannon", "417 IAB", "11:40-12:55", count);
+    AtomicInteger persisted = new AtomicInteger();
+    SeatHolds wheel = new SeatHolds(SeatHolds.DEFAULT_TICK_MILLIS, SeatHolds.DEFAULT_WHEEL_SIZE,
+        0, (deptCode, courseId) -> persisted.incrementAndGet());
+    String[] holdIds = new String[count];
+    runConcurrently(threads, count, i ->
+        holdIds[i] = wheel.hold("COMS", "1004", course, 1000 + i % 50_000));
+    if (!settle) {
+      return course.getHeldSeatCount();
+    }
+    runConcurrently(threads, count / 2, i -> wheel.confirm(holdIds[2 * i]));
+    wheel.advance(60_000);
+    return persisted.get();
+  }
+
+  private interface Task {
+    void run(int index);
+  }
+
+  private static void runConcurrently(int threads, int count, Task task)
+      throws InterruptedException {
+    CountDownLatch start = new CountDownLatch(1);
+    List<Thread> workers = new ArrayList<>();
+    for (int t = 0; t < threads; t++) {
+      final int first = t;
+      Thread worker = new Thread(() -> {
+        try {
+          start.await();
+        } catch (InterruptedException e) {
+          return;
+        }
+        for (int i = first; i < count; i += threads) {
+          task.run(i);
+        }
+      });
+      workers.add(worker);
+      worker.start();
+    }
+    start.countDown();
+    for (Thread worker : workers) {
+      worker.join();
+    }
+  }
+}
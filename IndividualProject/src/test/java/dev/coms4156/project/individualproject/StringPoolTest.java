@@ -0,0 +1,167 @@
+package dev.coms4156.project.individualproject;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.util.HashMap;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test class for StringPool.
+ */
+public class StringPoolTest {
+
+  @Test
+  public void testEqualValuesShareOneInstance() {
+    StringPool pool = new StringPool(16);
+    String first = pool.intern(new String("417 IAB"));
+    String second = pool.intern(new String("417 IAB"));
+    assertSame(first, second);
+    assertEquals(1, pool.size());
+    assertNull(pool.intern(null));
+  }
+
+  @Test
+  public void testOnlyCollapsedDuplicatesAreCounted() {
+    StringPool pool = new StringPool(16);
+    String pooled = pool.collapse(new String("417 IAB"));
+    assertEquals(0, pool.getDuplicatesDropped(), "The first instance is not a duplicate.");
+
+    assertSame(pooled, pool.collapse(new String("417 IAB")));
+    assertEquals(1, pool.getDuplicatesDropped());
+    long saved = pool.getBytesSaved();
+    assertTrue(saved > 0);
+
+    pool.collapse(pooled);
+    pool.intern(new String("417 IAB"));
+    assertEquals(1, pool.getDuplicatesDropped(),
+        "Pooling the pooled instance again, or only looking it up, should not count.");
+    assertEquals(saved, pool.getBytesSaved());
+  }
+
+  @Test
+  public void testFullPoolReturnsValuesAsGiven() {
+    StringPool pool = new StringPool(1);
+    pool.intern("417 IAB");
+    String other = new String("501 NWC");
+    assertSame(other, pool.intern(other));
+    assertNotSame(other, pool.intern(new String("501 NWC")));
+    assertEquals(1, pool.size(), "The pool should not grow past its maximum size.");
+  }
+
+  @Test
+  public void testCourseFieldsArePooled() {
+    StringPool pool = new StringPool(16);
+    Course coms1004 = new Course(new String("Adam Cannon"), new String("417 IAB"),
+        new String("11:40-12:55"), 400);
+    Course coms3157 = new Course(new String("Jae Lee"), new String("417 IAB"),
+        new String("4:10-5:25"), 400);
+    coms1004.pool(pool);
+    coms3157.pool(pool);
+    assertSame(coms1004.getCourseLocation(), coms3157.getCourseLocation());
+
+    coms3157.reassignTime(new String("11:40-12:55"));
+    coms3157.pool(pool);
+    assertSame(coms1004.getCourseTimeSlot(), coms3157.getCourseTimeSlot());
+    assertEquals(2, pool.getDuplicatesDropped());
+  }
+
+  @Test
+  public void testDatabasesKeepTheirOwnPools() {
+    HashMap<String, Course> courses = new HashMap<>();
+    courses.put("1004", new Course("Adam Cannon", "417 IAB", "11:40-12:55", 400));
+    HashMap<String, Department> mapping = new HashMap<>();
+    mapping.put("COMS", new Department("COMS", courses, "Luca Carloni", 2700));
+    MyFileDatabase first = new MyFileDatabase(new InMemoryCatalogStore());
+    first.setMapping(mapping);
+    MyFileDatabase second = new MyFileDatabase(new InMemoryCatalogStore());
+
+    assertNotSame(first.getStringPool(), second.getStringPool());
+    assertEquals(3, first.getStringPool().size(),
+        "Opening another database should not clear the first one's pool.");
+    assertEquals(0, second.getStringPool().size());
+
+    first.logMutation(Mutation.courseLocation("COMS", "1004", new String("417 IAB")));
+    assertSame(courses.get("1004").getCourseLocation(),
+        first.getCourse("COMS", "1004").getCourseLocation(),
+        "A changed value should be pooled when it is published.");
+  }
+
+  @Test
+  public void testRetainOnlyDropsUnusedValues() {
+    StringPool pool = new StringPool(16);
+    pool.intern("417 IAB");
+    pool.intern("501 NWC");
+    HashMap<String, Course> courses = new HashMap<>();
+    courses.put("1004", new Course("Adam Cannon", "417 IAB", "11:40-12:55", 400));
+    HashMap<String, Department> mapping = new HashMap<>();
+    mapping.put("COMS", new Department("COMS", courses, "Luca Carloni", 2700));
+
+    pool.retainOnly(mapping);
+    assertEquals(3, pool.size(), "Only the values of the catalog should be kept.");
+    assertSame(courses.get("1004").getCourseLocation(), pool.intern(new String("417 IAB")));
+    String other = new String("501 NWC");
+    assertSame(other, pool.intern(other), "A dropped value should be pooled afresh.");
+  }
+
+  @Test
+  @Tag("benchmark")
+  public void testHeapSavedOnMillionCourseCatalog() throws Exception {
+    final long unpooled = catalogFootprint(null);
+    StringPool catalogPool = new StringPool(StringPool.DEFAULT_MAX_SIZE);
+    final long pooled = catalogFootprint(catalogPool);
+    Benchmarks.report("Catalog heap, million courses", unpooled / 1024 + " KB unpooled, "
+        + pooled / 1024 + " KB pooled; " + catalogPool);
+    assertTrue(pooled < unpooled, "Pooling should shrink the catalog.");
+
+    Course[] courses = buildCatalog(null);
+    long values = Benchmarks.measure("Pooling a million loaded courses", courses.length, 1, 3,
+        () -> {
+          StringPool pool = new StringPool(StringPool.DEFAULT_MAX_SIZE);
+          for (Course course : courses) {
+            course.pool(pool);
+          }
+          return pool.size();
+        });
+    assertEquals(2000 + 300 + 12, values);
+  }
+
+  /**
+   * Builds a synthetic catalog of a million courses whose values are fresh copies, as each
+   * deserialized course would have, pooling each course if a pool is given.
+   */
+  private static Course[] buildCatalog(StringPool pool) {
+    Course[] courses = new Course[1_000_000];
+    for (int i = 0; i < courses.length; i++) {
+      courses[i] = new Course(new String("Instructor " + i % 2000),
+          new String((i % 300) + " IAB"), new String((i % 12) + ":10-" + (i % 12 + 1) + ":25"),
+          100);
+      if (pool != null) {
+        courses[i].pool(pool);
+      }
+    }
+    return courses;
+  }
+
+  private static long catalogFootprint(StringPool pool) {
+    long before = heapUsed();
+    Course[] courses = buildCatalog(pool);
+    long after = heapUsed();
+    assertEquals(1_000_000, courses.length);
+    return after - before;
+  }
+
+  private static long heapUsed() {
+    MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+    for (int i = 0; i < 3; i++) {
+      System.gc();
+    }
+    return memory.getHeapMemoryUsage().getUsed();
+  }
+}
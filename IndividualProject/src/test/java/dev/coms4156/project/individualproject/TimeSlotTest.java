@@ -0,0 +1,88 @@
+package dev.coms4156.project.individualproject;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test class for TimeSlot.
+ */
+public class TimeSlotTest {
+
+  @Test
+  public void testParsesCatalogTimes() {
+    assertEquals(new TimeSlot(11 * 60 + 40, 12 * 60 + 55, 0), TimeSlot.parse("11:40-12:55"));
+    assertEquals(new TimeSlot(13 * 60 + 10, 15 * 60 + 40, 0), TimeSlot.parse("1:10-3:40"));
+    assertEquals(new TimeSlot(8 * 60 + 40, 9 * 60 + 55, 0), TimeSlot.parse("8:40-9:55"));
+    assertEquals(new TimeSlot(16 * 60 + 10, 17 * 60 + 25, 0), TimeSlot.parse("16:10-17:25"));
+    assertEquals(new TimeSlot(19 * 60 + 10, 21 * 60 + 40, 0), TimeSlot.parse("7:10 - 9:40"));
+    assertEquals(new TimeSlot(9 * 60, 10 * 60 + 15, 0), TimeSlot.parse("9:00am-10:15AM"));
+  }
+
+  @Test
+  public void testParsesDays() {
+    TimeSlot slot = TimeSlot.parse("MW 4:10-5:25");
+    assertEquals(TimeSlot.MONDAY | TimeSlot.MONDAY << 2, slot.getDays());
+    assertEquals("MW 16:10-17:25", slot.toString());
+  }
+
+  @Test
+  public void testRejectsInvalidTimes() {
+    assertNull(TimeSlot.tryParse("TBA"));
+    assertNull(TimeSlot.tryParse("11:40"));
+    assertNull(TimeSlot.tryParse("11:70-12:55"));
+    assertNull(TimeSlot.tryParse("XY 11:40-12:55"));
+    assertNull(TimeSlot.tryParse(null));
+    assertThrows(IllegalArgumentException.class, () -> TimeSlot.parse("10:10-9:00am"));
+  }
+
+  @Test
+  public void testOverlaps() {
+    TimeSlot morning = TimeSlot.parse("10:10-11:25");
+    assertTrue(morning.overlaps(TimeSlot.parse("11:00-12:15")));
+    assertFalse(morning.overlaps(TimeSlot.parse("11:25-12:40")),
+        "A slot starting as another ends should not overlap it.");
+    assertFalse(TimeSlot.parse("MW 10:10-11:25").overlaps(TimeSlot.parse("TR 10:10-11:25")));
+    assertTrue(TimeSlot.parse("MW 10:10-11:25").overlaps(morning),
+        "A slot naming no days should overlap any day.");
+  }
+
+  @Test
+  @Tag("benchmark")
+  public void testParsedOverlapAgainstStringParsing() throws Exception {
+    String[] times = {"11:40-12:55", "4:10-5:25", "10:10-11:25", "2:40-3:55", "1:10-3:40",
+        "8:40-9:55", "MW 4:10-5:25", "TR 10:10-11:25"};
+    TimeSlot[] parsed = new TimeSlot[times.length];
+    for (int i = 0; i < times.length; i++) {
+      parsed[i] = TimeSlot.parse(times[i]);
+    }
+    final int queries = 1_000_000;
+
+    long stringOverlaps = Benchmarks.measure("Overlap check parsing both time strings", queries,
+        () -> {
+          long overlaps = 0;
+          for (int i = 0; i < queries; i++) {
+            TimeSlot first = TimeSlot.parse(times[i % times.length]);
+            TimeSlot second = TimeSlot.parse(times[(i / times.length) % times.length]);
+            overlaps += first.overlaps(second) ? 1 : 0;
+          }
+          return overlaps;
+        });
+    long parsedOverlaps = Benchmarks.measure("Overlap check on parsed TimeSlots", queries,
+        () -> {
+          long overlaps = 0;
+          for (int i = 0; i < queries; i++) {
+            overlaps += parsed[i % times.length].overlaps(
+                parsed[(i / times.length) % times.length]) ? 1 : 0;
+          }
+          return overlaps;
+        });
+
+    assertEquals(stringOverlaps, parsedOverlaps);
+  }
+}
@@ -0,0 +1,254 @@
+package dev.coms4156.project.individualproject;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test class for Waitlist.
+ */
+public class WaitlistTest {
+
+  private static Course fullCourse(int capacity) {
+    Course course = new Course("Adam Cannon", "417 IAB", "11:40-12:55", capacity);
+    course.setEnrolledStudentCount(capacity);
+    return course;
+  }
+
+  @Test
+  public void testJoinLeaveAndPosition() {
+    Course course = fullCourse(2);
+    final Waitlist waitlist = course.getWaitlist();
+    assertEquals(1, course.joinWaitlist("ab1234"));
+    assertEquals(2, course.joinWaitlist("cd5678"));
+    assertEquals(3, course.joinWaitlist("ef9012"));
+    assertEquals(2, course.joinWaitlist("cd5678"), "Joining again should keep the place.");
+
+    assertTrue(waitlist.leave("cd5678"));
+    assertFalse(waitlist.leave("cd5678"));
+    assertEquals(2, waitlist.position("ef9012"));
+    assertEquals(Waitlist.NOT_WAITING, waitlist.position("cd5678"));
+    assertEquals(2, waitlist.size());
+  }
+
+  @Test
+  public void testWaitlistIsBounded() {
+    Course course = fullCourse(1);
+    for (int i = 0; i < Waitlist.DEFAULT_CAPACITY; i++) {
+      assertEquals(i + 1, course.joinWaitlist("student" + i));
+    }
+    assertEquals(Waitlist.FULL, course.joinWaitlist("late"));
+    assertEquals(Waitlist.DEFAULT_CAPACITY, course.getWaitlist().size());
+  }
+
+  @Test
+  public void testConcurrentDropsOfLastStudent() throws InterruptedException {
+    for (int round = 0; round < 200; round++) {
+      Course course = new Course("Adam Cannon", "417 IAB", "11:40-12:55", 2);
+      assertTrue(course.holdSeat());
+      course.setEnrolledStudentCount(1);
+      course.joinWaitlist("ab1234");
+      CountDownLatch start = new CountDownLatch(1);
+      List<String> results = new ArrayList<>();
+      List<Thread> threads = new ArrayList<>();
+      for (int i = 0; i < 4; i++) {
+        Thread thread = new Thread(() -> {
+          try {
+            start.await();
+          } catch (InterruptedException e) {
+            return;
+          }
+          String promoted = course.dropStudentAndPromote();
+          synchronized (results) {
+            results.add(promoted);
+          }
+        });
+        thread.start();
+        threads.add(thread);
+      }
+      start.countDown();
+      for (Thread thread : threads) {
+        thread.join();
+      }
+      results.removeIf(promoted -> promoted == null);
+      assertEquals(2, results.size(), "Only the enrolled and the promoted student can drop.");
+      assertEquals(0, course.getEnrolledStudentCount());
+      assertEquals(1, course.getHeldSeatCount(), "The held seat should not be dropped.");
+    }
+  }
+
+  @Test
+  public void testDropPromotesHeadOfWaitlist() {
+    Course course = fullCourse(2);
+    course.joinWaitlist("ab1234");
+    course.joinWaitlist("cd5678");
+
+    assertEquals("ab1234", course.dropStudentAndPromote());
+    assertEquals(2, course.getEnrolledStudentCount(), "The seat should pass to the student.");
+    assertEquals(Waitlist.ENROLLED, course.getWaitlist().position("ab1234"));
+    assertEquals(1, course.getWaitlist().position("cd5678"));
+
+    assertTrue(course.dropStudent());
+    assertEquals(Waitlist.ENROLLED, course.getWaitlist().position("cd5678"));
+    assertEquals("", course.dropStudentAndPromote(), "With nobody waiting the seat is freed.");
+    assertEquals(1, course.getEnrolledStudentCount());
+    assertEquals("", course.dropStudentAndPromote());
+    assertNull(course.dropStudentAndPromote());
+  }
+
+  @Test
+  public void testDropsGoThroughWaitlistWhileStudentsWait() {
+    SeatCounter seats = new SeatCounter(1);
+    Waitlist waitlist = new Waitlist(Waitlist.DEFAULT_CAPACITY);
+    assertEquals(1, waitlist.join("ab1234", seats, 1));
+    assertTrue(seats.isWaiting());
+    assertFalse(seats.tryRelease(), "The seat should not be freed past the waiting student.");
+
+    assertEquals("ab1234", waitlist.release(null, seats));
+    assertFalse(seats.isWaiting());
+    assertEquals(1, seats.getEnrolled());
+
+    // Leaving leaves the flag set until the next drop clears it
+    assertEquals(1, waitlist.join("cd5678", seats, 1));
+    assertTrue(waitlist.leave("cd5678"));
+    assertEquals("", waitlist.release(null, seats));
+    assertFalse(seats.isWaiting());
+    assertEquals(0, seats.getEnrolled());
+  }
+
+  @Test
+  public void testPromotedStudentCanRejoinAfterDropping() {
+    Course course = fullCourse(1);
+    course.joinWaitlist("ab1234");
+    assertEquals("ab1234", course.dropStudentAndPromote());
+    course.joinWaitlist("cd5678");
+
+    assertEquals("cd5678", course.dropStudentAndPromote("ab1234"));
+    assertEquals(Waitlist.NOT_WAITING, course.getWaitlist().position("ab1234"),
+        "A student who dropped should no longer be reported as enrolled.");
+    assertEquals(1, course.joinWaitlist("ab1234"));
+    assertEquals(Waitlist.ENROLLED, course.getWaitlist().position("cd5678"));
+  }
+
+  @Test
+  public void testJoinWithOpenSeatEnrolls() {
+    Course course = new Course("Adam Cannon", "417 IAB", "11:40-12:55", 1);
+    assertEquals(Waitlist.ENROLLED, course.joinWaitlist("ab1234"));
+    assertEquals(1, course.getEnrolledStudentCount());
+    assertEquals(1, course.joinWaitlist("cd5678"));
+  }
+
+  @Test
+  public void testCopiesShareWaitlist() {
+    Course course = fullCourse(1);
+    course.joinWaitlist("ab1234");
+    assertEquals("ab1234", course.copy().dropStudentAndPromote());
+  }
+
+  @Test
+  public void testConcurrentJoinsAndDropsNeverStrandSeats() throws InterruptedException {
+    Course course = fullCourse(50);
+    CountDownLatch start = new CountDownLatch(1);
+    List<Thread> workers = new ArrayList<>();
+    for (int t = 0; t < 8; t++) {
+      final int thread = t;
+      Thread worker = new Thread(() -> {
+        try {
+          start.await();
+        } catch (InterruptedException e) {
+          return;
+        }
+        for (int i = 0; i < 50; i++) {
+          if (thread % 2 == 1) {
+            course.dropStudent();
+          } else if (i < Waitlist.DEFAULT_CAPACITY / 4) {
+            course.joinWaitlist("s" + thread + "-" + i);
+          }
+        }
+      });
+      workers.add(worker);
+      worker.start();
+    }
+    start.countDown();
+    for (Thread worker : workers) {
+      worker.join();
+    }
+
+    Waitlist waitlist = course.getWaitlist();
+    assertTrue(waitlist.size() == 0 || course.isCourseFull(),
+        "No seat should be left open while students wait.");
+    int enrolled = 0;
+    for (int t = 0; t < 8; t += 2) {
+      for (int i = 0; i < 50; i++) {
+        enrolled += waitlist.position("s" + t + "-" + i) == Waitlist.ENROLLED ? 1 : 0;
+      }
+    }
+    assertEquals(Waitlist.DEFAULT_CAPACITY, enrolled + waitlist.size(),
+        "Every student should be enrolled or waiting.");
+  }
+
+  @Test
+  @Tag("benchmark")
+  public void testRushRequestVolume() throws Exception {
+    int seats = 100;
+    int students = 150;
+    int drops = 100;
+    final long polling = Benchmarks.measure("rush by polling enrollment", students,
+        () -> simulateRush(fullCourse(seats), students, drops, false));
+    final long waiting = Benchmarks.measure("rush through the waitlist", students,
+        () -> simulateRush(fullCourse(seats), students, drops, true));
+    Benchmarks.report("rush requests", polling + " polling, " + waiting + " waitlisted");
+  }
+
+  /**
+   * Simulates students wanting seats in a full course while one student drops per round.
+   * Polling students retry the enrollment every round until they get a seat. Waitlisted
+   * students join once and check their position once after being promoted; those turned away
+   * by a full waitlist retry joining every round.
+   *
+   * @return the number of requests sent by the students
+   */
+  private static long simulateRush(Course course, int students, int drops, boolean waitlist) {
+    Set<Integer> pending = new HashSet<>();
+    for (int i = 0; i < students; i++) {
+      pending.add(i);
+    }
+    long requests = 0;
+    for (int round = 0; round <= drops; round++) {
+      if (round > 0) {
+        course.dropStudent();
+      }
+      List<Integer> done = new ArrayList<>();
+      for (int student : pending) {
+        requests++;
+        if (!waitlist) {
+          if (course.enrollStudent()) {
+            done.add(student);
+          }
+          continue;
+        }
+        int position = course.getWaitlist().position("s" + student);
+        if (position == Waitlist.NOT_WAITING) {
+          position = course.joinWaitlist("s" + student);
+        } else {
+          requests--;
+        }
+        if (position == Waitlist.ENROLLED) {
+          done.add(student);
+          requests++;
+        }
+      }
+      done.forEach(pending::remove);
+    }
+    return requests;
+  }
+}